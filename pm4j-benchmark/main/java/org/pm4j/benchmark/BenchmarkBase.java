@@ -0,0 +1,61 @@
+package org.pm4j.benchmark;
+
+/**
+ * Base class for PM benchmarks.
+ * <p>
+ * A benchmark gets prepared for a synthetic PM tree of a given size by
+ * {@link #setUp(int)}. After that the {@link BenchmarkRunner} calls
+ * {@link #runOperation()} repeatedly to measure throughput, latency and
+ * allocation of a single operation.
+ *
+ * @author olaf boede
+ */
+public abstract class BenchmarkBase {
+
+  private final String name;
+
+  /**
+   * @param name
+   *          The name to report. Is also used to select benchmarks using the
+   *          <code>pm4j.benchmark.include</code> pattern.
+   */
+  protected BenchmarkBase(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return The name to report.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Prepares a fresh benchmark state.
+   *
+   * @param numOfNodes
+   *          The number of PM tree nodes to operate on.
+   */
+  public abstract void setUp(int numOfNodes);
+
+  /**
+   * Executes a single measured operation.
+   *
+   * @return Some result of the operation. Gets consumed by the runner to
+   *         prevent dead code elimination by the JIT.
+   */
+  public abstract Object runOperation();
+
+  /**
+   * Releases the benchmark state.<br>
+   * The default implementation does nothing.
+   */
+  public void tearDown() {
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
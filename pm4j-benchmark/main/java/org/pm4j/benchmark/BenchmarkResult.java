@@ -0,0 +1,116 @@
+package org.pm4j.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * The measurement result of a single benchmark run.
+ *
+ * @author olaf boede
+ */
+public class BenchmarkResult {
+
+  /** Value for result figures that can't be measured within the current VM. */
+  public static final long NOT_AVAILABLE = -1;
+
+  private final String benchmarkName;
+  private final int numOfNodes;
+  private final long numOfOps;
+  private final long elapsedNanos;
+  private final long allocatedBytes;
+  private final long[] sortedLatencyNanos;
+
+  /**
+   * @param benchmarkName
+   *          Name of the measured benchmark.
+   * @param numOfNodes
+   *          The PM tree size parameter.
+   * @param numOfOps
+   *          The number of measured operations.
+   * @param elapsedNanos
+   *          The overall measurement time.
+   * @param allocatedBytes
+   *          The number of bytes allocated within the measurement time or
+   *          {@link #NOT_AVAILABLE}.
+   * @param latencyNanos
+   *          The sampled per-operation latencies. Only the first
+   *          <code>numOfSamples</code> items are considered.
+   * @param numOfSamples
+   *          Number of valid items within <code>latencyNanos</code>.
+   */
+  public BenchmarkResult(String benchmarkName, int numOfNodes, long numOfOps, long elapsedNanos,
+      long allocatedBytes, long[] latencyNanos, int numOfSamples) {
+    this.benchmarkName = benchmarkName;
+    this.numOfNodes = numOfNodes;
+    this.numOfOps = numOfOps;
+    this.elapsedNanos = elapsedNanos;
+    this.allocatedBytes = allocatedBytes;
+    this.sortedLatencyNanos = Arrays.copyOf(latencyNanos, numOfSamples);
+    Arrays.sort(this.sortedLatencyNanos);
+  }
+
+  public String getBenchmarkName() { return benchmarkName; }
+  public int getNumOfNodes() { return numOfNodes; }
+  public long getNumOfOps() { return numOfOps; }
+
+  /**
+   * @return The number of operations per second.
+   */
+  public double getOpsPerSecond() {
+    return elapsedNanos > 0
+        ? numOfOps * 1e9 / elapsedNanos
+        : 0;
+  }
+
+  /**
+   * @return The allocated bytes per operation or {@link #NOT_AVAILABLE}.
+   */
+  public double getAllocatedBytesPerOp() {
+    return (allocatedBytes != NOT_AVAILABLE && numOfOps > 0)
+        ? (double) allocatedBytes / numOfOps
+        : NOT_AVAILABLE;
+  }
+
+  /**
+   * @return The allocation rate in MB per second or {@link #NOT_AVAILABLE}.
+   */
+  public double getAllocationRateMbPerSecond() {
+    return (allocatedBytes != NOT_AVAILABLE && elapsedNanos > 0)
+        ? (allocatedBytes / (1024.0 * 1024.0)) * 1e9 / elapsedNanos
+        : NOT_AVAILABLE;
+  }
+
+  /**
+   * @param percentile
+   *          The percentile to get. E.g. <code>0.99</code> for the p99
+   *          latency.
+   * @return The latency of the given percentile in nanoseconds.
+   */
+  public long getLatencyPercentileNanos(double percentile) {
+    if (sortedLatencyNanos.length == 0) {
+      return 0;
+    }
+    int idx = (int) Math.ceil(percentile * sortedLatencyNanos.length) - 1;
+    return sortedLatencyNanos[Math.max(0, Math.min(idx, sortedLatencyNanos.length - 1))];
+  }
+
+  /**
+   * @return The header line that matches the format of {@link #toString()}.
+   */
+  public static String getReportHeader() {
+    return String.format("%-48s %8s %14s %12s %12s %14s %12s",
+        "benchmark", "nodes", "ops/s", "p50[us]", "p99[us]", "alloc[B/op]", "alloc[MB/s]");
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%-48s %8d %14.1f %12.3f %12.3f %14s %12s",
+        benchmarkName,
+        numOfNodes,
+        getOpsPerSecond(),
+        getLatencyPercentileNanos(0.50) / 1000.0,
+        getLatencyPercentileNanos(0.99) / 1000.0,
+        allocatedBytes != NOT_AVAILABLE ? String.format("%.1f", getAllocatedBytesPerOp()) : "n/a",
+        allocatedBytes != NOT_AVAILABLE ? String.format("%.1f", getAllocationRateMbPerSecond()) : "n/a");
+  }
+
+}
@@ -0,0 +1,192 @@
+package org.pm4j.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.pm4j.benchmark.core.BeanPmCacheBenchmark;
+import org.pm4j.benchmark.core.PageableListBenchmark;
+import org.pm4j.benchmark.core.PmAttrGetValueBenchmark;
+import org.pm4j.benchmark.core.PmEventFireBenchmark;
+import org.pm4j.benchmark.core.PmEventListenerCountBenchmark;
+import org.pm4j.benchmark.core.PmFactoryBeanListBenchmark;
+import org.pm4j.benchmark.core.PmMetaDataContentionBenchmark;
+import org.pm4j.benchmark.core.PmObjectAspectBenchmark;
+import org.pm4j.core.pm.PmDefaults.BeanPmCacheKind;
+
+/**
+ * Executes the registered PM benchmarks and reports throughput, latency
+ * percentiles and allocation rate.
+ * <p>
+ * Each benchmark gets executed for each configured PM tree size. A run
+ * consists of a warm-up phase (to get the JIT work done) followed by a
+ * measurement phase. Both phases are time boxed.
+ * <p>
+ * Configuration is done by system properties:
+ * <ul>
+ * <li><code>pm4j.benchmark.include</code>: A regular expression for the names
+ * of the benchmarks to execute. Default: all.</li>
+ * <li><code>pm4j.benchmark.sizes</code>: A comma separated list of PM tree
+ * sizes. Default: <code>10,1000,100000</code>.</li>
+ * <li><code>pm4j.benchmark.warmupMillis</code>: Warm-up time per run.</li>
+ * <li><code>pm4j.benchmark.measureMillis</code>: Measurement time per run.</li>
+ * </ul>
+ *
+ * @author olaf boede
+ */
+public class BenchmarkRunner {
+
+  /** Maximum number of latency samples kept per run (reservoir sampling). */
+  private static final int MAX_LATENCY_SAMPLES = 1 << 18;
+
+  private final long warmupNanos;
+  private final long measureNanos;
+  private final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+
+  /** Sink for operation results. Prevents dead code elimination. */
+  private volatile int resultSink;
+
+  public BenchmarkRunner(long warmupMillis, long measureMillis) {
+    this.warmupNanos = warmupMillis * 1000000L;
+    this.measureNanos = measureMillis * 1000000L;
+  }
+
+  /**
+   * @return The set of all known benchmarks.
+   */
+  public static List<BenchmarkBase> getBenchmarks() {
+    List<BenchmarkBase> list = new ArrayList<BenchmarkBase>();
+    list.add(new PmAttrGetValueBenchmark());
+    for (PmObjectAspectBenchmark.Aspect a : PmObjectAspectBenchmark.Aspect.values()) {
+      list.add(new PmObjectAspectBenchmark(a));
+    }
+    list.add(new PmEventFireBenchmark());
+    for (int numOfListeners : new int[] { 1, 10, 1000 }) {
+      list.add(new PmEventListenerCountBenchmark(numOfListeners));
+    }
+    list.add(new PmFactoryBeanListBenchmark());
+    list.add(new PmMetaDataContentionBenchmark());
+    for (BeanPmCacheKind k : BeanPmCacheKind.values()) {
+      for (BeanPmCacheBenchmark.Operation o : BeanPmCacheBenchmark.Operation.values()) {
+        list.add(new BeanPmCacheBenchmark(k, o));
+      }
+    }
+    for (PageableListBenchmark.Operation o : PageableListBenchmark.Operation.values()) {
+      list.add(new PageableListBenchmark(o));
+      list.add(new PageableListBenchmark(o, 4));
+    }
+    return list;
+  }
+
+  /**
+   * Executes a single benchmark for the given PM tree size.
+   *
+   * @param benchmark
+   *          The benchmark to execute.
+   * @param numOfNodes
+   *          The PM tree size.
+   * @return The measured result.
+   */
+  public BenchmarkResult run(BenchmarkBase benchmark, int numOfNodes) {
+    benchmark.setUp(numOfNodes);
+    try {
+      // -- warm-up --
+      long warmupEnd = System.nanoTime() + warmupNanos;
+      while (System.nanoTime() < warmupEnd) {
+        consume(benchmark.runOperation());
+      }
+
+      // -- measurement --
+      long[] latencies = new long[MAX_LATENCY_SAMPLES];
+      int numOfSamples = 0;
+      Random random = new Random(numOfNodes);
+      long numOfOps = 0;
+      long allocStart = getAllocatedBytes();
+      long start = System.nanoTime();
+      long end = start + measureNanos;
+      long now = start;
+
+      while (now < end) {
+        long opStart = now;
+        consume(benchmark.runOperation());
+        now = System.nanoTime();
+        ++numOfOps;
+
+        long latency = now - opStart;
+        if (numOfSamples < MAX_LATENCY_SAMPLES) {
+          latencies[numOfSamples++] = latency;
+        }
+        else {
+          long idx = (long) (random.nextDouble() * numOfOps);
+          if (idx < MAX_LATENCY_SAMPLES) {
+            latencies[(int) idx] = latency;
+          }
+        }
+      }
+
+      long elapsed = now - start;
+      long allocEnd = getAllocatedBytes();
+      long allocated = (allocStart != BenchmarkResult.NOT_AVAILABLE && allocEnd != BenchmarkResult.NOT_AVAILABLE)
+          ? allocEnd - allocStart
+          : BenchmarkResult.NOT_AVAILABLE;
+
+      return new BenchmarkResult(benchmark.getName(), numOfNodes, numOfOps, elapsed, allocated, latencies, numOfSamples);
+    }
+    finally {
+      benchmark.tearDown();
+    }
+  }
+
+  private void consume(Object result) {
+    if (result != null) {
+      resultSink ^= System.identityHashCode(result);
+    }
+  }
+
+  /**
+   * @return The number of bytes allocated by the current thread or
+   *         {@link BenchmarkResult#NOT_AVAILABLE} if the VM does not support
+   *         that measurement.
+   */
+  private long getAllocatedBytes() {
+    if (threadMxBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) threadMxBean;
+      if (mx.isThreadAllocatedMemorySupported() && mx.isThreadAllocatedMemoryEnabled()) {
+        return mx.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return BenchmarkResult.NOT_AVAILABLE;
+  }
+
+  private static int[] parseSizes(String sizes) {
+    String[] parts = sizes.split(",");
+    int[] result = new int[parts.length];
+    for (int i = 0; i < parts.length; ++i) {
+      result[i] = Integer.parseInt(parts[i].trim());
+    }
+    return result;
+  }
+
+  public static void main(String[] args) {
+    Pattern include = Pattern.compile(System.getProperty("pm4j.benchmark.include", ".*"));
+    int[] sizes = parseSizes(System.getProperty("pm4j.benchmark.sizes", "10,1000,100000"));
+    BenchmarkRunner runner = new BenchmarkRunner(
+        Long.getLong("pm4j.benchmark.warmupMillis", 2000),
+        Long.getLong("pm4j.benchmark.measureMillis", 5000));
+
+    System.out.println("# PM tree sizes: " + Arrays.toString(sizes));
+    System.out.println(BenchmarkResult.getReportHeader());
+    for (BenchmarkBase b : getBenchmarks()) {
+      if (include.matcher(b.getName()).matches()) {
+        for (int size : sizes) {
+          System.out.println(runner.run(b, size));
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+package org.pm4j.benchmark.core;
+
+import java.util.List;
+
+import org.pm4j.benchmark.BenchmarkBase;
+import org.pm4j.benchmark.domain.BenchConversation;
+import org.pm4j.benchmark.domain.BenchDomainUtil;
+import org.pm4j.benchmark.domain.BenchItem;
+import org.pm4j.benchmark.domain.BenchItemPm;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmDefaults.BeanPmCacheKind;
+import org.pm4j.core.pm.api.PmFactoryApi;
+
+/**
+ * Compares the bean PM cache implementations that can be selected by
+ * {@link PmDefaults#setBeanPmCacheKind(BeanPmCacheKind)}.
+ * <p>
+ * The {@link Operation#CREATE} operation creates a PM for each bean within a
+ * new conversation. The PM allocation is the same for all cache kinds. The
+ * difference of the reported allocation is the cache overhead.<br>
+ * The {@link Operation#LOOKUP} operation finds the already existing PMs.
+ *
+ * @author olaf boede
+ */
+public class BeanPmCacheBenchmark extends BenchmarkBase {
+
+  /** The measured operation. */
+  public enum Operation { CREATE, LOOKUP };
+
+  private final BeanPmCacheKind cacheKind;
+  private final Operation operation;
+  private PmDefaults pmDefaults;
+  private BenchConversation conversation;
+  private List<BenchItem> items;
+
+  public BeanPmCacheBenchmark(BeanPmCacheKind cacheKind, Operation operation) {
+    super("BeanPmCache." + cacheKind.name().toLowerCase() + "." + operation.name().toLowerCase());
+    this.cacheKind = cacheKind;
+    this.operation = operation;
+  }
+
+  @Override
+  public void setUp(int numOfNodes) {
+    pmDefaults = new PmDefaults();
+    pmDefaults.setBeanPmCacheKind(cacheKind);
+    items = BenchDomainUtil.makeItems(numOfNodes);
+    conversation = makeConversation();
+    BenchDomainUtil.makeItemPms(conversation, items);
+  }
+
+  @Override
+  public Object runOperation() {
+    switch (operation) {
+      case CREATE: return BenchDomainUtil.makeItemPms(makeConversation(), items).size();
+      case LOOKUP: return lookUpPms();
+      default: throw new IllegalArgumentException(operation.name());
+    }
+  }
+
+  @Override
+  public void tearDown() {
+    pmDefaults = null;
+    conversation = null;
+    items = null;
+  }
+
+  private BenchConversation makeConversation() {
+    BenchConversation c = new BenchConversation();
+    c.setPmDefaults(pmDefaults);
+    return c;
+  }
+
+  private int lookUpPms() {
+    int count = 0;
+    for (BenchItem i : items) {
+      BenchItemPm pm = PmFactoryApi.getPmForBean(conversation, i);
+      if (pm != null) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+}
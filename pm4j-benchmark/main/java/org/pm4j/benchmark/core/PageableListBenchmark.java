@@ -0,0 +1,126 @@
+package org.pm4j.benchmark.core;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.pm4j.benchmark.BenchmarkBase;
+import org.pm4j.benchmark.domain.BenchDomainUtil;
+import org.pm4j.benchmark.domain.BenchItem;
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.pageable.PageableListImpl;
+
+/**
+ * Measures sort and filter operations of {@link PageableListImpl}.
+ * <p>
+ * Each operation alternates between two sort orders or two filter definitions
+ * to ensure that the list really needs to be re-arranged.
+ * <p>
+ * The parallel variants use a fixed thread pool without a size threshold.
+ * Comparing them with the sequential variants for the sizes
+ * <code>10000,100000,1000000</code> shows the crossover point to use for
+ * {@link org.pm4j.core.pm.PmDefaults#setParallelPageableThreshold(int)}.
+ * The reported allocation covers only the calling thread.
+ *
+ * @author olaf boede
+ */
+public class PageableListBenchmark extends BenchmarkBase {
+
+  /** The measured operation. */
+  public enum Operation { SORT, FILTER };
+
+  static final Comparator<BenchItem> BY_NAME = new Comparator<BenchItem>() {
+    @Override
+    public int compare(BenchItem o1, BenchItem o2) {
+      return o1.getName().compareTo(o2.getName());
+    }
+  };
+
+  static final Comparator<BenchItem> BY_AMOUNT = new Comparator<BenchItem>() {
+    @Override
+    public int compare(BenchItem o1, BenchItem o2) {
+      return o1.getAmount().compareTo(o2.getAmount());
+    }
+  };
+
+  static final class AmountFilter implements Filter {
+    private final int minAmount;
+
+    AmountFilter(int minAmount) {
+      this.minAmount = minAmount;
+    }
+
+    @Override
+    public boolean doesItemMatch(Object item) {
+      return ((BenchItem) item).getAmount() >= minAmount;
+    }
+
+    @Override
+    public boolean isBeanFilter() {
+      return true;
+    }
+  }
+
+  private static final Filter HALF_FILTER = new AmountFilter(50000);
+  private static final Filter QUARTER_FILTER = new AmountFilter(75000);
+
+  private final Operation operation;
+  private final int parallelism;
+  private PageableListImpl<BenchItem> pageableList;
+  private ExecutorService executor;
+  private boolean toggle;
+
+  /**
+   * @param operation
+   *          The operation to measure.
+   * @param parallelism
+   *          The number of threads to use. <code>1</code> for a sequential
+   *          operation.
+   */
+  public PageableListBenchmark(Operation operation, int parallelism) {
+    super("PageableListImpl." + operation.name().toLowerCase() + (parallelism > 1 ? ".parallel" + parallelism : ""));
+    this.operation = operation;
+    this.parallelism = parallelism;
+  }
+
+  public PageableListBenchmark(Operation operation) {
+    this(operation, 1);
+  }
+
+  @Override
+  public void setUp(int numOfNodes) {
+    List<BenchItem> items = BenchDomainUtil.makeItems(numOfNodes);
+    pageableList = new PageableListImpl<BenchItem>(items);
+    if (parallelism > 1) {
+      executor = Executors.newFixedThreadPool(parallelism - 1);
+      pageableList.setParallelExecutor(executor);
+      pageableList.setParallelism(parallelism);
+      pageableList.setParallelThreshold(0);
+    }
+    else {
+      pageableList.setParallelExecutor(null);
+    }
+  }
+
+  @Override
+  public Object runOperation() {
+    toggle = !toggle;
+    switch (operation) {
+      case SORT:   pageableList.sortItems(toggle ? BY_NAME : BY_AMOUNT); break;
+      case FILTER: pageableList.setItemFilter(toggle ? HALF_FILTER : QUARTER_FILTER); break;
+      default: throw new IllegalArgumentException(operation.name());
+    }
+    return pageableList.getItemsOnPage();
+  }
+
+  @Override
+  public void tearDown() {
+    pageableList = null;
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+}
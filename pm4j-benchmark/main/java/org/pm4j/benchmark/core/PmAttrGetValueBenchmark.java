@@ -0,0 +1,29 @@
+package org.pm4j.benchmark.core;
+
+import org.pm4j.benchmark.domain.BenchItemPm;
+
+/**
+ * Measures {@link org.pm4j.core.pm.impl.PmAttrBase#getValue()} for all
+ * attributes of the PM tree.
+ *
+ * @author olaf boede
+ */
+public class PmAttrGetValueBenchmark extends PmTreeBenchmarkBase {
+
+  public PmAttrGetValueBenchmark() {
+    super("PmAttrBase.getValue");
+  }
+
+  @Override
+  public Object runOperation() {
+    int h = 0;
+    for (int i = 0; i < itemPms.size(); ++i) {
+      BenchItemPm pm = itemPms.get(i);
+      h += pm.name.getValue().length();
+      h += pm.amount.getValue();
+      h += pm.description.getValue().length();
+    }
+    return h;
+  }
+
+}
@@ -0,0 +1,52 @@
+package org.pm4j.benchmark.core;
+
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * Measures {@link PmEventApi#firePmEvent(org.pm4j.core.pm.PmObject, int)} for
+ * an attribute of each PM tree node.
+ * <p>
+ * Each node has a direct listener. The conversation observes the whole tree
+ * using a hierarchy listener. So each fired event gets dispatched and
+ * propagated to the conversation.
+ *
+ * @author olaf boede
+ */
+public class PmEventFireBenchmark extends PmTreeBenchmarkBase {
+
+  /** Counts the received events. Strong reference for the weak listener registrations. */
+  private final CountingListener listener = new CountingListener();
+
+  public PmEventFireBenchmark() {
+    super("PmEventApiHandler.firePmEvent");
+  }
+
+  @Override
+  public void setUp(int numOfNodes) {
+    super.setUp(numOfNodes);
+    for (int i = 0; i < itemPms.size(); ++i) {
+      PmEventApi.addPmEventListener(itemPms.get(i).name, PmEvent.VALUE_CHANGE, listener);
+    }
+    PmEventApi.addHierarchyListener(conversation, PmEvent.VALUE_CHANGE, listener);
+  }
+
+  @Override
+  public Object runOperation() {
+    for (int i = 0; i < itemPms.size(); ++i) {
+      PmEventApi.firePmEvent(itemPms.get(i).name, PmEvent.VALUE_CHANGE);
+    }
+    return listener.count;
+  }
+
+  static class CountingListener implements PmEventListener {
+    int count;
+
+    @Override
+    public void handleEvent(PmEvent event) {
+      ++count;
+    }
+  }
+
+}
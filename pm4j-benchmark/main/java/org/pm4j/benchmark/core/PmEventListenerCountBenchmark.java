@@ -0,0 +1,55 @@
+package org.pm4j.benchmark.core;
+
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * Measures {@link PmEventApi#firePmEvent(org.pm4j.core.pm.PmObject, int)} for
+ * a single attribute that has a given number of listeners.
+ * <p>
+ * Only half of the listeners observe the fired {@link PmEvent#VALUE_CHANGE}.
+ * The other half observes {@link PmEvent#VISIBILITY_CHANGE} events.
+ * <p>
+ * The PM tree size is not relevant for this benchmark. The attribute of the
+ * first item PM is used.
+ *
+ * @author olaf boede
+ */
+public class PmEventListenerCountBenchmark extends PmTreeBenchmarkBase {
+
+  private final int numOfListeners;
+  private PmAttr<?> pm;
+  private PmEventFireBenchmark.CountingListener[] listeners;
+
+  public PmEventListenerCountBenchmark(int numOfListeners) {
+    super("PmEventTable.fireEvent[" + numOfListeners + " listeners]");
+    this.numOfListeners = numOfListeners;
+  }
+
+  @Override
+  public void setUp(int numOfNodes) {
+    super.setUp(1);
+    pm = itemPms.get(0).name;
+    listeners = new PmEventFireBenchmark.CountingListener[numOfListeners];
+    for (int i = 0; i < numOfListeners; ++i) {
+      listeners[i] = new PmEventFireBenchmark.CountingListener();
+      PmEventApi.addPmEventListener(pm, (i % 2 == 0) ? PmEvent.VALUE_CHANGE : PmEvent.VISIBILITY_CHANGE, listeners[i]);
+    }
+  }
+
+  @Override
+  public Object runOperation() {
+    PmEventApi.firePmEvent(pm, PmEvent.VALUE_CHANGE);
+    return listeners[0].count;
+  }
+
+  @Override
+  public void tearDown() {
+    super.tearDown();
+    pm = null;
+    listeners = null;
+  }
+
+}
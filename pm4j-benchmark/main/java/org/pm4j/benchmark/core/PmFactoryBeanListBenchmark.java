@@ -0,0 +1,26 @@
+package org.pm4j.benchmark.core;
+
+import java.util.List;
+
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.api.PmFactoryApi;
+
+/**
+ * Measures {@link PmFactoryApi#getPmListForBeans(org.pm4j.core.pm.PmObject, java.util.Collection, boolean)}
+ * for a bean list with already existing PMs (the usual table render case).
+ *
+ * @author olaf boede
+ */
+public class PmFactoryBeanListBenchmark extends PmTreeBenchmarkBase {
+
+  public PmFactoryBeanListBenchmark() {
+    super("PmFactoryApi.getPmListForBeans");
+  }
+
+  @Override
+  public Object runOperation() {
+    List<? extends PmBean<?>> pms = PmFactoryApi.getPmListForBeans(conversation, items, false);
+    return pms.size();
+  }
+
+}
@@ -0,0 +1,95 @@
+package org.pm4j.benchmark.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.pm4j.benchmark.BenchmarkBase;
+import org.pm4j.benchmark.domain.BenchConversation;
+import org.pm4j.benchmark.domain.BenchDomainUtil;
+import org.pm4j.benchmark.domain.BenchItem;
+import org.pm4j.benchmark.domain.BenchItemPm;
+
+/**
+ * Measures the PM instance creation of concurrent sessions.
+ * <p>
+ * Each operation lets {@value #NUM_OF_THREADS} threads (each with its own
+ * conversation) create and touch new bean PMs. Each new PM instance needs to
+ * find its shared meta data. That's the place where all sessions of an
+ * application meet each other.
+ *
+ * @author olaf boede
+ */
+public class PmMetaDataContentionBenchmark extends BenchmarkBase {
+
+  public static final int NUM_OF_THREADS = 32;
+
+  private ExecutorService executor;
+  private List<Callable<Integer>> tasks;
+
+  public PmMetaDataContentionBenchmark() {
+    super("PmObjectBase.metaData." + NUM_OF_THREADS + "threads");
+  }
+
+  @Override
+  public void setUp(int numOfNodes) {
+    int numOfPmsPerThread = Math.max(1, numOfNodes / NUM_OF_THREADS);
+    executor = Executors.newFixedThreadPool(NUM_OF_THREADS);
+    tasks = new ArrayList<Callable<Integer>>(NUM_OF_THREADS);
+    for (int i = 0; i < NUM_OF_THREADS; ++i) {
+      tasks.add(new MakePmsTask(BenchDomainUtil.makeItems(numOfPmsPerThread)));
+    }
+  }
+
+  @Override
+  public Object runOperation() {
+    try {
+      int count = 0;
+      for (Future<Integer> f : executor.invokeAll(tasks)) {
+        count += f.get();
+      }
+      return count;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  @Override
+  public void tearDown() {
+    executor.shutdownNow();
+    executor = null;
+    tasks = null;
+  }
+
+  /**
+   * Creates a new PM for each bean within a session specific conversation.
+   */
+  private static class MakePmsTask implements Callable<Integer> {
+    private final BenchConversation conversation = new BenchConversation();
+    private final List<BenchItem> items;
+
+    public MakePmsTask(List<BenchItem> items) {
+      this.items = items;
+    }
+
+    @Override
+    public Integer call() {
+      int count = 0;
+      for (BenchItem i : items) {
+        BenchItemPm pm = new BenchItemPm();
+        pm.setPmParent(conversation);
+        pm.setPmBean(i);
+        count += pm.name.getValue().length();
+      }
+      return count;
+    }
+  }
+
+}
@@ -0,0 +1,47 @@
+package org.pm4j.benchmark.core;
+
+import org.pm4j.benchmark.domain.BenchItemPm;
+import org.pm4j.core.pm.PmObject;
+
+/**
+ * Measures the aspect getters of {@link org.pm4j.core.pm.impl.PmObjectBase}
+ * for all attributes of the PM tree.
+ *
+ * @author olaf boede
+ */
+public class PmObjectAspectBenchmark extends PmTreeBenchmarkBase {
+
+  /** The measured aspect getter. */
+  public enum Aspect {
+    VISIBLE, ENABLED, TITLE;
+
+    Object read(PmObject pm) {
+      switch (this) {
+        case VISIBLE: return pm.isPmVisible();
+        case ENABLED: return pm.isPmEnabled();
+        case TITLE:   return pm.getPmTitle();
+        default: throw new IllegalArgumentException(name());
+      }
+    }
+  }
+
+  private final Aspect aspect;
+
+  public PmObjectAspectBenchmark(Aspect aspect) {
+    super("PmObjectBase." + aspect.name().toLowerCase());
+    this.aspect = aspect;
+  }
+
+  @Override
+  public Object runOperation() {
+    int h = 0;
+    for (int i = 0; i < itemPms.size(); ++i) {
+      BenchItemPm pm = itemPms.get(i);
+      h += aspect.read(pm.name).hashCode();
+      h += aspect.read(pm.amount).hashCode();
+      h += aspect.read(pm.description).hashCode();
+    }
+    return h;
+  }
+
+}
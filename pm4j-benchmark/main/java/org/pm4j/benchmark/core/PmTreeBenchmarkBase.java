@@ -0,0 +1,41 @@
+package org.pm4j.benchmark.core;
+
+import java.util.List;
+
+import org.pm4j.benchmark.BenchmarkBase;
+import org.pm4j.benchmark.domain.BenchConversation;
+import org.pm4j.benchmark.domain.BenchDomainUtil;
+import org.pm4j.benchmark.domain.BenchItem;
+import org.pm4j.benchmark.domain.BenchItemPm;
+
+/**
+ * Base class for benchmarks that operate on a synthetic PM tree: a
+ * conversation with a bean PM for each generated bean.
+ *
+ * @author olaf boede
+ */
+public abstract class PmTreeBenchmarkBase extends BenchmarkBase {
+
+  protected BenchConversation conversation;
+  protected List<BenchItem> items;
+  protected List<BenchItemPm> itemPms;
+
+  protected PmTreeBenchmarkBase(String name) {
+    super(name);
+  }
+
+  @Override
+  public void setUp(int numOfNodes) {
+    conversation = new BenchConversation();
+    items = BenchDomainUtil.makeItems(numOfNodes);
+    itemPms = BenchDomainUtil.makeItemPms(conversation, items);
+  }
+
+  @Override
+  public void tearDown() {
+    conversation = null;
+    items = null;
+    itemPms = null;
+  }
+
+}
@@ -0,0 +1,14 @@
+package org.pm4j.benchmark.domain;
+
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+
+/**
+ * The root of the benchmark PM trees.
+ *
+ * @author olaf boede
+ */
+@PmFactoryCfg(beanPmClasses=BenchItemPm.class)
+public class BenchConversation extends PmConversationImpl {
+
+}
@@ -0,0 +1,57 @@
+package org.pm4j.benchmark.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.pm4j.core.pm.api.PmFactoryApi;
+
+/**
+ * Generates reproducible synthetic data for the benchmarks.
+ *
+ * @author olaf boede
+ */
+public final class BenchDomainUtil {
+
+  private BenchDomainUtil() {
+  }
+
+  /**
+   * Generates a list of beans with pseudo random content. The same
+   * <code>numOfItems</code> parameter always generates the same content.
+   *
+   * @param numOfItems
+   *          The number of beans to generate.
+   * @return The new bean list.
+   */
+  public static List<BenchItem> makeItems(int numOfItems) {
+    Random random = new Random(numOfItems);
+    List<BenchItem> list = new ArrayList<BenchItem>(numOfItems);
+    for (int i = 0; i < numOfItems; ++i) {
+      list.add(new BenchItem(
+          "item-" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36),
+          random.nextInt(100000),
+          "description of item " + i));
+    }
+    return list;
+  }
+
+  /**
+   * Generates a PM tree with a bean PM for each given bean below the given
+   * conversation.
+   *
+   * @param conversation
+   *          The conversation to create the PMs in.
+   * @param items
+   *          The beans to create the PMs for.
+   * @return The PMs in the order of the given beans.
+   */
+  public static List<BenchItemPm> makeItemPms(BenchConversation conversation, List<BenchItem> items) {
+    List<BenchItemPm> pms = new ArrayList<BenchItemPm>(items.size());
+    for (BenchItem i : items) {
+      pms.add(PmFactoryApi.<BenchItem, BenchItemPm>getPmForBean(conversation, i));
+    }
+    return pms;
+  }
+
+}
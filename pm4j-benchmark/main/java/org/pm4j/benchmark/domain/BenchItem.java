@@ -0,0 +1,37 @@
+package org.pm4j.benchmark.domain;
+
+/**
+ * A simple bean used as backing data object for the benchmark PM trees.
+ *
+ * @author olaf boede
+ */
+public class BenchItem {
+
+  private String name;
+  private Integer amount;
+  private String description;
+
+  public BenchItem() {
+  }
+
+  public BenchItem(String name, Integer amount, String description) {
+    this.name = name;
+    this.amount = amount;
+    this.description = description;
+  }
+
+  public String getName() { return name; }
+  public void setName(String name) { this.name = name; }
+
+  public Integer getAmount() { return amount; }
+  public void setAmount(Integer amount) { this.amount = amount; }
+
+  public String getDescription() { return description; }
+  public void setDescription(String description) { this.description = description; }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
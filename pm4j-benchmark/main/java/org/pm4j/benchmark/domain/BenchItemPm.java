@@ -0,0 +1,22 @@
+package org.pm4j.benchmark.domain;
+
+import org.pm4j.core.pm.PmAttrInteger;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.impl.PmAttrIntegerImpl;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmBeanBase;
+
+/**
+ * The PM for a {@link BenchItem}. Represents a typical table row PM.
+ *
+ * @author olaf boede
+ */
+@PmBeanCfg(beanClass=BenchItem.class)
+public class BenchItemPm extends PmBeanBase<BenchItem> {
+
+  public final PmAttrString name = new PmAttrStringImpl(this);
+  public final PmAttrInteger amount = new PmAttrIntegerImpl(this);
+  public final PmAttrString description = new PmAttrStringImpl(this);
+
+}
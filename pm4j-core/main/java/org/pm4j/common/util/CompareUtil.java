@@ -110,12 +110,31 @@ public class CompareUtil {
    * @return The compare result.
    */
   public static int compare(String lhs, String rhs, Locale locale) {
+    return compare(lhs, rhs, Collator.getInstance(locale));
+  }
+
+  /**
+   * Compares two string values using the given {@link Collator}.
+   * <p>
+   * Allows to use the same collator for a series of compare operations.
+   * <code>null</code>s are handled the same way as in
+   * {@link #compare(Comparable, Comparable)}.
+   *
+   * @param lhs
+   *          left object to compare.
+   * @param rhs
+   *          right object to compare.
+   * @param collator
+   *          Defines the language specific sort order.
+   * @return The compare result.
+   */
+  public static int compare(String lhs, String rhs, Collator collator) {
     if (lhs != null) {
       if (rhs == null) {
         return 1;
       }
       else {
-        return Collator.getInstance(locale).compare(lhs, rhs);
+        return collator.compare(lhs, rhs);
       }
     }
     else {
@@ -1,9 +1,16 @@
 package org.pm4j.common.util.resource;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.ClassUtils;
 import org.apache.commons.lang.StringUtils;
@@ -13,6 +20,15 @@ import org.pm4j.core.exception.PmRuntimeException;
 
 /**
  * Finds a resource string in packages related to a given class.
+ * <p>
+ * The resource bundles get resolved using a per-locale index. For each
+ * package it provides the chain of the (flattened) resource bundles to check,
+ * beginning with the bundle of the package itself up to the bundle of the
+ * root package. Packages without a resource bundle are not part of the chain.
+ * The index gets built on demand or by {@link #preload(Locale, Class...)}.
+ * <p>
+ * A key lookup checks the bundles of the chain using hash lookups. Missing
+ * keys don't cause exceptions.
  */
 public class ClassPathResourceFinder {
 
@@ -27,6 +43,12 @@ public class ClassPathResourceFinder {
 
   private static final ClassPathResourceFinder INSTANCE = new ClassPathResourceFinder();
 
+  /** Marks a package without a resource bundle. */
+  private static final Map<String, String> NO_BUNDLE = Collections.emptyMap();
+
+  /** The resource index for each locale. */
+  private final ConcurrentMap<Locale, LocaleIndex> localeToIndexMap = new ConcurrentHashMap<Locale, LocaleIndex>();
+
   public static final ClassPathResourceFinder instance() {
     return INSTANCE;
   }
@@ -54,57 +76,86 @@ public class ClassPathResourceFinder {
    * If it is not found there it will be searched within the parent packages till
    * the root package is reached.
    * <p>
-   * To ensure a good performance, a cache ensures that the resource file search
-   * algorithm will be performed only once per key.
+   * To ensure a good performance, the bundle chain of each package gets
+   * resolved only once per locale.
    *
    * @param forClass
    * @param key
    * @param locale
-   * @return
+   * @return The found string or <code>null</code>.
    */
   public String findString(Class<?> forClass, String key, Locale locale) {
     assert key != null;
 
-    String result = null;
-    String pkgName = ClassUtils.getPackageName(forClass);
-    String relPkgDir = pkgName.replace('.', '/');
-
-    Iterator<String> i = new CutStringTailIterator(relPkgDir, "/");
-
-    while (i.hasNext() && (result == null)) {
-      String pkgDir = i.next();
-
-      result = findResStringInPgk(pkgDir, locale, key);
+    List<Map<String, String>> chain = getLocaleIndex(locale).getChain(forClass);
+    for (int i = 0; i < chain.size(); ++i) {
+      String result = chain.get(i).get(key);
+      if (result != null) {
+        return result;
+      }
     }
+    return null;
+  }
 
-    // finally try the root package
-    if (result == null) {
-      result = findResStringInPgk("", locale, key);
+  /**
+   * Builds the resource index for the packages of the given classes (and
+   * their parent packages). May be called at application startup to load
+   * the resource bundles of a locale before the first request needs them.
+   *
+   * @param locale
+   *          The locale to load the bundles for.
+   * @param forClasses
+   *          Classes that identify the packages to load the bundles for.
+   */
+  public void preload(Locale locale, Class<?>... forClasses) {
+    LocaleIndex index = getLocaleIndex(locale);
+    for (Class<?> c : forClasses) {
+      index.getChain(c);
     }
+  }
+
+  /**
+   * Discards the resource index. The bundles get loaded again on demand.
+   */
+  public void clearIndex() {
+    localeToIndexMap.clear();
+  }
 
-    return result;
+  private LocaleIndex getLocaleIndex(Locale locale) {
+    LocaleIndex index = localeToIndexMap.get(locale);
+    if (index == null) {
+      index = new LocaleIndex(locale);
+      LocaleIndex existingIndex = localeToIndexMap.putIfAbsent(locale, index);
+      if (existingIndex != null) {
+        index = existingIndex;
+      }
+    }
+    return index;
   }
 
-  private String findResStringInPgk(String pkgDir, Locale locale, String key) {
-    String result = null;
+  /**
+   * @return The content of the bundle or {@link #NO_BUNDLE}.
+   */
+  private Map<String, String> loadBundle(String pkgDir, Locale locale) {
     ResourceBundle myResources = null;
     try {
       String bundleName = (StringUtils.isEmpty(pkgDir)) ? resFileBaseName : (pkgDir + "/" + resFileBaseName);
 
       myResources = ResourceBundle.getBundle(bundleName, locale, resBundleStrategy);
     } catch (MissingResourceException e) {
-      // ok. resource does not extist. try the next package level.
+      // ok. resource does not extist.
+      return NO_BUNDLE;
     }
 
-    if (myResources != null) {
-      try {
-        result = myResources.getString(key);
-      } catch (MissingResourceException e) {
-        // ok. string was not in resource file. try the next hierarchy level.
+    // The key set contains the keys of the parent bundles too.
+    Map<String, String> content = new HashMap<String, String>();
+    for (String key : myResources.keySet()) {
+      Object value = myResources.getObject(key);
+      if (value instanceof String) {
+        content.put(key, (String) value);
       }
     }
-
-    return result;
+    return content;
   }
 
   public ResourceBundle.Control getResBundleStrategy() {
@@ -113,6 +164,7 @@ public class ClassPathResourceFinder {
 
   public void setResBundleStrategy(ResourceBundle.Control resBundleStrategy) {
     this.resBundleStrategy = resBundleStrategy;
+    clearIndex();
   }
 
   public boolean isLenient() {
@@ -123,4 +175,51 @@ public class ClassPathResourceFinder {
     this.lenient = lenient;
   }
 
+  /**
+   * The bundle chains of a single locale.
+   */
+  private final class LocaleIndex {
+    private final Locale locale;
+    /** Weak class keys. The index should not prevent unloading the classes of a redeployed application. */
+    private final Map<Class<?>, List<Map<String, String>>> classToChainMap = Collections.synchronizedMap(new WeakHashMap<Class<?>, List<Map<String, String>>>());
+    private final ConcurrentMap<String, List<Map<String, String>>> pkgToChainMap = new ConcurrentHashMap<String, List<Map<String, String>>>();
+
+    LocaleIndex(Locale locale) {
+      this.locale = locale;
+    }
+
+    List<Map<String, String>> getChain(Class<?> forClass) {
+      List<Map<String, String>> chain = classToChainMap.get(forClass);
+      if (chain == null) {
+        chain = getChain(ClassUtils.getPackageName(forClass).replace('.', '/'));
+        classToChainMap.put(forClass, chain);
+      }
+      return chain;
+    }
+
+    /**
+     * @param pkgDir The package directory. Is an empty string for the root package.
+     * @return The bundles of the package and its parent packages. The list does not get modified.
+     */
+    private List<Map<String, String>> getChain(String pkgDir) {
+      List<Map<String, String>> chain = pkgToChainMap.get(pkgDir);
+      if (chain == null) {
+        List<Map<String, String>> parentChain = pkgDir.length() > 0
+            ? getChain(pkgDir.substring(0, Math.max(0, pkgDir.lastIndexOf('/'))))
+            : Collections.<Map<String, String>>emptyList();
+        Map<String, String> bundle = loadBundle(pkgDir, locale);
+        if (bundle == NO_BUNDLE) {
+          chain = parentChain;
+        }
+        else {
+          chain = new ArrayList<Map<String, String>>(parentChain.size() + 1);
+          chain.add(bundle);
+          chain.addAll(parentChain);
+        }
+        pkgToChainMap.put(pkgDir, chain);
+      }
+      return chain;
+    }
+  }
+
 }
@@ -22,7 +22,11 @@ import org.pm4j.core.exception.PmRuntimeException;
  *   1/2
  *   1
  * </pre>
+ *
+ * @deprecated Is no longer used. The {@link ClassPathResourceFinder} walks the
+ *             package hierarchy using its bundle chain index.
  */
+@Deprecated
 class CutStringTailIterator implements Iterator<String> {
 
   private String  longString;
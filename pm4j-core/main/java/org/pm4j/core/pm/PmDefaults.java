@@ -1,11 +1,15 @@
 package org.pm4j.core.pm;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
 import org.pm4j.core.pm.annotation.PmCommandCfg;
 import org.pm4j.core.pm.annotation.PmCommandCfg.BEFORE_DO;
 import org.pm4j.core.pm.filter.FilterByDefinition;
 import org.pm4j.core.pm.filter.impl.FilterByPmAttrValueLocalized;
 import org.pm4j.core.pm.impl.PmObjectBase.NameBuilder;
 import org.pm4j.core.pm.impl.PmObjectBase.NameBuilderAbsoluteName;
+import org.pm4j.core.pm.impl.cache.PmSessionCache;
 import org.pm4j.core.pm.impl.title.AsteriskAttrTitleProvider;
 import org.pm4j.core.pm.impl.title.PmTitleProvider;
 import org.pm4j.core.pm.impl.title.TitleProviderPmResBased;
@@ -24,6 +28,27 @@ public class PmDefaults {
    */
   private static PmDefaults instance;
 
+  /**
+   * The bean PM cache implementations.
+   */
+  public static enum BeanPmCacheKind {
+    /**
+     * Finds PMs for identical and equal beans. Uses several weak maps for
+     * that.
+     */
+    STANDARD,
+    /**
+     * Finds PMs only for identical beans. Needs less memory and garbage
+     * collector work per cached PM. Useful for tables with many rows.
+     */
+    COMPACT,
+    /**
+     * Like {@link #COMPACT}, with an additional index that finds PMs for equal
+     * beans.
+     */
+    COMPACT_WITH_EQUALS_INDEX
+  }
+
   /**
    * Defines the used default title provider for PMs.<br>
    * Default value for this attribute: {@link TitleProviderPmResBased}.
@@ -79,6 +104,100 @@ public class PmDefaults {
    */
   private PmCommandCfg.BEFORE_DO beforeDoCommandDefault = BEFORE_DO.VALIDATE;
 
+  /**
+   * The maximum number of values a conversation stores for each
+   * {@link org.pm4j.core.pm.annotation.PmCacheCfg.CacheMode#SESSION} cache kind
+   * (title, value etc.).
+   */
+  private int sessionCacheMaxEntries = 1000;
+
+  /**
+   * Defines the value to remove if a
+   * {@link org.pm4j.core.pm.annotation.PmCacheCfg.CacheMode#SESSION} cache is
+   * full.
+   */
+  private PmSessionCache.EvictionPolicy sessionCacheEvictionPolicy = PmSessionCache.EvictionPolicy.LRU;
+
+  /**
+   * The cache implementation that is used to find already existing PMs for
+   * beans.
+   */
+  private BeanPmCacheKind beanPmCacheKind = BeanPmCacheKind.STANDARD;
+
+  /**
+   * Switches the incremental validation mode on.
+   * <p>
+   * In this mode an attribute that was found to be valid will not be validated
+   * again until its value changes (a {@link PmEvent#VALUE_CHANGE} event), its
+   * cached value gets cleared or a value change of a PM it depends on occurs
+   * (see {@link org.pm4j.core.pm.annotation.PmAttrCfg#revalidateOnChangeOf()}).
+   * <p>
+   * Attributes with validation logic that depends on other state need to
+   * declare that dependency.
+   */
+  private boolean incrementalValidation = false;
+
+  /**
+   * An optional executor that validates sibling PM sub trees in parallel.
+   * <p>
+   * If defined, the children of a {@link PmDataInput} get validated in up to
+   * {@link #validationParallelism} partitions. Each partition is a
+   * contiguous range of children that gets validated sequentially. Nested
+   * validations within a partition are performed sequentially.
+   * <p>
+   * The generated messages appear in the same order as they would appear in
+   * case of a sequential validation. Validation logic and validation event
+   * listeners must be able to run in threads of the executor.
+   * <p>
+   * Is <code>null</code> by default. That means: sequential validation.
+   */
+  private ExecutorService validationExecutor;
+
+  /**
+   * The maximum number of partitions a parallel validation uses.<br>
+   * The default is the number of available processors.
+   */
+  private int validationParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The minimum number of children to validate that activates the parallel
+   * validation. See {@link #validationExecutor}.
+   */
+  private int parallelValidationThreshold = 16;
+
+  /**
+   * The executor that calls the listeners registered by
+   * {@link org.pm4j.core.pm.api.PmEventApi#addAsyncPmEventListener(PmObject, int, PmEventListener)}.
+   * <p>
+   * Is <code>null</code> by default. That means: a shared pool of daemon
+   * threads gets used.
+   */
+  private Executor asyncEventExecutor;
+
+  /**
+   * An optional executor that sorts and filters large
+   * {@link org.pm4j.core.pm.pageable.PageableListImpl} instances in parallel.
+   * <p>
+   * The result order is the same as the order of a sequential operation.
+   * Comparators and filters must be able to run in threads of the executor.
+   * <p>
+   * Is <code>null</code> by default. That means: sequential sort and filter
+   * operations.
+   */
+  private ExecutorService pageableExecutor;
+
+  /**
+   * The maximum number of partitions a parallel sort or filter operation uses.<br>
+   * The default is the number of available processors.
+   */
+  private int pageableParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The minimum number of items to sort or filter that activates the parallel
+   * operation. See {@link #pageableExecutor}.
+   */
+  private int parallelPageableThreshold = 50000;
+
   /**
    * The event mask to be fired on validation state changes.<br>
    * Is configurable to support information about changing style classes,
@@ -200,4 +319,92 @@ public class PmDefaults {
     this.multiFormatPatternDelimiter = multiFormatPatternDelimiter;
   }
 
+  public int getSessionCacheMaxEntries() {
+    return sessionCacheMaxEntries;
+  }
+
+  public void setSessionCacheMaxEntries(int sessionCacheMaxEntries) {
+    this.sessionCacheMaxEntries = sessionCacheMaxEntries;
+  }
+
+  public PmSessionCache.EvictionPolicy getSessionCacheEvictionPolicy() {
+    return sessionCacheEvictionPolicy;
+  }
+
+  public void setSessionCacheEvictionPolicy(PmSessionCache.EvictionPolicy sessionCacheEvictionPolicy) {
+    this.sessionCacheEvictionPolicy = sessionCacheEvictionPolicy;
+  }
+
+  public BeanPmCacheKind getBeanPmCacheKind() {
+    return beanPmCacheKind;
+  }
+
+  public void setBeanPmCacheKind(BeanPmCacheKind beanPmCacheKind) {
+    this.beanPmCacheKind = beanPmCacheKind;
+  }
+
+  public boolean isIncrementalValidation() {
+    return incrementalValidation;
+  }
+
+  public void setIncrementalValidation(boolean incrementalValidation) {
+    this.incrementalValidation = incrementalValidation;
+  }
+
+  public ExecutorService getValidationExecutor() {
+    return validationExecutor;
+  }
+
+  public void setValidationExecutor(ExecutorService validationExecutor) {
+    this.validationExecutor = validationExecutor;
+  }
+
+  public int getValidationParallelism() {
+    return validationParallelism;
+  }
+
+  public void setValidationParallelism(int validationParallelism) {
+    this.validationParallelism = validationParallelism;
+  }
+
+  public int getParallelValidationThreshold() {
+    return parallelValidationThreshold;
+  }
+
+  public void setParallelValidationThreshold(int parallelValidationThreshold) {
+    this.parallelValidationThreshold = parallelValidationThreshold;
+  }
+
+  public Executor getAsyncEventExecutor() {
+    return asyncEventExecutor;
+  }
+
+  public void setAsyncEventExecutor(Executor asyncEventExecutor) {
+    this.asyncEventExecutor = asyncEventExecutor;
+  }
+
+  public ExecutorService getPageableExecutor() {
+    return pageableExecutor;
+  }
+
+  public void setPageableExecutor(ExecutorService pageableExecutor) {
+    this.pageableExecutor = pageableExecutor;
+  }
+
+  public int getPageableParallelism() {
+    return pageableParallelism;
+  }
+
+  public void setPageableParallelism(int pageableParallelism) {
+    this.pageableParallelism = pageableParallelism;
+  }
+
+  public int getParallelPageableThreshold() {
+    return parallelPageableThreshold;
+  }
+
+  public void setParallelPageableThreshold(int parallelPageableThreshold) {
+    this.parallelPageableThreshold = parallelPageableThreshold;
+  }
+
 }
@@ -122,6 +122,23 @@ public @interface PmAttrCfg {
    */
   AttrAccessKind accessKind() default AttrAccessKind.DEFAULT;
 
+  /**
+   * Defines the PMs whose value changes require a new validation of the
+   * annotated attribute. Is only relevant for the incremental validation mode
+   * (see {@link org.pm4j.core.pm.PmDefaults#isIncrementalValidation()}).
+   * <p>
+   * The paths are resolved relative to the parent of the annotated PM. Example:
+   * <pre>
+   * &#64;PmAttrCfg(revalidateOnChangeOf="startDate")
+   * public final PmAttrDate endDate = new PmAttrDateImpl(this);
+   * </pre>
+   * The attribute 'endDate' will be validated again after a value change of
+   * the sibling attribute 'startDate'.
+   *
+   * @return Paths of the attributes the validation result depends on.
+   */
+  String[] revalidateOnChangeOf() default {};
+
   enum AttrAccessKind {
     /**
      * Means for attributes within {@link PmBean} elements:
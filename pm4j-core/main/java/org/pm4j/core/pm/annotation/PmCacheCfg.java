@@ -5,6 +5,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.pm4j.core.pm.PmEvent;
+
 /**
  * Cache definition annotation.
  * <p>
@@ -29,7 +31,20 @@ public @interface PmCacheCfg {
      * This option will currently only be considered in the JSF environment. In
      * other cases (rich client) it has the effect of the option {@link #OFF}.
      */
-    REQUEST
+    REQUEST,
+    /**
+     * The value will be cached within the conversation.
+     * <p>
+     * The number of values cached per conversation is limited. See
+     * {@link org.pm4j.core.pm.PmDefaults#setSessionCacheMaxEntries(int)} and
+     * {@link org.pm4j.core.pm.PmDefaults#setSessionCacheEvictionPolicy(org.pm4j.core.pm.impl.cache.PmSessionCache.EvictionPolicy)}.
+     */
+    SESSION,
+    /**
+     * The value will be cached locally within the PM instance for the time
+     * span defined by {@link PmCacheCfg#ttlMillis()}.
+     */
+    TTL
   }
 
   /**
@@ -68,6 +83,33 @@ public @interface PmCacheCfg {
    */
   CacheMode options() default CacheMode.NOT_SPECIFIED;
 
+  /**
+   * @return The time to live in milliseconds for values cached with
+   *         {@link CacheMode#TTL}.
+   */
+  long ttlMillis() default 60000;
+
+  /**
+   * Defines the PMs whose events clear all cached values of the annotated PM.
+   * <p>
+   * The paths are resolved relative to the parent of the annotated PM. Example:
+   * <pre>
+   * &#64;PmCacheCfg(options=CacheMode.ON, clearOnEventOf="region")
+   * public final PmAttrString country = new PmAttrStringImpl(this);
+   * </pre>
+   * The option set of 'country' will be re-calculated after a value change of
+   * the sibling attribute 'region'.
+   *
+   * @return Paths of the observed PMs.
+   */
+  String[] clearOnEventOf() default {};
+
+  /**
+   * @return The kind of events of the {@link #clearOnEventOf()} PMs that clear
+   *         the cached values. See the event kind constants in {@link PmEvent}.
+   */
+  int clearOnEventMask() default PmEvent.VALUE_CHANGE;
+
   // Name constants for attributes that are found by reflection:
   public static final String ATTR_VISIBILITY = "visibility";
   public static final String ATTR_ENABLEMENT = "enablement";
@@ -5,9 +5,11 @@ import org.pm4j.core.pm.PmEvent;
 import org.pm4j.core.pm.PmEvent.ValueChangeKind;
 import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmCommandDecorator;
+import org.pm4j.core.pm.PmDefaults;
 import org.pm4j.core.pm.PmEventListener;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.impl.PmAttrValueChangeDecorator;
+import org.pm4j.core.pm.impl.PmEventBatch;
 import org.pm4j.core.pm.impl.PmEventApiHandler;
 
 public class PmEventApi {
@@ -54,6 +56,47 @@ public class PmEventApi {
     apiHandler.addPmEventListener(pm, eventMask, listener);
   }
 
+  /**
+   * Registers a listener that gets called asynchronously.
+   * <p>
+   * The events get passed to an ordered dispatch queue of the conversation of
+   * the given PM. The queue calls the listener within a thread of the
+   * executor defined by {@link PmDefaults#getAsyncEventExecutor()}. The
+   * listener receives the events in the order they were fired.
+   * <p>
+   * Should be used for listeners that are not relevant for the result of the
+   * operation that fires the event. E.g. audit logging.<br>
+   * See {@link #flushAsyncPmEvents(PmObject)}.
+   * <p>
+   * The registration can be removed by
+   * {@link #removePmEventListener(PmObject, PmEventListener)}.
+   *
+   * @param pm
+   *          The PM to observe
+   * @param eventMask
+   *          A bit-mask that defines the kind of observed events. See the event
+   *          kind constants in {@link PmEvent}.
+   * @param listener
+   *          The listener to call asynchronously.
+   */
+  public static void addAsyncPmEventListener(PmObject pm, int eventMask, PmEventListener listener) {
+    apiHandler.addAsyncPmEventListener(pm, eventMask, listener);
+  }
+
+  /**
+   * Waits until all events queued for the asynchronous listeners of the
+   * conversation of the given PM are dispatched.
+   * <p>
+   * May be used by commands that need to be sure that the asynchronous
+   * listeners have finished their work before the command returns.
+   *
+   * @param pm
+   *          A PM of the conversation to flush.
+   */
+  public static void flushAsyncPmEvents(PmObject pm) {
+    apiHandler.flushAsyncPmEvents(pm);
+  }
+
   public static void addWeakPmEventListener(PmObject pm, int eventMask, PmEventListener listener) {
     apiHandler.addWeakPmEventListener(pm, eventMask, listener);
   }
@@ -108,6 +151,33 @@ public class PmEventApi {
     apiHandler.firePmEventIfInitialized(pm, event);
   }
 
+  /**
+   * Starts an event batch for the current thread.
+   * <p>
+   * While the batch is active, the events fired within the current thread
+   * don't get dispatched immediately. The events for the same PM get merged
+   * to a single event. The merged events get dispatched (and propagated to
+   * the parent hierarchy) when {@link PmEventBatch#end()} gets called.
+   * <p>
+   * Should be used for bulk operations that change many values. The call of
+   * {@link PmEventBatch#end()} should be done within a finally block.
+   *
+   * @return The started batch. If there is already an active batch, the
+   *         active batch gets returned. In this case the events get
+   *         dispatched when the outer batch ends.
+   */
+  public static PmEventBatch beginEventBatch() {
+    return apiHandler.beginEventBatch();
+  }
+
+  /**
+   * @return The active event batch of the current thread. <code>null</code>
+   *         if there is none.
+   */
+  public static PmEventBatch getEventBatch() {
+    return apiHandler.getEventBatch();
+  }
+
   public static Object setThreadEventSource(Object src) {
     apiHandler.setThreadEventSource(src);
     return src;
@@ -1,14 +1,78 @@
 package org.pm4j.core.pm.api;
 
+import org.apache.commons.lang.StringUtils;
 import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmConversation;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.impl.PmExpressionApiHandler;
+import org.pm4j.core.pm.impl.pathresolver.PathResolver;
 
 public class PmExpressionApi {
 
   private static final PmExpressionApiHandler apiHandler = new PmExpressionApiHandler();
 
+  /**
+   * A parsed expression. Can be used to evaluate the expression repeatedly
+   * without parsing it again.
+   * <p>
+   * Instances are thread safe and may be used for PMs of different classes.
+   */
+  public static final class CompiledExpression {
+    private final String expression;
+    private final PathResolver pathResolver;
+
+    private CompiledExpression(String expression, PathResolver pathResolver) {
+      this.expression = expression;
+      this.pathResolver = pathResolver;
+    }
+
+    /**
+     * @param pm
+     *          The PM to evaluate the expression for.
+     * @return The found value or <code>null</code> when not found.
+     */
+    public Object findValue(PmObject pm) {
+      return pathResolver.getValue(pm);
+    }
+
+    /**
+     * Imperative version of {@link #findValue(PmObject)}.
+     *
+     * @throws PmRuntimeException
+     *           if there is no value for the expression.
+     */
+    public Object getValue(PmObject pm) {
+      Object result = pathResolver.getValue(pm);
+      if (result == null) {
+        throw new PmRuntimeException(pm, "No property value found for path '" + expression + "'.");
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return expression;
+    }
+  }
+
+  /**
+   * Parses the given expression.
+   * <p>
+   * The {@link #findByExpression(PmObject, String)} methods use a bounded
+   * cache of parsed expressions. This method allows to skip that cache lookup
+   * for expressions that are evaluated very often.
+   *
+   * @param expression
+   *          The expression to parse.
+   * @return A reusable and thread safe expression.
+   */
+  public static CompiledExpression compile(String expression) {
+    if (StringUtils.isBlank(expression)) {
+      throw new PmRuntimeException("'null' and blank property keys are not supported.");
+    }
+    return new CompiledExpression(expression, apiHandler.getPathResolver(expression));
+  }
+
   /**
    * Finds a named property from the following scopes (if available):
    * <ol>
@@ -223,6 +223,10 @@ public class PmMessageUtil {
    * @return
    */
   public static List<PmMessage> getSubTreeMessages(PmObject pm, Severity minSeverity) {
+    if (pm.getPmConversation() instanceof PmConversationImpl) {
+      return ((PmConversationImpl)pm.getPmConversation()).getSubTreePmMessages(pm, minSeverity);
+    }
+
     List<PmMessage> messages = new ArrayList<PmMessage>();
 
     for (PmMessage m : pm.getPmConversation().getPmMessages()) {
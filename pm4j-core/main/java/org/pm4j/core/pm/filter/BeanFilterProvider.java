@@ -0,0 +1,28 @@
+package org.pm4j.core.pm.filter;
+
+import org.pm4j.core.pm.PmBean;
+
+/**
+ * Interface for PM filters that are able to provide an equivalent filter that
+ * checks the beans behind the PM items.
+ * <p>
+ * Allows to filter large bean collections without creating a PM for each
+ * bean.
+ *
+ * @author olaf boede
+ */
+public interface BeanFilterProvider {
+
+  /**
+   * Provides a filter that checks the beans behind the PM items the same way
+   * this filter checks the PM items.
+   *
+   * @param sampleItemPm
+   *          A PM item. Is used to analyze the item structure.
+   * @return The bean filter. Its {@link Filter#isBeanFilter()} method provides
+   *         <code>true</code>.<br>
+   *         <code>null</code> if the items can't be filtered without PMs.
+   */
+  Filter getBeanFilter(PmBean<?> sampleItemPm);
+
+}
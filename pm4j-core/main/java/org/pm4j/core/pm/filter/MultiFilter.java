@@ -15,7 +15,7 @@ import org.pm4j.core.pm.PmBean;
  *
  * @author olaf boede
  */
-public class MultiFilter implements Filter {
+public class MultiFilter implements Filter, BeanFilterProvider {
 
   /** The 'normal' filter set that will be removed when {@link #clear()} gets called. */
   private Map<String, Filter> filterMap = new HashMap<String, Filter>();
@@ -48,6 +48,42 @@ public class MultiFilter implements Filter {
     return false;
   }
 
+  /**
+   * Provides a bean filter if each active filter is a bean filter or is
+   * able to provide one. See {@link BeanFilterProvider}.
+   */
+  @Override
+  public Filter getBeanFilter(PmBean<?> sampleItemPm) {
+    final Filter[] beanFilters = new Filter[activeFilters.length];
+    for (int i = 0; i < beanFilters.length; ++i) {
+      Filter f = activeFilters[i];
+      beanFilters[i] = f.isBeanFilter()
+          ? f
+          : (f instanceof BeanFilterProvider)
+              ? ((BeanFilterProvider)f).getBeanFilter(sampleItemPm)
+              : null;
+      if (beanFilters[i] == null) {
+        return null;
+      }
+    }
+
+    return new Filter() {
+      @Override
+      public boolean doesItemMatch(Object item) {
+        for (Filter f : beanFilters) {
+          if (! f.doesItemMatch(item)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      @Override
+      public boolean isBeanFilter() {
+        return true;
+      }
+    };
+  }
+
   /**
    * Activates the given filter.<br>
    * Replaces the filter that was formerly defined for the given id.<br>
@@ -0,0 +1,20 @@
+package org.pm4j.core.pm.filter;
+
+/**
+ * A filter that knows if it matches only a subset of the items matched by a
+ * previously applied filter.
+ * <p>
+ * Allows a collection to refine its current filter result instead of checking
+ * all items again.
+ */
+public interface NarrowingFilter extends Filter {
+
+  /**
+   * @param previousFilter
+   *          The filter that was applied before. Is never <code>null</code>.
+   * @return <code>true</code> if each item that matches this filter also
+   *         matches the given filter.
+   */
+  boolean isNarrowingOf(Filter previousFilter);
+
+}
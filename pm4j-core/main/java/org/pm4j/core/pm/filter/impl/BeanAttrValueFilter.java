@@ -0,0 +1,45 @@
+package org.pm4j.core.pm.filter.impl;
+
+import org.pm4j.core.pm.filter.CompOp;
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.util.reflection.BeanAttrAccessor;
+
+/**
+ * A bean filter that applies a {@link CompOp} to a bean attribute value.
+ *
+ * @author olaf boede
+ */
+public class BeanAttrValueFilter implements Filter {
+
+  private final BeanAttrAccessor beanAttrAccessor;
+  private final CompOp compOp;
+  private final Object filterValue;
+
+  /**
+   * @param beanAttrAccessor
+   *          Provides the bean attribute value to check.
+   * @param compOp
+   *          The compare operator to apply.
+   * @param filterValue
+   *          The value to compare the bean attribute values with.
+   */
+  public BeanAttrValueFilter(BeanAttrAccessor beanAttrAccessor, CompOp compOp, Object filterValue) {
+    this.beanAttrAccessor = beanAttrAccessor;
+    this.compOp = compOp;
+    this.filterValue = filterValue;
+  }
+
+  @Override
+  public boolean doesItemMatch(Object item) {
+    Object value = (item != null)
+        ? beanAttrAccessor.getBeanAttrValue(item)
+        : null;
+    return compOp.doesValueMatch(value, filterValue);
+  }
+
+  @Override
+  public boolean isBeanFilter() {
+    return true;
+  }
+
+}
@@ -0,0 +1,38 @@
+package org.pm4j.core.pm.filter.impl;
+
+import org.pm4j.core.pm.filter.Filter;
+
+/**
+ * A bean filter that provides the same result for each item.
+ *
+ * @author olaf boede
+ */
+public final class ConstantBeanFilter implements Filter {
+
+  /** A filter that lets all items pass. */
+  public static final ConstantBeanFilter MATCH_ALL = new ConstantBeanFilter(true);
+
+  /** A filter that hides all items. */
+  public static final ConstantBeanFilter MATCH_NONE = new ConstantBeanFilter(false);
+
+  private final boolean match;
+
+  private ConstantBeanFilter(boolean match) {
+    this.match = match;
+  }
+
+  public static ConstantBeanFilter valueOf(boolean match) {
+    return match ? MATCH_ALL : MATCH_NONE;
+  }
+
+  @Override
+  public boolean doesItemMatch(Object item) {
+    return match;
+  }
+
+  @Override
+  public boolean isBeanFilter() {
+    return true;
+  }
+
+}
@@ -4,7 +4,11 @@ import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.filter.CompOp;
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.impl.PmAttrBase;
 import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.util.reflection.BeanAttrAccessor;
+import org.pm4j.core.util.reflection.ClassUtil;
 
 /**
  * Base implementation for classes that filter by the values of a item-PM attributes.
@@ -52,6 +56,67 @@ public abstract class FilterByPmAttrBase<T_FILTER_VALUE> extends FilterByDefinit
     return doesItemMatchImpl(a, (CompOp)compOp, (T_FILTER_VALUE)filterValue);
   }
 
+  /**
+   * Provides a filter that checks the beans behind the item PMs the same way
+   * {@link #doesItemMatch(Object, CompOp, Object)} checks the item PMs.
+   * <p>
+   * That is only possible if the value attribute is plain bound to the
+   * bean of the item PM. See {@link PmAttrBase#getPlainBeanAttrAccessor()}.
+   * Subclasses that re-define the match logic should re-define
+   * {@link #makeBeanFilterImpl(PmAttr, BeanAttrAccessor, CompOp, Object)} too.
+   *
+   * @param sampleItemPm
+   *          An item PM. Is used to find the value attribute.
+   * @param compOp
+   *          The compare operator to apply.
+   * @param filterValue
+   *          The value to compare with.
+   * @return The bean filter or <code>null</code> if the items can't be
+   *         filtered without PMs.
+   */
+  @SuppressWarnings("unchecked")
+  public Filter makeBeanFilter(PmObject sampleItemPm, CompOp compOp, Object filterValue) {
+    // if there is no comp, the filter usually does not have any effect.
+    if (compOp == null) {
+      return ConstantBeanFilter.MATCH_ALL;
+    }
+
+    Class<?> matchImplClass = ClassUtil.findMethodDeclaringClass(getClass(), "doesItemMatchImpl");
+    if (ClassUtil.findMethodDeclaringClass(getClass(), "makeBeanFilterImpl") != matchImplClass ||
+        ClassUtil.findMethodDeclaringClass(getClass(), "doesItemMatch") != FilterByPmAttrBase.class ||
+        ClassUtil.findMethodDeclaringClass(getClass(), "findFilterValueAttr") != FilterByPmAttrBase.class) {
+      return null;
+    }
+
+    PmAttr<?> a = findFilterValueAttr(sampleItemPm);
+    BeanAttrAccessor accessor = (a instanceof PmAttrBase && a.getPmParent() == sampleItemPm)
+        ? ((PmAttrBase<?, ?>)a).getPlainBeanAttrAccessor()
+        : null;
+    return (accessor != null)
+        ? makeBeanFilterImpl(a, accessor, compOp, (T_FILTER_VALUE)filterValue)
+        : null;
+  }
+
+  /**
+   * Provides the bean filter for {@link #makeBeanFilter(PmObject, CompOp, Object)}.
+   * <p>
+   * The default implementation returns <code>null</code>.
+   *
+   * @param sampleAttr
+   *          The value attribute of the sample item PM.
+   * @param beanAttrAccessor
+   *          Provides the value of the bean attribute, the value attribute is bound to.
+   * @param compOp
+   *          The compare operator to apply.
+   * @param filterByValue
+   *          The value to compare with.
+   * @return The bean filter or <code>null</code> if the items can't be
+   *         filtered without PMs.
+   */
+  protected Filter makeBeanFilterImpl(PmAttr<?> sampleAttr, BeanAttrAccessor beanAttrAccessor, CompOp compOp, T_FILTER_VALUE filterByValue) {
+    return null;
+  }
+
   /**
    * Finds the corresponding value attribute within the given item PM.<br>
    * In a usual table column scenario this filter would search for a row-cell that has
@@ -4,7 +4,9 @@ import org.pm4j.core.exception.PmConverterException;
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.filter.CompOp;
+import org.pm4j.core.pm.filter.Filter;
 import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.util.reflection.BeanAttrAccessor;
 
 /**
  * A filter that converts the entered filter-by value to the attribute value type
@@ -43,6 +45,21 @@ public class FilterByPmAttrValue extends FilterByPmAttrBase<Object> {
     }
   }
 
+  /**
+   * Converts the filter value only once, using the sample attribute.
+   */
+  @Override
+  protected Filter makeBeanFilterImpl(PmAttr<?> sampleAttr, BeanAttrAccessor beanAttrAccessor, CompOp compOp, Object filterValue) {
+    try {
+      Object filterObj = (filterValue instanceof String)
+            ? PmUtil.convertStringToValue(sampleAttr, (String)filterValue)
+            : filterValue;
+      return new BeanAttrValueFilter(beanAttrAccessor, compOp, filterObj);
+    } catch (PmConverterException e) {
+      return ConstantBeanFilter.valueOf(showItemsInCaseOfFilterValueConverterFailure(compOp, filterValue));
+    }
+  }
+
   /**
    * The default implementation returns here <code>true</code>.<br>
    * That means: If the user entered a filter value that can't be converted to
@@ -3,7 +3,9 @@ package org.pm4j.core.pm.filter.impl;
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.filter.CompOp;
+import org.pm4j.core.pm.filter.Filter;
 import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.util.reflection.BeanAttrAccessor;
 
 /**
  * A filter that uses the <code>valueLocalized</code> string of the item
@@ -39,4 +41,16 @@ public class FilterByPmAttrValueLocalized extends FilterByPmAttrBase<String> {
     return compOp.doesValueMatch(pmAttr.getValueLocalized(), filterValue);
   }
 
+  /**
+   * Provides a bean filter only for string attributes that localize their
+   * value without any change.
+   */
+  @Override
+  protected Filter makeBeanFilterImpl(PmAttr<?> sampleAttr, BeanAttrAccessor beanAttrAccessor, CompOp compOp, String filterValue) {
+    return (sampleAttr instanceof PmAttrStringImpl &&
+            ((PmAttrStringImpl)sampleAttr).isValueLocalizedTheValue())
+        ? new BeanAttrValueFilter(beanAttrAccessor, compOp, filterValue)
+        : null;
+  }
+
 }
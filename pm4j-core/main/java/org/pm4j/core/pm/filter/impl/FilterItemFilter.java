@@ -1,6 +1,9 @@
 package org.pm4j.core.pm.filter.impl;
 
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.filter.BeanFilterProvider;
 import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.filter.FilterByDefinition;
 import org.pm4j.core.pm.filter.FilterItem;
 
 /**
@@ -8,7 +11,7 @@ import org.pm4j.core.pm.filter.FilterItem;
  *
  * @author olaf boede
  */
-public class FilterItemFilter implements Filter {
+public class FilterItemFilter implements Filter, BeanFilterProvider {
 
   private final FilterItem filterItem;
   private final boolean passThrough;
@@ -30,4 +33,19 @@ public class FilterItemFilter implements Filter {
     return false;
   }
 
+  /**
+   * Provides a bean filter if the filter-by definition is a
+   * {@link FilterByPmAttrBase} that is able to filter the beans.
+   */
+  @Override
+  public Filter getBeanFilter(PmBean<?> sampleItemPm) {
+    if (passThrough) {
+      return ConstantBeanFilter.MATCH_ALL;
+    }
+    FilterByDefinition filterBy = filterItem.getFilterBy();
+    return (filterBy instanceof FilterByPmAttrBase)
+        ? ((FilterByPmAttrBase<?>)filterBy).makeBeanFilter(sampleItemPm, filterItem.getCompOp(), filterItem.getFilterByValue())
+        : null;
+  }
+
 }
@@ -3,6 +3,8 @@ package org.pm4j.core.pm.filter.impl;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.filter.BeanFilterProvider;
 import org.pm4j.core.pm.filter.CombinedBy;
 import org.pm4j.core.pm.filter.Filter;
 import org.pm4j.core.pm.filter.FilterItem;
@@ -13,7 +15,7 @@ import org.pm4j.core.pm.filter.FilterSet;
  *
  * @author olaf boede
  */
-public class FilterSetFilter implements Filter {
+public class FilterSetFilter implements Filter, BeanFilterProvider {
 
   private final FilterSet filterSet;
   private final FilterItem[] activeFilterItems;
@@ -68,6 +70,43 @@ public class FilterSetFilter implements Filter {
     return false;
   }
 
+  /**
+   * Provides a bean filter if each active filter item is able to filter the
+   * beans. See {@link FilterItemFilter#getBeanFilter(PmBean)}.
+   */
+  @Override
+  public Filter getBeanFilter(PmBean<?> sampleItemPm) {
+    final Filter[] beanFilters = new Filter[activeFilterItems.length];
+    for (int i = 0; i < beanFilters.length; ++i) {
+      beanFilters[i] = new FilterItemFilter(activeFilterItems[i]).getBeanFilter(sampleItemPm);
+      if (beanFilters[i] == null) {
+        return null;
+      }
+    }
+
+    if (beanFilters.length == 0) {
+      return ConstantBeanFilter.MATCH_ALL;
+    }
+
+    final boolean isOr = (combinedBy == CombinedBy.OR);
+    return new Filter() {
+      @Override
+      public boolean doesItemMatch(Object item) {
+        for (Filter f : beanFilters) {
+          // The first match decides in case of OR, the first mismatch in case of AND.
+          if (f.doesItemMatch(item) == isOr) {
+            return isOr;
+          }
+        }
+        return !isOr;
+      }
+      @Override
+      public boolean isBeanFilter() {
+        return true;
+      }
+    };
+  }
+
   /**
    * Returns <code>true</code> if the filter contains some definitions that really may filter.
    *
@@ -115,29 +115,42 @@ public class AnnotationUtil {
           String propertyName,
           Collection<PmCacheCfg> annotations,
           CacheMode defaultValue) {
-    CacheMode value = defaultValue;
-
-    try {
-      Method m = null;
-      for (PmCacheCfg cfg : annotations) {
-        // use reflection method finder only once:
-        if (m == null) {
-          m = cfg.getClass().getMethod(propertyName);
-        }
-        CacheMode v = (CacheMode)m.invoke(cfg, EMPTY_OBJ_ARRAY);
-        if (v == CacheMode.NOT_SPECIFIED) {
-          v = cfg.all();
-        }
+    PmCacheCfg cfg = findCacheAnnotationForProperty(propertyName, annotations);
+    return (cfg != null)
+              ? getCacheMode(propertyName, cfg)
+              : defaultValue;
+  }
 
-        if (v != CacheMode.NOT_SPECIFIED) {
-          value = v;
-          break;
-        }
+  /**
+   * Searches the first annotation that has a {@link CacheMode} definition for
+   * the given property.
+   *
+   * @param propertyName name of the {@link CacheMode} property to handle. E.g. 'all' or 'title'.
+   * @param annotations  the set of found found {@link CacheMode} annotations to analyze.
+   * @return The first annotation that defines the given property or <code>null</code>.
+   */
+  public static PmCacheCfg findCacheAnnotationForProperty(
+          String propertyName,
+          Collection<PmCacheCfg> annotations) {
+    for (PmCacheCfg cfg : annotations) {
+      if (getCacheMode(propertyName, cfg) != CacheMode.NOT_SPECIFIED) {
+        return cfg;
       }
+    }
+    return null;
+  }
+
+  private static CacheMode getCacheMode(String propertyName, PmCacheCfg cfg) {
+    CacheMode v = null;
+    try {
+      Method m = cfg.getClass().getMethod(propertyName);
+      v = (CacheMode)m.invoke(cfg, EMPTY_OBJ_ARRAY);
     } catch (Exception e) {
       CheckedExceptionWrapper.throwAsRuntimeException(e);
     }
 
-    return value;
+    return (v == CacheMode.NOT_SPECIFIED)
+              ? cfg.all()
+              : v;
   }
 }
@@ -1,6 +1,7 @@
 package org.pm4j.core.pm.impl;
 
 import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.PmObject;
 
 interface BeanPmCache {
 
@@ -11,6 +12,16 @@ interface BeanPmCache {
    */
   void add(PmBean<?> pmElement);
 
+  /**
+   * Registers the bean-to-PM mapping(s) if there is no PM for the bean yet.
+   * <p>
+   * Caches with an equals index also check for PMs of equal beans.
+   *
+   * @param pmElement A new PM for a bean.
+   * @return <code>false</code> if there is already a PM for the bean.
+   */
+  boolean addIfAbsent(PmBean<?> pmElement);
+
   /**
    * Looks for a PM that already represents the given bean.
    *
@@ -19,6 +30,20 @@ interface BeanPmCache {
    */
   <T extends PmBean<?>> T findByBean(Object bean);
 
+  /**
+   * Looks for a PM that already represents the given bean. Creates it if
+   * there is none.
+   * <p>
+   * Concurrent calls for the same bean instance provide the same PM. Calls
+   * for other beans are not blocked.
+   *
+   * @param pmCtxt The context for the PM to create.
+   * @param bean The bean to get the PM for.
+   * @param factory The factory to create the PM with.
+   * @return The related PM. Never <code>null</code>.
+   */
+  <T extends PmBean<?>> T findOrCreate(PmObject pmCtxt, Object bean, BeanPmFactory factory);
+
   /**
    * Removes the related mapping(s).
    * @param pmBean The obsolete PM.
@@ -0,0 +1,327 @@
+package org.pm4j.core.pm.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.pm4j.core.exception.PmRuntimeException;
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmObject;
+
+/**
+ * A bean PM cache with a small memory footprint per cached PM.
+ * <p>
+ * Each PM is represented by a single weak entry in an open addressing hash
+ * table. The bean is not referenced by the cache. It is provided by the PM.
+ * Entries of garbage collected PMs are removed by the next modifying cache
+ * operation.
+ * <p>
+ * Beans are found by identity. An additional equals index that also finds PMs
+ * for equal beans can be switched on. See
+ * {@link PmDefaults.BeanPmCacheKind#COMPACT_WITH_EQUALS_INDEX}.
+ * <p>
+ * Lookups don't lock. Modifications are synchronized.
+ *
+ * @author olaf boede
+ */
+class BeanPmCacheCompact implements BeanPmCache {
+
+  private static final int MIN_CAPACITY = 16;
+
+  /** Marks a slot of a removed entry. */
+  private static final Entry REMOVED = new Entry(null, 0, 0, null);
+
+  private final ReferenceQueue<Object> refQueue = new ReferenceQueue<Object>();
+  private final BeanPmCreationGuard creationGuard;
+  private final Table identityTable = new Table(true);
+  /** Is <code>null</code> if the equals index is not switched on. */
+  private final Table equalsTable;
+
+  /**
+   * @param withEqualsIndex
+   *          <code>true</code> switches the equals index on.
+   */
+  public BeanPmCacheCompact(boolean withEqualsIndex) {
+    this.equalsTable = withEqualsIndex ? new Table(false) : null;
+    this.creationGuard = new BeanPmCreationGuard(withEqualsIndex);
+  }
+
+  @Override
+  public synchronized void add(PmBean<?> pmElement) {
+    expungeStaleEntries();
+
+    Object bean = getBean(pmElement);
+    int identityHash = System.identityHashCode(bean);
+    int equalsHash = (equalsTable != null) ? bean.hashCode() : 0;
+
+    if (identityTable.findEntry(bean, identityHash) != null) {
+      throw new PmRuntimeException(pmElement, "Bean identity already added to the PM bean cache: " + PmUtil.getPmLogString(pmElement));
+    }
+    if (equalsTable != null && equalsTable.findEntry(bean, equalsHash) != null) {
+      throw new PmRuntimeException(pmElement, "An equal bean is already added to the PM bean cache: " + PmUtil.getPmLogString(pmElement));
+    }
+
+    Entry e = new Entry(pmElement, identityHash, equalsHash, refQueue);
+    identityTable.insert(e);
+    if (equalsTable != null) {
+      equalsTable.insert(e);
+    }
+  }
+
+  /**
+   * Does not register the PM if there is already a PM for the identical bean
+   * or, if the equals index is switched on, for an equal bean.
+   */
+  @Override
+  public synchronized boolean addIfAbsent(PmBean<?> pmElement) {
+    Object bean = getBean(pmElement);
+    if ((identityTable.findEntry(bean, System.identityHashCode(bean)) != null) ||
+        (equalsTable != null && equalsTable.findEntry(bean, bean.hashCode()) != null)) {
+      return false;
+    }
+    add(pmElement);
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends PmBean<?>> T findByBean(Object bean) {
+    Entry e = identityTable.findEntry(bean, System.identityHashCode(bean));
+    if (e == null && equalsTable != null) {
+      e = equalsTable.findEntry(bean, bean.hashCode());
+    }
+    return (T) ((e != null) ? e.get() : null);
+  }
+
+  @Override
+  public <T extends PmBean<?>> T findOrCreate(PmObject pmCtxt, Object bean, BeanPmFactory factory) {
+    return creationGuard.<T>findOrCreate(this, pmCtxt, bean, factory);
+  }
+
+  @Override
+  public synchronized void removePm(PmBean<?> pmBean) {
+    expungeStaleEntries();
+
+    Object bean = getBean(pmBean);
+    if (bean != null) {
+      Entry e = identityTable.findEntry(bean, System.identityHashCode(bean));
+      if (e != null && e.get() == pmBean) {
+        removeEntry(e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void removeBean(Object bean) {
+    expungeStaleEntries();
+
+    Entry e = identityTable.findEntry(bean, System.identityHashCode(bean));
+    if (e != null) {
+      removeEntry(e);
+    }
+    if (equalsTable != null) {
+      e = equalsTable.findEntry(bean, bean.hashCode());
+      if (e != null) {
+        removeEntry(e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    identityTable.clear();
+    if (equalsTable != null) {
+      equalsTable.clear();
+    }
+  }
+
+  /**
+   * @return The number of cached PMs that are not yet garbage collected.
+   */
+  /* package */ synchronized int size() {
+    expungeStaleEntries();
+    return identityTable.countLiveEntries();
+  }
+
+  private void removeEntry(Entry e) {
+    identityTable.remove(e);
+    if (equalsTable != null) {
+      equalsTable.remove(e);
+    }
+  }
+
+  private void expungeStaleEntries() {
+    Reference<?> r;
+    while ((r = refQueue.poll()) != null) {
+      removeEntry((Entry) r);
+    }
+  }
+
+  /**
+   * Provides the bean without triggering a lazy bean initialization.
+   */
+  private static Object getBean(PmBean<?> pm) {
+    return (pm instanceof PmBeanBase)
+        ? ((PmBeanBase<?>)pm).getPmBeanWithoutInitCall()
+        : pm.getPmBean();
+  }
+
+  /**
+   * The weak reference to a cached PM.
+   */
+  private static final class Entry extends WeakReference<PmBean<?>> {
+    private final int identityHash;
+    private final int equalsHash;
+
+    public Entry(PmBean<?> pm, int identityHash, int equalsHash, ReferenceQueue<Object> refQueue) {
+      super(pm, refQueue);
+      this.identityHash = identityHash;
+      this.equalsHash = equalsHash;
+    }
+  }
+
+  /**
+   * An open addressing hash table with linear probing.
+   * <p>
+   * Readers access the slots without locking. Modifications are guarded by
+   * the cache instance. Removed entries leave a {@link #REMOVED} marker until
+   * the next resize. A resize publishes a completely filled new slot array.
+   */
+  private static final class Table {
+    private final boolean identity;
+    private volatile AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<Entry>(MIN_CAPACITY);
+    /** The number of non-empty slots, including the removed ones. */
+    private int usedSlots;
+
+    public Table(boolean identity) {
+      this.identity = identity;
+    }
+
+    public Entry findEntry(Object bean, int hash) {
+      AtomicReferenceArray<Entry> s = slots;
+      int mask = s.length() - 1;
+      // The table has always empty slots. That terminates the loop.
+      for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+        Entry e = s.get(i);
+        if (e == null) {
+          return null;
+        }
+        if (hashOf(e) == hash) {
+          PmBean<?> pm = e.get();
+          if (pm != null && matches(bean, getBean(pm))) {
+            return e;
+          }
+        }
+      }
+    }
+
+    public void insert(Entry entry) {
+      ensureCapacityForInsert();
+      AtomicReferenceArray<Entry> s = slots;
+      int mask = s.length() - 1;
+      for (int i = spread(hashOf(entry)) & mask; ; i = (i + 1) & mask) {
+        Entry e = s.get(i);
+        if (e == null) {
+          ++usedSlots;
+          s.set(i, entry);
+          return;
+        }
+        // Slots of removed or garbage collected entries get re-used.
+        if (e.get() == null) {
+          s.set(i, entry);
+          return;
+        }
+      }
+    }
+
+    public void remove(Entry entry) {
+      AtomicReferenceArray<Entry> s = slots;
+      int mask = s.length() - 1;
+      for (int i = spread(hashOf(entry)) & mask; ; i = (i + 1) & mask) {
+        Entry e = s.get(i);
+        if (e == null) {
+          // Not found. May happen for garbage collected entries that were dropped by a resize.
+          return;
+        }
+        if (e == entry) {
+          s.set(i, REMOVED);
+          return;
+        }
+      }
+    }
+
+    public int countLiveEntries() {
+      AtomicReferenceArray<Entry> s = slots;
+      int count = 0;
+      for (int i = 0; i < s.length(); ++i) {
+        Entry e = s.get(i);
+        if (e != null && e.get() != null) {
+          ++count;
+        }
+      }
+      return count;
+    }
+
+    public void clear() {
+      slots = new AtomicReferenceArray<Entry>(MIN_CAPACITY);
+      usedSlots = 0;
+    }
+
+    /**
+     * Keeps the load factor below 0.5. A resize drops all removed and garbage
+     * collected entries.
+     */
+    private void ensureCapacityForInsert() {
+      AtomicReferenceArray<Entry> s = slots;
+      if ((usedSlots + 1) * 2 <= s.length()) {
+        return;
+      }
+
+      int numOfLiveEntries = 0;
+      for (int i = 0; i < s.length(); ++i) {
+        Entry e = s.get(i);
+        if (e != null && e.get() != null) {
+          ++numOfLiveEntries;
+        }
+      }
+
+      int capacity = MIN_CAPACITY;
+      while (capacity < (numOfLiveEntries + 1) * 4) {
+        capacity <<= 1;
+      }
+
+      AtomicReferenceArray<Entry> newSlots = new AtomicReferenceArray<Entry>(capacity);
+      int mask = capacity - 1;
+      for (int i = 0; i < s.length(); ++i) {
+        Entry e = s.get(i);
+        if (e != null && e.get() != null) {
+          int j = spread(hashOf(e)) & mask;
+          while (newSlots.get(j) != null) {
+            j = (j + 1) & mask;
+          }
+          newSlots.set(j, e);
+        }
+      }
+
+      usedSlots = numOfLiveEntries;
+      slots = newSlots;
+    }
+
+    private int hashOf(Entry e) {
+      return identity ? e.identityHash : e.equalsHash;
+    }
+
+    private boolean matches(Object bean, Object otherBean) {
+      return identity
+          ? bean == otherBean
+          : (otherBean != null) && bean.equals(otherBean);
+    }
+
+    private static int spread(int h) {
+      return h ^ (h >>> 16);
+    }
+  }
+
+}
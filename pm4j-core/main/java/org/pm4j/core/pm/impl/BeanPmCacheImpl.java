@@ -1,9 +1,11 @@
 package org.pm4j.core.pm.impl;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.logging.Log;
@@ -12,18 +14,27 @@ import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmBean;
 import org.pm4j.core.pm.PmObject;
 
+/**
+ * A thread safe bean PM cache.
+ * <p>
+ * Lookups don't lock. The beans and PMs are only weakly referenced. Mappings
+ * of garbage collected PMs and beans are removed by the next cache operation.
+ * <p>
+ * {@link #findOrCreate(PmObject, Object, BeanPmFactory)} serializes only
+ * concurrent PM creations for the same bean instance.
+ */
 class BeanPmCacheImpl implements BeanPmCache {
 
   private static final Log LOG = LogFactory.getLog(BeanPmCacheImpl.class);
 
-  private Map<Object, WeakReference<PmBean<?>>> beanEqualToPmMap = new WeakHashMap<Object, WeakReference<PmBean<?>>>();
-  private Map<BeanIdentity, WeakReference<PmBean<?>>> beanIdentityToPmMap = new WeakHashMap<BeanIdentity, WeakReference<PmBean<?>>>();
+  private final ConcurrentMap<Object, PmRef> beanEqualToPmMap = new ConcurrentHashMap<Object, PmRef>();
+  private final ConcurrentMap<Object, PmRef> beanIdentityToPmMap = new ConcurrentHashMap<Object, PmRef>();
 
-  /**
-   * Keeps the bean identity alive as long as the presentation model instance
-   * is in use.
-   */
-  private Map<PmBean<?>, BeanIdentity> pmToBeanIdentityMap = new WeakHashMap<PmBean<?>, BeanIdentity>();
+  /** Receives the references to garbage collected PMs and beans. */
+  private final ReferenceQueue<Object> refQueue = new ReferenceQueue<Object>();
+
+  /** The equals index is always on. Concurrent creations for equal beans wait for each other. */
+  private final BeanPmCreationGuard creationGuard = new BeanPmCreationGuard(true);
 
   /**
    * Registers the bean-to-PM mapping(s).
@@ -32,24 +43,45 @@ class BeanPmCacheImpl implements BeanPmCache {
    */
   @Override
   public void add(PmBean<?> pmElement) {
+    doAdd(pmElement, true);
+  }
+
+  /**
+   * Does not register the PM if there is already a PM for the identical or an equal bean.
+   */
+  @Override
+  public boolean addIfAbsent(PmBean<?> pmElement) {
+    return doAdd(pmElement, false);
+  }
+
+  private boolean doAdd(PmBean<?> pmElement, boolean failOnConflict) {
+    expungeStaleEntries();
+
     Object bean = pmElement.getPmBean();
-    BeanIdentity beanIdentity = new BeanIdentity(bean);
-    WeakReference<PmBean<?>> pmRef = new WeakReference<PmBean<?>>(pmElement);
+    WeakBeanKey identityKey = new WeakBeanKey(bean, true, refQueue);
+    WeakBeanKey equalKey = new WeakBeanKey(bean, false, refQueue);
+    PmRef pmRef = new PmRef(pmElement, identityKey, equalKey, refQueue);
 
-    if (LOG.isTraceEnabled()) {
-      LOG.trace(this + ": added PM '" + logString(pmElement) + "' for bean: " + bean);
+    // Add it to the identity map. The bean should not yet be registered there.
+    if (! putIfAbsentOrStale(beanIdentityToPmMap, identityKey, pmRef)) {
+      if (failOnConflict) {
+        throw new PmRuntimeException(pmElement, "Bean identity already added to the PM bean cache: " + ObjectUtils.identityToString(bean));
+      }
+      return false;
     }
 
-    // Add it to the identity map. The bean should not yet be registered there.
-    WeakReference<PmBean<?>> oldPmRef = beanIdentityToPmMap.put(beanIdentity, pmRef);
-    if (oldPmRef != null && oldPmRef.get() != null) {
-      throw new PmRuntimeException(pmElement, "Bean identity already added to the PM bean cache: " + beanIdentity);
+    if (LOG.isTraceEnabled()) {
+      LOG.trace(this + ": added PM '" + logString(pmElement) + "' for bean: " + bean);
     }
 
     // Add it to the equals map.
-    WeakReference<PmBean<?>> oldPmEqualRef = beanEqualToPmMap.put(bean, pmRef);
-    if (oldPmEqualRef != null && oldPmEqualRef.get() != null) {
-      throw new PmRuntimeException(pmElement, "An equal bean is already added to the PM bean cache: " + beanIdentity);
+    if (! putIfAbsentOrStale(beanEqualToPmMap, equalKey, pmRef)) {
+      beanIdentityToPmMap.remove(identityKey, pmRef);
+      if (! failOnConflict) {
+        // A concurrent creation for an equal bean was faster. Its PM gets used.
+        return false;
+      }
+      throw new PmRuntimeException(pmElement, "An equal bean is already added to the PM bean cache: " + ObjectUtils.identityToString(bean));
     }
 
     // Check if the set of beans for duplicates. That may indicate a bug:
@@ -58,8 +90,8 @@ class BeanPmCacheImpl implements BeanPmCache {
     //            If not: Add a switch.
     if (pmElement.getPmConversation().getPmDefaults().debugHints) {
       HashSet<Object> beanSet = new HashSet<Object>();
-      for (BeanIdentity i : beanIdentityToPmMap.keySet()) {
-        Object o = i.beanRef.get();
+      for (Object k : beanIdentityToPmMap.keySet()) {
+        Object o = ((BeanKey)k).getBean();
         if (o != null) {
           if (!beanSet.add(o)) {
             throw new PmRuntimeException(pmElement, "Bean already added to the PM bean cache: " + PmUtil.getPmLogString(pmElement));
@@ -68,71 +100,57 @@ class BeanPmCacheImpl implements BeanPmCache {
       }
     }
 
-    if (pmToBeanIdentityMap.put(pmElement, beanIdentity) != null) {
-      throw new PmRuntimeException(pmElement, "Bean presentation model already added to the PM bean cache: " + PmUtil.getPmLogString(pmElement));
-    }
+    return true;
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public <T extends PmBean<?>> T findByBean(Object bean) {
-    T pm = findByBeanIdentity(bean);
+    expungeStaleEntries();
+
+    T pm = (T) getPm(beanIdentityToPmMap, new LookupKey(bean, true));
     return (T) (pm == null
-        ? findByBeanEquals(bean)
+        ? getPm(beanEqualToPmMap, new LookupKey(bean, false))
         : pm);
   }
 
-  @SuppressWarnings("unchecked")
-  private <T extends PmBean<?>> T findByBeanIdentity(Object bean) {
-    WeakReference<PmBean<?>> ref = beanIdentityToPmMap.get(new BeanIdentity(bean));
-    return (T) (ref != null
-        ? ref.get()
-        : null);
-  }
-
-  @SuppressWarnings("unchecked")
-  private <T extends PmBean<?>> T findByBeanEquals(Object bean) {
-    WeakReference<PmBean<?>> ref = beanEqualToPmMap.get(bean);
-    return (T) (ref != null
-        ? ref.get()
-        : null);
+  @Override
+  public <T extends PmBean<?>> T findOrCreate(PmObject pmCtxt, Object bean, BeanPmFactory factory) {
+    return creationGuard.<T>findOrCreate(this, pmCtxt, bean, factory);
   }
 
   @Override
   public void removePm(PmBean<?> pmBean) {
+    expungeStaleEntries();
+
     Object bean = pmBean.getPmBean();
 
     if (LOG.isTraceEnabled()) {
       LOG.trace(this + ": removed PM '" + logString(pmBean) + "' for bean: " + bean);
     }
 
-    pmToBeanIdentityMap.remove(pmBean);
     if (bean != null) {
-      beanEqualToPmMap.remove(bean);
-      beanIdentityToPmMap.remove(bean);
+      removeIfMappedTo(beanEqualToPmMap, new LookupKey(bean, false), pmBean);
+      removeIfMappedTo(beanIdentityToPmMap, new LookupKey(bean, true), pmBean);
     }
   }
 
   @Override
   public void removeBean(Object bean) {
-    WeakReference<PmBean<?>> pmRef = beanIdentityToPmMap.remove(bean);
+    expungeStaleEntries();
+
+    PmRef pmRef = beanIdentityToPmMap.remove(new LookupKey(bean, true));
 
     if (LOG.isTraceEnabled()) {
       LOG.trace(this + ": removed bean '" + bean + "' cached PM was: " + (pmRef != null ? logString(pmRef.get()) : null));
     }
 
-    if (pmRef != null && pmRef.get() != null) {
-      pmToBeanIdentityMap.remove(pmRef.get());
-    }
-    pmRef = beanEqualToPmMap.remove(bean);
-    if (pmRef != null && pmRef.get() != null) {
-      pmToBeanIdentityMap.remove(pmRef.get());
-    }
+    beanEqualToPmMap.remove(new LookupKey(bean, false));
   }
 
   @Override
   public void clear() {
-    int size = pmToBeanIdentityMap.size();
+    int size = beanIdentityToPmMap.size();
     if (size > 0 && LOG.isTraceEnabled()) {
       LOG.trace(this + ": clear called. Removed " + size + " entries.");
       for (Object o : beanEqualToPmMap.keySet()) {
@@ -140,11 +158,57 @@ class BeanPmCacheImpl implements BeanPmCache {
       }
     }
 
-    pmToBeanIdentityMap.clear();
     beanEqualToPmMap.clear();
     beanIdentityToPmMap.clear();
   }
 
+  private static PmBean<?> getPm(ConcurrentMap<Object, PmRef> map, LookupKey key) {
+    PmRef ref = map.get(key);
+    return (ref != null)
+        ? ref.get()
+        : null;
+  }
+
+  /**
+   * @return <code>false</code> if the key is already mapped to a PM that is still in use.
+   */
+  private static boolean putIfAbsentOrStale(ConcurrentMap<Object, PmRef> map, WeakBeanKey key, PmRef pmRef) {
+    while (true) {
+      PmRef oldRef = map.putIfAbsent(key, pmRef);
+      if (oldRef == null) {
+        return true;
+      }
+      if (oldRef.get() != null) {
+        return false;
+      }
+      // The old PM is no longer in use. Its mapping gets replaced by a mapping with the new key.
+      map.remove(key, oldRef);
+    }
+  }
+
+  private static void removeIfMappedTo(ConcurrentMap<Object, PmRef> map, LookupKey key, PmBean<?> pmBean) {
+    PmRef ref = map.get(key);
+    if (ref != null && ref.get() == pmBean) {
+      map.remove(key, ref);
+    }
+  }
+
+  private void expungeStaleEntries() {
+    Reference<?> r;
+    while ((r = refQueue.poll()) != null) {
+      if (r instanceof PmRef) {
+        PmRef pmRef = (PmRef) r;
+        beanIdentityToPmMap.remove(pmRef.identityKey, pmRef);
+        beanEqualToPmMap.remove(pmRef.equalKey, pmRef);
+      }
+      else {
+        // A stale key is only equal to itself.
+        beanIdentityToPmMap.remove(r);
+        beanEqualToPmMap.remove(r);
+      }
+    }
+  }
+
   private String logString(PmObject pm) {
     return pm != null
         ? (PmInitApi.isPmInitialized(pm) ? pm.getPmRelativeName() : pm.getClass().getSimpleName()) + "(" + Integer.toHexString(pm.hashCode()) + ")"
@@ -152,25 +216,40 @@ class BeanPmCacheImpl implements BeanPmCache {
   }
 
   /**
-   * Holds only a weak reference to the referenced bean.
+   * Common interface of the map keys. Compares the beans by identity or by
+   * equals.
    */
-  static class BeanIdentity {
-    private final WeakReference<Object> beanRef;
+  interface BeanKey {
+    Object getBean();
+  }
+
+  /**
+   * The key stored in the maps. Holds only a weak reference to the referenced bean.
+   */
+  static final class WeakBeanKey extends WeakReference<Object> implements BeanKey {
+    private final boolean identity;
     private final int hashCode;
 
-    public BeanIdentity(Object bean) {
-      this.beanRef = new WeakReference<Object>(bean);
-      this.hashCode = System.identityHashCode(bean);
+    public WeakBeanKey(Object bean, boolean identity, ReferenceQueue<Object> refQueue) {
+      super(bean, refQueue);
+      this.identity = identity;
+      this.hashCode = identity ? System.identityHashCode(bean) : bean.hashCode();
     }
 
-    public boolean isActiveBeanRef() {
-      return beanRef.get() != null;
+    @Override
+    public Object getBean() {
+      return get();
     }
 
     @Override
     public boolean equals(Object obj) {
-      return (obj != null) &&
-             (beanRef.get() == ((BeanIdentity)obj).beanRef.get());
+      if (obj == this) {
+        return true;
+      }
+      Object bean = get();
+      return (bean != null) &&
+             (obj instanceof BeanKey) &&
+             matches(bean, ((BeanKey)obj).getBean(), identity);
     }
 
     @Override
@@ -180,7 +259,57 @@ class BeanPmCacheImpl implements BeanPmCache {
 
     @Override
     public String toString() {
-      return ObjectUtils.identityToString(beanRef.get());
+      return ObjectUtils.identityToString(get());
+    }
+  }
+
+  /**
+   * A short living key that is used for map lookups.
+   */
+  static final class LookupKey implements BeanKey {
+    private final Object bean;
+    private final boolean identity;
+
+    public LookupKey(Object bean, boolean identity) {
+      this.bean = bean;
+      this.identity = identity;
+    }
+
+    @Override
+    public Object getBean() {
+      return bean;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof BeanKey) &&
+             matches(bean, ((BeanKey)obj).getBean(), identity);
+    }
+
+    @Override
+    public int hashCode() {
+      return identity ? System.identityHashCode(bean) : bean.hashCode();
+    }
+  }
+
+  private static boolean matches(Object bean, Object otherBean, boolean identity) {
+    return identity
+        ? bean == otherBean
+        : (otherBean != null) && bean.equals(otherBean);
+  }
+
+  /**
+   * The weak PM reference stored in the maps. Knows its keys to be able to
+   * remove them after garbage collection of the PM.
+   */
+  static final class PmRef extends WeakReference<PmBean<?>> {
+    private final WeakBeanKey identityKey;
+    private final WeakBeanKey equalKey;
+
+    public PmRef(PmBean<?> pm, WeakBeanKey identityKey, WeakBeanKey equalKey, ReferenceQueue<Object> refQueue) {
+      super(pm, refQueue);
+      this.identityKey = identityKey;
+      this.equalKey = equalKey;
     }
   }
 
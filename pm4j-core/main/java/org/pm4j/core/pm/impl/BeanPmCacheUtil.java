@@ -23,8 +23,8 @@ class BeanPmCacheUtil {
         // There are no caches to clear if the PM is not yet initialized.
         if (PmInitApi.isPmInitialized(pm)) {
           BeanPmCacheUtil.clearBeanPmCache(pm);
-          for (PmObject c : PmUtil.getPmChildren(pm)) {
-            c.accept(this);
+          for (int i = 0, n = PmUtil.getPmChildCount(pm, PmChildKind.ALL); i < n; ++i) {
+            PmUtil.getPmChild(pm, PmChildKind.ALL, i).accept(this);
           }
         }
       }
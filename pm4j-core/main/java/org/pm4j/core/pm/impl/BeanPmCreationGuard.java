@@ -0,0 +1,169 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.PmObject;
+
+/**
+ * Provides the compute-if-absent semantics of
+ * {@link BeanPmCache#findOrCreate(PmObject, Object, BeanPmFactory)}.
+ * <p>
+ * A lock is registered for each bean a PM gets created for. Only concurrent
+ * creations for the same bean wait for each other. If the cache has an equals
+ * index, the creations for equal beans wait for each other too.
+ * <p>
+ * A thread that already creates a PM does not wait for the lock of another
+ * thread. Otherwise two threads that create mutually dependent PMs would wait
+ * for each other forever. Such a nested creation creates its PM without the
+ * lock. The PM that gets registered first is provided to both threads.
+ *
+ * @author olaf boede
+ */
+class BeanPmCreationGuard {
+
+  /** The locks of the currently running PM creations. */
+  private final ConcurrentMap<CreationKey, ReentrantLock> pendingCreationMap = new ConcurrentHashMap<CreationKey, ReentrantLock>();
+
+  /** <code>true</code> if the creations are keyed by bean equality. Otherwise by bean identity. */
+  private final boolean byEquals;
+
+  /** The beans the current thread creates PMs for. Compared by identity. */
+  private static final ThreadLocal<Set<Object>> creatingBeans = new ThreadLocal<Set<Object>>() {
+    @Override
+    protected Set<Object> initialValue() {
+      return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    }
+  };
+
+  /**
+   * @param byEquals
+   *          <code>true</code> if the creations for equal beans should wait
+   *          for each other. Should be set if the cache finds PMs of equal
+   *          beans.
+   */
+  public BeanPmCreationGuard(boolean byEquals) {
+    this.byEquals = byEquals;
+  }
+
+  /**
+   * @param bean
+   *          A bean.
+   * @return <code>true</code> if the current thread creates a PM for the given
+   *         bean within a {@link #findOrCreate(BeanPmCache, PmObject, Object, BeanPmFactory)}
+   *         call. A concurrent creation may have registered a PM for it in
+   *         that case.
+   */
+  public static boolean isCreatingPmFor(Object bean) {
+    return creatingBeans.get().contains(bean);
+  }
+
+  /**
+   * @param cache
+   *          The cache to find an existing PM in. The new PM registers itself
+   *          there.
+   * @param pmCtxt
+   *          The context for the PM to create.
+   * @param bean
+   *          The bean to get the PM for.
+   * @param factory
+   *          The factory to create the PM with.
+   * @return The found or created PM.
+   */
+  public <T extends PmBean<?>> T findOrCreate(BeanPmCache cache, PmObject pmCtxt, Object bean, BeanPmFactory factory) {
+    T pm = cache.<T>findByBean(bean);
+    if (pm != null) {
+      return pm;
+    }
+
+    Set<Object> beansInCreation = creatingBeans.get();
+    CreationKey creationKey = new CreationKey(bean, byEquals);
+    while (true) {
+      ReentrantLock lock = new ReentrantLock();
+      lock.lock();
+      ReentrantLock otherLock = pendingCreationMap.putIfAbsent(creationKey, lock);
+
+      if (otherLock == null) {
+        try {
+          // Another thread may have finished the creation before the lock was registered.
+          pm = cache.<T>findByBean(bean);
+          return (pm != null)
+              ? pm
+              : this.<T>makePm(cache, pmCtxt, bean, factory, beansInCreation);
+        }
+        finally {
+          pendingCreationMap.remove(creationKey, lock);
+          lock.unlock();
+        }
+      }
+
+      if (otherLock.isHeldByCurrentThread() || !beansInCreation.isEmpty()) {
+        // A nested call within the creation of the same PM or within the creation
+        // of a PM the other thread may wait for. Waiting for it may not terminate.
+        return this.<T>makePm(cache, pmCtxt, bean, factory, beansInCreation);
+      }
+
+      // Wait for the other thread. Its creation may have failed. In that case the next loop tries it again.
+      otherLock.lock();
+      otherLock.unlock();
+      pm = cache.<T>findByBean(bean);
+      if (pm != null) {
+        return pm;
+      }
+    }
+  }
+
+  private <T extends PmBean<?>> T makePm(BeanPmCache cache, PmObject pmCtxt, Object bean, BeanPmFactory factory, Set<Object> beansInCreation) {
+    boolean outerCreation = beansInCreation.add(bean);
+    T pm;
+    try {
+      pm = factory.<T>makePm(pmCtxt, bean);
+    }
+    finally {
+      if (outerCreation) {
+        beansInCreation.remove(bean);
+      }
+    }
+
+    // Provides the PM of a concurrent creation if that one was registered first.
+    T registeredPm = cache.<T>findByBean(bean);
+    return (registeredPm != null)
+        ? registeredPm
+        : pm;
+  }
+
+  /** A short living key that compares the bean by equality or by identity. */
+  private static final class CreationKey {
+    private final Object bean;
+    private final boolean byEquals;
+
+    public CreationKey(Object bean, boolean byEquals) {
+      this.bean = bean;
+      this.byEquals = byEquals;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (! (obj instanceof CreationKey)) {
+        return false;
+      }
+      Object otherBean = ((CreationKey)obj).bean;
+      return byEquals
+          ? bean.equals(otherBean)
+          : bean == otherBean;
+    }
+
+    @Override
+    public int hashCode() {
+      return byEquals
+          ? bean.hashCode()
+          : System.identityHashCode(bean);
+    }
+  }
+
+}
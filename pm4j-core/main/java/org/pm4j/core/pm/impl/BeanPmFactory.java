@@ -2,7 +2,10 @@ package org.pm4j.core.pm.impl;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -35,10 +38,14 @@ class BeanPmFactory {
   /** A cache that prevents repeated reflection analysis loops. */
   private Map<Class<?>, Object> classesNotHandledHere = new ConcurrentHashMap<Class<?>, Object>();
 
+  /** The registered PM classes. */
+  private final List<Class<?>> beanPmClasses;
+
   /**
    * @param beanPmClasses The set of handled {@link PmBean} classes.
    */
   public BeanPmFactory(Class<?>... beanPmClasses) {
+    this.beanPmClasses = Collections.unmodifiableList(Arrays.asList(beanPmClasses.clone()));
     for (Class<?> beanPmClass : beanPmClasses) {
       if (! PmBean.class.isAssignableFrom(beanPmClass)) {
         throw new PmRuntimeException("Only PmBean classes can be used for PmFactory configurations. Found class: " +
@@ -126,6 +133,13 @@ class BeanPmFactory {
     return getCtorForPm(object) != null;
   }
 
+  /**
+   * @return The set of {@link PmBean} classes handled by this factory.
+   */
+  public List<Class<?>> getBeanPmClasses() {
+    return beanPmClasses;
+  }
+
   // -- Internal helper --
 
   private static final class LongestSuperPathComp implements Comparator<Class<?>> {
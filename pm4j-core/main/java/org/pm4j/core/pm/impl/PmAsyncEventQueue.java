@@ -0,0 +1,224 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * An ordered dispatch queue for the asynchronous event listeners of a
+ * conversation.
+ * <p>
+ * The queued events get dispatched one after the other by a single task of
+ * the executor. Thus the listeners get the events in the order they were
+ * fired.
+ *
+ * @author olaf boede
+ */
+class PmAsyncEventQueue {
+
+  private static final Log LOG = LogFactory.getLog(PmAsyncEventQueue.class);
+
+  /** The executor to use if the {@link org.pm4j.core.pm.PmDefaults} don't define one. */
+  private static ExecutorService defaultExecutor;
+
+  private final Executor executor;
+  private final LinkedList<Dispatch> dispatches = new LinkedList<Dispatch>();
+  /** Is <code>true</code> while a drain task is submitted or running. */
+  private boolean draining;
+  /** The thread that currently runs the drain task. */
+  private Thread drainThread;
+
+  private final Runnable drainTask = new Runnable() {
+    @Override
+    public void run() {
+      drain();
+    }
+  };
+
+  public PmAsyncEventQueue(Executor executor) {
+    this.executor = (executor != null) ? executor : getDefaultExecutor();
+  }
+
+  /**
+   * Queues the given event for the given listener.
+   */
+  public void enqueue(PmEventListener listener, PmEvent event) {
+    synchronized (this) {
+      dispatches.add(new Dispatch(listener, event));
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+
+    submitDrainTask();
+  }
+
+  /**
+   * Waits until all queued events are dispatched.
+   * <p>
+   * Returns immediately if called within an asynchronous listener call.
+   */
+  public synchronized void flush() {
+    if (Thread.currentThread() == drainThread) {
+      return;
+    }
+
+    boolean interrupted = false;
+    while (draining) {
+      try {
+        wait();
+      }
+      catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drain() {
+    synchronized (this) {
+      drainThread = Thread.currentThread();
+    }
+    boolean queueDrained = false;
+    try {
+      while (true) {
+        Dispatch d;
+        synchronized (this) {
+          d = dispatches.poll();
+          if (d == null) {
+            // Within the same lock as the poll: An enqueue call after this point submits a new drain task.
+            drainThread = null;
+            draining = false;
+            notifyAll();
+            queueDrained = true;
+            return;
+          }
+        }
+        d.run();
+      }
+    }
+    finally {
+      if (!queueDrained) {
+        // A listener threw an Error. A new task dispatches the remaining events.
+        synchronized (this) {
+          drainThread = null;
+        }
+        try {
+          submitDrainTask();
+        }
+        catch (RuntimeException e) {
+          // Does not hide the Error.
+          LOG.error("Failed to submit the dispatch of the remaining asynchronous events.", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Submits the drain task. The <code>draining</code> flag has to be set by the caller.
+   */
+  private void submitDrainTask() {
+    try {
+      executor.execute(drainTask);
+    }
+    catch (RuntimeException e) {
+      synchronized (this) {
+        dispatches.clear();
+        draining = false;
+        notifyAll();
+      }
+      throw e;
+    }
+  }
+
+  private static synchronized ExecutorService getDefaultExecutor() {
+    if (defaultExecutor == null) {
+      defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "pm4j-async-event");
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return defaultExecutor;
+  }
+
+  /** A queued listener call. */
+  private static final class Dispatch {
+    private final PmEventListener listener;
+    private final PmEvent event;
+
+    Dispatch(PmEventListener listener, PmEvent event) {
+      this.listener = listener;
+      this.event = event;
+    }
+
+    void run() {
+      Object oldEventSource = PmEventApi.getThreadEventSource();
+      PmEventApi.setThreadEventSource(event.getSource());
+      try {
+        listener.handleEvent(event);
+      }
+      catch (RuntimeException e) {
+        LOG.error("Asynchronous event listener '" + listener + "' failed to handle event: " + event, e);
+      }
+      finally {
+        PmEventApi.setThreadEventSource(oldEventSource);
+      }
+    }
+  }
+
+  /**
+   * A listener registration that passes the events to the dispatch queue of
+   * a conversation.
+   * <p>
+   * Is equal to the listener it decorates. That allows to remove the
+   * registration using the decorated listener.
+   */
+  static final class AsyncListener implements PmEventListener {
+    private final PmConversationImpl conversation;
+    private final PmEventListener listener;
+
+    AsyncListener(PmConversationImpl conversation, PmEventListener listener) {
+      this.conversation = conversation;
+      this.listener = listener;
+    }
+
+    @Override
+    public void handleEvent(PmEvent event) {
+      conversation.getAsyncEventQueue().enqueue(listener, event);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof AsyncListener) {
+        return listener.equals(((AsyncListener)obj).listener);
+      }
+      return listener.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+      return listener.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return "async(" + listener + ")";
+    }
+  }
+
+}
@@ -6,10 +6,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
@@ -36,6 +38,7 @@ import org.pm4j.core.pm.PmCommandDecorator;
 import org.pm4j.core.pm.PmConstants;
 import org.pm4j.core.pm.PmElement;
 import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
 import org.pm4j.core.pm.PmMessage;
 import org.pm4j.core.pm.PmMessage.Severity;
 import org.pm4j.core.pm.PmObject;
@@ -60,6 +63,7 @@ import org.pm4j.core.pm.impl.cache.PmCacheStrategy;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategyBase;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategyNoCache;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategyRequest;
+import org.pm4j.core.pm.impl.cache.PmCacheStrategySession;
 import org.pm4j.core.pm.impl.converter.PmConverterOptionBased;
 import org.pm4j.core.pm.impl.options.GenericOptionSetDef;
 import org.pm4j.core.pm.impl.options.OptionSetDefNoOption;
@@ -69,6 +73,7 @@ import org.pm4j.core.pm.impl.pathresolver.PathResolver;
 import org.pm4j.core.pm.impl.pathresolver.PmExpressionPathResolver;
 import org.pm4j.core.util.reflection.BeanAttrAccessor;
 import org.pm4j.core.util.reflection.BeanAttrAccessorImpl;
+import org.pm4j.core.util.reflection.ClassUtil;
 import org.pm4j.navi.NaviLink;
 
 /**
@@ -105,6 +110,21 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
    */
   private boolean valueWasSet = false;
 
+  /**
+   * Is <code>true</code> if the last validation found no issue and nothing
+   * was changed since then. Is only used in the incremental validation mode.
+   * See {@link org.pm4j.core.pm.PmDefaults#isIncrementalValidation()}.
+   */
+  private boolean pmValidationResultUpToDate;
+
+  /**
+   * Invalidates the validation result on value changes of the PMs defined by
+   * {@link PmAttrCfg#revalidateOnChangeOf()}.<br>
+   * Is weakly registered at these PMs. This reference keeps it alive as long
+   * as this attribute lives.
+   */
+  private PmEventListener revalidateOnChangeListener;
+
   /**
    * Contains optional attribute data that in most cases doesn't exist for usual
    * bean attributes.
@@ -146,9 +166,11 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
     if (ov != PmCacheStrategy.NO_CACHE_VALUE) {
       // just return the cache hit (if there was one)
+      md.cacheMetrics.countHit(PmCacheApi.CacheKind.OPTIONS);
       return (PmOptionSet) ov;
     }
     else {
+      md.countMiss(PmCacheApi.CacheKind.OPTIONS, md.cacheStrategyForOptions);
       try {
         PmOptionSet os = getOptionSetImpl();
         // TODO: ensure that there is an option for the current value.
@@ -261,6 +283,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
   @Override
   public void clearPmInvalidValues() {
+    pmValidationResultUpToDate = false;
     boolean wasValid = isPmValid();
     if (dataContainer != null) {
       if (dataContainer.invalidValue != null) {
@@ -319,9 +342,11 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
     if (ov != PmCacheStrategy.NO_CACHE_VALUE) {
       // just return the cache hit (if there was one)
+      md.cacheMetrics.countHit(PmCacheApi.CacheKind.VALUE);
       return (T_PM_VALUE) ov;
     }
     else {
+      md.countMiss(PmCacheApi.CacheKind.VALUE, md.cacheStrategyForValue);
       try {
         T_PM_VALUE v = null;
 
@@ -520,11 +545,14 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     super.clearCachedPmValues(cacheSet);
     MetaData sd = getOwnMetaData();
 
-    if (cacheSet.contains(PmCacheApi.CacheKind.VALUE))
-      sd.cacheStrategyForValue.clear(this);
+    if (cacheSet.contains(PmCacheApi.CacheKind.VALUE)) {
+      sd.clearCache(this, PmCacheApi.CacheKind.VALUE, sd.cacheStrategyForValue);
+      // The value may be changed by the backing bean.
+      pmValidationResultUpToDate = false;
+    }
 
     if (cacheSet.contains(PmCacheApi.CacheKind.OPTIONS))
-      sd.cacheStrategyForOptions.clear(this);
+      sd.clearCache(this, PmCacheApi.CacheKind.OPTIONS, sd.cacheStrategyForOptions);
   }
 
   /**
@@ -976,6 +1004,10 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
   @Override
   public void pmValidate() {
+    if (isPmValidationResultUpToDate()) {
+      return;
+    }
+
     if (isPmVisible() &&
         !isPmReadonly()) {
       boolean wasValid = isPmValid();
@@ -993,6 +1025,59 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
       if (isValid != wasValid) {
         PmEventApi.firePmEvent(this, getOwnMetaData().validationChangeEventMask);
       }
+
+      pmValidationResultUpToDate = isValid &&
+          getPmConversation().getPmDefaults().isIncrementalValidation() &&
+          PmMessageUtil.getPmMessages(this).isEmpty();
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the attribute doesn't need to be validated
+   *         again because nothing was changed since it was found to be valid.
+   *         Is always <code>false</code> if the incremental validation mode is
+   *         switched off.
+   */
+  /* package */ boolean isPmValidationResultUpToDate() {
+    return pmValidationResultUpToDate &&
+           getPmConversation().getPmDefaults().isIncrementalValidation();
+  }
+
+  /**
+   * Ensures that the next {@link #pmValidate()} call validates the attribute.
+   */
+  /* package */ void invalidatePmValidationResult() {
+    pmValidationResultUpToDate = false;
+  }
+
+  /**
+   * Registers the listeners that invalidate the validation result on value
+   * changes of the PMs defined by {@link PmAttrCfg#revalidateOnChangeOf()}.
+   */
+  @Override
+  /* package */ void initEventListeners() {
+    super.initEventListeners();
+
+    PathResolver[] paths = ((MetaData) getPmMetaDataWithoutPmInitCall()).revalidateOnChangeOfPaths;
+    if (paths.length == 0) {
+      return;
+    }
+
+    revalidateOnChangeListener = new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        invalidatePmValidationResult();
+      }
+    };
+    PmObject pathCtxt = getPmParent();
+    for (PathResolver r : paths) {
+      Object src = r.getValue(pathCtxt);
+      if (! (src instanceof PmObject)) {
+        throw new PmRuntimeException(this, "The @PmAttrCfg(revalidateOnChangeOf) path '" + r +
+            "' does not address a PM. Found: " + src);
+      }
+      // A weak registration prevents that a long living event source keeps this PM alive.
+      PmEventApi.addWeakPmEventListener((PmObject)src, PmEvent.VALUE_CHANGE, revalidateOnChangeListener);
     }
   }
 
@@ -1013,6 +1098,80 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
   public void rollbackBufferedPmChanges() {
     bufferedValue = UNKNOWN_VALUE_INDICATOR;
+    pmValidationResultUpToDate = false;
+  }
+
+  // ======== Bean level value access ======== //
+
+  /**
+   * Provides the accessor of the bound bean attribute if the attribute value is
+   * just the value of the bean attribute.<br>
+   * That is the case for attributes that are bound by reflection to the bean
+   * of their parent {@link PmBean}, having no default value, no value
+   * conversion and no buffered value mode.
+   * <p>
+   * Allows to handle bean collections (e.g. to sort or filter them) without
+   * creating a PM for each bean.
+   *
+   * @return The accessor or <code>null</code> if the attribute value is not
+   *         the plain bean attribute value.
+   */
+  public BeanAttrAccessor getPlainBeanAttrAccessor() {
+    MetaData md = getOwnMetaData();
+    return (md.plainBeanValue && !isBufferedPmValueMode())
+        ? md.beanAttrAccessor
+        : null;
+  }
+
+  /**
+   * @return <code>true</code> if {@link #getValueLocalized()} provides the
+   *         converted value. That's the case if no options are configured and
+   *         the value localization is not re-defined by a sub class.
+   */
+  /* package */ boolean isPlainValueLocalized() {
+    return getOwnMetaData().plainValueLocalized;
+  }
+
+  /**
+   * Provides a comparator for beans of the kind handled by the parent
+   * {@link PmBean} of this attribute.<br>
+   * It compares the bean attribute values the same way {@link #compareTo(PmObject)}
+   * compares the attribute PMs. But it does not need a PM for each bean.
+   *
+   * @return The comparator or <code>null</code> if the bean attribute value
+   *         can't be compared without PM. See {@link #getPlainBeanAttrAccessor()}
+   *         and {@link #getValueComparator()}.
+   */
+  public Comparator<Object> getBeanComparator() {
+    final BeanAttrAccessor accessor = getPlainBeanAttrAccessor();
+    final Comparator<T_PM_VALUE> valueComparator = (accessor != null && getOwnMetaData().valueComparatorConsistent)
+        ? getValueComparator()
+        : null;
+    if (valueComparator == null) {
+      return null;
+    }
+    return new Comparator<Object>() {
+      @Override
+      public int compare(Object bean1, Object bean2) {
+        T_PM_VALUE v1 = (bean1 != null) ? accessor.<T_PM_VALUE>getBeanAttrValue(bean1) : null;
+        T_PM_VALUE v2 = (bean2 != null) ? accessor.<T_PM_VALUE>getBeanAttrValue(bean2) : null;
+        return valueComparator.compare(v1, v2);
+      }
+    };
+  }
+
+  /**
+   * Provides a comparator for attribute values that provides the same result as
+   * {@link #compareTo(PmObject)} provides for the attributes having these values.
+   * <p>
+   * Sub classes that re-define {@link #compareTo(PmObject)} should re-define
+   * this method too.
+   *
+   * @return The comparator. <code>null</code> if the values can't be compared
+   *         without PM. The default implementation returns <code>null</code>.
+   */
+  protected Comparator<T_PM_VALUE> getValueComparator() {
+    return null;
   }
 
   // ======== Attribute raw data access ======== //
@@ -1066,8 +1225,29 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     getOwnMetaData().valueAccessStrategy.setValue(this, value);
   }
 
+  /**
+   * The format string gets resolved once for each locale. The result is
+   * cached within the meta data of the attribute.<br>
+   * Attributes that re-define their resource key or resource context resolve it
+   * on each call.
+   */
   @Override
   public String getFormatString() {
+    MetaData md = getOwnMetaData();
+    Locale locale = getPmConversation().getPmLocale();
+    if (locale == null || !md.formatStringCacheable) {
+      return getFormatStringImpl();
+    }
+
+    String format = md.localeToFormatStringMap.get(locale);
+    if (format == null) {
+      format = getFormatStringImpl();
+      md.localeToFormatStringMap.put(locale, (format != null) ? format : MetaData.NO_FORMAT_STRING);
+    }
+    return (format != MetaData.NO_FORMAT_STRING) ? format : null;
+  }
+
+  private String getFormatStringImpl() {
     String key = getOwnMetaData().formatResKey;
     String format = null;
 
@@ -1211,6 +1391,14 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
       myMetaData.setItemConverter(
           new PmConverterOptionBased(optionCfg != null ? optionCfg.id() : ""));
     }
+
+    // The localized value is the converted value if there are no options and the localization is not re-defined.
+    myMetaData.plainValueLocalized =
+        myMetaData.optionSetDef == OptionSetDefNoOption.INSTANCE &&
+        ClassUtil.findMethodDeclaringClass(getClass(), "getOptionSetImpl") == PmAttrBase.class &&
+        ClassUtil.findMethodDeclaringClass(getClass(), "getOptionValues") == PmAttrBase.class &&
+        ClassUtil.findMethodDeclaringClass(getClass(), "getValueLocalized") == PmAttrBase.class &&
+        ClassUtil.findMethodDeclaringClass(getClass(), "valueToStringImpl") == PmAttrBase.class;
     // TODO olaf: implement a simplified and more consistent option implementation...
     if (optionCfg != null) {
       myMetaData.nullOption = optionCfg.nullOption();
@@ -1234,6 +1422,14 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
       }
       myMetaData.defaultPath = StringUtils.defaultIfEmpty(fieldAnnotation.defaultPath(), null);
 
+      String[] revalidateOnChangeOf = fieldAnnotation.revalidateOnChangeOf();
+      if (revalidateOnChangeOf.length > 0) {
+        myMetaData.revalidateOnChangeOfPaths = new PathResolver[revalidateOnChangeOf.length];
+        for (int i=0; i<revalidateOnChangeOf.length; ++i) {
+          myMetaData.revalidateOnChangeOfPaths[i] = PmExpressionPathResolver.parse(revalidateOnChangeOf[i], true);
+        }
+      }
+
       myMetaData.maxLen = fieldAnnotation.maxLen();
       myMetaData.minLen = fieldAnnotation.minLen();
       if (myMetaData.maxLen != -1 &&
@@ -1308,7 +1504,28 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
       }
 
       myMetaData.valueAccessStrategy = ValueAccessReflection.INSTANCE;
-    }
+
+      // The PM value is the plain bean attribute value if there is no default value
+      // handling and no conversion. See getPlainBeanAttrAccessor().
+      myMetaData.plainBeanValue =
+          myMetaData.defaultPath == null &&
+          StringUtils.isBlank(myMetaData.defaultValueString) &&
+          ClassUtil.findMethodDeclaringClass(getClass(), "getValueImpl") == PmAttrBase.class &&
+          ClassUtil.findMethodDeclaringClass(getClass(), "getBackingValueImpl") == PmAttrBase.class &&
+          ClassUtil.findMethodDeclaringClass(getClass(), "getDefaultValueImpl") == PmAttrBase.class &&
+          ClassUtil.findMethodDeclaringClass(getClass(), "convertBackingValueToPmValue") == PmAttrBase.class;
+      // A value comparator may only be used if compareTo() is not re-defined by a sub class.
+      // The default compareTo() compares the localized values. These have to be the plain converted values.
+      Class<?> compareToClass = ClassUtil.findMethodDeclaringClass(getClass(), "compareTo");
+      myMetaData.valueComparatorConsistent =
+          compareToClass.isAssignableFrom(ClassUtil.findMethodDeclaringClass(getClass(), "getValueComparator")) &&
+          (compareToClass != PmAttrBase.class || myMetaData.plainValueLocalized);
+    }
+
+    // The resolved format string may only be shared if the resources to resolve it are not instance specific.
+    myMetaData.formatStringCacheable =
+        ClassUtil.findMethodDeclaringClass(getClass(), "getPmResKey") == PmObjectBase.class &&
+        ClassUtil.findMethodDeclaringClass(getClass(), "getPmResLoaderCtxtClasses") == PmObjectBase.class;
 
     // Use default attribute title provider if no specific provider was configured.
     if (metaData.getPmTitleProvider() == getPmConversation().getPmDefaults().getPmTitleProvider()) {
@@ -1389,6 +1606,8 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
     private BeanAttrAccessor                beanAttrAccessor;
     private PmOptionSetDef<PmAttr<?>>       optionSetDef            = OptionSetDefNoOption.INSTANCE;
+    /** Is <code>true</code> if no options are configured and the value localization is not re-defined. */
+    private boolean                         plainValueLocalized;
     private PmOptionCfg.NullOption          nullOption              = NullOption.DEFAULT;
     private boolean                         hideWhenEmpty;
     private boolean                         required;
@@ -1405,18 +1624,30 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     private PmCacheStrategy                 cacheStrategyForValue   = PmCacheStrategyNoCache.INSTANCE;
     private Converter<?>                    converter;
     private BackingValueAccessStrategy      valueAccessStrategy     = ValueAccessLocal.INSTANCE;
+    /** Is <code>true</code> if the PM value is the unconverted bean attribute value, read by reflection. */
+    private boolean                         plainBeanValue;
+    /** Is <code>true</code> if {@link PmAttrBase#getValueComparator()} is consistent with {@link PmAttrBase#compareTo(PmObject)}. */
+    private boolean                         valueComparatorConsistent;
     /** Name of the field configured for JSR 303-validation.<br>
      * Is <code>null</code> if there is nothing to validate this way. */
     private String                          validationFieldName;
     private int                             maxLen                  = -1;
     private int                             minLen                  = 0;
+    /** See {@link PmAttrCfg#revalidateOnChangeOf()}. */
+    private PathResolver[]                  revalidateOnChangeOfPaths = {};
+    /** Marks a cached <code>null</code> result of {@link PmAttrBase#getFormatString()}. */
+    private static final String             NO_FORMAT_STRING        = new String("");
+    /** The results of {@link PmAttrBase#getFormatString()} for each locale. */
+    private final Map<Locale, String>       localeToFormatStringMap = new ConcurrentHashMap<Locale, String>();
+    /** Is <code>false</code> if the attribute re-defines its resource key or resource context. */
+    private boolean                         formatStringCacheable   = true;
 
     /** @return The statically defined option set algorithm. */
     public PmOptionSetDef<PmAttr<?>> getOptionSetDef() { return optionSetDef; }
     public PmOptionCfg.NullOption getNullOption() { return nullOption; }
 
     public String getFormatResKey() { return formatResKey; }
-    public void setFormatResKey(String formatResKey) { this.formatResKey = formatResKey; }
+    public void setFormatResKey(String formatResKey) { this.formatResKey = formatResKey; localeToFormatStringMap.clear(); }
 
     public PmCacheStrategy getCacheStrategyForOptions() { return cacheStrategyForOptions; }
     public PmCacheStrategy getCacheStrategyForValue() { return cacheStrategyForValue; }
@@ -1513,14 +1744,16 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     MapUtil.makeFixHashMap(
       CacheMode.OFF,      PmCacheStrategyNoCache.INSTANCE,
       CacheMode.ON,    CACHE_VALUE_LOCAL,
-      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_VALUE_IN_REQUEST", "v")
+      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_VALUE_IN_REQUEST", "v"),
+      CacheMode.SESSION,  new PmCacheStrategySession("CACHE_VALUE_IN_SESSION", "v")
     );
 
   private static final Map<CacheMode, PmCacheStrategy> CACHE_STRATEGIES_FOR_OPTIONS =
     MapUtil.makeFixHashMap(
         CacheMode.OFF,      PmCacheStrategyNoCache.INSTANCE,
         CacheMode.ON,    CACHE_OPTIONS_LOCAL,
-        CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_OPTIONS_IN_REQUEST", "os")
+        CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_OPTIONS_IN_REQUEST", "os"),
+        CacheMode.SESSION,  new PmCacheStrategySession("CACHE_OPTIONS_IN_SESSION", "os")
       );
 
   // ====== Backing value access strategies ====== //
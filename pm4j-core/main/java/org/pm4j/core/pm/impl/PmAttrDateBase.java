@@ -1,5 +1,6 @@
 package org.pm4j.core.pm.impl;
 
+import java.util.Comparator;
 import java.util.Date;
 
 import org.apache.commons.lang.time.FastDateFormat;
@@ -68,6 +69,16 @@ public class PmAttrDateBase<T_BACKING_DATE> extends PmAttrBase<Date, T_BACKING_D
               : super.compareTo(otherPm);
   }
 
+  @Override
+  protected Comparator<Date> getValueComparator() {
+    return new Comparator<Date>() {
+      @Override
+      public int compare(Date d1, Date d2) {
+        return CompareUtil.compare(d1, d2);
+      }
+    };
+  }
+
   // ======== meta data ======== //
 
   @Override
@@ -1,14 +1,13 @@
 package org.pm4j.core.pm.impl;
 
 import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
-import java.util.Locale;
+import java.util.Comparator;
 
-import org.apache.commons.lang.StringUtils;
 import org.pm4j.common.util.CompareUtil;
 import org.pm4j.core.pm.PmAttrNumber;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.impl.converter.FormatCache;
 
 public abstract class PmAttrNumBase<T extends Number> extends PmAttrBase<T, T> implements PmAttrNumber<T> {
 
@@ -28,20 +27,30 @@ public abstract class PmAttrNumBase<T extends Number> extends PmAttrBase<T, T> i
       : super.compareTo(otherPm);
   }
 
+  @Override
+  protected Comparator<T> getValueComparator() {
+    return new Comparator<T>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public int compare(T n1, T n2) {
+        return CompareUtil.compare((Comparable<T>)n1, (Comparable<T>)n2);
+      }
+    };
+  }
+
   // ======== Value handling ======== //
 
   /**
    * @param formatString
    *          The (language specific) format string. May be empty or null.
-   * @return The associated number format.<br>
+   * @return The associated number format. A new instance that may be modified
+   *         by the caller.<br>
    *         In case of an empty or <code>null</code> formatString, a
    *         {@link DecimalFormat} for the current PM locale will be returned.
    */
   protected NumberFormat getNumberFormat(String formatString) {
-    Locale locale = getPmConversation().getPmLocale();
-    return (StringUtils.isBlank(formatString))
-        ? NumberFormat.getNumberInstance(locale)
-        : new DecimalFormat(formatString, new DecimalFormatSymbols(locale));
+    // The cached instance is shared with all other callers of the current thread.
+    return (NumberFormat) FormatCache.getNumberFormat(formatString, getPmConversation().getPmLocale()).clone();
   }
 
   /**
@@ -1,6 +1,11 @@
 package org.pm4j.core.pm.impl;
 
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+
 import org.apache.commons.lang.StringUtils;
+import org.pm4j.common.util.CompareUtil;
 import org.pm4j.core.exception.PmValidationException;
 import org.pm4j.core.pm.PmAttrString;
 import org.pm4j.core.pm.PmConstants;
@@ -61,6 +66,37 @@ public class PmAttrStringImpl extends PmAttrBase<String, String> implements PmAt
     return StringUtils.isEmpty(value);
   }
 
+  /**
+   * @return <code>true</code> if {@link #getValueLocalized()} provides the
+   *         unchanged value. That's the case for attributes without configured
+   *         options, without a re-defined value localization and with a
+   *         {@link PmConverterString}.
+   */
+  public boolean isValueLocalizedTheValue() {
+    return isPlainValueLocalized() &&
+           getConverter() instanceof PmConverterString;
+  }
+
+  /**
+   * Compares the values according to the collation sequence of the current
+   * {@link Locale}.<br>
+   * Provides <code>null</code> if the localized value differs from the value.
+   * See {@link #isValueLocalizedTheValue()}.
+   */
+  @Override
+  protected Comparator<String> getValueComparator() {
+    if (!isValueLocalizedTheValue()) {
+      return null;
+    }
+    final Collator collator = Collator.getInstance(getPmConversation().getPmLocale());
+    return new Comparator<String>() {
+      @Override
+      public int compare(String s1, String s2) {
+        return CompareUtil.compare(s1, s2, collator);
+      }
+    };
+  }
+
   // ======== meta data ======== //
 
   @Override
@@ -61,7 +61,12 @@ public abstract class PmBeanBase<T_BEAN>
     this.pmBean = bean;
 
     if (bean != null) {
-      if (PmFactoryApi.findPmForBean(pmParent, bean) != null) {
+      if (BeanPmCreationGuard.isCreatingPmFor(bean)) {
+        // A concurrent creation for the same bean may have registered its PM first.
+        // The guard provides that one in that case.
+        ((PmObjectBase)pmParent).registerInPmBeanCacheIfAbsent(this);
+      }
+      else if (PmFactoryApi.findPmForBean(pmParent, bean) != null) {
         throw new PmRuntimeException(pmParent, "PM for bean already exists. " +
             "\nTry to get the PM using PmFactory.getPmForBean(pm, bean) instead of using the PM constructor." +
             "\nThe bean: " + bean);
@@ -72,6 +77,13 @@ public abstract class PmBeanBase<T_BEAN>
     }
   }
 
+  /**
+   * @return The current bean reference. Does not trigger a lazy bean initialization.
+   */
+  /* package */ T_BEAN getPmBeanWithoutInitCall() {
+    return pmBean;
+  }
+
   @Override
   public T_BEAN getPmBean() {
     if (pmBean == null) {
@@ -174,6 +186,12 @@ public abstract class PmBeanBase<T_BEAN>
 
     PmEventApi.ensureThreadEventSource(this);
 
+    // The mapping of the old bean is obsolete. It would keep the PM reachable for it.
+    PmObject factoryOwningPm = getPmParent();
+    if (pmBean != null && factoryOwningPm != null) {
+      BeanPmCacheUtil.removeBeanPm(factoryOwningPm, this);
+    }
+
     pmBean = null;
 
     // Old cache values are related to the old bean.
@@ -186,9 +204,10 @@ public abstract class PmBeanBase<T_BEAN>
 
       // Re-register the bean to PM association to keep the PM system
       // intact.
-      synchronized (getPmConversation()) {
-        // FIXME olaf: what about un-registration in case of bean==null ?
-        registerInPmBeanCache(this);
+      if (factoryOwningPm != null) {
+        synchronized (getPmConversation()) {
+          ((PmObjectBase)factoryOwningPm).registerInPmBeanCache(this);
+        }
       }
     }
 
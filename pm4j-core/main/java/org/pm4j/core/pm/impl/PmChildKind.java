@@ -0,0 +1,66 @@
+package org.pm4j.core.pm.impl;
+
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmDataInput;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTableCol;
+
+/**
+ * The kinds of child PMs that can be iterated without list allocation.
+ * <p>
+ * The child positions of each kind are calculated once for each PM meta data
+ * instance. See {@link PmUtil#getPmChildCount(PmObject, PmChildKind)} and
+ * {@link PmUtil#getPmChild(PmObject, PmChildKind, int)}.
+ *
+ * @author olaf boede
+ */
+public enum PmChildKind {
+  /** All child PMs. */
+  ALL(PmObject.class),
+  /** Children that implement {@link PmAttr}. */
+  ATTR(PmAttr.class),
+  /** Children that implement {@link PmDataInput}. */
+  DATA_INPUT(PmDataInput.class),
+  /** Children that implement {@link PmCommand}. */
+  COMMAND(PmCommand.class),
+  /** Children that implement {@link PmTableCol}. */
+  TABLE_COL(PmTableCol.class);
+
+  /** A shared copy of {@link #values()}. */
+  /* package */ static final PmChildKind[] KINDS = values();
+
+  private final Class<?> pmClass;
+
+  private PmChildKind(Class<?> pmClass) {
+    this.pmClass = pmClass;
+  }
+
+  /**
+   * @return The PM interface all children of this kind implement.
+   */
+  public Class<?> getPmClass() {
+    return pmClass;
+  }
+
+  /**
+   * @param pm The PM to check.
+   * @return <code>true</code> if the given PM belongs to this kind.
+   */
+  public boolean matches(PmObject pm) {
+    return pmClass.isInstance(pm);
+  }
+
+  /**
+   * @param pmClass A PM class.
+   * @return The kind that is defined for exactly the given class or <code>null</code>.
+   */
+  public static PmChildKind forPmClass(Class<?> pmClass) {
+    for (PmChildKind k : KINDS) {
+      if (k.pmClass == pmClass) {
+        return k;
+      }
+    }
+    return null;
+  }
+}
@@ -65,7 +65,11 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
    */
   private BeanPmFactory pmElementFactory;
 
-  private List<PmMessage> pmMessages = Collections.synchronizedList(new ArrayList<PmMessage>());
+  /** The messages. Indexed by PM and PM sub tree. */
+  private final PmMessageStore pmMessages = new PmMessageStore();
+
+  /** The dispatch queue for asynchronous event listeners. Gets created on first use. */
+  private transient PmAsyncEventQueue asyncEventQueue;
 
 
   /**
@@ -345,23 +349,67 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
    * @return The messages. An empty collection if there are no messages.
    */
   public List<PmMessage> getPmMessages(PmObject forPm, Severity severity) {
-    if (pmMessages.size() == 0) {
-      return Collections.emptyList();
+    return (forPm == null || forPm == this)
+        ? pmMessages.getMessages(severity)
+        : pmMessages.getMessages(forPm, severity);
+  }
+
+  /* package */ PmMessageStore getPmMessageStore() {
+    return pmMessages;
+  }
+
+  /**
+   * @return The dispatch queue for the asynchronous event listeners of this conversation.
+   */
+  /* package */ synchronized PmAsyncEventQueue getAsyncEventQueue() {
+    if (asyncEventQueue == null) {
+      asyncEventQueue = new PmAsyncEventQueue(getPmDefaults().getAsyncEventExecutor());
     }
+    return asyncEventQueue;
+  }
 
-    boolean forAllPms = (forPm == null || forPm == this);
-    List<PmMessage> list = new ArrayList<PmMessage>();
-    synchronized(pmMessages) {
-      for (PmMessage m : pmMessages) {
-        if ((forAllPms || m.isMessageFor(forPm)) &&
-            (severity == null || severity.equals(m.getSeverity()))
-           ) {
-            list.add(m);
-        }
-      }
+  /**
+   * Waits until all events queued for the asynchronous event listeners of
+   * this conversation are dispatched.
+   * <p>
+   * Returns immediately if called by an asynchronous event listener.
+   */
+  public void flushAsyncPmEvents() {
+    PmAsyncEventQueue q;
+    synchronized (this) {
+      q = asyncEventQueue;
     }
+    if (q != null) {
+      q.flush();
+    }
+  }
 
-    return list;
+  /**
+   * Provides the messages of a PM sub tree.
+   * <p>
+   * Only the PM nodes that have messages within their sub tree get visited.
+   *
+   * @param pm
+   *          Root of the PM sub tree.
+   * @param minSeverity
+   *          The minimal message severity to consider.
+   * @return The messages in order of their addition. An empty collection if
+   *         there are no messages.
+   */
+  public List<PmMessage> getSubTreePmMessages(PmObject pm, Severity minSeverity) {
+    return pmMessages.getSubTreeMessages(pm, minSeverity);
+  }
+
+  /**
+   * @param pm
+   *          The PM to check. For this conversation all messages are
+   *          considered, like in {@link #getPmMessages(PmObject, Severity)}.
+   * @return <code>true</code> if there is an error message for the given PM.
+   */
+  public boolean hasPmErrors(PmObject pm) {
+    return (pm == null || pm == this)
+        ? pmMessages.hasErrors()
+        : pmMessages.hasErrors(pm);
   }
 
   @Override
@@ -415,23 +463,19 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
    */
   public void clearPmMessages(PmObject pm, Severity severity) {
     PmEventApi.ensureThreadEventSource(this);
-    synchronized(pmMessages) {
-      if ((pm == this || pm == null) && severity == null) {
-        clearPmInvalidValues();
-        pmMessages.clear();
-      }
-      else {
-        Iterator<PmMessage> iter = new ArrayList<PmMessage>(pmMessages).iterator();
-        while(iter.hasNext()) {
-          PmMessage m = iter.next();
-          if ((pm == null || m.isMessageFor(pm)) &&
-              (severity == null || m.getSeverity().equals(severity))) {
-            if (m instanceof PmValidationMessage) {
-              PmValidationApi.clearInvalidValuesOfSubtree(m.getPm());
-            }
-            pmMessages.remove(m);
-          }
+    if ((pm == this || pm == null) && severity == null) {
+      clearPmInvalidValues();
+      pmMessages.clear();
+    }
+    else {
+      List<PmMessage> messages = (pm == null)
+          ? pmMessages.getMessages(severity)
+          : pmMessages.getMessages(pm, severity);
+      for (PmMessage m : messages) {
+        if (m instanceof PmValidationMessage) {
+          PmValidationApi.clearInvalidValuesOfSubtree(m.getPm());
         }
+        pmMessages.remove(m);
       }
     }
   }
@@ -454,7 +498,7 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
   }
 
   public boolean getHasPmErrors() {
-    return !getPmMessages(null, Severity.ERROR).isEmpty();
+    return pmMessages.hasErrors();
   }
 
   public Object getPmNamedObject(Object key) {
@@ -1,10 +1,12 @@
 package org.pm4j.core.pm.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmDataInput;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
 
 public abstract class PmDataInputBase extends PmObjectBase implements PmDataInput {
 
@@ -15,9 +17,8 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
   @Override
   public boolean isPmValueChanged() {
     // TODO olaf: add caching (and event support to update the cache state).
-    List<PmDataInput> items = PmUtil.getPmChildrenOfType(this, PmDataInput.class);
-    for (int i = 0; i < items.size(); ++i) {
-      PmDataInput d = items.get(i);
+    for (int i = 0, n = getPmChildCount(PmChildKind.DATA_INPUT); i < n; ++i) {
+      PmDataInput d = (PmDataInput) getPmChild(PmChildKind.DATA_INPUT, i);
       if (d.isPmValueChanged() && d.isPmVisible()) {
         return true;
       }
@@ -28,8 +29,8 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
 
   @Override
   public void resetPmValues() {
-    for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
-      d.resetPmValues();
+    for (int i = 0, n = getPmChildCount(PmChildKind.DATA_INPUT); i < n; ++i) {
+      ((PmDataInput) getPmChild(PmChildKind.DATA_INPUT, i)).resetPmValues();
     }
   }
 
@@ -44,18 +45,21 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
   @Override
   public void pmValidate() {
     if (isPmVisible() && !isPmReadonly()) {
-      for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
-        if (d.isPmVisible() && !d.isPmReadonly()) {
-          if (d instanceof PmAttr<?>) {
-            // XXX olaf: duplicate validation may occur in case of duplicate command calls
-            // (some Ajax calls do that.)
-            // Find a clean way to prevent that.
-
-            if (d.isPmValid()) {
-              d.pmValidate();
-            }
+      int n = getPmChildCount(PmChildKind.DATA_INPUT);
+      if (PmParallelValidation.getExecutor(this) != null) {
+        List<PmDataInput> items = new ArrayList<PmDataInput>(n);
+        for (int i = 0; i < n; ++i) {
+          PmDataInput d = (PmDataInput) getPmChild(PmChildKind.DATA_INPUT, i);
+          if (isToValidate(d)) {
+            items.add(d);
           }
-          else {
+        }
+        PmParallelValidation.validate(this, items);
+      }
+      else {
+        for (int i = 0; i < n; ++i) {
+          PmDataInput d = (PmDataInput) getPmChild(PmChildKind.DATA_INPUT, i);
+          if (isToValidate(d)) {
             d.pmValidate();
           }
         }
@@ -63,6 +67,20 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
     }
   }
 
+  private static boolean isToValidate(PmDataInput d) {
+    // Skips unchanged attributes that passed the last (incremental) validation.
+    if (d instanceof PmAttrBase && ((PmAttrBase<?, ?>)d).isPmValidationResultUpToDate()) {
+      return false;
+    }
+    if (d.isPmVisible() && !d.isPmReadonly()) {
+      // XXX olaf: duplicate validation may occur in case of duplicate command calls
+      // (some Ajax calls do that.)
+      // Find a clean way to prevent that.
+      return !(d instanceof PmAttr<?>) || d.isPmValid();
+    }
+    return false;
+  }
+
   // ======== Buffered data input support ======== //
 
   @Override
@@ -72,15 +90,27 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
 
   @Override
   public void rollbackBufferedPmChanges() {
-    for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
-      d.rollbackBufferedPmChanges();
+    PmEventBatch batch = PmEventApi.beginEventBatch();
+    try {
+      for (int i = 0, n = getPmChildCount(PmChildKind.DATA_INPUT); i < n; ++i) {
+        ((PmDataInput) getPmChild(PmChildKind.DATA_INPUT, i)).rollbackBufferedPmChanges();
+      }
+    }
+    finally {
+      batch.end();
     }
   }
 
   @Override
   public void commitBufferedPmChanges() {
-    for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
-      d.commitBufferedPmChanges();
+    PmEventBatch batch = PmEventApi.beginEventBatch();
+    try {
+      for (int i = 0, n = getPmChildCount(PmChildKind.DATA_INPUT); i < n; ++i) {
+        ((PmDataInput) getPmChild(PmChildKind.DATA_INPUT, i)).commitBufferedPmChanges();
+      }
+    }
+    finally {
+      batch.end();
     }
   }
 
@@ -148,7 +148,8 @@ public abstract class PmElementBase
   @SuppressWarnings("unchecked")
   protected List<? extends PmTreeNode> getPmChildNodesImpl() {
     List<PmTreeNode> list = new ArrayList<PmTreeNode>();
-    for (PmAttr<?> a : PmUtil.getPmChildrenOfType(this, PmAttr.class)) {
+    for (int i = 0, n = PmUtil.getPmChildCount(this, PmChildKind.ATTR); i < n; ++i) {
+      PmObject a = PmUtil.getPmChild(this, PmChildKind.ATTR, i);
       if (a instanceof PmTreeNode) {
         list.add((PmTreeNode)a);
       }
@@ -2,6 +2,7 @@ package org.pm4j.core.pm.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmCommandDecorator;
 import org.pm4j.core.pm.PmConversation;
@@ -16,6 +17,9 @@ public class PmEventApiHandler {
 
   private static final Log LOG = LogFactory.getLog(PmEventApiHandler.class);
 
+  /** The event batch of the current thread. See {@link #beginEventBatch()}. */
+  private final ThreadLocal<PmEventBatch> threadEventBatch = new ThreadLocal<PmEventBatch>();
+
   /**
    * A handler that can hold a reference to an event source within the current thread.<br>
    * May be useful for rich client applications that need to be aware about even source objects
@@ -61,6 +65,15 @@ public class PmEventApiHandler {
       LOG.trace("Added PM-event listener '" + listener + "' for '" + PmUtil.getPmLogString(pmImpl) + "'.");
   }
 
+  public void addAsyncPmEventListener(PmObject pm, int eventMask, PmEventListener listener) {
+    PmObjectBase pmImpl = (PmObjectBase)pm;
+    addPmEventListener(pm, eventMask, new PmAsyncEventQueue.AsyncListener(pmImpl.getPmConversationImpl(), listener));
+  }
+
+  public void flushAsyncPmEvents(PmObject pm) {
+    ((PmObjectBase)pm).getPmConversationImpl().flushAsyncPmEvents();
+  }
+
   public void addWeakPmEventListener(PmObject pm, int eventMask, PmEventListener listener) {
     PmObjectBase pmImpl = (PmObjectBase)pm;
     if (pmImpl.pmWeakEventTable == null)
@@ -113,6 +126,79 @@ public class PmEventApiHandler {
   }
 
   public void firePmEvent(PmObject pm, PmEvent event) {
+    if (! event.isPropagationEvent()) {
+      if (pm instanceof PmAttrBase && (event.getChangeMask() & PmEvent.VALUE_CHANGE) != 0) {
+        ((PmAttrBase<?, ?>)pm).invalidatePmValidationResult();
+      }
+
+      PmEventBatch batch = threadEventBatch.get();
+      if (batch != null) {
+        batch.add(pm, event);
+        return;
+      }
+    }
+
+    fireImpl(pm, event, !event.isInitializationEvent());
+  }
+
+  /**
+   * Starts an event batch for the current thread.
+   * See {@link PmEventApi#beginEventBatch()}.
+   *
+   * @return The started batch or the already active batch of the current thread.
+   */
+  public PmEventBatch beginEventBatch() {
+    PmEventBatch batch = threadEventBatch.get();
+    if (batch != null) {
+      batch.beginNested();
+    }
+    else {
+      batch = new PmEventBatch(this);
+      threadEventBatch.set(batch);
+    }
+    return batch;
+  }
+
+  /**
+   * @return The active event batch of the current thread. <code>null</code> if there is none.
+   */
+  public PmEventBatch getEventBatch() {
+    return threadEventBatch.get();
+  }
+
+  /* package */ void setThreadEventBatch(PmEventBatch batch) {
+    if (batch != null) {
+      threadEventBatch.set(batch);
+    }
+    else {
+      threadEventBatch.remove();
+    }
+  }
+
+  /* package */ void endEventBatch(PmEventBatch batch) {
+    if (threadEventBatch.get() != batch) {
+      throw new PmRuntimeException("The event batch to end is not the active batch of the current thread.");
+    }
+    if (! batch.endNested()) {
+      return;
+    }
+
+    // Events fired by the listeners get dispatched immediately.
+    threadEventBatch.remove();
+    for (PmEventBatch.Entry e : batch.entries) {
+      fireImpl(e.pm, e.toEvent(), false);
+    }
+    for (PmEventBatch.Propagation p : batch.getCoalescedPropagations()) {
+      fireOnEventTables(p.ancestor, p.toEvent());
+    }
+  }
+
+  /**
+   * @param propagate
+   *          Defines if the event should be propagated to the parent
+   *          hierarchy.
+   */
+  private void fireImpl(PmObject pm, PmEvent event, boolean propagate) {
     PmObjectBase pmImpl = (PmObjectBase)pm;
 
     if (! event.isPropagationEvent()) {
@@ -127,7 +213,7 @@ public class PmEventApiHandler {
 
     // Non-init events will be propagated to the parent hierarchy.
     // This allows to maintain the changed state of a sub-tree.
-    if (! event.isInitializationEvent()) {
+    if (propagate) {
       // propagate the event to the parent hierarchy until the conversation is reached.
       PmConversation conversationPm = pmImpl.getPmConversation();
       PmEvent propagationEvent = new PmEvent(event.getSource(), event.pm, event.getChangeMask() | PmEvent.IS_EVENT_PROPAGATION, event.getValueChangeKind());
@@ -0,0 +1,212 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEvent.ValueChangeKind;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * Collects the PM events fired within the current thread while the batch is
+ * active. See {@link PmEventApi#beginEventBatch()}.
+ * <p>
+ * The events fired for the same PM get merged to a single event by OR-ing
+ * their change masks. The merged events get dispatched in order of the first
+ * event for each PM when the batch ends.
+ * <p>
+ * The propagation to the parent hierarchy gets coalesced by ancestor: Each
+ * ancestor gets a single propagation event for each of its children that has
+ * changes within its sub-tree. The propagation event refers to that child.
+ * This way hierarchy listeners, like the {@link ChangedChildStateRegistry},
+ * still find the changed child without getting an event for each changed PM.
+ * <p>
+ * Usage:
+ * <pre>
+ * PmEventBatch batch = PmEventApi.beginEventBatch();
+ * try {
+ *   // ... many PM changes ...
+ * }
+ * finally {
+ *   batch.end();
+ * }
+ * </pre>
+ * Nested batches are merged with the outer one. The events get dispatched
+ * when the outermost batch ends.
+ * <p>
+ * The tasks of a parallel operation join the batch of the calling thread.
+ * See {@link PmParallelTasks}.
+ *
+ * @author olaf boede
+ */
+public final class PmEventBatch {
+
+  private final PmEventApiHandler apiHandler;
+  private final Map<PmObject, Entry> pmToEntryMap = new IdentityHashMap<PmObject, Entry>();
+  /* package */ final List<Entry> entries = new ArrayList<Entry>();
+  private int nestingLevel = 1;
+
+  /* package */ PmEventBatch(PmEventApiHandler apiHandler) {
+    this.apiHandler = apiHandler;
+  }
+
+  /**
+   * Ends the batch. Dispatches the collected events if this is the end of the
+   * outermost batch.
+   */
+  public void end() {
+    apiHandler.endEventBatch(this);
+  }
+
+  /**
+   * @return The number of PMs having a collected event.
+   */
+  public int getNumOfPmsWithEvents() {
+    return entries.size();
+  }
+
+  /* package */ synchronized void add(PmObject pm, PmEvent event) {
+    Entry e = pmToEntryMap.get(pm);
+    if (e == null) {
+      e = new Entry(pm, event);
+      pmToEntryMap.put(pm, e);
+      entries.add(e);
+    }
+    else {
+      e.merge(event);
+    }
+  }
+
+  /* package */ synchronized void beginNested() {
+    ++nestingLevel;
+  }
+
+  /**
+   * @return <code>true</code> if the outermost batch ends.
+   */
+  /* package */ synchronized boolean endNested() {
+    return --nestingLevel == 0;
+  }
+
+  /**
+   * Coalesces the propagations of the collected events by ancestor.
+   * <p>
+   * A walk up the parent hierarchy stops as soon as an ancestor already knows
+   * the change via the same child. The ancestors above got it already by the
+   * walk that registered it.
+   *
+   * @return The propagation events to fire. Bottom-up in order of their first
+   *         occurrence.
+   */
+  /* package */ List<Propagation> getCoalescedPropagations() {
+    Map<PmObject, Map<PmObject, Entry>> ancestorToChildEntryMap = new IdentityHashMap<PmObject, Map<PmObject, Entry>>();
+    List<Propagation> propagations = new ArrayList<Propagation>();
+
+    for (Entry e : entries) {
+      if (!e.propagate) {
+        continue;
+      }
+
+      PmEvent event = e.toEvent();
+      PmObject conversationPm = e.pm.getPmConversation();
+      PmObject child = e.pm;
+      for (PmObject p = e.pm; p != null; child = p, p = p.getPmParent()) {
+        Map<PmObject, Entry> childEntryMap = ancestorToChildEntryMap.get(p);
+        if (childEntryMap == null) {
+          childEntryMap = new IdentityHashMap<PmObject, Entry>();
+          ancestorToChildEntryMap.put(p, childEntryMap);
+        }
+
+        Entry childEntry = childEntryMap.get(child);
+        if (childEntry == null) {
+          childEntry = new Entry(child, event);
+          childEntryMap.put(child, childEntry);
+          propagations.add(new Propagation(p, childEntry));
+        }
+        else if (!childEntry.merge(event)) {
+          break;
+        }
+
+        // stop after reaching the conversation.
+        if (p == conversationPm) {
+          break;
+        }
+      }
+    }
+
+    return propagations;
+  }
+
+  /**
+   * Lets the current thread add its events to this batch.
+   */
+  /* package */ void joinInThisThread() {
+    apiHandler.setThreadEventBatch(this);
+  }
+
+  /**
+   * Stops adding the events of the current thread to this batch.
+   */
+  /* package */ void leaveInThisThread() {
+    apiHandler.setThreadEventBatch(null);
+  }
+
+  /** The merged event state of a single PM. */
+  /* package */ static final class Entry {
+    final PmObject pm;
+    final Object source;
+    int changeMask;
+    ValueChangeKind valueChangeKind;
+    /** Is <code>true</code> if at least one of the merged events needs to be propagated. */
+    boolean propagate;
+
+    Entry(PmObject pm, PmEvent event) {
+      this.pm = pm;
+      this.source = event.getSource();
+      this.changeMask = event.getChangeMask();
+      this.valueChangeKind = event.getValueChangeKind();
+      this.propagate = !event.isInitializationEvent();
+    }
+
+    /**
+     * @return <code>true</code> if the merged event differs from the event
+     *         state before.
+     */
+    boolean merge(PmEvent event) {
+      int oldChangeMask = changeMask;
+      ValueChangeKind oldValueChangeKind = valueChangeKind;
+
+      changeMask |= event.getChangeMask();
+      if (valueChangeKind != event.getValueChangeKind()) {
+        valueChangeKind = ValueChangeKind.UNKNOWN;
+      }
+      propagate |= !event.isInitializationEvent();
+
+      return changeMask != oldChangeMask || valueChangeKind != oldValueChangeKind;
+    }
+
+    PmEvent toEvent() {
+      return new PmEvent(source, pm, changeMask, valueChangeKind);
+    }
+  }
+
+  /** A coalesced propagation event for an ancestor. */
+  /* package */ static final class Propagation {
+    final PmObject ancestor;
+    /** The merged event state of the child the changes were propagated from. */
+    final Entry childEntry;
+
+    Propagation(PmObject ancestor, Entry childEntry) {
+      this.ancestor = ancestor;
+      this.childEntry = childEntry;
+    }
+
+    PmEvent toEvent() {
+      return new PmEvent(childEntry.source, childEntry.pm, childEntry.changeMask | PmEvent.IS_EVENT_PROPAGATION, childEntry.valueChangeKind);
+    }
+  }
+
+}
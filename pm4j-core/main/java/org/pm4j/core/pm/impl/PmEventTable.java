@@ -0,0 +1,299 @@
+package org.pm4j.core.pm.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * A container for registered event listener - event mask pairs.
+ * <p>
+ * The registrations are kept in an immutable {@link Snapshot} that gets
+ * replaced on each registration change (copy-on-write). Thus firing an event
+ * needs no lock and no copy of the listener set. Listener set changes within
+ * the notification processing loop don't affect the running notification.
+ * <p>
+ * Each snapshot provides a listener array for each event bit, separated for
+ * direct and propagation listeners. An event that has a single change bit
+ * (the usual case) gets dispatched only to the listeners of the related
+ * array. Events with multiple change bits get dispatched by a scan over all
+ * registrations.
+ * <p>
+ * FIXME olaf: Currently the listener references are weak.
+ *             An binding implementation with complete unbind support should be able
+ *             to handle strong references too...
+ *
+ * @author olaf boede
+ */
+class PmEventTable {
+  private static final Log log = LogFactory.getLog(PmEventTable.class);
+
+  /** The number of event bits that may be observed. The highest bit marks propagation events. */
+  private static final int NUM_OF_EVENT_BITS = 31;
+
+  private final boolean isWeak;
+
+  /** The current registration state. Gets replaced on each registration change. */
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public PmEventTable(boolean isWeak) {
+    this.isWeak = isWeak;
+  }
+
+  public synchronized void addListener(int eventMask, PmEventListener listener) {
+    Snapshot s = snapshot;
+    int idx = s.indexOf(listener);
+
+    if (idx == -1) {
+      snapshot = s.with(isWeak ? new WeakReference<PmEventListener>(listener) : listener, eventMask);
+    }
+    else {
+      if (s.masks[idx] == eventMask) {
+        log.warn("Duplicate listerner registration call. Listener: " + listener);
+      }
+
+      int[] masks = s.masks.clone();
+      masks[idx] |= eventMask;
+      snapshot = new Snapshot(s.refs, masks);
+    }
+  }
+
+  public synchronized void removeListener(PmEventListener listener) {
+    Snapshot s = snapshot;
+    int idx = s.indexOf(listener);
+    if (idx != -1) {
+      snapshot = s.without(idx);
+    }
+  }
+
+  public synchronized void removeListener(int eventMask, PmEventListener listener) {
+    Snapshot s = snapshot;
+    int idx = s.indexOf(listener);
+
+    if (idx != -1) {
+      int negEventMask = (eventMask ^ PmEvent.ALL);
+      int newMask = s.masks[idx] & negEventMask;
+      if (newMask == 0) {
+        snapshot = s.without(idx);
+      }
+      else {
+        int[] masks = s.masks.clone();
+        masks[idx] = newMask;
+        snapshot = new Snapshot(s.refs, masks);
+      }
+    }
+  }
+
+  public void fireEvent(final PmEvent event) {
+    Snapshot s = snapshot;
+    boolean hasListeners = s.masks.length > 0;
+
+    if (log.isTraceEnabled())
+      log.trace("fireChange[" + event + "] for event source   : " + PmEventApi.getThreadEventSource() +
+          (hasListeners ? "\n\teventListeners: " + s : ""));
+
+    if (hasListeners) {
+      boolean isPropagationEvent = event.isPropagationEvent();
+      int changeBits = event.getChangeMask() & ~PmEvent.IS_EVENT_PROPAGATION;
+      boolean hasCollectedListeners = false;
+
+      if (Integer.bitCount(changeBits) == 1) {
+        int bit = Integer.numberOfTrailingZeros(changeBits);
+        Object[] refs = isPropagationEvent ? s.propagationRefsByBit[bit] : s.directRefsByBit[bit];
+        for (int i = 0; i < refs.length; ++i) {
+          hasCollectedListeners |= !dispatch(refs[i], event);
+        }
+      }
+      else {
+        // Propagation events have to be passed only to listeners that observe that special flag.
+        // Standard events will be passed to listeners that don't have set this flag.
+        for (int i = 0; i < s.masks.length; ++i) {
+          int listenerMask = s.masks[i];
+          boolean isPropagationListener = ((listenerMask & PmEvent.IS_EVENT_PROPAGATION) != 0);
+          if (isPropagationListener == isPropagationEvent &&
+              (listenerMask & changeBits) != 0) {
+            hasCollectedListeners |= !dispatch(s.refs[i], event);
+          }
+        }
+      }
+
+      if (hasCollectedListeners) {
+        removeCollectedListeners();
+      }
+    }
+  }
+
+  boolean isEmpty() {
+    return snapshot.masks.length == 0;
+  }
+
+  /**
+   * @return <code>false</code> if the referenced (weak) listener is already garbage collected.
+   */
+  private static boolean dispatch(Object ref, PmEvent event) {
+    PmEventListener listener = Snapshot.deref(ref);
+    if (listener == null) {
+      return false;
+    }
+    listener.handleEvent(event);
+    return true;
+  }
+
+  private synchronized void removeCollectedListeners() {
+    Snapshot s = snapshot;
+    for (int i = s.masks.length - 1; i >= 0; --i) {
+      if (Snapshot.deref(s.refs[i]) == null) {
+        s = s.without(i);
+      }
+    }
+    snapshot = s;
+  }
+
+  /**
+   * An immutable registration state.
+   */
+  private static final class Snapshot {
+    static final Object[] NO_REFS = {};
+    static final Snapshot EMPTY = new Snapshot(NO_REFS, new int[0]);
+
+    /** The registered listeners. Weak tables refer to them using {@link WeakReference}s. */
+    final Object[] refs;
+    /** The event masks of the registered listeners. */
+    final int[] masks;
+    /** The direct event listener references for each event bit. */
+    final Object[][] directRefsByBit;
+    /** The propagation event listener references for each event bit. */
+    final Object[][] propagationRefsByBit;
+
+    Snapshot(Object[] refs, int[] masks) {
+      this.refs = refs;
+      this.masks = masks;
+      this.directRefsByBit = makeRefsByBit(false);
+      this.propagationRefsByBit = makeRefsByBit(true);
+    }
+
+    private Snapshot(Object[] refs, int[] masks, Object[][] directRefsByBit, Object[][] propagationRefsByBit) {
+      this.refs = refs;
+      this.masks = masks;
+      this.directRefsByBit = directRefsByBit;
+      this.propagationRefsByBit = propagationRefsByBit;
+    }
+
+    @SuppressWarnings("unchecked")
+    static PmEventListener deref(Object ref) {
+      return (ref instanceof WeakReference)
+          ? ((WeakReference<PmEventListener>)ref).get()
+          : (PmEventListener)ref;
+    }
+
+    /**
+     * @return The registration index of the given listener or <code>-1</code>.
+     */
+    int indexOf(PmEventListener listener) {
+      for (int i = 0; i < refs.length; ++i) {
+        PmEventListener l = deref(refs[i]);
+        // The registered listener may be a decorator that is equal to the listener it decorates.
+        if (l != null && l.equals(listener)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * @return A snapshot with an additional registration. Only the listener
+     *         arrays of the event bits within the given mask get copied.
+     */
+    Snapshot with(Object ref, int mask) {
+      int n = masks.length;
+      Object[] newRefs = Arrays.copyOf(refs, n + 1);
+      int[] newMasks = Arrays.copyOf(masks, n + 1);
+      newRefs[n] = ref;
+      newMasks[n] = mask;
+
+      Object[][] newDirectRefsByBit = directRefsByBit;
+      Object[][] newPropagationRefsByBit = propagationRefsByBit;
+      Object[][] changedRefsByBit;
+      if (isPropagationMask(mask)) {
+        changedRefsByBit = newPropagationRefsByBit = propagationRefsByBit.clone();
+      }
+      else {
+        changedRefsByBit = newDirectRefsByBit = directRefsByBit.clone();
+      }
+      for (int bit = 0; bit < NUM_OF_EVENT_BITS; ++bit) {
+        if ((mask & (1 << bit)) != 0) {
+          Object[] bitRefs = changedRefsByBit[bit];
+          Object[] newBitRefs = Arrays.copyOf(bitRefs, bitRefs.length + 1);
+          newBitRefs[bitRefs.length] = ref;
+          changedRefsByBit[bit] = newBitRefs;
+        }
+      }
+
+      return new Snapshot(newRefs, newMasks, newDirectRefsByBit, newPropagationRefsByBit);
+    }
+
+    Snapshot without(int idx) {
+      int n = masks.length - 1;
+      if (n == 0) {
+        return EMPTY;
+      }
+      Object[] newRefs = new Object[n];
+      int[] newMasks = new int[n];
+      System.arraycopy(refs, 0, newRefs, 0, idx);
+      System.arraycopy(refs, idx + 1, newRefs, idx, n - idx);
+      System.arraycopy(masks, 0, newMasks, 0, idx);
+      System.arraycopy(masks, idx + 1, newMasks, idx, n - idx);
+      return new Snapshot(newRefs, newMasks);
+    }
+
+    private Object[][] makeRefsByBit(boolean propagationListeners) {
+      int[] counts = new int[NUM_OF_EVENT_BITS];
+      for (int i = 0; i < masks.length; ++i) {
+        if (isPropagationMask(masks[i]) == propagationListeners) {
+          for (int bit = 0; bit < NUM_OF_EVENT_BITS; ++bit) {
+            if ((masks[i] & (1 << bit)) != 0) {
+              ++counts[bit];
+            }
+          }
+        }
+      }
+
+      Object[][] refsByBit = new Object[NUM_OF_EVENT_BITS][];
+      for (int bit = 0; bit < NUM_OF_EVENT_BITS; ++bit) {
+        refsByBit[bit] = (counts[bit] == 0) ? NO_REFS : new Object[counts[bit]];
+        counts[bit] = 0;
+      }
+      for (int i = 0; i < masks.length; ++i) {
+        if (isPropagationMask(masks[i]) == propagationListeners) {
+          for (int bit = 0; bit < NUM_OF_EVENT_BITS; ++bit) {
+            if ((masks[i] & (1 << bit)) != 0) {
+              refsByBit[bit][counts[bit]++] = refs[i];
+            }
+          }
+        }
+      }
+      return refsByBit;
+    }
+
+    private static boolean isPropagationMask(int mask) {
+      return (mask & PmEvent.IS_EVENT_PROPAGATION) != 0;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("{");
+      for (int i = 0; i < refs.length; ++i) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(deref(refs[i])).append('=').append(masks[i]);
+      }
+      return sb.append('}').toString();
+    }
+  }
+
+}
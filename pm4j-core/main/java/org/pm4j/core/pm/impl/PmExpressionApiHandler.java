@@ -1,5 +1,9 @@
 package org.pm4j.core.pm.impl;
 
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.commons.lang.StringUtils;
 import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmConversation;
@@ -11,6 +15,11 @@ import org.pm4j.navi.NaviHistory;
 
 public class PmExpressionApiHandler {
 
+  /** The maximum number of cached parsed expressions. */
+  public static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+  private final ConcurrentMap<String, PathResolver> exprStringToResolverMap = new ConcurrentHashMap<String, PathResolver>();
+
   /**
    * Finds a named property from the following scopes (if available):
    * <ol>
@@ -30,10 +39,36 @@ public class PmExpressionApiHandler {
       throw new PmRuntimeException(pm, "'null' and blank property keys are not supported.");
     }
 
-    PathResolver pr = PmExpressionPathResolver.parse(
-                          name,
-                          true /* allow that the first expression part addresses an attribute of the given pm. */ );
-    return pr.getValue(pm);
+    return getPathResolver(name).getValue(pm);
+  }
+
+  /**
+   * Provides the parsed expression for the given expression string.
+   * <p>
+   * The parsed expressions are cached. If the cache is full, an arbitrary
+   * entry gets removed.
+   *
+   * @param exprString
+   *          The expression to parse. Should not be blank.
+   * @return The thread safe expression resolver.
+   */
+  public PathResolver getPathResolver(String exprString) {
+    PathResolver pr = exprStringToResolverMap.get(exprString);
+    if (pr == null) {
+      pr = PmExpressionPathResolver.parse(
+              exprString,
+              true /* allow that the first expression part addresses an attribute of the given pm. */ );
+
+      if (exprStringToResolverMap.size() >= MAX_CACHED_EXPRESSIONS) {
+        Iterator<String> it = exprStringToResolverMap.keySet().iterator();
+        if (it.hasNext()) {
+          it.next();
+          it.remove();
+        }
+      }
+      exprStringToResolverMap.put(exprString, pr);
+    }
+    return pr;
   }
 
   /**
@@ -7,7 +7,6 @@ import java.util.List;
 
 import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmBean;
-import org.pm4j.core.pm.PmConversation;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.annotation.PmFactoryCfg;
 
@@ -30,38 +29,38 @@ public class PmFactoryApiHandler {
       return null;
     }
 
-    PmConversation pmConversation = pmCtxt.getPmConversation();
-    synchronized (pmConversation) {
-      T_PM pm = this.<T_PM>findPmForBean(pmCtxt, bean);
-      if (pm != null) {
-        return pm;
-      }
-
-      BeanPmFactory factory = ((PmObjectBase)pmCtxt).getOwnPmElementFactory();
-      if (factory != null &&
-          factory.canMakePmFor(bean)) {
-        pm = factory.<T_PM>makePm(pmCtxt, bean);
-      }
-      else if (supportFactoryHierarchy) {
-        PmObject pmParent = pmCtxt.getPmParent();
-        if (pmParent != null) {
-          pm = this.<T, T_PM>getPmForBean(pmParent, bean);
-        }
-      }
+    // No lock is needed for lookups. The creation is only serialized for
+    // concurrent requests for the same bean (see BeanPmCache.findOrCreate).
+    T_PM pm = this.<T_PM>findPmForBean(pmCtxt, bean);
+    if (pm != null) {
+      return pm;
+    }
 
-      if (pm == null) {
-        // FIXME olaf: only provides context information for the highest factory container (the session)
-        //             does not really provide a hint for the attribute/element location, the factory may be
-        //             placed in too...
-        throw new PmRuntimeException(pmCtxt, "Can't create presentation model for bean of class '" +
-            bean.getClass() +
-            "'.\nPlease check if the intended presentation model is registered in a PM-Factory." +
-            "\nYou may use the annotation '" +
-            PmFactoryCfg.class.getSimpleName() + ".beanPmClasses()' to specify a presentation model factory.");
+    PmObjectBase pmCtxtImpl = (PmObjectBase)pmCtxt;
+    BeanPmFactory factory = pmCtxtImpl.getOwnPmElementFactory();
+    if (factory != null &&
+        factory.canMakePmFor(bean)) {
+      pm = pmCtxtImpl.getOrCreatePmBeanFactoryCache().<T_PM>findOrCreate(pmCtxt, bean, factory);
+    }
+    else if (supportFactoryHierarchy) {
+      PmObject pmParent = pmCtxt.getPmParent();
+      if (pmParent != null) {
+        pm = this.<T, T_PM>getPmForBean(pmParent, bean);
       }
+    }
 
-      return pm;
+    if (pm == null) {
+      // FIXME olaf: only provides context information for the highest factory container (the session)
+      //             does not really provide a hint for the attribute/element location, the factory may be
+      //             placed in too...
+      throw new PmRuntimeException(pmCtxt, "Can't create presentation model for bean of class '" +
+          bean.getClass() +
+          "'.\nPlease check if the intended presentation model is registered in a PM-Factory." +
+          "\nYou may use the annotation '" +
+          PmFactoryCfg.class.getSimpleName() + ".beanPmClasses()' to specify a presentation model factory.");
     }
+
+    return pm;
   }
 
   private boolean supportFactoryHierarchy = true;
@@ -77,10 +76,9 @@ public class PmFactoryApiHandler {
     PmObjectBase pmCtxtImpl = (PmObjectBase)pmCtxt;
     T pmBean = null;
 
-    if (pmCtxtImpl.pmBeanFactoryCache != null) {
-      synchronized(pmCtxt) {
-        pmBean = pmCtxtImpl.pmBeanFactoryCache.<T>findByBean(bean);
-      }
+    BeanPmCache cache = pmCtxtImpl.pmBeanFactoryCache;
+    if (cache != null) {
+      pmBean = cache.<T>findByBean(bean);
     }
 
     if (pmBean == null) {
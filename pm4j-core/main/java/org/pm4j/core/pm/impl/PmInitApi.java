@@ -23,6 +23,30 @@ public class PmInitApi {
             : false;
   }
 
+  /**
+   * Initializes the shared meta data of the given PM trees.
+   * <p>
+   * The meta data of a PM gets usually initialized when the first PM instance
+   * for a PM path gets used. This method allows to do that at application
+   * start time to prevent a slow first request.
+   * <p>
+   * Walks the field bound child PMs and the bean PMs registered by
+   * {@link org.pm4j.core.pm.annotation.PmFactoryCfg} annotations. The bean PM
+   * sub trees get handled in parallel.
+   *
+   * @param numOfThreads
+   *          The number of threads to use.
+   * @param rootPms
+   *          The PMs to start with. Usually conversation instances that are
+   *          created only for the warm-up. They should be instances of the
+   *          same classes (and have the same parent PM paths) as the
+   *          conversations used later.
+   * @return The number of visited PMs.
+   */
+  public static int warmUpMetaData(int numOfThreads, PmObject... rootPms) {
+    return new PmMetaDataWarmUp(numOfThreads).warmUp(rootPms);
+  }
+
   /**
    * EXPERIMENTAL STATE: Helper for dynamic PM creation.
    */
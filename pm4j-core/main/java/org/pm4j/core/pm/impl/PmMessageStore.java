@@ -0,0 +1,344 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.pm4j.core.pm.PmMessage;
+import org.pm4j.core.pm.PmMessage.Severity;
+import org.pm4j.core.pm.PmObject;
+
+/**
+ * The message set of a {@link PmConversationImpl}.
+ * <p>
+ * The messages are indexed by PM identity. Each PM that has messages within
+ * its sub tree is represented by a node that knows the number of messages
+ * and errors of its sub tree and its child nodes with messages. That allows
+ * to answer the question 'Is the PM valid?' without a message scan and to
+ * find the messages of a sub tree without visiting unrelated messages.
+ * <p>
+ * Messages for commands are additionally kept in a separate list to support
+ * the template command relation of {@link PmMessage#isMessageFor(PmObject)}.
+ * <p>
+ * Adding a message instance that is already part of the set has no effect.
+ * <p>
+ * Messages are provided in order of their addition. Parallel operations may
+ * reserve a range of sequence numbers for each of their partitions to get
+ * the same message order as a sequential execution would provide. See
+ * {@link #reserveSeqRanges(int)}.
+ *
+ * @author olaf boede
+ */
+class PmMessageStore {
+
+  /** The number of sequence numbers within a range reserved by {@link #reserveSeqRanges(int)}. */
+  private static final long SEQ_RANGE_SIZE = 1L << 32;
+
+  /** The sequence number range used by the current thread. */
+  private static final ThreadLocal<SeqRange> THREAD_SEQ_RANGE = new ThreadLocal<SeqRange>();
+
+  /** All messages in order of their addition. Keyed by a sequence number. */
+  private final TreeMap<Long, PmMessage> seqToMessageMap = new TreeMap<Long, PmMessage>();
+  private final Map<PmMessage, Long> messageToSeqMap = new IdentityHashMap<PmMessage, Long>();
+  private final Map<PmObject, Node> pmToNodeMap = new IdentityHashMap<PmObject, Node>();
+  private final List<PmMessage> commandMessages = new ArrayList<PmMessage>();
+  private long nextSeq;
+  private int errorCount;
+
+  public synchronized void add(PmMessage m) {
+    if (messageToSeqMap.containsKey(m)) {
+      return;
+    }
+    SeqRange range = THREAD_SEQ_RANGE.get();
+    Long seq = (range != null && range.store == this)
+        ? range.nextSeq++
+        : nextSeq++;
+    seqToMessageMap.put(seq, m);
+    messageToSeqMap.put(m, seq);
+
+    boolean isError = m.isError();
+    if (isError) {
+      ++errorCount;
+    }
+    if (m.getPm() instanceof PmCommandImpl) {
+      commandMessages.add(m);
+    }
+
+    Node node = getOrCreateNode(m.getPm());
+    node.messages.add(m);
+    if (isError) {
+      ++node.errorCount;
+    }
+    for (Node n = node; n != null; n = n.parent) {
+      ++n.subTreeMessageCount;
+      if (isError) {
+        ++n.subTreeErrorCount;
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the message was a member of the set.
+   */
+  public synchronized boolean remove(PmMessage m) {
+    Long seq = messageToSeqMap.remove(m);
+    if (seq == null) {
+      return false;
+    }
+    seqToMessageMap.remove(seq);
+
+    boolean isError = m.isError();
+    if (isError) {
+      --errorCount;
+    }
+    if (m.getPm() instanceof PmCommandImpl) {
+      removeByIdentity(commandMessages, m);
+    }
+
+    Node node = pmToNodeMap.get(m.getPm());
+    removeByIdentity(node.messages, m);
+    if (isError) {
+      --node.errorCount;
+    }
+    for (Node n = node; n != null; n = n.parent) {
+      --n.subTreeMessageCount;
+      if (isError) {
+        --n.subTreeErrorCount;
+      }
+      if (n.subTreeMessageCount == 0) {
+        pmToNodeMap.remove(n.pm);
+        if (n.parent != null) {
+          removeByIdentity(n.parent.children, n);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reserves a range of sequence numbers for each partition of a parallel
+   * operation. Messages added later are ordered behind all reserved ranges.
+   *
+   * @param numOfRanges
+   *          The number of ranges to reserve.
+   * @return The first sequence number of the first range. Range <code>i</code>
+   *         starts at <code>firstSeq + i * SEQ_RANGE_SIZE</code>. See
+   *         {@link #useSeqRangeInThisThread(long, int)}.
+   */
+  public synchronized long reserveSeqRanges(int numOfRanges) {
+    long firstSeq = nextSeq;
+    nextSeq += numOfRanges * SEQ_RANGE_SIZE;
+    return firstSeq;
+  }
+
+  /**
+   * Lets the current thread add its messages to this store with the sequence
+   * numbers of a reserved range.
+   *
+   * @param firstSeq
+   *          The result of {@link #reserveSeqRanges(int)}.
+   * @param rangeIdx
+   *          The index of the range to use.
+   */
+  public void useSeqRangeInThisThread(long firstSeq, int rangeIdx) {
+    THREAD_SEQ_RANGE.set(new SeqRange(this, firstSeq + rangeIdx * SEQ_RANGE_SIZE));
+  }
+
+  /**
+   * Lets the current thread use the standard sequence numbers again.
+   */
+  public static void releaseSeqRangeOfThisThread() {
+    THREAD_SEQ_RANGE.remove();
+  }
+
+  /**
+   * Removes all messages.
+   */
+  public synchronized void clear() {
+    seqToMessageMap.clear();
+    messageToSeqMap.clear();
+    pmToNodeMap.clear();
+    commandMessages.clear();
+    errorCount = 0;
+  }
+
+  public synchronized boolean isEmpty() {
+    return seqToMessageMap.isEmpty();
+  }
+
+  public synchronized boolean hasErrors() {
+    return errorCount > 0;
+  }
+
+  /**
+   * @param pm The PM to check.
+   * @return <code>true</code> if there is an error message for the given PM.
+   */
+  public synchronized boolean hasErrors(PmObject pm) {
+    if (pm instanceof PmCommandImpl) {
+      for (PmMessage m : commandMessages) {
+        if (m.isError() && m.isMessageFor(pm)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    Node node = pmToNodeMap.get(pm);
+    return node != null && node.errorCount > 0;
+  }
+
+  /**
+   * @param severity The severity to get the messages for. <code>null</code> provides all messages.
+   * @return All messages with the given severity in order of their addition.
+   */
+  public synchronized List<PmMessage> getMessages(Severity severity) {
+    if (seqToMessageMap.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<PmMessage> list = new ArrayList<PmMessage>();
+    for (PmMessage m : seqToMessageMap.values()) {
+      if (severity == null || severity == m.getSeverity()) {
+        list.add(m);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * @param pm The PM to get the messages for. See {@link PmMessage#isMessageFor(PmObject)}.
+   * @param severity The severity to get the messages for. <code>null</code> provides all messages.
+   * @return The messages in order of their addition.
+   */
+  public synchronized List<PmMessage> getMessages(PmObject pm, Severity severity) {
+    List<PmMessage> candidates;
+    if (pm instanceof PmCommandImpl) {
+      candidates = commandMessages;
+    }
+    else {
+      Node node = pmToNodeMap.get(pm);
+      if (node == null) {
+        return Collections.emptyList();
+      }
+      candidates = node.messages;
+    }
+
+    List<PmMessage> list = new ArrayList<PmMessage>(candidates.size());
+    for (PmMessage m : candidates) {
+      if ((severity == null || severity == m.getSeverity()) &&
+          m.isMessageFor(pm)) {
+        list.add(m);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * @param pm The root of the PM sub tree.
+   * @param minSeverity The minimal severity of the messages to provide.
+   * @return The messages for the given PM and all of its sub PMs in order of their addition.
+   */
+  public synchronized List<PmMessage> getSubTreeMessages(PmObject pm, Severity minSeverity) {
+    List<PmMessage> list = new ArrayList<PmMessage>();
+    Node node = pmToNodeMap.get(pm);
+    if (node != null) {
+      addSubTreeMessages(node, minSeverity, list);
+    }
+    if (pm instanceof PmCommandImpl) {
+      // Messages of related template commands. The sub tree messages are already part of the list.
+      Set<PmMessage> subTreeMessages = Collections.newSetFromMap(new IdentityHashMap<PmMessage, Boolean>());
+      subTreeMessages.addAll(list);
+      for (PmMessage m : commandMessages) {
+        if (m.getSeverity().ordinal() >= minSeverity.ordinal() &&
+            m.isMessageFor(pm) &&
+            !subTreeMessages.contains(m)) {
+          list.add(m);
+        }
+      }
+    }
+
+    if (list.size() > 1) {
+      Collections.sort(list, new Comparator<PmMessage>() {
+        @Override
+        public int compare(PmMessage o1, PmMessage o2) {
+          return messageToSeqMap.get(o1).compareTo(messageToSeqMap.get(o2));
+        }
+      });
+    }
+    return list;
+  }
+
+  private void addSubTreeMessages(Node node, Severity minSeverity, List<PmMessage> list) {
+    for (PmMessage m : node.messages) {
+      if (m.getSeverity().ordinal() >= minSeverity.ordinal()) {
+        list.add(m);
+      }
+    }
+    boolean onlyErrors = minSeverity == Severity.ERROR;
+    for (Node c : node.children) {
+      // Sub trees without errors don't need to be visited if only errors are requested.
+      if (!onlyErrors || c.subTreeErrorCount > 0) {
+        addSubTreeMessages(c, minSeverity, list);
+      }
+    }
+  }
+
+  private Node getOrCreateNode(PmObject pm) {
+    Node node = pmToNodeMap.get(pm);
+    if (node == null) {
+      PmObject parentPm = pm.getPmParent();
+      Node parentNode = (parentPm != null) ? getOrCreateNode(parentPm) : null;
+      node = new Node(pm, parentNode);
+      pmToNodeMap.put(pm, node);
+      if (parentNode != null) {
+        parentNode.children.add(node);
+      }
+    }
+    return node;
+  }
+
+  private static <T> void removeByIdentity(List<T> list, T item) {
+    for (int i = list.size() - 1; i >= 0; --i) {
+      if (list.get(i) == item) {
+        list.remove(i);
+        return;
+      }
+    }
+  }
+
+  /** A sequence number range that is used by a single thread. */
+  private static final class SeqRange {
+    final PmMessageStore store;
+    long nextSeq;
+
+    SeqRange(PmMessageStore store, long firstSeq) {
+      this.store = store;
+      this.nextSeq = firstSeq;
+    }
+  }
+
+  /**
+   * Represents a PM that has messages within its sub tree.
+   * <p>
+   * The parent node gets fixed at creation time. Thus a later parent change
+   * of the PM does not corrupt the counters.
+   */
+  private static final class Node {
+    final PmObject pm;
+    final Node parent;
+    final List<PmMessage> messages = new ArrayList<PmMessage>(2);
+    final List<Node> children = new ArrayList<Node>(2);
+    int errorCount;
+    int subTreeMessageCount;
+    int subTreeErrorCount;
+
+    Node(PmObject pm, Node parent) {
+      this.pm = pm;
+      this.parent = parent;
+    }
+  }
+}
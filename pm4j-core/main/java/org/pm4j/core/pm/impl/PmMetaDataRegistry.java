@@ -0,0 +1,118 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.pm4j.core.exception.PmRuntimeException;
+import org.pm4j.core.pm.impl.PmObjectBase.MetaData;
+
+/**
+ * The VM wide registry of shared PM meta data, keyed by the absolute PM path.
+ * <p>
+ * Each key gets initialized only once. In difference to a global lock, only
+ * threads that need the meta data for the same key wait for each other. The
+ * meta data of unrelated PMs gets initialized in parallel.
+ * <p>
+ * The meta data gets visible for other threads only after its complete
+ * initialization (including the meta data of the field bound children).
+ * The initializing thread itself may see it already after
+ * {@link #publishToInitThread(Entry, MetaData)}. That allows re-entrant
+ * lookups within the initialization call stack.
+ *
+ * @author olaf boede
+ */
+final class PmMetaDataRegistry {
+
+  /**
+   * The initialization state for a single key.
+   */
+  static final class Entry {
+    private final Thread initThread = Thread.currentThread();
+    private final CountDownLatch initDoneLatch = new CountDownLatch(1);
+    private volatile MetaData metaData;
+    private volatile boolean completed;
+  }
+
+  private final ConcurrentMap<String, Entry> keyToEntryMap = new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * Provides the meta data for the given key.
+   * <p>
+   * If another thread currently initializes the meta data for the given key,
+   * this call waits until the initialization is done.
+   *
+   * @param key
+   *          The absolute PM path.
+   * @return The meta data or <code>null</code> if there is none (or if the
+   *         initialization of another thread failed).
+   */
+  MetaData find(String key) {
+    Entry e = keyToEntryMap.get(key);
+    if (e == null) {
+      return null;
+    }
+    if (e.completed) {
+      return e.metaData;
+    }
+
+    if (e.initThread == Thread.currentThread()) {
+      if (e.metaData == null) {
+        throw new PmRuntimeException("Cyclic PM meta data initialization for '" + key + "'.");
+      }
+      return e.metaData;
+    }
+
+    try {
+      e.initDoneLatch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new PmRuntimeException("Interrupted while waiting for the PM meta data of '" + key + "'.", ex);
+    }
+    return e.completed ? e.metaData : null;
+  }
+
+  /**
+   * Tries to register the calling thread as the initializer for the given key.
+   *
+   * @param key
+   *          The absolute PM path.
+   * @return The initialization entry if the calling thread is responsible for
+   *         the initialization. It has to call {@link #completeInit(Entry, MetaData)} or
+   *         {@link #abortInit(String, Entry)} when done.<br>
+   *         <code>null</code> if there is already an entry for the key.
+   */
+  Entry startInit(String key) {
+    Entry e = new Entry();
+    return (keyToEntryMap.putIfAbsent(key, e) == null)
+        ? e
+        : null;
+  }
+
+  /**
+   * Makes the (not yet completely initialized) meta data available for
+   * re-entrant lookups of the initializing thread.
+   */
+  void publishToInitThread(Entry e, MetaData metaData) {
+    e.metaData = metaData;
+  }
+
+  /**
+   * Makes the completely initialized meta data available for all threads.
+   */
+  void completeInit(Entry e, MetaData metaData) {
+    e.metaData = metaData;
+    e.completed = true;
+    e.initDoneLatch.countDown();
+  }
+
+  /**
+   * Removes the entry of a failed initialization. The next request for the
+   * key will start a new initialization attempt.
+   */
+  void abortInit(String key, Entry e) {
+    keyToEntryMap.remove(key, e);
+    e.initDoneLatch.countDown();
+  }
+
+}
@@ -0,0 +1,161 @@
+package org.pm4j.core.pm.impl;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.exception.PmRuntimeException;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.util.reflection.BeanAttrAccessor;
+
+/**
+ * Initializes the shared meta data of a PM tree before the first real user
+ * request needs it.
+ * <p>
+ * Starts with a set of root PMs (usually conversation instances that are
+ * created for this purpose only) and walks:
+ * <ul>
+ * <li>all field bound child PMs and</li>
+ * <li>all bean PM classes that are registered by a {@link PmFactoryCfg}.
+ * For each of these classes a PM instance without a bean gets created.</li>
+ * </ul>
+ * The bean PM sub trees of the root PMs are handled in parallel.
+ * <p>
+ * Bean PM classes that are already part of the current bean PM path (e.g. for
+ * recursive tree structures) are not walked again.
+ *
+ * @author olaf boede
+ */
+class PmMetaDataWarmUp {
+
+  private static final Log LOG = LogFactory.getLog(PmMetaDataWarmUp.class);
+
+  private final ExecutorService executor;
+  private final List<Future<?>> pendingTasks = Collections.synchronizedList(new ArrayList<Future<?>>());
+  private final AtomicInteger numOfPms = new AtomicInteger();
+
+  /**
+   * @param numOfThreads
+   *          The number of threads to use for the bean PM sub trees.
+   */
+  public PmMetaDataWarmUp(int numOfThreads) {
+    if (numOfThreads < 1) {
+      throw new IllegalArgumentException("At least one thread is required. Found: " + numOfThreads);
+    }
+    this.executor = Executors.newFixedThreadPool(numOfThreads);
+  }
+
+  /**
+   * Initializes the meta data of the given PM trees.
+   *
+   * @param rootPms
+   *          The root PMs to start with.
+   * @return The number of visited PMs.
+   */
+  public int warmUp(PmObject... rootPms) {
+    try {
+      // The roots are handled sequentially. They are the shared parents of the bean PM sub trees.
+      for (PmObject pm : rootPms) {
+        walk((PmObjectBase) pm, Collections.<Class<?>>emptySet());
+      }
+
+      for (Future<?> f : pendingTasks) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PmRuntimeException("Interrupted while waiting for the PM meta data warm-up.", e);
+    } catch (ExecutionException e) {
+      throw PmRuntimeException.asPmRuntimeException(null, e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return numOfPms.get();
+  }
+
+  private void walk(PmObjectBase pm, Set<Class<?>> beanPmClassPath) {
+    pm.ensurePmMetaDataInitialization();
+    numOfPms.incrementAndGet();
+
+    PmObjectBase.MetaData md = pm.getPmMetaDataWithoutPmInitCall();
+    for (BeanAttrAccessor a : md.getChildFieldAccessorArray()) {
+      PmObjectBase child = a.getBeanAttrValue(pm);
+      walk(child, beanPmClassPath);
+    }
+
+    BeanPmFactory factory = (pm instanceof PmConversationImpl)
+        ? pm.getOwnPmElementFactory()
+        : md.getPmElementFactory();
+    if (factory != null) {
+      for (Class<?> c : factory.getBeanPmClasses()) {
+        if (! beanPmClassPath.contains(c)) {
+          walkBeanPmClass(pm, c, beanPmClassPath);
+        }
+      }
+    }
+  }
+
+  private void walkBeanPmClass(final PmObjectBase pmCtxt, final Class<?> beanPmClass, Set<Class<?>> beanPmClassPath) {
+    final Set<Class<?>> subPath = new HashSet<Class<?>>(beanPmClassPath);
+    subPath.add(beanPmClass);
+
+    if (beanPmClassPath.isEmpty()) {
+      pendingTasks.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          PmObjectBase pm = makeBeanPmWithoutBean(pmCtxt, beanPmClass);
+          if (pm != null) {
+            walk(pm, subPath);
+          }
+          return null;
+        }
+      }));
+    }
+    else {
+      PmObjectBase pm = makeBeanPmWithoutBean(pmCtxt, beanPmClass);
+      if (pm != null) {
+        walk(pm, subPath);
+      }
+    }
+  }
+
+  /**
+   * Creates a bean PM the same way as {@link BeanPmFactory} does. But without
+   * a bean.
+   *
+   * @return The new PM or <code>null</code> if the PM class can't be
+   *         instantiated without a bean.
+   */
+  private PmObjectBase makeBeanPmWithoutBean(PmObjectBase pmCtxt, Class<?> beanPmClass) {
+    try {
+      for (Constructor<?> c : beanPmClass.getConstructors()) {
+        Class<?>[] pTypes = c.getParameterTypes();
+        if ((pTypes.length == 2) && (PmObject.class.isAssignableFrom(pTypes[0]))) {
+          return (PmObjectBase) c.newInstance(pmCtxt, null);
+        }
+      }
+
+      PmObjectBase pm = (PmObjectBase) beanPmClass.getConstructor().newInstance();
+      pm.setPmParent(pmCtxt);
+      return pm;
+    } catch (Exception e) {
+      LOG.warn("Meta data warm-up skipped for " + beanPmClass.getName() +
+          ". It can't be instantiated without a bean within " + PmUtil.getPmLogString(pmCtxt), e);
+      return null;
+    }
+  }
+
+}
@@ -6,6 +6,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -13,9 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.apache.commons.lang.ClassUtils;
 import org.apache.commons.lang.ObjectUtils;
@@ -48,10 +47,13 @@ import org.pm4j.core.pm.api.PmEventApi;
 import org.pm4j.core.pm.api.PmMessageUtil;
 import org.pm4j.core.pm.api.PmValidationApi;
 import org.pm4j.core.pm.impl.cache.PmCacheLog;
+import org.pm4j.core.pm.impl.cache.PmCacheMetrics;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategy;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategyBase;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategyNoCache;
 import org.pm4j.core.pm.impl.cache.PmCacheStrategyRequest;
+import org.pm4j.core.pm.impl.cache.PmCacheStrategySession;
+import org.pm4j.core.pm.impl.cache.PmCacheStrategyTtl;
 import org.pm4j.core.pm.impl.pathresolver.PathResolver;
 import org.pm4j.core.pm.impl.pathresolver.PmExpressionPathResolver;
 import org.pm4j.core.pm.impl.title.PmTitleProvider;
@@ -94,7 +96,14 @@ public abstract class PmObjectBase implements PmObject {
   /**
    * Optional title cache.
    */
-  private String pmCachedTitle;
+  private Object pmCachedTitle;
+
+  /**
+   * Clears the caches on events of other PMs. See {@link PmCacheCfg#clearOnEventOf()}.<br>
+   * Is weakly registered at the event source PMs. This reference keeps it alive
+   * as long as this PM lives.
+   */
+  private PmEventListener pmCacheClearEventListener;
 
   enum PmInitState {
     NOT_INITIALIZED,
@@ -108,7 +117,7 @@ public abstract class PmObjectBase implements PmObject {
   /**
    * An optional cache for the bean to PM association within the current PM hierarchy scope.
    */
-  /* package */ BeanPmCache pmBeanFactoryCache;
+  /* package */ volatile BeanPmCache pmBeanFactoryCache;
 
   /** A container for application/user specific additional information. */
   private Map<String, Object> pmProperties = Collections.emptyMap();
@@ -224,14 +233,17 @@ public abstract class PmObjectBase implements PmObject {
 
   @Override
   public final boolean isPmVisible() {
-    PmCacheStrategy strategy = getPmMetaData().cacheStrategyForVisibility;
+    MetaData md = getPmMetaData();
+    PmCacheStrategy strategy = md.cacheStrategyForVisibility;
     Object v = strategy.getCachedValue(this);
 
     if (v != PmCacheStrategy.NO_CACHE_VALUE) {
       // just return the cache hit (if there was one)
+      md.cacheMetrics.countHit(PmCacheApi.CacheKind.VISIBILITY);
       return (Boolean) v;
     }
     else {
+      md.countMiss(PmCacheApi.CacheKind.VISIBILITY, strategy);
       return (Boolean) strategy.setAndReturnCachedValue(this, isPmVisibleImpl());
     }
   }
@@ -253,14 +265,17 @@ public abstract class PmObjectBase implements PmObject {
 
   @Override
   public boolean isPmEnabled() {
-    PmCacheStrategy strategy = getPmMetaData().cacheStrategyForEnablement;
+    MetaData md = getPmMetaData();
+    PmCacheStrategy strategy = md.cacheStrategyForEnablement;
     Object e = strategy.getCachedValue(this);
 
     if (e != PmCacheStrategy.NO_CACHE_VALUE) {
       // just return the cache hit (if there was one)
+      md.cacheMetrics.countHit(PmCacheApi.CacheKind.ENABLEMENT);
       return (Boolean) e;
     }
     else {
+      md.countMiss(PmCacheApi.CacheKind.ENABLEMENT, strategy);
       return (Boolean) strategy.setAndReturnCachedValue(this, isPmEnabledImpl());
     }
   }
@@ -282,8 +297,7 @@ public abstract class PmObjectBase implements PmObject {
 
   @Override
   public boolean isPmValid() {
-    List<PmMessage> msgList = getPmConversationImpl().getPmMessages(this, Severity.ERROR);
-    return msgList.isEmpty();
+    return !getPmConversationImpl().hasPmErrors(this);
   }
 
   /**
@@ -317,14 +331,17 @@ public abstract class PmObjectBase implements PmObject {
 
   @Override
   public final String getPmTitle() {
-    PmCacheStrategy strategy = getPmMetaData().cacheStrategyForTitle;
+    MetaData md = getPmMetaData();
+    PmCacheStrategy strategy = md.cacheStrategyForTitle;
     Object title = strategy.getCachedValue(this);
 
     if (title != PmCacheStrategy.NO_CACHE_VALUE) {
       // just return the cache hit (if there was one)
+      md.cacheMetrics.countHit(PmCacheApi.CacheKind.TITLE);
       return (String) title;
     }
     else {
+      md.countMiss(PmCacheApi.CacheKind.TITLE, strategy);
       return (String) strategy.setAndReturnCachedValue(this, getPmTitleImpl());
     }
   }
@@ -377,16 +394,16 @@ public abstract class PmObjectBase implements PmObject {
     MetaData sd = getPmMetaData();
 
     if (cacheSet.contains(PmCacheApi.CacheKind.ENABLEMENT))
-      sd.cacheStrategyForEnablement.clear(this);
+      sd.clearCache(this, PmCacheApi.CacheKind.ENABLEMENT, sd.cacheStrategyForEnablement);
 
     if (cacheSet.contains(PmCacheApi.CacheKind.VISIBILITY))
-      sd.cacheStrategyForVisibility.clear(this);
+      sd.clearCache(this, PmCacheApi.CacheKind.VISIBILITY, sd.cacheStrategyForVisibility);
 
     if (cacheSet.contains(PmCacheApi.CacheKind.TITLE))
-      sd.cacheStrategyForTitle.clear(this);
+      sd.clearCache(this, PmCacheApi.CacheKind.TITLE, sd.cacheStrategyForTitle);
 
-    for (PmObject p : getPmChildren()) {
-      PmCacheApi.clearCachedPmValues(p, cacheSet);
+    for (int i = 0, n = getPmChildCount(PmChildKind.ALL); i < n; ++i) {
+      PmCacheApi.clearCachedPmValues(getPmChild(PmChildKind.ALL, i), cacheSet);
     }
   }
 
@@ -428,6 +445,31 @@ public abstract class PmObjectBase implements PmObject {
     return BeanAttrArrayList.makeList(this, getPmMetaData().childFieldAccessorArray, pmDynamicSubPms.all);
   }
 
+  /**
+   * @param kind The kind of children to count.
+   * @return The number of field bound and dynamic children of the given kind.
+   */
+  /* package */ int getPmChildCount(PmChildKind kind) {
+    return getPmMetaData().childIndexesByKind[kind.ordinal()].length +
+           pmDynamicSubPms.byKind[kind.ordinal()].length;
+  }
+
+  /**
+   * Provides a child without allocating a child list.
+   *
+   * @param kind The kind of children to address.
+   * @param index The position within the children of the given kind. The
+   *          field bound children are followed by the dynamic ones.
+   * @return The child at the given position.
+   */
+  /* package */ PmObject getPmChild(PmChildKind kind, int index) {
+    MetaData md = getPmMetaData();
+    int[] fieldIndexes = md.childIndexesByKind[kind.ordinal()];
+    return index < fieldIndexes.length
+        ? md.childFieldAccessorArray[fieldIndexes[index]].<PmObject>getBeanAttrValue(this)
+        : pmDynamicSubPms.byKind[kind.ordinal()][index - fieldIndexes.length];
+  }
+
   /* package */ PmObject findChildPm(String localChildName) {
     BeanAttrAccessor accessor = getPmMetaData().nameToChildAccessorMap.get(localChildName);
     if (accessor != null) {
@@ -505,10 +547,47 @@ public abstract class PmObjectBase implements PmObject {
   /* package */ void registerInPmBeanCache(PmBean<?> pmBean) {
     BeanPmFactory f = getOwnPmElementFactory();
     if ((f != null) && f.canMakePmFor(pmBean.getPmBean())) {
-      if (pmBeanFactoryCache == null) {
-        pmBeanFactoryCache = new BeanPmCacheImpl();
+      getOrCreatePmBeanFactoryCache().add(pmBean);
+    }
+  }
+
+  /**
+   * Registers a new bean in the bean PM cache if there is no PM for the bean instance yet.
+   */
+  /* package */ void registerInPmBeanCacheIfAbsent(PmBean<?> pmBean) {
+    BeanPmFactory f = getOwnPmElementFactory();
+    if ((f != null) && f.canMakePmFor(pmBean.getPmBean())) {
+      getOrCreatePmBeanFactoryCache().addIfAbsent(pmBean);
+    }
+  }
+
+  /**
+   * @return The bean PM cache of this PM. Gets created on first call.
+   */
+  /* package */ BeanPmCache getOrCreatePmBeanFactoryCache() {
+    BeanPmCache c = pmBeanFactoryCache;
+    if (c == null) {
+      synchronized (this) {
+        c = pmBeanFactoryCache;
+        if (c == null) {
+          pmBeanFactoryCache = c = makePmBeanFactoryCache();
+        }
       }
-      pmBeanFactoryCache.add(pmBean);
+    }
+    return c;
+  }
+
+  /**
+   * Factory method for the bean PM cache of this PM.
+   * <p>
+   * Creates the cache implementation that is configured by
+   * {@link PmDefaults#getBeanPmCacheKind()}.
+   */
+  /* package */ BeanPmCache makePmBeanFactoryCache() {
+    switch (getPmConversation().getPmDefaults().getBeanPmCacheKind()) {
+      case COMPACT:                   return new BeanPmCacheCompact(false);
+      case COMPACT_WITH_EQUALS_INDEX: return new BeanPmCacheCompact(true);
+      default:                        return new BeanPmCacheImpl();
     }
   }
 
@@ -520,9 +599,9 @@ public abstract class PmObjectBase implements PmObject {
   // ======== Static data ======== //
 
   /**
-   * A map of static definitions for presentation model.
+   * The static definitions for presentation models, keyed by their absolute PM path.
    */
-  private static Map<Object, MetaData> pmKeyToMetaDataMap = new ConcurrentHashMap<Object, MetaData>();
+  private static final PmMetaDataRegistry pmMetaDataRegistry = new PmMetaDataRegistry();
 
   /**
    * A reference to the static definition for this presentation model.
@@ -561,16 +640,13 @@ public abstract class PmObjectBase implements PmObject {
         pmParent.ensurePmMetaDataInitialization();
       }
       if (pmMetaData == null) {
-        // Prevent concurrent double initialization.
-        // Can't be done on class level because of
-        // http://bugs.sun.com/bugdatabase/view_bug.do;jsessionid=82a8144e020c83fd1bd1bd741b6e?bug_id=7031759
-        synchronized(pmKeyToMetaDataMap) {
-          try {
-            zz_initMetaData(pmParent, (String) null, false, false);
-          }
-          catch (RuntimeException e) {
-            PmObjectUtil.throwAsPmRuntimeException(this, e);
-          }
+        // Concurrent double initialization is prevented by the per-key handling
+        // of the meta data registry.
+        try {
+          zz_initMetaData(pmParent, (String) null, false, false);
+        }
+        catch (RuntimeException e) {
+          PmObjectUtil.throwAsPmRuntimeException(this, e);
         }
       }
     }
@@ -630,94 +706,33 @@ public abstract class PmObjectBase implements PmObject {
                             ? PmUtil.getAbsoluteName(pmParent) + PmObjectBase.MetaData.NAME_PATH_DELIMITER + lastKeyPart
                             : lastKeyPart;
 
-      setPmMetaData(pmKeyToMetaDataMap.get(key));
-      if (pmMetaData == null) {
-        // Double check with synchronization to ensure maximum get performance and to ensure that
-        // meta data for each PM class gets initialized only once.
-        // This can't be done on class level because of http://bugs.sun.com/bugdatabase/view_bug.do;jsessionid=82a8144e020c83fd1bd1bd741b6e?bug_id=7031759
-        synchronized (pmKeyToMetaDataMap) {
-          setPmMetaData(pmKeyToMetaDataMap.get(key));
-          if (pmMetaData == null) {
-            setPmMetaData(makeMetaData());
-            pmMetaData.name = (name != null)
-                                ? name
-                                : StringUtils.uncapitalize(getClass().getSimpleName());
-            pmMetaData.isPmField = isPmField;
-            pmMetaData.isSubPm = isSubPm;
-            pmMetaData.init(getPmConversation().getPmDefaults());
-
-            if (pmParent == null &&
-                ! (this instanceof PmConversation)) {
-              String reportName = name != null ? name : getClass().getSimpleName();
-              throw new PmRuntimeException("Unable to initialize PM '" + reportName + "' without defined pmParent.\n" +
-                  "Please make sure that the pmParent is defined either by using an initializing constructor\n" +
-                  "or by using the method setpmParent(pmParent) before using this instance.\n" +
-                  "PM class: " + getClass().getCanonicalName());
-            }
-
-            pmMetaData.absoluteName = key;
-
-            // Perform the subclass specific meta data initialization after having defined names.
-            try {
-              initMetaData(pmMetaData);
-            }
-            catch (RuntimeException e) {
-              throw new PmRuntimeException(this, e);
-            }
-            pmKeyToMetaDataMap.put(key, pmMetaData);
-
-
-            // -- Meta data initialization for PM fields --
-            List<BeanAttrAccessor> allFields = new ArrayList<BeanAttrAccessor>();
-            List<BeanAttrAccessor> columnFields = new ArrayList<BeanAttrAccessor>();
-            for (Field f : ClassUtil.getAllFields(getClass())) {
-              // XXX olaf: Currently only public fields are considered.
-              if ((f.getModifiers() & Modifier.PUBLIC) != 0 &&
-                  (f.getModifiers() & Modifier.STATIC) == 0) {
-
-                BeanAttrAccessor accessor = new BeanAttrAccessorImpl(getClass(), f);
-                Object fieldValue = accessor.getBeanAttrValue(this);
-
-                if (fieldValue instanceof PmObject) {
-                  if ((f.getModifiers() & Modifier.FINAL) == 0) {
-                    LOG.warn("PM field has no 'final' declaration. " +
-                        "Please check if it may be declared this way. The field: " + f);
-                  }
-
-                  allFields.add(accessor);
-                  if (fieldValue instanceof PmTableCol)
-                    columnFields.add(accessor);
-                }
-              }
-            }
-
-            int numOfPmFields = allFields.size();
-            if (numOfPmFields > 0) {
-              pmMetaData.childFieldAccessorArray = new BeanAttrAccessor[numOfPmFields];
-              allFields.toArray(pmMetaData.childFieldAccessorArray);
-
-              pmMetaData.childFieldMetaDataArray = new MetaData[numOfPmFields];
-              pmMetaData.nameToChildAccessorMap = new HashMap<String, BeanAttrAccessor>(numOfPmFields);
-              for (int i=0; i<pmMetaData.childFieldAccessorArray.length; ++i) {
-                BeanAttrAccessor a = pmMetaData.childFieldAccessorArray[i];
-                String attrName = a.getName();
-                PmObjectBase child = (PmObjectBase)a.getBeanAttrValue(this);
-                child.zz_initMetaData(this, attrName, true, true);
-                pmMetaData.childFieldMetaDataArray[i] = child.pmMetaData;
-                pmMetaData.nameToChildAccessorMap.put(attrName, a);
-              }
-              pmInitState = PmInitState.FIELD_BOUND_CHILD_META_DATA_INITIALIZED;
-
-              for (int i=0; i<pmMetaData.childFieldAccessorArray.length; ++i) {
-                PmObjectBase child = pmMetaData.childFieldAccessorArray[i].getBeanAttrValue(this);
-                if (child.pmInitState == PmInitState.NOT_INITIALIZED) {
-                  child.ensurePmMetaDataInitialization();
-                }
-              }
-
+      setPmMetaData(pmMetaDataRegistry.find(key));
+      while (pmMetaData == null) {
+        // Each key gets initialized only once. Only threads that ask for the same key
+        // wait for each other. A global lock can't be used because of
+        // http://bugs.sun.com/bugdatabase/view_bug.do;jsessionid=82a8144e020c83fd1bd1bd741b6e?bug_id=7031759
+        // and would serialize the initialization of unrelated PMs.
+        PmMetaDataRegistry.Entry initEntry = pmMetaDataRegistry.startInit(key);
+        if (initEntry != null) {
+          boolean initCompleted = false;
+          try {
+            zz_initNewMetaData(initEntry, key, name, isPmField, isSubPm);
+            pmMetaDataRegistry.completeInit(initEntry, pmMetaData);
+            initCompleted = true;
+          }
+          finally {
+            // Errors need to release the waiting threads too.
+            if (!initCompleted) {
+              pmMetaDataRegistry.abortInit(key, initEntry);
+              setPmMetaData(null);
             }
           }
         }
+        else {
+          // Another thread is initializing. Wait for its result.
+          // A failed initialization of the other thread leads to a new attempt.
+          setPmMetaData(pmMetaDataRegistry.find(key));
+        }
       }
     }
 
@@ -729,6 +744,148 @@ public abstract class PmObjectBase implements PmObject {
     }
   }
 
+  /**
+   * Creates and initializes the meta data for a key that was not yet
+   * initialized. Is called only by the thread that is registered as
+   * initializer of the key.
+   */
+  private void zz_initNewMetaData(PmMetaDataRegistry.Entry initEntry, String key, String name, boolean isPmField, boolean isSubPm) {
+    setPmMetaData(makeMetaData());
+    pmMetaData.name = (name != null)
+                        ? name
+                        : StringUtils.uncapitalize(getClass().getSimpleName());
+    pmMetaData.isPmField = isPmField;
+    pmMetaData.isSubPm = isSubPm;
+    pmMetaData.init(getPmConversation().getPmDefaults());
+
+    if (pmParent == null &&
+        ! (this instanceof PmConversation)) {
+      String reportName = name != null ? name : getClass().getSimpleName();
+      throw new PmRuntimeException("Unable to initialize PM '" + reportName + "' without defined pmParent.\n" +
+          "Please make sure that the pmParent is defined either by using an initializing constructor\n" +
+          "or by using the method setpmParent(pmParent) before using this instance.\n" +
+          "PM class: " + getClass().getCanonicalName());
+    }
+
+    pmMetaData.absoluteName = key;
+    pmMetaData.cacheMetrics = PmCacheLog.INSTANCE.getPmCacheMetrics(key);
+
+    // Perform the subclass specific meta data initialization after having defined names.
+    try {
+      initMetaData(pmMetaData);
+    }
+    catch (RuntimeException e) {
+      throw new PmRuntimeException(this, e);
+    }
+    pmMetaDataRegistry.publishToInitThread(initEntry, pmMetaData);
+
+
+    // -- Meta data initialization for PM fields --
+    List<BeanAttrAccessor> allFields = new ArrayList<BeanAttrAccessor>();
+    List<BeanAttrAccessor> columnFields = new ArrayList<BeanAttrAccessor>();
+    for (Field f : ClassUtil.getAllFields(getClass())) {
+      // XXX olaf: Currently only public fields are considered.
+      if ((f.getModifiers() & Modifier.PUBLIC) != 0 &&
+          (f.getModifiers() & Modifier.STATIC) == 0) {
+
+        BeanAttrAccessor accessor = new BeanAttrAccessorImpl(getClass(), f);
+        Object fieldValue = accessor.getBeanAttrValue(this);
+
+        if (fieldValue instanceof PmObject) {
+          if ((f.getModifiers() & Modifier.FINAL) == 0) {
+            LOG.warn("PM field has no 'final' declaration. " +
+                "Please check if it may be declared this way. The field: " + f);
+          }
+
+          allFields.add(accessor);
+          if (fieldValue instanceof PmTableCol)
+            columnFields.add(accessor);
+        }
+      }
+    }
+
+    int numOfPmFields = allFields.size();
+    if (numOfPmFields > 0) {
+      pmMetaData.childFieldAccessorArray = new BeanAttrAccessor[numOfPmFields];
+      allFields.toArray(pmMetaData.childFieldAccessorArray);
+
+      pmMetaData.childFieldMetaDataArray = new MetaData[numOfPmFields];
+      pmMetaData.nameToChildAccessorMap = new HashMap<String, BeanAttrAccessor>(numOfPmFields);
+      for (int i=0; i<pmMetaData.childFieldAccessorArray.length; ++i) {
+        BeanAttrAccessor a = pmMetaData.childFieldAccessorArray[i];
+        String attrName = a.getName();
+        PmObjectBase child = (PmObjectBase)a.getBeanAttrValue(this);
+        child.zz_initMetaData(this, attrName, true, true);
+        pmMetaData.childFieldMetaDataArray[i] = child.pmMetaData;
+        pmMetaData.nameToChildAccessorMap.put(attrName, a);
+      }
+      pmMetaData.childIndexesByKind = makeChildIndexesByKind(this, pmMetaData.childFieldAccessorArray);
+      pmInitState = PmInitState.FIELD_BOUND_CHILD_META_DATA_INITIALIZED;
+
+      for (int i=0; i<pmMetaData.childFieldAccessorArray.length; ++i) {
+        PmObjectBase child = pmMetaData.childFieldAccessorArray[i].getBeanAttrValue(this);
+        if (child.pmInitState == PmInitState.NOT_INITIALIZED) {
+          child.ensurePmMetaDataInitialization();
+        }
+      }
+
+    }
+  }
+
+  /**
+   * Calculates for each {@link PmChildKind} the positions of the matching
+   * field bound children.
+   */
+  private static int[][] makeChildIndexesByKind(PmObjectBase pm, BeanAttrAccessor[] childAccessors) {
+    int[][] indexesByKind = new int[PmChildKind.KINDS.length][];
+    int[] buffer = new int[childAccessors.length];
+    for (PmChildKind k : PmChildKind.KINDS) {
+      int n = 0;
+      for (int i = 0; i < childAccessors.length; ++i) {
+        if (k.matches(childAccessors[i].<PmObject>getBeanAttrValue(pm))) {
+          buffer[n++] = i;
+        }
+      }
+      indexesByKind[k.ordinal()] = Arrays.copyOf(buffer, n);
+    }
+    return indexesByKind;
+  }
+
+  /**
+   * Registers the listeners for events of other PMs that are defined by the
+   * meta data. Gets called once within the PM initialization.
+   */
+  /* package */ void initEventListeners() {
+    initCacheClearEventListeners();
+  }
+
+  /**
+   * Registers the listeners that clear the caches of this PM on events of
+   * other PMs. See {@link PmCacheCfg#clearOnEventOf()}.
+   */
+  private void initCacheClearEventListeners() {
+    if (pmMetaData.cacheClearEventSourcePaths.length == 0) {
+      return;
+    }
+
+    pmCacheClearEventListener = new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        PmCacheApi.clearCachedPmValues(PmObjectBase.this);
+      }
+    };
+    PmObject pathCtxt = (pmParent != null) ? pmParent : this;
+    for (PathResolver r : pmMetaData.cacheClearEventSourcePaths) {
+      Object src = r.getValue(pathCtxt);
+      if (! (src instanceof PmObject)) {
+        throw new PmRuntimeException(this, "The @PmCacheCfg(clearOnEventOf) path '" + r +
+            "' does not address a PM. Found: " + src);
+      }
+      // A weak registration prevents that a long living event source keeps this PM alive.
+      PmEventApi.addWeakPmEventListener((PmObject)src, pmMetaData.cacheClearEventMask, pmCacheClearEventListener);
+    }
+  }
+
   private void initPmResourceAnnotatedFields() {
     for (Map.Entry<Field, PathResolver> e : pmMetaData.fieldInjectionMap.entrySet()) {
       Field f = e.getKey();
@@ -806,6 +963,7 @@ public abstract class PmObjectBase implements PmObject {
 
           if (pmInitState.ordinal() < PmInitState.BEFORE_ON_PM_INIT.ordinal()) {
             initPmResourceAnnotatedFields();
+            initEventListeners();
             pmInitState = PmInitState.BEFORE_ON_PM_INIT;
             try {
               onPmInit();
@@ -925,6 +1083,15 @@ public abstract class PmObjectBase implements PmObject {
     metaData.cacheStrategyForVisibility = readCacheStrategy(PmCacheCfg.ATTR_VISIBILITY, cacheAnnotations, CACHE_STRATEGIES_FOR_VISIBILITY);
     metaData.cacheStrategyForEnablement = readCacheStrategy(PmCacheCfg.ATTR_ENABLEMENT, cacheAnnotations, CACHE_STRATEGIES_FOR_ENABLEMENT);
 
+    PmCacheCfg ownCacheCfg = AnnotationUtil.findAnnotation(this, PmCacheCfg.class);
+    if (ownCacheCfg != null && ownCacheCfg.clearOnEventOf().length > 0) {
+      metaData.cacheClearEventSourcePaths = new PathResolver[ownCacheCfg.clearOnEventOf().length];
+      for (int i=0; i<metaData.cacheClearEventSourcePaths.length; ++i) {
+        metaData.cacheClearEventSourcePaths[i] = PmExpressionPathResolver.parse(ownCacheCfg.clearOnEventOf()[i], true);
+      }
+      metaData.cacheClearEventMask = ownCacheCfg.clearOnEventMask();
+    }
+
     // -- Dependency injection configuration --
     metaData.fieldInjectionMap = new HashMap<Field, PathResolver>();
     for (Field f : ClassUtil.getAllFields(getClass())) {
@@ -1012,6 +1179,8 @@ public abstract class PmObjectBase implements PmObject {
     private PmCacheStrategy cacheStrategyForTitle = PmCacheStrategyNoCache.INSTANCE;
     private PmCacheStrategy cacheStrategyForEnablement = PmCacheStrategyNoCache.INSTANCE;
     private PmCacheStrategy cacheStrategyForVisibility = PmCacheStrategyNoCache.INSTANCE;
+    /** The cache usage counters for all PMs using this meta data. */
+    /* package */ PmCacheMetrics cacheMetrics;
 //    private boolean cacheTooltip = false;
     /** An optional factory that is responsible for creating PMs for beans. */
     private BeanPmFactory pmElementFactory;
@@ -1019,6 +1188,10 @@ public abstract class PmObjectBase implements PmObject {
     private Map<Field, PathResolver> fieldInjectionMap;
     private Map<Method, PathResolver> methodInjectionMap;
 
+    /** Paths to the PMs whose events clear the caches. See {@link PmCacheCfg#clearOnEventOf()}. */
+    private PathResolver[] cacheClearEventSourcePaths = {};
+    private int cacheClearEventMask;
+
     /**
      * An array that allows faster initialization of child PM's. After
      * initialization of the first element, they can get their meta data just
@@ -1035,8 +1208,39 @@ public abstract class PmObjectBase implements PmObject {
     private BeanAttrAccessor[] childFieldAccessorArray = {};
     private Map<String, BeanAttrAccessor> nameToChildAccessorMap = Collections.emptyMap();
 
+    private static final int[][] NO_CHILD_INDEXES = new int[PmChildKind.KINDS.length][0];
+
+    /**
+     * The positions within {@link #childFieldAccessorArray} for each
+     * {@link PmChildKind}. Allows to iterate the children of a kind without
+     * list allocation and type checks.
+     */
+    private int[][] childIndexesByKind = NO_CHILD_INDEXES;
+
     public String getName() { return name; }
     /* package */ String getAbsoluteName() { return absoluteName; }
+    /* package */ BeanAttrAccessor[] getChildFieldAccessorArray() { return childFieldAccessorArray; }
+
+    /**
+     * Counts a cache miss. Counts also a cache initialization if the given
+     * strategy is caching.
+     */
+    /* package */ void countMiss(PmCacheApi.CacheKind cacheKind, PmCacheStrategy strategy) {
+      cacheMetrics.countMiss(cacheKind);
+      if (strategy.isCaching()) {
+        cacheMetrics.countInit(cacheKind);
+      }
+    }
+
+    /**
+     * Clears the cache of the given strategy and counts that if the strategy is caching.
+     */
+    /* package */ void clearCache(PmObject pm, PmCacheApi.CacheKind cacheKind, PmCacheStrategy strategy) {
+      if (strategy.isCaching()) {
+        strategy.clear(pm);
+        cacheMetrics.countClear(cacheKind);
+      }
+    }
 
     @SuppressWarnings("rawtypes")
     public PmTitleProvider getPmTitleProvider() {
@@ -1159,10 +1363,15 @@ public abstract class PmObjectBase implements PmObject {
   {
     CacheMode cacheMode = AnnotationUtil.getCacheModeFromCacheAnnotations(
         cacheCfgAttrName, cacheAnnotations, CacheMode.OFF);
-    PmCacheStrategy s = modeToStrategyMap.get(cacheMode);
+    // The TTL strategy uses the PM local storage of the ON strategy.
+    PmCacheStrategy s = modeToStrategyMap.get(cacheMode == CacheMode.TTL ? CacheMode.ON : cacheMode);
     if (s == null) {
       throw new PmRuntimeException(this, "Unable to find cache strategy for CacheMode '" + cacheMode + "'.");
     }
+    if (cacheMode == CacheMode.TTL) {
+      PmCacheCfg cfg = AnnotationUtil.findCacheAnnotationForProperty(cacheCfgAttrName, cacheAnnotations);
+      s = new PmCacheStrategyTtl((PmCacheStrategyBase<?>) s, cfg.ttlMillis());
+    }
     return s;
   }
 
@@ -1171,7 +1380,7 @@ public abstract class PmObjectBase implements PmObject {
       return pm.pmCachedTitle;
     }
     @Override protected void writeRawValue(PmObjectBase pm, Object value) {
-      pm.pmCachedTitle = (String)value;
+      pm.pmCachedTitle = value;
     }
     @Override protected void clearImpl(PmObjectBase pm) {
       pm.pmCachedTitle = null;
@@ -1206,21 +1415,24 @@ public abstract class PmObjectBase implements PmObject {
     MapUtil.makeFixHashMap(
       CacheMode.OFF,      PmCacheStrategyNoCache.INSTANCE,
       CacheMode.ON,    CACHE_TITLE_LOCAL,
-      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_TITLE_IN_REQUEST", "ti")
+      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_TITLE_IN_REQUEST", "ti"),
+      CacheMode.SESSION,  new PmCacheStrategySession("CACHE_TITLE_IN_SESSION", "ti")
     );
 
   private static final Map<CacheMode, PmCacheStrategy> CACHE_STRATEGIES_FOR_ENABLEMENT =
     MapUtil.makeFixHashMap(
       CacheMode.OFF,      PmCacheStrategyNoCache.INSTANCE,
       CacheMode.ON,    CACHE_ENABLED_LOCAL,
-      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_ENABLED_IN_REQUEST", "en")
+      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_ENABLED_IN_REQUEST", "en"),
+      CacheMode.SESSION,  new PmCacheStrategySession("CACHE_ENABLED_IN_SESSION", "en")
     );
 
   private static final Map<CacheMode, PmCacheStrategy> CACHE_STRATEGIES_FOR_VISIBILITY =
     MapUtil.makeFixHashMap(
       CacheMode.OFF,      PmCacheStrategyNoCache.INSTANCE,
       CacheMode.ON,    CACHE_VISIBLE_LOCAL,
-      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_VISIBLE_IN_REQUEST", "vi")
+      CacheMode.REQUEST,  new PmCacheStrategyRequest("CACHE_VISIBLE_IN_REQUEST", "vi"),
+      CacheMode.SESSION,  new PmCacheStrategySession("CACHE_VISIBLE_IN_SESSION", "vi")
     );
 
   // ====== dynamic pm support ====== //
@@ -1262,6 +1474,8 @@ public abstract class PmObjectBase implements PmObject {
    * A data structure that exists only in case of a PM with dynamic sub-PMs.
    */
   static class PmDynamicSubPms {
+    private static final PmObject[][] NO_DYNAMIC_CHILDREN = new PmObject[PmChildKind.KINDS.length][0];
+
     public static final PmDynamicSubPms EMPTY_INSTANCE = new PmDynamicSubPms() {
       @Override public void addPm(String arg0, PmObject arg1) {
         throw new UnsupportedOperationException();
@@ -1270,6 +1484,8 @@ public abstract class PmObjectBase implements PmObject {
 
     private List<PmObject> all = Collections.emptyList();
     private Map<String, PmObject> nameToPmMap = Collections.emptyMap();
+    /** The children for each {@link PmChildKind}. Gets re-created on each add and remove call. */
+    private PmObject[][] byKind = NO_DYNAMIC_CHILDREN;
 
     public void addPm(String name, PmObject pm) {
       if (!ObjectUtils.equals(name, pm.getPmName())) {
@@ -1288,11 +1504,28 @@ public abstract class PmObjectBase implements PmObject {
       if (all.isEmpty())
         all = new ArrayList<PmObject>();
       all.add(pm);
+      updateByKind();
     }
 
     public void removePm(PmObject pm) {
       nameToPmMap.remove(pm.getPmName());
       all.remove(pm);
+      updateByKind();
+    }
+
+    private void updateByKind() {
+      PmObject[][] newByKind = new PmObject[PmChildKind.KINDS.length][];
+      List<PmObject> kindList = new ArrayList<PmObject>(all.size());
+      for (PmChildKind k : PmChildKind.KINDS) {
+        kindList.clear();
+        for (PmObject pm : all) {
+          if (k.matches(pm)) {
+            kindList.add(pm);
+          }
+        }
+        newByKind[k.ordinal()] = kindList.toArray(new PmObject[kindList.size()]);
+      }
+      byKind = newByKind;
     }
 
   }
@@ -1340,102 +1573,6 @@ public abstract class PmObjectBase implements PmObject {
 } // end of PmObjectBase
 
 
-/**
- * A container for registered event listener - event mask pairs.
- * <p>
- * FIXME olaf: Currently the listener references are weak.
- *             An binding implementation with complete unbind support should be able
- *             to handle strong references too...
- * <p>
- * XXX olaf: The implementation is not really optimized for size and speed.
- *           Have a look the SWT EventTable for a better performing implementation.<br>
- *           Usage of the {@link CopyOnWriteArraySet} may also be a good choice.
- *
- * @author olaf boede
- */
-class PmEventTable {
-  private static final Log log = LogFactory.getLog(PmEventTable.class);
-
-  private final Map<PmEventListener, Integer> pmEventListeners;
-
-  public PmEventTable(boolean isWeak) {
-    pmEventListeners = isWeak
-          ? new WeakHashMap<PmEventListener, Integer>()
-          : new ConcurrentHashMap<PmEventListener, Integer>();
-  }
-
-  public synchronized void addListener(int eventMask, PmEventListener listener) {
-    Integer foundMask = pmEventListeners.get(listener);
-
-    if (foundMask == null) {
-      pmEventListeners.put(listener, eventMask);
-    }
-    else {
-      if (foundMask == eventMask) {
-        log.warn("Duplicate listerner registration call. Listener: " + listener);
-      }
-
-      int newMask = foundMask | eventMask;
-      pmEventListeners.put(listener, newMask);
-    }
-  }
-
-  public synchronized void removeListener(PmEventListener listener) {
-    pmEventListeners.remove(listener);
-  }
-
-  public synchronized void removeListener(int eventMask, PmEventListener listener) {
-    Integer foundMask = pmEventListeners.get(listener);
-
-    if (foundMask != null) {
-      int negEventMask = (eventMask ^ PmEvent.ALL);
-      int newMask = foundMask.intValue() & negEventMask;
-      if (newMask == 0) {
-        pmEventListeners.remove(listener);
-      }
-      else {
-        pmEventListeners.put(listener, newMask);
-      }
-    }
-  }
-
-  @SuppressWarnings("unchecked")
-  public void fireEvent(final PmEvent event) {
-    boolean hasListeners = !pmEventListeners.isEmpty();
-
-    if (log.isTraceEnabled())
-      log.trace("fireChange[" + event + "] for event source   : " + PmEventApi.getThreadEventSource() +
-          (hasListeners ? "\n\teventListeners: " + pmEventListeners : ""));
-
-    if (hasListeners) {
-      boolean isPropagationEvent = event.isPropagationEvent();
-      // copy the listener list to prevent problems with listener
-      // set changes within the notification processing loop.
-      for (Map.Entry<PmEventListener, Integer> e : pmEventListeners.entrySet().toArray(new Map.Entry[pmEventListeners.size()])) {
-        int listenerMask = e.getValue().intValue();
-        boolean isPropagationListener = ((listenerMask & PmEvent.IS_EVENT_PROPAGATION) != 0);
-        // Propagation events have to be passed only to listeners that observe that special flag.
-        // Standard events will be passed to listeners that don't have set this flag.
-        if (isPropagationEvent) {
-          if (isPropagationListener &&
-              (listenerMask & event.getChangeMask()) != 0)
-            e.getKey().handleEvent(event);
-        }
-        else {
-          if ((! isPropagationListener) &&
-              (listenerMask & event.getChangeMask()) != 0)
-            e.getKey().handleEvent(event);
-        }
-      }
-    }
-  }
-
-  boolean isEmpty() {
-    return pmEventListeners.isEmpty();
-  }
-
-} // end of PmEventTable
-
 /**
  * Core internal utility for common internal tasks.
  *
@@ -0,0 +1,132 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.pm4j.core.exception.PmRuntimeException;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.cache.PmCacheStrategyRequest;
+
+/**
+ * Runs a set of tasks that may call PM code in parallel.
+ * <p>
+ * The first task gets executed by the calling thread. The other ones get
+ * executed by the given executor. They get the PM related state of the
+ * calling thread:
+ * <ul>
+ * <li>The thread event source.</li>
+ * <li>The active {@link PmEventBatch}. Events fired by the tasks get
+ * dispatched when the batch of the calling thread ends.</li>
+ * </ul>
+ * The request of the view technology is bound to the calling thread. The
+ * executor threads don't use the request cache. See
+ * {@link PmCacheStrategyRequest#setRequestUnavailableInThisThread(boolean)}.
+ *
+ * @author olaf boede
+ */
+public final class PmParallelTasks {
+
+  /**
+   * Runs the tasks and waits for their completion.
+   *
+   * @param tasks
+   *          The tasks to run. The first one gets executed by the calling
+   *          thread.
+   * @param executor
+   *          Executes all other tasks.
+   * @param failureMsg
+   *          The message for the exception that reports a checked exception
+   *          of a task.
+   * @throws RuntimeException
+   *           The failure of the first failed task.
+   */
+  public static void runAll(List<? extends Callable<Void>> tasks, ExecutorService executor, String failureMsg) {
+    Object eventSource = PmEventApi.getThreadEventSource();
+    PmEventBatch eventBatch = PmEventApi.getEventBatch();
+
+    List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks.size());
+    for (int i = 1; i < tasks.size(); ++i) {
+      futures.add(executor.submit(new TaskInCallerContext(tasks.get(i), eventSource, eventBatch)));
+    }
+
+    Throwable failure = null;
+    try {
+      tasks.get(0).call();
+    }
+    catch (Throwable e) {
+      failure = e;
+    }
+
+    boolean interrupted = false;
+    for (Future<Void> f : futures) {
+      while (true) {
+        try {
+          f.get();
+          break;
+        }
+        catch (InterruptedException e) {
+          interrupted = true;
+        }
+        catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          }
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw new PmRuntimeException(failureMsg, failure);
+    }
+  }
+
+  /** Executes a task with the PM related thread state of the calling thread. */
+  private static final class TaskInCallerContext implements Callable<Void> {
+    private final Callable<Void> task;
+    private final Object eventSource;
+    private final PmEventBatch eventBatch;
+
+    public TaskInCallerContext(Callable<Void> task, Object eventSource, PmEventBatch eventBatch) {
+      this.task = task;
+      this.eventSource = eventSource;
+      this.eventBatch = eventBatch;
+    }
+
+    @Override
+    public Void call() throws Exception {
+      Object oldEventSource = PmEventApi.getThreadEventSource();
+      PmEventApi.setThreadEventSource(eventSource);
+      if (eventBatch != null) {
+        eventBatch.joinInThisThread();
+      }
+      PmCacheStrategyRequest.setRequestUnavailableInThisThread(true);
+      try {
+        return task.call();
+      }
+      finally {
+        PmCacheStrategyRequest.setRequestUnavailableInThisThread(false);
+        if (eventBatch != null) {
+          eventBatch.leaveInThisThread();
+        }
+        PmEventApi.setThreadEventSource(oldEventSource);
+      }
+    }
+  }
+
+  private PmParallelTasks() {
+  }
+}
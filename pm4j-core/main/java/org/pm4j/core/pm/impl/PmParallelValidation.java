@@ -0,0 +1,118 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.pm4j.core.pm.PmDataInput;
+import org.pm4j.core.pm.PmDefaults;
+
+/**
+ * Validates sibling PMs in parallel partitions using the executor defined by
+ * {@link PmDefaults#getValidationExecutor()}.
+ * <p>
+ * Each partition is a contiguous range of the items to validate. The first
+ * partition gets validated by the calling thread. Each partition adds its
+ * messages with a reserved range of message sequence numbers. That way the
+ * messages appear in the same order as they would in case of a sequential
+ * validation.
+ * <p>
+ * Validations that get triggered within a partition are performed
+ * sequentially.
+ * <p>
+ * The partitions get the PM related thread state of the calling thread as
+ * described for {@link PmParallelTasks}. The request cache is only used by
+ * the calling thread.
+ *
+ * @author olaf boede
+ */
+final class PmParallelValidation {
+
+  /** Is set for threads that validate a partition. Prevents nested parallel validations. */
+  private static final ThreadLocal<Boolean> WITHIN_PARTITION = new ThreadLocal<Boolean>();
+
+  /**
+   * @param parentPm
+   *          The parent of the items to validate.
+   * @return The executor for a parallel validation of the children of the
+   *         given PM. <code>null</code> if there is no executor configured
+   *         or the call is already performed within a parallel validation.
+   */
+  public static ExecutorService getExecutor(PmObjectBase parentPm) {
+    return (WITHIN_PARTITION.get() == null)
+        ? parentPm.getPmConversation().getPmDefaults().getValidationExecutor()
+        : null;
+  }
+
+  /**
+   * Validates the given items. Uses parallel partitions if an executor is
+   * configured and the number of items reaches the
+   * {@link PmDefaults#getParallelValidationThreshold()}.
+   *
+   * @param parentPm
+   *          The parent of the items to validate.
+   * @param items
+   *          The items to validate.
+   */
+  public static void validate(PmObjectBase parentPm, List<? extends PmDataInput> items) {
+    ExecutorService executor = getExecutor(parentPm);
+    PmDefaults defaults = parentPm.getPmConversation().getPmDefaults();
+    int numOfPartitions = Math.min(items.size(), defaults.getValidationParallelism());
+
+    if (executor == null ||
+        numOfPartitions < 2 ||
+        items.size() < defaults.getParallelValidationThreshold()) {
+      for (PmDataInput d : items) {
+        d.pmValidate();
+      }
+      return;
+    }
+
+    PmMessageStore messageStore = parentPm.getPmConversationImpl().getPmMessageStore();
+    long firstSeq = messageStore.reserveSeqRanges(numOfPartitions);
+
+    List<Partition> partitions = new ArrayList<Partition>(numOfPartitions);
+    for (int i = 0; i < numOfPartitions; ++i) {
+      int from = (int) ((long) items.size() * i / numOfPartitions);
+      int to = (int) ((long) items.size() * (i + 1) / numOfPartitions);
+      partitions.add(new Partition(items.subList(from, to), messageStore, firstSeq, i));
+    }
+
+    PmParallelTasks.runAll(partitions, executor, "Parallel validation failed.");
+  }
+
+  /** A contiguous range of items that gets validated by a single thread. */
+  private static final class Partition implements Callable<Void> {
+    private final List<? extends PmDataInput> items;
+    private final PmMessageStore messageStore;
+    private final long firstSeq;
+    private final int partitionIdx;
+
+    public Partition(List<? extends PmDataInput> items, PmMessageStore messageStore, long firstSeq, int partitionIdx) {
+      this.items = items;
+      this.messageStore = messageStore;
+      this.firstSeq = firstSeq;
+      this.partitionIdx = partitionIdx;
+    }
+
+    @Override
+    public Void call() {
+      WITHIN_PARTITION.set(Boolean.TRUE);
+      messageStore.useSeqRangeInThisThread(firstSeq, partitionIdx);
+      try {
+        for (PmDataInput d : items) {
+          d.pmValidate();
+        }
+        return null;
+      }
+      finally {
+        PmMessageStore.releaseSeqRangeOfThisThread();
+        WITHIN_PARTITION.remove();
+      }
+    }
+  }
+
+  private PmParallelValidation() {
+  }
+}
@@ -32,6 +32,7 @@ import org.pm4j.core.pm.api.PmMessageUtil;
 import org.pm4j.core.pm.filter.Filter;
 import org.pm4j.core.pm.filter.FilterByDefinition;
 import org.pm4j.core.pm.filter.MultiFilter;
+import org.pm4j.core.pm.pageable.BeanComparatorProvider;
 import org.pm4j.core.pm.pageable.PageableCollection;
 import org.pm4j.core.pm.pageable.PageableListImpl;
 import org.pm4j.core.util.reflection.ClassUtil;
@@ -415,7 +416,7 @@ public class PmTableImpl
    *
    * @param <T_ROW_ELEMENT_PM> The row PM type.
    */
-  static class RowPmComparator<T_ROW_ELEMENT_PM extends PmElement> implements Comparator<T_ROW_ELEMENT_PM> {
+  static class RowPmComparator<T_ROW_ELEMENT_PM extends PmElement> implements Comparator<T_ROW_ELEMENT_PM>, BeanComparatorProvider {
     private final PmTableCol sortColumn;
 
     public RowPmComparator(PmTableCol sortColumn) {
@@ -434,6 +435,27 @@ public class PmTableImpl
         default:   return 0;
       }
     }
+
+    /**
+     * Provides a bean comparator if the sort column cell is an attribute that
+     * is able to compare the bean attribute values. See {@link PmAttrBase#getBeanComparator()}.
+     */
+    @Override
+    public Comparator<?> getBeanComparator(PmBean<?> sampleItemPm) {
+      PmObject cellPm = PmTableUtil.getRowCellForTableCol(sortColumn, sampleItemPm);
+      Comparator<Object> beanComparator = (cellPm instanceof PmAttrBase && cellPm.getPmParent() == sampleItemPm)
+          ? ((PmAttrBase<?, ?>)cellPm).getBeanComparator()
+          : null;
+      if (beanComparator == null) {
+        return null;
+      }
+
+      switch (sortColumn.getSortOrderAttr().getValue()) {
+        case ASC:  return beanComparator;
+        case DESC: return Collections.reverseOrder(beanComparator);
+        default:   return null;
+      }
+    }
   }
 
   // -- helper methods --
@@ -487,11 +509,13 @@ public class PmTableImpl
    */
   @Override
   public void pmValidate() {
-    for (PmObject itemPm : new ArrayList<PmObject>(changedStateRegistry.getChangedItems())) {
+    List<PmDataInput> items = new ArrayList<PmDataInput>();
+    for (PmObject itemPm : changedStateRegistry.getChangedItems()) {
       if (itemPm instanceof PmDataInput) {
-        ((PmDataInput)itemPm).pmValidate();
+        items.add((PmDataInput)itemPm);
       }
     }
+    PmParallelValidation.validate(this, items);
   }
 
 
@@ -177,6 +177,37 @@ public final class PmUtil {
     return ((PmObjectBase)pm).getPmChildren();
   }
 
+  /**
+   * Provides the number of child PMs of the given kind.
+   * <p>
+   * Together with {@link #getPmChild(PmObject, PmChildKind, int)} it allows to
+   * iterate the children without creating a list:
+   * <pre>
+   * for (int i = 0, n = PmUtil.getPmChildCount(pm, PmChildKind.ATTR); i &lt; n; ++i) {
+   *   PmAttr&lt;?&gt; a = (PmAttr&lt;?&gt;) PmUtil.getPmChild(pm, PmChildKind.ATTR, i);
+   *   ...
+   * }
+   * </pre>
+   *
+   * @param pm The parent PM.
+   * @param kind The kind of children to count.
+   * @return The number of field bound and dynamic children of the given kind.
+   */
+  public static int getPmChildCount(PmObject pm, PmChildKind kind) {
+    return ((PmObjectBase)pm).getPmChildCount(kind);
+  }
+
+  /**
+   * @param pm The parent PM.
+   * @param kind The kind of children to address.
+   * @param index The child position within the children of the given kind.
+   *          Field bound children are followed by the dynamic ones.
+   * @return The child PM at the given position.
+   */
+  public static PmObject getPmChild(PmObject pm, PmChildKind kind, int index) {
+    return ((PmObjectBase)pm).getPmChild(kind, index);
+  }
+
   /**
    * Searches for a direct child PM.<br>
    * Finds PM's declared in public fields as well as PM's that where added
@@ -197,6 +228,19 @@ public final class PmUtil {
    *         dynamically created PM's.
    */
   public static <T extends PmObject> List<T> getPmChildrenOfType(PmObject pm, Class<T> childClass) {
+    PmChildKind kind = PmChildKind.forPmClass(childClass);
+    if (kind != null) {
+      int n = getPmChildCount(pm, kind);
+      if (n == 0) {
+        return Collections.emptyList();
+      }
+      List<T> children = new ArrayList<T>(n);
+      for (int i = 0; i < n; ++i) {
+        children.add(childClass.cast(getPmChild(pm, kind, i)));
+      }
+      return children;
+    }
+
     List<PmObject> allChildren = ((PmObjectBase)pm).getPmChildren();
     if (allChildren.isEmpty()) {
       return Collections.emptyList();
@@ -26,8 +26,8 @@ public class PmVisitorAddAttributeEventListener extends PmVisitorAdapter {
 
   @Override
   protected void onVisit(PmObject pm) {
-    for (PmObject child : PmUtil.getPmChildren(pm)) {
-      child.accept(this);
+    for (int i = 0, n = PmUtil.getPmChildCount(pm, PmChildKind.ALL); i < n; ++i) {
+      PmUtil.getPmChild(pm, PmChildKind.ALL, i).accept(this);
     }
   }
 }
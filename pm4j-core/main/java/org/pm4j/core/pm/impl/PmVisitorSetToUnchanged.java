@@ -26,7 +26,8 @@ public class PmVisitorSetToUnchanged extends PmVisitorAdapter {
 
   @Override
   public void visit(PmElement element) {
-    for (PmObject p : PmUtil.getPmChildren(element)) {
+    for (int i = 0, n = PmUtil.getPmChildCount(element, PmChildKind.ALL); i < n; ++i) {
+      PmObject p = PmUtil.getPmChild(element, PmChildKind.ALL, i);
       if (! p.isPmReadonly()) {
         p.accept(this);
       }
@@ -31,8 +31,8 @@ public class PmVisitorTouchAll extends PmVisitorAdapter {
       pm.getPmTitle();
       pm.getPmTooltip();
       pm.getPmIconPath();
-      for (PmObject p : PmUtil.getPmChildren(pm)) {
-        p.accept(this);
+      for (int i = 0, n = PmUtil.getPmChildCount(pm, PmChildKind.ALL); i < n; ++i) {
+        PmUtil.getPmChild(pm, PmChildKind.ALL, i).accept(this);
       }
     }
   }
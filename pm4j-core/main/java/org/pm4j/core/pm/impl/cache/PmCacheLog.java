@@ -1,16 +1,42 @@
 package org.pm4j.core.pm.impl.cache;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmCacheApi.CacheKind;
 import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.pm.impl.cache.PmCacheMetrics.Counter;
+
+/**
+ * Provides PM cache usage information.
+ * <p>
+ * The {@link PmCacheMetrics} are always counted. They can be read by
+ * {@link #getAllPmCacheMetrics()}, via JMX (see {@link #registerMBean()}) or
+ * by a periodic log output (see {@link #startSnapshotDump(long)}).
+ * <p>
+ * Additional details about each cache hit are reported if the log level for
+ * this class is TRACE.
+ */
+public final class PmCacheLog implements PmCacheLogMBean {
 
-public final class PmCacheLog {
+  /** The name used for the JMX registration. */
+  public static final String MBEAN_NAME = "org.pm4j:type=PmCacheLog";
 
   public static final PmCacheLog INSTANCE = new PmCacheLog();
 
@@ -18,6 +44,157 @@ public final class PmCacheLog {
 
   private Map<String, Long> pmCacheHitMap = new ConcurrentHashMap<String, Long>();
   private Map<String, Long> pmCacheInitMap = new ConcurrentHashMap<String, Long>();
+  private ConcurrentMap<String, PmCacheStatistics> cacheNameToStatisticsMap = new ConcurrentHashMap<String, PmCacheStatistics>();
+  private ConcurrentMap<String, PmCacheMetrics> pmPathToMetricsMap = new ConcurrentHashMap<String, PmCacheMetrics>();
+  private Timer snapshotDumpTimer;
+
+  /**
+   * Provides the cache metrics for all PMs with the given path.<br>
+   * Is called once for each meta data instance.
+   *
+   * @param pmPath
+   *          The absolute PM path (meta data key).
+   * @return The metrics. Never <code>null</code>.
+   */
+  public PmCacheMetrics getPmCacheMetrics(String pmPath) {
+    PmCacheMetrics m = pmPathToMetricsMap.get(pmPath);
+    if (m == null) {
+      m = new PmCacheMetrics(pmPath);
+      PmCacheMetrics existing = pmPathToMetricsMap.putIfAbsent(pmPath, m);
+      if (existing != null) {
+        m = existing;
+      }
+    }
+    return m;
+  }
+
+  /**
+   * @return The cache metrics of all PM paths. Sorted by the number of misses
+   *         (the most frequently calculated values first).
+   */
+  public List<PmCacheMetrics> getAllPmCacheMetrics() {
+    List<PmCacheMetrics> list = new ArrayList<PmCacheMetrics>(pmPathToMetricsMap.values());
+    Collections.sort(list, new Comparator<PmCacheMetrics>() {
+      @Override
+      public int compare(PmCacheMetrics o1, PmCacheMetrics o2) {
+        long m1 = o1.getCount(CacheKind.ALL, Counter.MISS);
+        long m2 = o2.getCount(CacheKind.ALL, Counter.MISS);
+        return (m1 < m2) ? 1 : ((m1 == m2) ? o1.getPmPath().compareTo(o2.getPmPath()) : -1);
+      }
+    });
+    return list;
+  }
+
+  /**
+   * Registers this instance at the platform MBean server using the name
+   * {@link #MBEAN_NAME}.
+   */
+  public void registerMBean() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(MBEAN_NAME);
+      if (! server.isRegistered(name)) {
+        server.registerMBean(this, name);
+      }
+    } catch (Exception e) {
+      throw new PmRuntimeException("Unable to register the MBean " + MBEAN_NAME, e);
+    }
+  }
+
+  // -- PmCacheLogMBean implementation --
+
+  @Override
+  public int getNumOfPmPaths() {
+    return pmPathToMetricsMap.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return sumOf(Counter.HIT);
+  }
+
+  @Override
+  public long getMissCount() {
+    return sumOf(Counter.MISS);
+  }
+
+  @Override
+  public long getInitCount() {
+    return sumOf(Counter.INIT);
+  }
+
+  @Override
+  public long getClearCount() {
+    return sumOf(Counter.CLEAR);
+  }
+
+  @Override
+  public String getSnapshot() {
+    StringBuilder sb = new StringBuilder("PM cache metrics:");
+    for (PmCacheMetrics m : getAllPmCacheMetrics()) {
+      if (! m.isEmpty()) {
+        sb.append('\n').append(m);
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void reset() {
+    for (PmCacheMetrics m : pmPathToMetricsMap.values()) {
+      m.reset();
+    }
+  }
+
+  @Override
+  public synchronized void startSnapshotDump(long periodMillis) {
+    stopSnapshotDump();
+    snapshotDumpTimer = new Timer("PmCacheLog snapshot dump", true);
+    snapshotDumpTimer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        LOG.info(getSnapshot());
+      }
+    }, periodMillis, periodMillis);
+  }
+
+  @Override
+  public synchronized void stopSnapshotDump() {
+    if (snapshotDumpTimer != null) {
+      snapshotDumpTimer.cancel();
+      snapshotDumpTimer = null;
+    }
+  }
+
+  private long sumOf(Counter counter) {
+    long sum = 0;
+    for (PmCacheMetrics m : pmPathToMetricsMap.values()) {
+      sum += m.getCount(CacheKind.ALL, counter);
+    }
+    return sum;
+  }
+
+  /**
+   * Provides the hit, miss and eviction counters for the given cache.
+   * <p>
+   * The counters are currently maintained by the {@link PmCacheStrategySession}
+   * caches.
+   *
+   * @param cacheName
+   *          The name of the cache strategy.
+   * @return The statistics. Never <code>null</code>.
+   */
+  public PmCacheStatistics getPmCacheStatistics(String cacheName) {
+    PmCacheStatistics s = cacheNameToStatisticsMap.get(cacheName);
+    if (s == null) {
+      s = new PmCacheStatistics(cacheName);
+      PmCacheStatistics existing = cacheNameToStatisticsMap.putIfAbsent(cacheName, s);
+      if (existing != null) {
+        s = existing;
+      }
+    }
+    return s;
+  }
 
   public final void logPmCacheHit(PmObject pm, String cacheItem) {
     if (LOG.isTraceEnabled()) {
@@ -0,0 +1,43 @@
+package org.pm4j.core.pm.impl.cache;
+
+/**
+ * JMX interface of the {@link PmCacheLog}.
+ * <p>
+ * Gets registered by {@link PmCacheLog#registerMBean()}.
+ *
+ * @author olaf boede
+ */
+public interface PmCacheLogMBean {
+
+  /** @return The number of PM paths with cache metrics. */
+  int getNumOfPmPaths();
+
+  /** @return The sum of cache hits of all PMs. */
+  long getHitCount();
+
+  /** @return The sum of cache misses of all PMs. */
+  long getMissCount();
+
+  /** @return The sum of cache initializations of all PMs. */
+  long getInitCount();
+
+  /** @return The sum of cache clear calls of all PMs. */
+  long getClearCount();
+
+  /** @return A report of the cache metrics of all PM paths. Sorted by the number of misses. */
+  String getSnapshot();
+
+  /** Resets all cache metrics. */
+  void reset();
+
+  /**
+   * Starts a periodic log output of the {@link #getSnapshot()} report.
+   *
+   * @param periodMillis The period in milliseconds.
+   */
+  void startSnapshotDump(long periodMillis);
+
+  /** Stops the periodic log output. */
+  void stopSnapshotDump();
+
+}
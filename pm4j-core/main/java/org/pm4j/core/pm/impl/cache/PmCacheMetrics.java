@@ -0,0 +1,154 @@
+package org.pm4j.core.pm.impl.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.pm4j.core.pm.api.PmCacheApi.CacheKind;
+
+/**
+ * Cache usage counters for all PM instances that share the same meta data
+ * (PM path).
+ * <p>
+ * The counters are always active. To keep the overhead for concurrent
+ * requests low, they are striped: each thread increments the counters of a
+ * stripe that is selected by its thread id. Reading a counter sums up all
+ * stripes.
+ * <p>
+ * Instances are provided by {@link PmCacheLog#getPmCacheMetrics(String)}.
+ *
+ * @author olaf boede
+ */
+public final class PmCacheMetrics {
+
+  /** The counted cache operations. */
+  public static enum Counter {
+    /** A value was provided by the cache. */
+    HIT,
+    /** The value was not cached and had to be calculated. Is also counted for PMs that don't cache. */
+    MISS,
+    /** A value was stored in a cache. */
+    INIT,
+    /** A cache was cleared. */
+    CLEAR
+  }
+
+  private static final int NUM_OF_COUNTERS = Counter.values().length;
+  private static final int STRIPE_SIZE = CacheKind.values().length * NUM_OF_COUNTERS;
+  private static final int NUM_OF_STRIPES = numOfStripes();
+  private static final int STRIPE_MASK = NUM_OF_STRIPES - 1;
+
+  private final String pmPath;
+  private final AtomicLongArray counters = new AtomicLongArray(NUM_OF_STRIPES * STRIPE_SIZE);
+
+  /* package */ PmCacheMetrics(String pmPath) {
+    this.pmPath = pmPath;
+  }
+
+  /**
+   * @return The absolute PM path (meta data key) of the counted PMs.
+   */
+  public String getPmPath() {
+    return pmPath;
+  }
+
+  public void countHit(CacheKind cacheKind) {
+    increment(cacheKind, Counter.HIT);
+  }
+
+  public void countMiss(CacheKind cacheKind) {
+    increment(cacheKind, Counter.MISS);
+  }
+
+  public void countInit(CacheKind cacheKind) {
+    increment(cacheKind, Counter.INIT);
+  }
+
+  public void countClear(CacheKind cacheKind) {
+    increment(cacheKind, Counter.CLEAR);
+  }
+
+  /**
+   * @param cacheKind
+   *          The cache kind to get the counter for. {@link CacheKind#ALL}
+   *          provides the sum of all cache kinds.
+   * @param counter
+   *          The counter to read.
+   * @return The current count.
+   */
+  public long getCount(CacheKind cacheKind, Counter counter) {
+    if (cacheKind == CacheKind.ALL) {
+      long sum = 0;
+      for (CacheKind k : CacheKind.ALL_SET) {
+        sum += getCount(k, counter);
+      }
+      return sum;
+    }
+
+    int idx = indexOf(cacheKind, counter);
+    long sum = 0;
+    for (int i = 0; i < NUM_OF_STRIPES; ++i) {
+      sum += counters.get(i * STRIPE_SIZE + idx);
+    }
+    return sum;
+  }
+
+  /**
+   * @return <code>true</code> if nothing was counted.
+   */
+  public boolean isEmpty() {
+    for (int i = 0; i < counters.length(); ++i) {
+      if (counters.get(i) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sets all counters to zero.
+   */
+  public void reset() {
+    for (int i = 0; i < counters.length(); ++i) {
+      counters.set(i, 0);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(pmPath);
+    for (CacheKind k : CacheKind.values()) {
+      if (k != CacheKind.ALL) {
+        sb.append(' ').append(k).append('[');
+        for (Counter c : Counter.values()) {
+          if (c.ordinal() > 0) {
+            sb.append(' ');
+          }
+          sb.append(c.name().toLowerCase()).append('=').append(getCount(k, c));
+        }
+        sb.append(']');
+      }
+    }
+    return sb.toString();
+  }
+
+  private void increment(CacheKind cacheKind, Counter counter) {
+    int stripe = (int) Thread.currentThread().getId() & STRIPE_MASK;
+    counters.incrementAndGet(stripe * STRIPE_SIZE + indexOf(cacheKind, counter));
+  }
+
+  private static int indexOf(CacheKind cacheKind, Counter counter) {
+    return cacheKind.ordinal() * NUM_OF_COUNTERS + counter.ordinal();
+  }
+
+  /**
+   * @return The next power of two for the number of processors. But not more
+   *         than 16.
+   */
+  private static int numOfStripes() {
+    int n = 1;
+    while (n < Runtime.getRuntime().availableProcessors() && n < 16) {
+      n <<= 1;
+    }
+    return n;
+  }
+
+}
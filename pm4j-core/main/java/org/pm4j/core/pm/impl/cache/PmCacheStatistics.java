@@ -0,0 +1,65 @@
+package org.pm4j.core.pm.impl.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and eviction counters of a cache.
+ * <p>
+ * Instances are provided by {@link PmCacheLog#getPmCacheStatistics(String)}.
+ *
+ * @author olaf boede
+ */
+public final class PmCacheStatistics {
+
+  private final String cacheName;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /* package */ PmCacheStatistics(String cacheName) {
+    this.cacheName = cacheName;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /**
+   * Resets all counters to zero.
+   */
+  public void reset() {
+    hitCount.set(0);
+    missCount.set(0);
+    evictionCount.set(0);
+  }
+
+  /* package */ void countHit() {
+    hitCount.incrementAndGet();
+  }
+
+  /* package */ void countMiss() {
+    missCount.incrementAndGet();
+  }
+
+  /* package */ void countEviction() {
+    evictionCount.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return cacheName + ": hits=" + hitCount + " misses=" + missCount + " evictions=" + evictionCount;
+  }
+
+}
@@ -10,6 +10,13 @@ public abstract class PmCacheStrategyBase<PM extends PmObject> implements PmCach
     this.cacheName = cacheName;
   }
 
+  /**
+   * @return The name used for cache logs and statistics.
+   */
+  public String getCacheName() {
+    return cacheName;
+  }
+
   protected abstract Object readRawValue(PM pm);
 
   protected abstract void writeRawValue(PM pm, Object value);
@@ -1,53 +1,120 @@
 package org.pm4j.core.pm.impl.cache;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.impl.PmConversationImpl;
 import org.pm4j.core.pm.impl.PmObjectBase;
-import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.pm.impl.connector.PmToNoViewTechnologyConnector;
+import org.pm4j.core.pm.impl.connector.PmToViewTechnologyConnector;
 
+/**
+ * Caches PM values for the current request.
+ * <p>
+ * Each strategy instance stores its values in an {@link IdentityHashMap}
+ * that is stored as a single request attribute. The request scope of that
+ * map is defined by the {@link PmToViewTechnologyConnector}.
+ * <p>
+ * A cache access does not need to generate PM specific attribute names. And
+ * the PM instance identity is the key, so two PMs never share a cache entry.
+ * The map is synchronized because parallel operations of the request may
+ * access it.
+ * <p>
+ * Nothing gets cached if the connector does not store request attributes.
+ * See {@link PmToNoViewTechnologyConnector#isRequestAttributeStorageSupported()}.
+ * <p>
+ * The request is only available within the thread that handles it. Threads
+ * that perform parallel PM operations don't use this cache. See
+ * {@link #setRequestUnavailableInThisThread(boolean)}.
+ */
 public class PmCacheStrategyRequest extends PmCacheStrategyBase<PmObjectBase> {
 
-  private final String cacheVarKeyPfx;
+  /** Is set for threads that have no access to the current request. */
+  private static final ThreadLocal<Boolean> requestUnavailable = new ThreadLocal<Boolean>();
+
+  /** The name of the request attribute that holds the cache map of this strategy. */
+  private final String requestAttrName;
 
   public PmCacheStrategyRequest(String cacheName, String cacheVarKeyPfx) {
     super(cacheName);
-    this.cacheVarKeyPfx = "pm.rc." + cacheVarKeyPfx + "_";
+    this.requestAttrName = "pm.rc." + cacheVarKeyPfx;
+  }
+
+  /**
+   * Switches the request cache off for the current thread.
+   * <p>
+   * Used for the worker threads of parallel PM operations. The view
+   * technology binds the request to the thread that handles it.
+   * <p>
+   * Values that get cleared within such a thread are not removed from the
+   * cache of the request.
+   *
+   * @param unavailable
+   *          <code>true</code> switches the request cache off.
+   *          <code>false</code> should be passed at the end of the operation.
+   */
+  public static void setRequestUnavailableInThisThread(boolean unavailable) {
+    if (unavailable) {
+      requestUnavailable.set(Boolean.TRUE);
+    }
+    else {
+      requestUnavailable.remove();
+    }
   }
 
   @Override
   protected Object readRawValue(PmObjectBase pm) {
-    return pmConversationImplOf(pm).getPmToViewTechnologyConnector()
-              .readRequestAttribute(getCacheIdentity(pm));
+    Map<PmObject, Object> map = getRequestCacheMap(pm, false);
+    return (map != null)
+              ? map.get(pm)
+              : null;
   }
 
   @Override
   protected void writeRawValue(PmObjectBase pm, Object value) {
-    pmConversationImplOf(pm).getPmToViewTechnologyConnector().setRequestAttribute(
-        getCacheIdentity(pm), value);
+    Map<PmObject, Object> map = getRequestCacheMap(pm, true);
+    if (map != null) {
+      map.put(pm, value);
+    }
   }
 
   @Override
   protected void clearImpl(PmObjectBase pm) {
-    // TODO: Aus removeAttribute weiterleiten.
-    pmConversationImplOf(pm).getPmToViewTechnologyConnector().setRequestAttribute(
-        getCacheIdentity(pm), null);
-  }
-
-  private PmConversationImpl pmConversationImplOf(PmObject pm) {
-    return (PmConversationImpl)pm.getPmConversation();
+    Map<PmObject, Object> map = getRequestCacheMap(pm, false);
+    if (map != null) {
+      map.remove(pm);
+    }
   }
 
   /**
-   * Provides an identity key for cached items of the given PM.
-   *
    * @param pm
-   *          The PM to get the key for.
-   * @param forCache
-   *          The special cache of the PM to get the key for.
-   * @return A unique key
+   *          The PM that provides the view connector.
+   * @param create
+   *          If <code>true</code> a new map will be registered in the request
+   *          if there was none.
+   * @return The cache map of the current request. May be <code>null</code> if
+   *         <code>create</code> is <code>false</code> or the request is not
+   *         available within the current thread or the connector does not
+   *         store request attributes.
    */
-  private String getCacheIdentity(PmObject pm) {
-    return cacheVarKeyPfx + PmUtil.getAbsoluteName(pm)
-        + Integer.toHexString(System.identityHashCode(pm));
+  @SuppressWarnings("unchecked")
+  private Map<PmObject, Object> getRequestCacheMap(PmObject pm, boolean create) {
+    if (requestUnavailable.get() != null) {
+      return null;
+    }
+    PmToViewTechnologyConnector connector = ((PmConversationImpl)pm.getPmConversation()).getPmToViewTechnologyConnector();
+    Map<PmObject, Object> map = (Map<PmObject, Object>) connector.readRequestAttribute(requestAttrName);
+    if (map == null && create && isRequestAttributeStorageSupported(connector)) {
+      map = Collections.synchronizedMap(new IdentityHashMap<PmObject, Object>());
+      connector.setRequestAttribute(requestAttrName, map);
+    }
+    return map;
+  }
+
+  private static boolean isRequestAttributeStorageSupported(PmToViewTechnologyConnector connector) {
+    return !(connector instanceof PmToNoViewTechnologyConnector) ||
+           ((PmToNoViewTechnologyConnector)connector).isRequestAttributeStorageSupported();
   }
 }
@@ -1,45 +1,72 @@
 package org.pm4j.core.pm.impl.cache;
 
+import org.pm4j.core.pm.PmConversation;
+import org.pm4j.core.pm.PmDefaults;
 import org.pm4j.core.pm.PmObject;
-import org.pm4j.core.pm.impl.PmUtil;
 
-// FIXME olaf: the session property based storage will cause memory leaks!
-// try to extract a buiness key to identify the cached item!
+/**
+ * Caches PM values within the conversation.
+ * <p>
+ * The values are stored in a size limited {@link PmSessionCache} that is
+ * registered as a named object of the conversation. Its size and eviction
+ * policy are defined by the {@link PmDefaults} of the conversation.
+ * <p>
+ * Hits, misses and evictions are reported to the {@link PmCacheStatistics}
+ * provided by {@link PmCacheLog#getPmCacheStatistics(String)} for the cache
+ * name.
+ */
 public class PmCacheStrategySession extends PmCacheStrategyBase<PmObject> {
 
-  private final String cacheVarKeyPfx;
+  /** The name of the conversation object that holds the cache of this strategy. */
+  private final String cacheVarKey;
+  private final PmCacheStatistics statistics;
 
   public PmCacheStrategySession(String cacheName, String cacheVarKeyPfx) {
     super(cacheName);
-    this.cacheVarKeyPfx = "pm.sc." + cacheVarKeyPfx + "_";
+    this.cacheVarKey = "pm.sc." + cacheVarKeyPfx;
+    this.statistics = PmCacheLog.INSTANCE.getPmCacheStatistics(cacheName);
   }
 
   @Override
   protected Object readRawValue(PmObject pm) {
-    return pm.getPmConversation().getPmNamedObject(getCacheIdentity(pm));
+    PmSessionCache cache = getSessionCache(pm, false);
+    Object v = (cache != null)
+                  ? cache.get(pm)
+                  : null;
+    if (v != null) {
+      statistics.countHit();
+    } else {
+      statistics.countMiss();
+    }
+    return v;
   }
 
   @Override
   protected void writeRawValue(PmObject pm, Object value) {
-    pm.getPmConversation().setPmNamedObject(getCacheIdentity(pm), value);
+    getSessionCache(pm, true).put(pm, value);
   }
 
   @Override
   protected void clearImpl(PmObject pm) {
-    pm.getPmConversation().setPmNamedObject(getCacheIdentity(pm), null);
+    PmSessionCache cache = getSessionCache(pm, false);
+    if (cache != null) {
+      cache.remove(pm);
+    }
   }
 
-  /**
-   * Provides an identity key for cached items of the given PM.
-   *
-   * @param pm
-   *          The PM to get the key for.
-   * @param forCache
-   *          The special cache of the PM to get the key for.
-   * @return A unique key
-   */
-  private String getCacheIdentity(PmObject pm) {
-    return cacheVarKeyPfx + PmUtil.getAbsoluteName(pm)
-        + Integer.toHexString(System.identityHashCode(pm));
+  private PmSessionCache getSessionCache(PmObject pm, boolean create) {
+    PmConversation conversation = pm.getPmConversation();
+    PmSessionCache cache = (PmSessionCache) conversation.getPmNamedObject(cacheVarKey);
+    if (cache == null && create) {
+      synchronized (conversation) {
+        cache = (PmSessionCache) conversation.getPmNamedObject(cacheVarKey);
+        if (cache == null) {
+          PmDefaults defaults = conversation.getPmDefaults();
+          cache = new PmSessionCache(defaults.getSessionCacheMaxEntries(), defaults.getSessionCacheEvictionPolicy(), statistics);
+          conversation.setPmNamedObject(cacheVarKey, cache);
+        }
+      }
+    }
+    return cache;
   }
 }
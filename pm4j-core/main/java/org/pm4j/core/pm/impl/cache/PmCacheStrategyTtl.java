@@ -0,0 +1,67 @@
+package org.pm4j.core.pm.impl.cache;
+
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmCacheCfg.CacheMode;
+
+/**
+ * Implements {@link CacheMode#TTL}: Caches values for a limited time span.
+ * <p>
+ * Uses the storage of another strategy (usually the PM local storage used for
+ * {@link CacheMode#ON}) to store the values together with their expiration
+ * time.
+ *
+ * @author olaf boede
+ */
+public class PmCacheStrategyTtl extends PmCacheStrategyBase<PmObject> {
+
+  private final PmCacheStrategyBase<PmObject> storageStrategy;
+  private final long ttlMillis;
+
+  /**
+   * @param storageStrategy
+   *          The strategy that provides the value storage.
+   * @param ttlMillis
+   *          The time to live of the cached values.
+   */
+  @SuppressWarnings("unchecked")
+  public PmCacheStrategyTtl(PmCacheStrategyBase<?> storageStrategy, long ttlMillis) {
+    super(storageStrategy.getCacheName() + "_TTL");
+    this.storageStrategy = (PmCacheStrategyBase<PmObject>) storageStrategy;
+    this.ttlMillis = ttlMillis;
+  }
+
+  @Override
+  protected Object readRawValue(PmObject pm) {
+    Object v = storageStrategy.readRawValue(pm);
+    if (v instanceof TimedValue) {
+      TimedValue tv = (TimedValue) v;
+      if (System.currentTimeMillis() < tv.expirationTime) {
+        return tv.value;
+      }
+      storageStrategy.clearImpl(pm);
+    }
+    return null;
+  }
+
+  @Override
+  protected void writeRawValue(PmObject pm, Object value) {
+    storageStrategy.writeRawValue(pm, new TimedValue(value, System.currentTimeMillis() + ttlMillis));
+  }
+
+  @Override
+  protected void clearImpl(PmObject pm) {
+    storageStrategy.clearImpl(pm);
+  }
+
+  /** A cached value with its expiration time. */
+  private static final class TimedValue {
+    private final Object value;
+    private final long expirationTime;
+
+    public TimedValue(Object value, long expirationTime) {
+      this.value = value;
+      this.expirationTime = expirationTime;
+    }
+  }
+
+}
@@ -0,0 +1,216 @@
+package org.pm4j.core.pm.impl.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size limited cache that is used by {@link PmCacheStrategySession} to
+ * store PM values within a conversation.
+ * <p>
+ * The PM instances are weakly referenced and compared by identity. Entries
+ * of garbage collected PMs get removed by the next cache operation.
+ * <p>
+ * If the maximum number of entries is reached, an entry gets evicted
+ * according to the configured {@link EvictionPolicy}.
+ *
+ * @author olaf boede
+ */
+public class PmSessionCache {
+
+  /**
+   * Defines the entry that gets removed if the cache is full.
+   */
+  public static enum EvictionPolicy {
+    /** Evicts the least recently used entry. */
+    LRU,
+    /** Evicts the least frequently used entry. The oldest one, if there are several. */
+    LFU
+  }
+
+  private final int maxEntries;
+  private final EvictionPolicy evictionPolicy;
+  private final PmCacheStatistics statistics;
+  private final ReferenceQueue<Object> refQueue = new ReferenceQueue<Object>();
+  private final Map<Object, Entry> keyToEntryMap;
+
+  /** A key instance that gets re-used for lookups. Prevents allocations for cache reads. Guarded by <code>this</code>. */
+  private final LookupKey lookupKey = new LookupKey();
+
+  /**
+   * @param maxEntries
+   *          The maximum number of cached values.
+   * @param evictionPolicy
+   *          Defines the entry to remove if the cache is full.
+   * @param statistics
+   *          The statistics to report evictions to.
+   */
+  public PmSessionCache(int maxEntries, EvictionPolicy evictionPolicy, PmCacheStatistics statistics) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("The maximum number of cache entries should be at least one. Found: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.evictionPolicy = evictionPolicy;
+    this.statistics = statistics;
+    // The access ordered map provides the LRU order.
+    this.keyToEntryMap = new LinkedHashMap<Object, Entry>(16, 0.75f, evictionPolicy == EvictionPolicy.LRU);
+  }
+
+  /**
+   * @param key
+   *          The object the value is cached for.
+   * @return The cached value or <code>null</code>.
+   */
+  public synchronized Object get(Object key) {
+    expungeStaleEntries();
+    Entry e = findEntry(key);
+    if (e == null) {
+      return null;
+    }
+    ++e.useCount;
+    return e.value;
+  }
+
+  /**
+   * @param key
+   *          The object the value is cached for.
+   * @param value
+   *          The value to cache.
+   */
+  public synchronized void put(Object key, Object value) {
+    expungeStaleEntries();
+    Entry e = findEntry(key);
+    if (e != null) {
+      e.value = value;
+    }
+    else {
+      if (keyToEntryMap.size() >= maxEntries) {
+        evict();
+      }
+      keyToEntryMap.put(new WeakKey(key, refQueue), new Entry(value));
+    }
+  }
+
+  /**
+   * @param key
+   *          The object to remove the cached value for.
+   */
+  public synchronized void remove(Object key) {
+    expungeStaleEntries();
+    lookupKey.referent = key;
+    keyToEntryMap.remove(lookupKey);
+    lookupKey.referent = null;
+  }
+
+  /**
+   * @return The number of cached values.
+   */
+  public synchronized int size() {
+    expungeStaleEntries();
+    return keyToEntryMap.size();
+  }
+
+  private Entry findEntry(Object key) {
+    lookupKey.referent = key;
+    Entry e = keyToEntryMap.get(lookupKey);
+    lookupKey.referent = null;
+    return e;
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<Object, Entry>> it = keyToEntryMap.entrySet().iterator();
+    Object victimKey = it.next().getKey();
+
+    if (evictionPolicy == EvictionPolicy.LFU) {
+      int minUseCount = keyToEntryMap.get(victimKey).useCount;
+      while (it.hasNext() && minUseCount > 0) {
+        Map.Entry<Object, Entry> e = it.next();
+        if (e.getValue().useCount < minUseCount) {
+          victimKey = e.getKey();
+          minUseCount = e.getValue().useCount;
+        }
+      }
+    }
+
+    keyToEntryMap.remove(victimKey);
+    statistics.countEviction();
+  }
+
+  private void expungeStaleEntries() {
+    Reference<?> r;
+    while ((r = refQueue.poll()) != null) {
+      keyToEntryMap.remove(r);
+    }
+  }
+
+  /** A cached value. */
+  private static final class Entry {
+    private Object value;
+    private int useCount;
+
+    public Entry(Object value) {
+      this.value = value;
+    }
+  }
+
+  /** Common interface of the identity based keys. */
+  private interface IdentityKey {
+    Object getReferent();
+  }
+
+  /** The key stored in the map. */
+  private static final class WeakKey extends WeakReference<Object> implements IdentityKey {
+    private final int hash;
+
+    public WeakKey(Object referent, ReferenceQueue<Object> refQueue) {
+      super(referent, refQueue);
+      this.hash = System.identityHashCode(referent);
+    }
+
+    @Override
+    public Object getReferent() {
+      return get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      Object referent = get();
+      return (referent != null) &&
+             (obj instanceof IdentityKey) &&
+             (((IdentityKey)obj).getReferent() == referent);
+    }
+  }
+
+  /** The key used for lookups. */
+  private static final class LookupKey implements IdentityKey {
+    private Object referent;
+
+    @Override
+    public Object getReferent() {
+      return referent;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(referent);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof IdentityKey) &&
+             (((IdentityKey)obj).getReferent() == referent);
+    }
+  }
+
+}
@@ -5,6 +5,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.PmTabSet;
+import org.pm4j.core.util.reflection.ClassUtil;
 import org.pm4j.navi.NaviHistory;
 import org.pm4j.navi.NaviLink;
 import org.pm4j.navi.impl.NaviLinkImpl;
@@ -20,6 +21,10 @@ public class PmToNoViewTechnologyConnector implements PmToViewTechnologyConnecto
   private static final Log LOG = LogFactory.getLog(PmToNoViewTechnologyConnector.class);
   private NaviLink lastNaviLink;
 
+  /** Is <code>true</code> if a subclass provides a request attribute storage. */
+  private final boolean requestAttributeStorageSupported =
+      ClassUtil.findMethodDeclaringClass(getClass(), "setRequestAttribute") != PmToNoViewTechnologyConnector.class;
+
   /**
    * Just reports a warning.
    */
@@ -54,6 +59,15 @@ public class PmToNoViewTechnologyConnector implements PmToViewTechnologyConnecto
     return null;
   }
 
+  /**
+   * @return <code>false</code> if the request attribute methods of this class
+   *         are not overridden. This implementation does not store request
+   *         attributes.
+   */
+  public boolean isRequestAttributeStorageSupported() {
+    return requestAttributeStorageSupported;
+  }
+
   @Override
   public Object readRequestAttribute(String attrName) {
     return null;
@@ -0,0 +1,132 @@
+package org.pm4j.core.pm.impl.converter;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.Format;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Provides the date and number formats used by the converters.
+ * <p>
+ * The JDK {@link DateFormat} and {@link NumberFormat} implementations are not
+ * thread safe and expensive to create. This cache provides a format instance
+ * for each pattern, locale and time zone combination that is confined to the
+ * calling thread. The provided instance should be used only for the current
+ * operation and must not be modified.
+ *
+ * @author olaf boede
+ */
+public final class FormatCache {
+
+  /** The maximum number of formats cached per thread. The cache gets cleared when the limit is reached. */
+  private static final int MAX_FORMATS_PER_THREAD = 256;
+
+  private static final ThreadLocal<Map<Key, Format>> THREAD_FORMATS = new ThreadLocal<Map<Key, Format>>() {
+    @Override
+    protected Map<Key, Format> initialValue() {
+      return new HashMap<Key, Format>();
+    }
+  };
+
+  /**
+   * @param pattern
+   *          The {@link SimpleDateFormat} pattern.
+   * @param locale
+   *          The locale to use.
+   * @param timeZone
+   *          The time zone to use.
+   * @return A non-lenient date format. Dates like '00.00.08' are not accepted.
+   */
+  public static DateFormat getDateFormat(String pattern, Locale locale, TimeZone timeZone) {
+    Key key = new Key(Key.DATE, pattern, locale, timeZone);
+    Map<Key, Format> formats = THREAD_FORMATS.get();
+    DateFormat f = (DateFormat) formats.get(key);
+    if (f == null) {
+      f = new SimpleDateFormat(pattern, locale);
+      f.setTimeZone(timeZone);
+      f.setLenient(false);
+      put(formats, key, f);
+    }
+    return f;
+  }
+
+  /**
+   * @param pattern
+   *          The {@link DecimalFormat} pattern. May be empty or <code>null</code>.
+   * @param locale
+   *          The locale to use.
+   * @return The number format for the given pattern. In case of an empty
+   *         pattern the default number format of the locale.
+   */
+  public static NumberFormat getNumberFormat(String pattern, Locale locale) {
+    if (StringUtils.isBlank(pattern)) {
+      pattern = null;
+    }
+    Key key = new Key(Key.NUMBER, pattern, locale, null);
+    Map<Key, Format> formats = THREAD_FORMATS.get();
+    NumberFormat f = (NumberFormat) formats.get(key);
+    if (f == null) {
+      f = (pattern == null)
+          ? NumberFormat.getNumberInstance(locale)
+          : new DecimalFormat(pattern, new DecimalFormatSymbols(locale));
+      put(formats, key, f);
+    }
+    return f;
+  }
+
+  private static void put(Map<Key, Format> formats, Key key, Format f) {
+    if (formats.size() >= MAX_FORMATS_PER_THREAD) {
+      formats.clear();
+    }
+    formats.put(key, f);
+  }
+
+  private static final class Key {
+    static final int DATE = 0;
+    static final int NUMBER = 1;
+
+    private final int kind;
+    private final String pattern;
+    private final Locale locale;
+    private final TimeZone timeZone;
+    private final int hashCode;
+
+    Key(int kind, String pattern, Locale locale, TimeZone timeZone) {
+      this.kind = kind;
+      this.pattern = pattern;
+      this.locale = locale;
+      this.timeZone = timeZone;
+      this.hashCode = ((kind * 31 + ObjectUtils.hashCode(pattern)) * 31 + ObjectUtils.hashCode(locale)) * 31 + ObjectUtils.hashCode(timeZone);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key k = (Key) obj;
+      return kind == k.kind &&
+             ObjectUtils.equals(pattern, k.pattern) &&
+             ObjectUtils.equals(locale, k.locale) &&
+             ObjectUtils.equals(timeZone, k.timeZone);
+    }
+  }
+
+  private FormatCache() {
+  }
+
+}
@@ -6,6 +6,8 @@ package org.pm4j.core.pm.impl.converter;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -32,6 +34,9 @@ public abstract class MultiFormatParserBase<T extends Serializable> {
   /** The default separator string used in case of a multi-format resource string specification. */
   private String formatSplitString;
 
+  /** The split result of {@link #getParseFormats(PmAttr)} for each format string. */
+  private final Map<String, String[]> formatStringToFormatsMap = new ConcurrentHashMap<String, String[]>();
+
   /**
    * Implementation of {@link PmAttr.Converter#stringToValue(PmAttr, String)} to be used to support the subsequent
    * parsing of the input String with multiple input formats.
@@ -47,14 +52,14 @@ public abstract class MultiFormatParserBase<T extends Serializable> {
 
     Locale locale = pmAttr.getPmConversation().getPmLocale();
     for (String format : getParseFormats(pmAttr)) {
-      try {
-        return parseValue(s, format, locale, pmAttr);
-      } catch (ParseException e) {
-        // ignore it and try the next format.
-        if (LOG.isTraceEnabled()) {
-          LOG.trace("Format '" + format + "' not applicable for value '" + s +
-                    "'. Attribute context: " + PmUtil.getPmLogString(pmAttr));
-        }
+      T value = tryParseValue(s, format, locale, pmAttr);
+      if (value != null) {
+        return value;
+      }
+      // try the next format.
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("Format '" + format + "' not applicable for value '" + s +
+                  "'. Attribute context: " + PmUtil.getPmLogString(pmAttr));
       }
     }
 
@@ -76,6 +81,28 @@ public abstract class MultiFormatParserBase<T extends Serializable> {
    */
   protected abstract T parseValue(String s, String format, Locale locale, PmAttr<?> pmAttr) throws ParseException;
 
+  /**
+   * Tries to parse the value in the provided format.
+   * <p>
+   * The default implementation calls
+   * {@link #parseValue(String, String, Locale, PmAttr)} and handles the
+   * {@link ParseException}. Implementations should override this method to
+   * check the format without exception handling.
+   *
+   * @param s The String to parse.
+   * @param format The format to be used.
+   * @param locale Locale provided by the PmAttr.
+   * @param pmAttr The pmAttr currently handled.
+   * @return The parsed value or <code>null</code> if the format is not applicable.
+   */
+  protected T tryParseValue(String s, String format, Locale locale, PmAttr<?> pmAttr) {
+    try {
+      return parseValue(s, format, locale, pmAttr);
+    } catch (ParseException e) {
+      return null;
+    }
+  }
+
   /**
    * Default pattern to be used in case no format String is defined.
    * @return Default pattern.
@@ -114,12 +141,19 @@ public abstract class MultiFormatParserBase<T extends Serializable> {
 
   /**
    * Builds an array of all format strings for the <code>pmAttr</code>.
+   * <p>
+   * The split result gets cached for each format string.
+   *
    * @param pmAttr The pmAttr.
-   * @return Format strings.
+   * @return Format strings. The array must not be modified.
    */
   public String[] getParseFormats(PmAttr<?> pmAttr) {
     String formatString = StringUtils.defaultIfEmpty(pmAttr != null ? pmAttr.getFormatString() : null, getDefaultFormatPattern());
-    String[] formats = StringUtils.split(formatString, getFormatSplitString(pmAttr));
+    String[] formats = formatStringToFormatsMap.get(formatString);
+    if (formats == null) {
+      formats = StringUtils.split(formatString, getFormatSplitString(pmAttr));
+      formatStringToFormatsMap.put(formatString, formats);
+    }
     return formats;
   }
 
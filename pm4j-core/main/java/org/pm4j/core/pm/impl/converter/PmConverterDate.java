@@ -1,7 +1,8 @@
 package org.pm4j.core.pm.impl.converter;
 
+import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -30,13 +31,18 @@ public class PmConverterDate extends PmConverterSerializeableBase<Date> {
 
     @Override
     protected Date parseValue(String s, String format, Locale locale, PmAttr<?> pmAttr) throws ParseException {
-      SimpleDateFormat sdf = new SimpleDateFormat(format, locale);
-      sdf.setTimeZone(getTimeZone(pmAttr));
-
-      // we will not allow dates of the form 00.00.08 etc, hence lenient is set to false
-      sdf.setLenient(false);
+      Date date = tryParseValue(s, format, locale, pmAttr);
+      if (date == null) {
+        throw new ParseException("Unparseable date: \"" + s + "\"", 0);
+      }
+      return date;
+    }
 
-      return sdf.parse(s);
+    @Override
+    protected Date tryParseValue(String s, String format, Locale locale, PmAttr<?> pmAttr) {
+      // we will not allow dates of the form 00.00.08 etc, hence the cached format is not lenient
+      DateFormat df = FormatCache.getDateFormat(format, locale, getTimeZone(pmAttr));
+      return df.parse(s, new ParsePosition(0));
     }
 
     @Override
@@ -17,7 +17,7 @@ public class PmConverterDouble extends PmConverterNumber<Double> {
 
   @Override
   public Double stringToValue(PmAttr<?> pmAttr, String s) {
-    NumberFormat f = getNumberFormat(pmAttr);
+    NumberFormat f = getConversionNumberFormat(pmAttr);
     try {
       return f.parse(s).doubleValue();
     } catch (ParseException e) {
@@ -34,7 +34,7 @@ public class PmConverterDouble extends PmConverterNumber<Double> {
 
   @Override
   public String valueToString(PmAttr<?> pmAttr, Double value) {
-    NumberFormat f = getNumberFormat(pmAttr);
+    NumberFormat f = getConversionNumberFormat(pmAttr);
     return f.format(value.doubleValue());
   }
 }
\ No newline at end of file
@@ -2,18 +2,18 @@
 
 import java.lang.reflect.Constructor;
 import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
-import org.apache.commons.lang.StringUtils;
 import org.pm4j.core.exception.PmResourceRuntimeException;
 import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmConstants;
+import org.pm4j.core.util.reflection.ClassUtil;
 
  /**
   * Base class for number type converters.
@@ -26,6 +26,11 @@ public class PmConverterNumber<T extends Number> extends PmConverterSerializeabl
 
   private final Constructor<T> numberCtor;
   private String defaultPattern = "#0";
+  /**
+   * Is <code>true</code> if a sub class re-defines a <code>getNumberFormat</code> method.
+   * Otherwise the conversions use the formats of the {@link FormatCache} without copying them.
+   */
+  private final boolean numberFormatOverridden;
 
   public PmConverterNumber(Class<T> numberClass) {
         try {
@@ -33,6 +38,7 @@ public class PmConverterNumber<T extends Number> extends PmConverterSerializeabl
         } catch (Exception e) {
           throw new PmRuntimeException("Number class without string constructor is not supported. Class: " + numberClass);
     }
+    numberFormatOverridden = ClassUtil.findMethodDeclaringClass(getClass(), "getNumberFormat") != PmConverterNumber.class;
 
 
   }
@@ -63,7 +69,7 @@ public class PmConverterNumber<T extends Number> extends PmConverterSerializeabl
 
   String valueToString2(org.pm4j.core.pm.PmAttr<?> pmAttr, T v) {
     String outputFormatString = multiFormatParser.getOutputFormat(pmAttr);
-    NumberFormat format = getNumberFormat(pmAttr.getPmConversation().getPmLocale(), outputFormatString);
+    NumberFormat format = getConversionNumberFormat(pmAttr.getPmConversation().getPmLocale(), outputFormatString);
     return format.format(v);
   };
 
@@ -71,24 +77,38 @@ public class PmConverterNumber<T extends Number> extends PmConverterSerializeabl
    * @param pmAttr
    *          The attribute. Provides the language context.
    *
-   * @return The associated number format.<br>
+   * @return The associated number format. A new instance that may be modified
+   *         by the caller.<br>
    *         In case of an empty or <code>null</code> result of
    *         {@link PmAttr#getFormatString()}, a {@link DecimalFormat} for the
    *         current locale of the given pmAttr will be returned.
    */
   protected NumberFormat getNumberFormat(PmAttr<?> pmAttr) {
-        String formatString = pmAttr.getFormatString();
-        Locale locale = pmAttr.getPmConversation().getPmLocale();
-        return (StringUtils.isBlank(formatString))
-
-        ? NumberFormat.getNumberInstance(locale)
-            : new DecimalFormat(formatString, new DecimalFormatSymbols(locale));
+    return (NumberFormat) FormatCache.getNumberFormat(pmAttr.getFormatString(), pmAttr.getPmConversation().getPmLocale()).clone();
   }
 
+  /**
+   * @return The number format for the given pattern. A new instance that may be
+   *         modified by the caller.
+   */
   protected NumberFormat getNumberFormat(Locale locale, String formatString) {
-    return (StringUtils.isBlank(formatString))
-        ? NumberFormat.getNumberInstance(locale)
-        : new DecimalFormat(formatString, new DecimalFormatSymbols(locale));
+    return (NumberFormat) FormatCache.getNumberFormat(formatString, locale).clone();
+  }
+
+  /**
+   * @return The format to use for a single conversion call. Is the thread
+   *         confined cached instance if no sub class re-defines the number format.
+   */
+  /* package */ NumberFormat getConversionNumberFormat(PmAttr<?> pmAttr) {
+    return numberFormatOverridden
+        ? getNumberFormat(pmAttr)
+        : FormatCache.getNumberFormat(pmAttr.getFormatString(), pmAttr.getPmConversation().getPmLocale());
+  }
+
+  /* package */ NumberFormat getConversionNumberFormat(Locale locale, String formatString) {
+    return numberFormatOverridden
+        ? getNumberFormat(locale, formatString)
+        : FormatCache.getNumberFormat(formatString, locale);
   }
 
 
@@ -100,11 +120,19 @@ public class PmConverterNumber<T extends Number> extends PmConverterSerializeabl
     @SuppressWarnings("unchecked")
     @Override
     protected T parseValue(String s, String format, Locale locale, PmAttr<?> pmAttr) throws ParseException {
-      NumberFormat nf = getNumberFormat(locale, format);
+      NumberFormat nf = getConversionNumberFormat(locale, format);
 
       return (T) nf.parse(s);
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    protected T tryParseValue(String s, String format, Locale locale, PmAttr<?> pmAttr) {
+      NumberFormat nf = getConversionNumberFormat(locale, format);
+
+      return (T) nf.parse(s, new ParsePosition(0));
+    }
+
     @Override
     protected String getDefaultFormatPattern() {
       return defaultPattern;
@@ -2,7 +2,7 @@ package org.pm4j.core.pm.impl.expr;
 
 import org.pm4j.core.pm.impl.expr.parser.ParseCtxt;
 import org.pm4j.core.util.reflection.BeanAttrAccessor;
-import org.pm4j.core.util.reflection.BeanAttrAccessorImpl;
+import org.pm4j.core.util.reflection.BeanAttrAccessorFactory;
 import org.pm4j.core.util.reflection.ReflectionException;
 
 /**
@@ -14,12 +14,24 @@ public class AttributeExpr
     extends ExprBase<ExprExecCtxt>
     implements OptionalExpression {
 
-  private NameWithModifier name;
-  private BeanAttrAccessor accessor;
+  private final NameWithModifier name;
 
-  public AttributeExpr(NameWithModifier name, BeanAttrAccessor accessor) {
+  /**
+   * The accessor for the bean class the expression was applied to last time.
+   * Gets replaced if the expression is applied to another class.<br>
+   * Allows to share the expression between threads and PMs of different
+   * classes.
+   */
+  private volatile ClassAccessor lastAccessor;
+
+  /**
+   * @param name The attribute name.
+   * @param beanClass The bean class the given accessor was created for.
+   * @param accessor An already created accessor.
+   */
+  public AttributeExpr(NameWithModifier name, Class<?> beanClass, BeanAttrAccessor accessor) {
     this(name);
-    this.accessor = accessor;
+    this.lastAccessor = new ClassAccessor(beanClass, accessor);
   }
 
   public AttributeExpr(NameWithModifier name) {
@@ -28,11 +40,6 @@ public class AttributeExpr
 
   @Override
   public Object execImpl(ExprExecCtxt ctxt) {
-    BeanAttrAccessor accessor = ensureAccessor(ctxt);
-    if (accessor == null) {
-      return null;
-    }
-
     Object currentObj = ctxt.getCurrentValue();
 
     if (currentObj == null) {
@@ -44,7 +51,10 @@ public class AttributeExpr
       }
     }
 
-    return accessor.getBeanAttrValue(currentObj);
+    BeanAttrAccessor accessor = ensureAccessor(ctxt);
+    return (accessor != null)
+        ? accessor.getBeanAttrValue(currentObj)
+        : null;
   }
 
   @Override
@@ -58,10 +68,12 @@ public class AttributeExpr
   }
 
   private BeanAttrAccessor ensureAccessor(ExprExecCtxt ctxt) {
-    // FIXME: check in addition the used class of the accessor!
-    if (accessor == null) {
+    Class<?> beanClass = ctxt.getCurrentValue().getClass();
+    ClassAccessor a = lastAccessor;
+    if (a == null || a.beanClass != beanClass) {
       try {
-        accessor = new BeanAttrAccessorImpl(ctxt.getCurrentValue().getClass(), name.getName());
+        a = new ClassAccessor(beanClass, BeanAttrAccessorFactory.getAccessor(beanClass, name.getName()));
+        lastAccessor = a;
       }
       catch (ReflectionException e) {
         if (! isOptional()) {
@@ -70,7 +82,7 @@ public class AttributeExpr
         return null;
       }
     }
-    return accessor;
+    return a.accessor;
   }
 
   @Override
@@ -85,4 +97,15 @@ public class AttributeExpr
               : null;
   }
 
+  /** An accessor with the bean class it was created for. */
+  private static final class ClassAccessor {
+    private final Class<?> beanClass;
+    private final BeanAttrAccessor accessor;
+
+    public ClassAccessor(Class<?> beanClass, BeanAttrAccessor accessor) {
+      this.beanClass = beanClass;
+      this.accessor = accessor;
+    }
+  }
+
 }
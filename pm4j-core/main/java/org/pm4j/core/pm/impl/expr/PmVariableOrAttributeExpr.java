@@ -2,7 +2,7 @@ package org.pm4j.core.pm.impl.expr;
 
 import org.pm4j.core.pm.impl.expr.parser.ParseCtxt;
 import org.pm4j.core.util.reflection.BeanAttrAccessor;
-import org.pm4j.core.util.reflection.BeanAttrAccessorImpl;
+import org.pm4j.core.util.reflection.BeanAttrAccessorFactory;
 import org.pm4j.core.util.reflection.ReflectionException;
 
 /**
@@ -16,7 +16,13 @@ import org.pm4j.core.util.reflection.ReflectionException;
 public class PmVariableOrAttributeExpr implements OptionalExpression {
 
   private final NameWithModifier nameWithModifier;
-  private Expression concreteExpr;
+
+  /**
+   * The concrete expression for the class of the last start object.
+   * Allows to share the expression between threads and PMs of different
+   * classes.
+   */
+  private volatile ResolvedExpr lastResolvedExpr;
 
   public PmVariableOrAttributeExpr(NameWithModifier nameWithModifier) {
     this.nameWithModifier = nameWithModifier;
@@ -24,7 +30,10 @@ public class PmVariableOrAttributeExpr implements OptionalExpression {
 
   @Override
   public Object exec(ExprExecCtxt ctxt) {
-    ensureResolver(ctxt);
+    Expression concreteExpr = ensureResolver(ctxt);
+    if (concreteExpr == null) {
+      return null;
+    }
     try {
       return concreteExpr.exec(ctxt);
     }
@@ -36,7 +45,7 @@ public class PmVariableOrAttributeExpr implements OptionalExpression {
 
   @Override
   public void execAssign(ExprExecCtxt ctxt, Object value) {
-    ensureResolver(ctxt);
+    Expression concreteExpr = ensureResolver(ctxt);
     if (concreteExpr != null) {
       concreteExpr.execAssign(ctxt, value);
     }
@@ -47,26 +56,40 @@ public class PmVariableOrAttributeExpr implements OptionalExpression {
     return nameWithModifier.isOptional();
   }
 
-  private void ensureResolver(ExprExecCtxt ctxt) {
-    // TODO: enhance performance by checking if the current expression matches...
-    BeanAttrAccessor accessor = null;
+  /**
+   * @return The attribute or variable expression to use for the current value
+   *         of the given context. <code>null</code> if the optional name can't
+   *         be resolved.
+   */
+  private Expression ensureResolver(ExprExecCtxt ctxt) {
     Class<?> classOfCurrentValue = ctxt.getCurrentValue().getClass();
+    ResolvedExpr r = lastResolvedExpr;
+    if (r != null &&
+        r.startClass == classOfCurrentValue &&
+        (r.isAttribute || ctxt instanceof PmExprExecCtxt)) {
+      return r.expr;
+    }
+
     try {
       String name = nameWithModifier.getName();
-      accessor = new BeanAttrAccessorImpl(classOfCurrentValue, name);
-      concreteExpr = new AttributeExpr(nameWithModifier, accessor);
+      BeanAttrAccessor accessor = BeanAttrAccessorFactory.getAccessor(classOfCurrentValue, name);
+      r = new ResolvedExpr(classOfCurrentValue, new AttributeExpr(nameWithModifier, classOfCurrentValue, accessor), true);
     }
     catch (ReflectionException e) {
       if (ctxt instanceof PmExprExecCtxt) {
-        concreteExpr = new PmVariableExpr(nameWithModifier);
+        r = new ResolvedExpr(classOfCurrentValue, new PmVariableExpr(nameWithModifier), false);
       }
       else {
         if (! nameWithModifier.isOptional()) {
           throw new ExprExecExeption(ctxt, "Unable to resolve '" + nameWithModifier + "' in class '" +
                                             classOfCurrentValue + "'.", e);
         }
+        return null;
       }
     }
+
+    lastResolvedExpr = r;
+    return r.expr;
   }
 
   @Override
@@ -86,4 +109,18 @@ public class PmVariableOrAttributeExpr implements OptionalExpression {
               : new PmVariableOrAttributeExpr(n);
   }
 
+  /** A concrete expression with the start object class it was resolved for. */
+  private static final class ResolvedExpr {
+    private final Class<?> startClass;
+    private final Expression expr;
+    /** <code>false</code> for a PM variable expression that can only be used within a PM context. */
+    private final boolean isAttribute;
+
+    public ResolvedExpr(Class<?> startClass, Expression expr, boolean isAttribute) {
+      this.startClass = startClass;
+      this.expr = expr;
+      this.isAttribute = isAttribute;
+    }
+  }
+
 }
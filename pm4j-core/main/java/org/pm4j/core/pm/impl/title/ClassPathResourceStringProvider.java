@@ -5,26 +5,18 @@ import java.util.Locale;
 
 import org.pm4j.common.util.resource.ClassPathResourceFinder;
 
+/**
+ * Finds the resource strings using the package related resource bundles of
+ * the resource loader context classes.
+ * <p>
+ * Needs no own cache. The {@link ClassPathResourceFinder} provides an index
+ * for the bundles of each package and locale.
+ */
 public class ClassPathResourceStringProvider implements ResourceStringProvider {
 
-  /**
-   * A map of caches for each resource scope (package).
-   * That structure is required since the same key may be bound to different
-   * values within different scope.
-   */
-  private ResStringCacheWithScopes cache = new ResStringCacheWithScopes();
-
   @Override
   public String findResourceString(Locale locale, List<Class<?>> resLoadCtxtClasses, String key) {
-    Object scopeObj = getScopeObj(resLoadCtxtClasses);
-    ResStringCache.Entry cacheEntry = cache.find(scopeObj, key, locale);
-
-    if (cacheEntry == null) {
-      String foundString = findResourceStringInPackagePath(locale, resLoadCtxtClasses, key);
-      cacheEntry = cache.put(scopeObj, key, locale, foundString);
-    }
-
-    return cacheEntry.getValue();
+    return findResourceStringInPackagePath(locale, resLoadCtxtClasses, key);
   }
 
   protected String findResourceStringInPackagePath(Locale locale, List<Class<?>> resLoadCtxtClasses, String key) {
@@ -38,6 +30,12 @@ public class ClassPathResourceStringProvider implements ResourceStringProvider {
     return resourceString;
   }
 
+  /**
+   * @deprecated Is no longer used. The resource strings are not cached per
+   *             scope object anymore. The {@link ClassPathResourceFinder} index
+   *             resolves them for each resource loader context class.
+   */
+  @Deprecated
   protected Object getScopeObj(List<Class<?>> resLoadCtxtClasses) {
     return resLoadCtxtClasses.get(0);
   }
@@ -16,7 +16,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * get no entry back from {@link #find(String, Locale)}.
  *
  * @author olaf boede
+ * @deprecated Is no longer used by pm4j. The resource strings are resolved by
+ *             the bundle chain index of the
+ *             {@link org.pm4j.common.util.resource.ClassPathResourceFinder}.
  */
+@Deprecated
 public class ResStringCache {
 
   private Map<Locale, Map<String, Entry>> localeToKeyToValueMap = new ConcurrentHashMap<Locale, Map<String, Entry>>();
@@ -6,6 +6,14 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.pm4j.core.pm.impl.title.ResStringCache.Entry;
 
+/**
+ * A set of {@link ResStringCache}s. One for each resource scope object.
+ *
+ * @deprecated Is no longer used by pm4j. The resource strings are not cached
+ *             per scope object anymore. See
+ *             {@link ClassPathResourceStringProvider#getScopeObj(java.util.List)}.
+ */
+@Deprecated
 public class ResStringCacheWithScopes {
 
   /**
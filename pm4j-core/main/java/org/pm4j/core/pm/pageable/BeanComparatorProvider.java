@@ -0,0 +1,29 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.Comparator;
+
+import org.pm4j.core.pm.PmBean;
+
+/**
+ * Interface for PM comparators that are able to provide an equivalent
+ * comparator for the beans behind the PM items.
+ * <p>
+ * Allows to sort large bean collections without creating a PM for each bean.
+ * See {@link PageablePmsForBeans#sortItems(Comparator)}.
+ *
+ * @author olaf boede
+ */
+public interface BeanComparatorProvider {
+
+  /**
+   * Provides a comparator that compares the beans behind the PM items the same
+   * way this comparator compares the PM items.
+   *
+   * @param sampleItemPm
+   *          A PM item. Is used to analyze the item structure.
+   * @return The bean comparator or <code>null</code> if the items can't be
+   *         compared without PMs.
+   */
+  Comparator<?> getBeanComparator(PmBean<?> sampleItemPm);
+
+}
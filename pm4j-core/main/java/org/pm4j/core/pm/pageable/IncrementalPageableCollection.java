@@ -0,0 +1,53 @@
+package org.pm4j.core.pm.pageable;
+
+/**
+ * Optional operations of a {@link PageableCollection} that handle a change
+ * without visiting all items.
+ * <p>
+ * Callers should check for this interface and fall back to the
+ * {@link PageableCollection} operations. {@link PageableCollectionUtil}
+ * provides methods that do that.
+ *
+ * @author olaf boede
+ *
+ * @param <T_ITEM>
+ *          The type of items handled by this set.
+ */
+public interface IncrementalPageableCollection<T_ITEM> extends PageableCollection<T_ITEM> {
+
+  /**
+   * Selects or deselects all items.
+   * <p>
+   * Implementations may represent the selection of all items without
+   * touching each item.
+   * <p>
+   * Items that get added later are not selected.
+   *
+   * @param doSelect
+   *          <code>true</code> selects all items.<br>
+   *          <code>false</code> deselects all items.
+   */
+  void selectAll(boolean doSelect);
+
+  /**
+   * Gets called after adding a single item to the collection behind this
+   * instance.
+   * <p>
+   * Allows to update the sorted and filtered item set without handling all
+   * items again.
+   *
+   * @param item
+   *          The added item.
+   */
+  void onAddItem(T_ITEM item);
+
+  /**
+   * Gets called after removing a single item from the collection behind this
+   * instance.
+   *
+   * @param item
+   *          The removed item.
+   */
+  void onRemoveItem(T_ITEM item);
+
+}
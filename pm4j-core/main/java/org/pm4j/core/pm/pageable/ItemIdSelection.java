@@ -0,0 +1,142 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A selection of items, represented by item identifiers.
+ * <p>
+ * The selection is either a set of selected items (<i>only these</i>) or,
+ * after {@link #selectAll()}, the set of items that are not selected
+ * (<i>all except</i>). So selecting all items of a huge collection does not
+ * touch any item.
+ * <p>
+ * Deselecting an item in <i>all except</i> mode should only be done for
+ * items of the collection. Otherwise {@link #getNumOfSelectedItems(int)}
+ * provides a wrong result.
+ * <p>
+ * Selecting all items selects the items that exist at that time. Items that
+ * get added later are not selected. They need to be reported by
+ * {@link #onAddItem(Object)}.
+ *
+ * @author olaf boede
+ *
+ * @param <T_ID>
+ *          The type of item identifiers.
+ */
+public class ItemIdSelection<T_ID> {
+
+  /** <code>true</code> if {@link #ids} contains the items that are not selected. */
+  private boolean inverted;
+  private Set<T_ID> ids = new LinkedHashSet<T_ID>();
+
+  /**
+   * @param id
+   *          An item identifier.
+   * @return <code>true</code> if the item is selected.
+   */
+  public boolean isSelected(T_ID id) {
+    return ids.contains(id) != inverted;
+  }
+
+  /**
+   * @param id
+   *          An item identifier.
+   * @param doSelect
+   *          <code>true</code> to select the item, <code>false</code> to
+   *          deselect it.
+   */
+  public void select(T_ID id, boolean doSelect) {
+    if (doSelect != inverted) {
+      ids.add(id);
+    }
+    else {
+      ids.remove(id);
+    }
+  }
+
+  /**
+   * Forgets the given item. Should be called if the item is no longer part of
+   * the collection.
+   *
+   * @param id
+   *          An item identifier.
+   */
+  public void remove(T_ID id) {
+    ids.remove(id);
+  }
+
+  /**
+   * Registers an item that was added to the collection. A new item is not
+   * selected. In <i>all except</i> mode it gets registered as deselected
+   * item.
+   *
+   * @param id
+   *          The identifier of the new item.
+   */
+  public void onAddItem(T_ID id) {
+    if (inverted) {
+      ids.add(id);
+    }
+  }
+
+  /**
+   * Selects all items. Switches to the <i>all except</i> mode.
+   */
+  public void selectAll() {
+    inverted = true;
+    ids = new LinkedHashSet<T_ID>();
+  }
+
+  /**
+   * Deselects all items. Switches to the <i>only these</i> mode.
+   */
+  public void clear() {
+    inverted = false;
+    ids = new LinkedHashSet<T_ID>();
+  }
+
+  /**
+   * @return <code>true</code> if {@link #getIds()} provides the items that
+   *         are not selected.
+   */
+  public boolean isInverted() {
+    return inverted;
+  }
+
+  /**
+   * @return <code>true</code> if no item is selected.
+   */
+  public boolean isEmpty() {
+    return !inverted && ids.isEmpty();
+  }
+
+  /**
+   * @return The selected items or, if {@link #isInverted()}, the items that
+   *         are not selected.
+   */
+  public Set<T_ID> getIds() {
+    return Collections.unmodifiableSet(ids);
+  }
+
+  /**
+   * @return A copy of {@link #getIds()} that is not affected by later
+   *         selection changes.
+   */
+  public Set<T_ID> getIdsSnapshot() {
+    return Collections.unmodifiableSet(new LinkedHashSet<T_ID>(ids));
+  }
+
+  /**
+   * @param numOfItems
+   *          The number of items of the collection.
+   * @return The number of selected items.
+   */
+  public int getNumOfSelectedItems(int numOfItems) {
+    return inverted
+        ? numOfItems - ids.size()
+        : ids.size();
+  }
+
+}
@@ -0,0 +1,289 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Operations on item ranks. The rank of an item is its index within a list
+ * of items.
+ * <p>
+ * Rank arrays are used to represent sort orders and filter results without
+ * copying the item lists.
+ *
+ * @author olaf boede
+ */
+final class ItemRanks {
+
+  static final int[] NO_RANKS = {};
+
+  /** Arrays up to this size get sorted by insertion sort. */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * @return The ranks <code>0..size-1</code>.
+   */
+  static int[] identity(int size) {
+    int[] ranks = new int[size];
+    for (int i = 0; i < size; ++i) {
+      ranks[i] = i;
+    }
+    return ranks;
+  }
+
+  /**
+   * @return The ranks of the set bits in ascending order.
+   */
+  static int[] fromBits(BitSet bits) {
+    int[] ranks = new int[bits.cardinality()];
+    int j = 0;
+    for (int r = bits.nextSetBit(0); r >= 0; r = bits.nextSetBit(r + 1)) {
+      ranks[j++] = r;
+    }
+    return ranks;
+  }
+
+  /**
+   * @return The given ranks without the ranks that are not set in the given bits.
+   */
+  static int[] retain(int[] ranks, BitSet bits) {
+    int[] result = new int[ranks.length];
+    int j = 0;
+    for (int r : ranks) {
+      if (bits.get(r)) {
+        result[j++] = r;
+      }
+    }
+    return (j == ranks.length) ? result : copyOf(result, j);
+  }
+
+  /**
+   * Compares the ranked items. Items that are equal according to the
+   * comparator are ordered by their rank. That makes each sort algorithm
+   * stable.
+   */
+  static <T> int compare(List<T> items, Comparator<? super T> comparator, int r1, int r2) {
+    int c = comparator.compare(items.get(r1), items.get(r2));
+    return (c != 0) ? c : (r1 < r2 ? -1 : (r1 == r2 ? 0 : 1));
+  }
+
+  /**
+   * Sorts the given ranks by the referenced items.
+   */
+  static <T> void sort(int[] ranks, List<T> items, Comparator<? super T> comparator) {
+    sort(ranks, 0, ranks.length, items, comparator);
+  }
+
+  /**
+   * Sorts the range <code>[from, to[</code> of the given ranks by the referenced items.
+   */
+  static <T> void sort(int[] ranks, int from, int to, List<T> items, Comparator<? super T> comparator) {
+    if (to - from > 1) {
+      int[] aux = copyOfRange(ranks, from, to);
+      mergeSort(aux, ranks, from, to, -from, items, comparator);
+    }
+  }
+
+  /**
+   * Sorts <code>dest[low, high[</code>. <code>src[low + off, high + off[</code>
+   * contains the same values.
+   */
+  private static <T> void mergeSort(int[] src, int[] dest, int low, int high, int off, List<T> items, Comparator<? super T> comparator) {
+    if (high - low <= INSERTION_SORT_THRESHOLD) {
+      for (int i = low; i < high; ++i) {
+        for (int j = i; j > low && compare(items, comparator, dest[j - 1], dest[j]) > 0; --j) {
+          int tmp = dest[j];
+          dest[j] = dest[j - 1];
+          dest[j - 1] = tmp;
+        }
+      }
+      return;
+    }
+
+    int srcLow = low + off;
+    int srcHigh = high + off;
+    int mid = (srcLow + srcHigh) >>> 1;
+    mergeSort(dest, src, srcLow, mid, -off, items, comparator);
+    mergeSort(dest, src, mid, srcHigh, -off, items, comparator);
+    mergeRanges(src, srcLow, mid, mid, srcHigh, dest, low, items, comparator);
+  }
+
+  /**
+   * Merges the sorted ranges <code>src[aLow, aHigh[</code> and
+   * <code>src[bLow, bHigh[</code> into <code>dest</code>, starting at <code>destLow</code>.
+   */
+  static <T> void mergeRanges(int[] src, int aLow, int aHigh, int bLow, int bHigh, int[] dest, int destLow, List<T> items, Comparator<? super T> comparator) {
+    // Nothing to compare if the ranges are already in order.
+    if (aLow == aHigh || bLow == bHigh || compare(items, comparator, src[aHigh - 1], src[bLow]) <= 0) {
+      System.arraycopy(src, aLow, dest, destLow, aHigh - aLow);
+      System.arraycopy(src, bLow, dest, destLow + aHigh - aLow, bHigh - bLow);
+      return;
+    }
+    for (int i = destLow, p = aLow, q = bLow; p < aHigh || q < bHigh; ++i) {
+      if (q >= bHigh || (p < aHigh && compare(items, comparator, src[p], src[q]) <= 0)) {
+        dest[i] = src[p++];
+      }
+      else {
+        dest[i] = src[q++];
+      }
+    }
+  }
+
+  /**
+   * @param ranks Ranks sorted by the given comparator (or ascending if the comparator is <code>null</code>).
+   * @return The position to insert the given rank to keep the sort order.
+   */
+  static <T> int insertionPos(int[] ranks, int rank, List<T> items, Comparator<? super T> comparator) {
+    int low = 0;
+    int high = ranks.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int c = (comparator != null)
+          ? compare(items, comparator, ranks[mid], rank)
+          : ranks[mid] - rank;
+      if (c < 0) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Makes room for a new rank. Increments all ranks that are equal or greater
+   * than the given rank.
+   *
+   * @return A new array.
+   */
+  static int[] shiftForInsert(int[] ranks, int rank) {
+    int[] result = new int[ranks.length];
+    for (int i = 0; i < ranks.length; ++i) {
+      int r = ranks[i];
+      result[i] = (r >= rank) ? r + 1 : r;
+    }
+    return result;
+  }
+
+  /**
+   * @return A new array with the rank inserted at the given position.
+   */
+  static int[] insertAt(int[] ranks, int pos, int rank) {
+    int[] result = new int[ranks.length + 1];
+    System.arraycopy(ranks, 0, result, 0, pos);
+    result[pos] = rank;
+    System.arraycopy(ranks, pos, result, pos + 1, ranks.length - pos);
+    return result;
+  }
+
+  /**
+   * Removes the given rank. Decrements all ranks that are greater than the
+   * given rank.
+   *
+   * @return A new array.
+   */
+  static int[] remove(int[] ranks, int rank) {
+    int[] result = new int[ranks.length];
+    int j = 0;
+    for (int r : ranks) {
+      if (r != rank) {
+        result[j++] = (r > rank) ? r - 1 : r;
+      }
+    }
+    return (j == ranks.length) ? result : copyOf(result, j);
+  }
+
+  /**
+   * Shifts the bits at positions equal or greater than <code>rank</code> by
+   * one. The bit at <code>rank</code> gets the given value.
+   *
+   * @return A new bit set.
+   */
+  static BitSet insertBit(BitSet bits, int rank, boolean value) {
+    BitSet result = new BitSet(bits.length() + 1);
+    for (int r = bits.nextSetBit(0); r >= 0; r = bits.nextSetBit(r + 1)) {
+      result.set((r < rank) ? r : r + 1);
+    }
+    if (value) {
+      result.set(rank);
+    }
+    return result;
+  }
+
+  /**
+   * Removes the bit at the given position. The bits at greater positions get
+   * shifted down by one.
+   *
+   * @return A new bit set.
+   */
+  static BitSet removeBit(BitSet bits, int rank) {
+    BitSet result = new BitSet(bits.length());
+    for (int r = bits.nextSetBit(0); r >= 0; r = bits.nextSetBit(r + 1)) {
+      if (r != rank) {
+        result.set((r < rank) ? r : r - 1);
+      }
+    }
+    return result;
+  }
+
+  static int[] copyOf(int[] a, int length) {
+    int[] result = new int[length];
+    System.arraycopy(a, 0, result, 0, Math.min(length, a.length));
+    return result;
+  }
+
+  static int[] copyOfRange(int[] a, int from, int to) {
+    int[] result = new int[to - from];
+    System.arraycopy(a, from, result, 0, to - from);
+    return result;
+  }
+
+  /**
+   * An immutable list view of the items referenced by a rank array.
+   */
+  static final class RankedItemList<T> extends AbstractList<T> implements RandomAccess {
+    private final List<T> items;
+    private final int[] ranks;
+    private final int from;
+    private final int to;
+
+    RankedItemList(List<T> items, int[] ranks) {
+      this(items, ranks, 0, ranks.length);
+    }
+
+    private RankedItemList(List<T> items, int[] ranks, int from, int to) {
+      this.items = items;
+      this.ranks = ranks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public T get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+      }
+      return items.get(ranks[from + index]);
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+      if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+        throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + size());
+      }
+      return new RankedItemList<T>(items, ranks, from + fromIndex, from + toIndex);
+    }
+  }
+
+  private ItemRanks() {
+  }
+
+}
@@ -144,14 +144,18 @@ public interface PageableCollection<T_ITEM> {
   void setMultiSelect(boolean isMultiSelect);
 
   /**
-   * @return The set of selected items.
+   * @return The set of selected items.<br>
+   *         Implementations may provide a view that provides the items on
+   *         iteration.
    */
   Collection<T_ITEM> getSelectedItems();
 
   /**
    * Gets called whenever the collection behind this instance was updated.
+   * <p>
+   * See {@link IncrementalPageableCollection} for implementations that can
+   * handle single item changes.
    */
-  // TODO olaf: special position handling for add/remove etc. needed?
   void onUpdateCollection();
 
 }
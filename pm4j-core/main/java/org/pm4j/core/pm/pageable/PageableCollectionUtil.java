@@ -1,6 +1,7 @@
 package org.pm4j.core.pm.pageable;
 
 import java.awt.print.Pageable;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -189,15 +190,65 @@ public final class PageableCollectionUtil {
     return true;
   }
 
+  /**
+   * Select or deselect all items.
+   *
+   * @param pageable
+   *          The set to handle.
+   * @param doSelect
+   *          <code>true</code> selects all items.<br>
+   *          <code>false</code> does deselect all items.
+   */
   public static <T> void selectAll(PageableCollection<T> pageable, boolean doSelect) {
+    if (pageable instanceof IncrementalPageableCollection) {
+      ((IncrementalPageableCollection<T>) pageable).selectAll(doSelect);
+      return;
+    }
+
     Iterator<T> i = doSelect
           ? pageable.getAllItemsIterator()
-          : pageable.getSelectedItems().iterator();
+          : new ArrayList<T>(pageable.getSelectedItems()).iterator();
     while (i.hasNext()) {
       pageable.select(i.next(), doSelect);
     }
   }
 
+  /**
+   * Informs the collection about an item that was added to the collection
+   * behind it.
+   *
+   * @param pageable
+   *          The set to handle.
+   * @param item
+   *          The added item.
+   */
+  public static <T> void onAddItem(PageableCollection<T> pageable, T item) {
+    if (pageable instanceof IncrementalPageableCollection) {
+      ((IncrementalPageableCollection<T>) pageable).onAddItem(item);
+    }
+    else {
+      pageable.onUpdateCollection();
+    }
+  }
+
+  /**
+   * Informs the collection about an item that was removed from the
+   * collection behind it.
+   *
+   * @param pageable
+   *          The set to handle.
+   * @param item
+   *          The removed item.
+   */
+  public static <T> void onRemoveItem(PageableCollection<T> pageable, T item) {
+    if (pageable instanceof IncrementalPageableCollection) {
+      ((IncrementalPageableCollection<T>) pageable).onRemoveItem(item);
+    }
+    else {
+      pageable.onUpdateCollection();
+    }
+  }
+
 // TODO olaf: maintain a set of selected items of the current filter settings
 //  public boolean isAllSelected(PageableCollection<?> pageable) {
 //    return pageable.getSelectedItems().size() == pageable.getNumOfItems();
@@ -0,0 +1,61 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.List;
+
+/**
+ * Provides the items for a {@link PageableLazyCollection}.
+ * <p>
+ * Implementations usually forward the requests to a database or a service.
+ * They may interpret the sort and filter definitions of the
+ * {@link PageableQuery} to translate them to the query language of the
+ * data source.
+ * <p>
+ * If the collection uses an executor to read ahead, the provider methods get
+ * called from threads of that executor too.
+ *
+ * @author olaf boede
+ *
+ * @param <T_ITEM>
+ *          The type of provided items.
+ * @param <T_ID>
+ *          The type of item identifiers.
+ */
+public interface PageableDataProvider<T_ITEM, T_ID> {
+
+  /**
+   * @param query
+   *          The sort and filter definition.
+   * @return The number of items that match the filter of the query.
+   */
+  int getItemCount(PageableQuery query);
+
+  /**
+   * Provides a range of the sorted and filtered items.
+   *
+   * @param query
+   *          The sort and filter definition.
+   * @param offset
+   *          The position of the first item to provide. Starts with zero.
+   * @param count
+   *          The maximum number of items to provide.
+   * @return The items. May contain less than <code>count</code> items if
+   *         the end of the result is reached.
+   */
+  List<T_ITEM> getItems(PageableQuery query, int offset, int count);
+
+  /**
+   * @param id
+   *          An item identifier.
+   * @return The item with the given identifier or <code>null</code> if there
+   *         is no such item.
+   */
+  T_ITEM getItemForId(T_ID id);
+
+  /**
+   * @param item
+   *          An item provided by this provider.
+   * @return The identifier of the given item.
+   */
+  T_ID getIdForItem(T_ITEM item);
+
+}
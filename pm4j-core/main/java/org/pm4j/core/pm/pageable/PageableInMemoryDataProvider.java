@@ -0,0 +1,92 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.pm4j.core.pm.filter.Filter;
+
+/**
+ * A {@link PageableDataProvider} that handles a collection of items in
+ * memory.
+ * <p>
+ * Serves as reference implementation and test helper. The result of the last
+ * query gets cached.
+ *
+ * @author olaf boede
+ *
+ * @param <T_ITEM>
+ *          The type of provided items.
+ * @param <T_ID>
+ *          The type of item identifiers.
+ */
+public abstract class PageableInMemoryDataProvider<T_ITEM, T_ID> implements PageableDataProvider<T_ITEM, T_ID> {
+
+  private final Collection<T_ITEM> items;
+  private PageableQuery lastQuery;
+  private List<T_ITEM> lastResult;
+
+  /**
+   * @param items
+   *          The items to provide. Changes of this collection get considered
+   *          after a call to {@link #onUpdateCollection()}.
+   */
+  public PageableInMemoryDataProvider(Collection<T_ITEM> items) {
+    this.items = items;
+  }
+
+  @Override
+  public synchronized int getItemCount(PageableQuery query) {
+    return (query.getFilter() == null)
+        ? items.size()
+        : getResult(query).size();
+  }
+
+  @Override
+  public synchronized List<T_ITEM> getItems(PageableQuery query, int offset, int count) {
+    List<T_ITEM> result = getResult(query);
+    int from = Math.min(offset, result.size());
+    int to = Math.min(offset + count, result.size());
+    return new ArrayList<T_ITEM>(result.subList(from, to));
+  }
+
+  @Override
+  public synchronized T_ITEM getItemForId(T_ID id) {
+    for (T_ITEM i : items) {
+      if (id.equals(getIdForItem(i))) {
+        return i;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Forgets the cached query result.
+   */
+  public synchronized void onUpdateCollection() {
+    lastQuery = null;
+    lastResult = null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<T_ITEM> getResult(PageableQuery query) {
+    if (query != lastQuery) {
+      Filter filter = query.getFilter();
+      List<T_ITEM> result = new ArrayList<T_ITEM>(items.size());
+      for (T_ITEM i : items) {
+        if (filter == null || filter.doesItemMatch(i)) {
+          result.add(i);
+        }
+      }
+      if (query.getSortComparator() != null) {
+        Collections.sort(result, (Comparator<T_ITEM>) query.getSortComparator());
+      }
+      lastQuery = query;
+      lastResult = result;
+    }
+    return lastResult;
+  }
+
+}
@@ -0,0 +1,491 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.pm.filter.Filter;
+
+/**
+ * A {@link PageableCollection} that loads only the items of the requested
+ * pages from a {@link PageableDataProvider}.
+ * <p>
+ * Memory usage and the time needed to provide a page depend on the page
+ * size, not on the number of items behind the collection:
+ * <ul>
+ * <li>The loaded pages are kept in a cache that is limited to
+ * {@link #setMaxCachedItems(int)} items. The least recently used pages get
+ * evicted first.</li>
+ * <li>The page behind the current page gets read ahead. Without a
+ * {@link #setReadAheadExecutor(Executor)} it gets fetched together with the
+ * current page. With an executor it gets fetched in the background.</li>
+ * <li>Sort and filter operations are delegated to the provider. They only
+ * clear the cache.</li>
+ * <li>The selection is tracked by item identifier. It is not affected by
+ * sort or filter operations. Selecting all items does not load any item.</li>
+ * </ul>
+ *
+ * @author olaf boede
+ *
+ * @param <T_ITEM>
+ *          The type of items handled by this collection.
+ * @param <T_ID>
+ *          The type of item identifiers.
+ */
+public class PageableLazyCollection<T_ITEM, T_ID> implements IncrementalPageableCollection<T_ITEM>, UnfilteredItemSource<T_ITEM> {
+
+  private static final Log LOG = LogFactory.getLog(PageableLazyCollection.class);
+
+  private final PageableDataProvider<T_ITEM, T_ID> provider;
+  private int                pageSize = 10;
+  private int                currentPageIdx = 1;
+  private boolean            multiSelect;
+  private ItemIdSelection<T_ID> selection = new ItemIdSelection<T_ID>();
+  private Comparator<?>      initialSortComparator;
+  private Comparator<?>      currentSortComparator;
+  private Filter             currentFilter;
+  private int                maxCachedItems = 1000;
+  private Executor           readAheadExecutor;
+
+  /** The current query. A new instance gets created for each change. */
+  private volatile PageableQuery query;
+  /** The number of items matching the current query. <code>-1</code> if not yet known. */
+  private int                numOfItems = -1;
+  /** <code>-1</code> if not yet known. */
+  private int                numOfUnfilteredItems = -1;
+
+  /** The loaded pages of the current query in access order. Guarded by itself. */
+  private final LinkedHashMap<Integer, List<T_ITEM>> pageCache = new LinkedHashMap<Integer, List<T_ITEM>>(16, 0.75f, true);
+  /** The number of items within {@link #pageCache}. */
+  private int                numOfCachedItems;
+  /** The indexes of pages that are currently read ahead. Guarded by {@link #pageCache}. */
+  private final Set<Integer> pendingReadAheads = new HashSet<Integer>();
+
+  /**
+   * @param provider
+   *          The provider that loads the items.
+   */
+  public PageableLazyCollection(PageableDataProvider<T_ITEM, T_ID> provider) {
+    this.provider = provider;
+    this.query = new PageableQuery(null, null);
+  }
+
+  @Override
+  public List<T_ITEM> getItemsOnPage() {
+    int numOfItems = getNumOfItems();
+    if (numOfItems == 0 || currentPageIdx < 1) {
+      return Collections.emptyList();
+    }
+
+    PageableQuery q = query;
+    int pageIdx = currentPageIdx;
+    boolean hasNextPage = pageIdx * pageSize < numOfItems;
+    List<T_ITEM> page = getCachedPage(pageIdx);
+
+    if (page == null) {
+      boolean readNextPageNow = hasNextPage && readAheadExecutor == null && getCachedPage(pageIdx + 1) == null;
+      List<T_ITEM> items = provider.getItems(q, (pageIdx - 1) * pageSize, readNextPageNow ? 2 * pageSize : pageSize);
+      page = Collections.unmodifiableList(new ArrayList<T_ITEM>(items.subList(0, Math.min(pageSize, items.size()))));
+      putCachedPage(q, pageIdx, page);
+      if (items.size() > pageSize) {
+        putCachedPage(q, pageIdx + 1, Collections.unmodifiableList(new ArrayList<T_ITEM>(items.subList(pageSize, items.size()))));
+      }
+    }
+
+    if (hasNextPage && readAheadExecutor != null) {
+      readAhead(q, pageIdx + 1);
+    }
+    return page;
+  }
+
+  @Override
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  @Override
+  public void setPageSize(int newSize) {
+    if (newSize != pageSize) {
+      pageSize = newSize;
+      clearCache();
+    }
+  }
+
+  @Override
+  public int getCurrentPageIdx() {
+    return currentPageIdx;
+  }
+
+  @Override
+  public void setCurrentPageIdx(int pageIdx) {
+    this.currentPageIdx = pageIdx;
+  }
+
+  @Override
+  public void sortItems(Comparator<?> sortComparator) {
+    currentSortComparator = sortComparator;
+    onQueryChange();
+  }
+
+  @Override
+  public void sortBackingItems(Comparator<?> sortComparator) {
+    sortItems(sortComparator);
+  }
+
+  @Override
+  public void setInitialBeanSortComparator(Comparator<?> comparator) {
+    initialSortComparator = comparator;
+    if (currentSortComparator == null) {
+      onQueryChange();
+    }
+  }
+
+  @Override
+  public void setItemFilter(Filter filter) {
+    currentFilter = filter;
+    onQueryChange();
+  }
+
+  @Override
+  public int getNumOfItems() {
+    if (numOfItems == -1) {
+      numOfItems = provider.getItemCount(query);
+    }
+    return numOfItems;
+  }
+
+  /**
+   * Loads a single item without sort order and filter. The result is not cached.
+   */
+  @Override
+  public T_ITEM findFirstUnfilteredItem() {
+    List<T_ITEM> items = provider.getItems(new PageableQuery(null, null), 0, 1);
+    return items.isEmpty() ? null : items.get(0);
+  }
+
+  @Override
+  public int getNumOfUnfilteredItems() {
+    if (currentFilter == null) {
+      return getNumOfItems();
+    }
+    if (numOfUnfilteredItems == -1) {
+      numOfUnfilteredItems = provider.getItemCount(new PageableQuery(null, null));
+    }
+    return numOfUnfilteredItems;
+  }
+
+  /**
+   * Provides an iterator that loads the items page wise. The loaded pages
+   * don't get cached.
+   */
+  @Override
+  public Iterator<T_ITEM> getAllItemsIterator() {
+    return new ItemIterator(query, Math.max(pageSize, 1));
+  }
+
+  @Override
+  public boolean isSelected(T_ITEM item) {
+    return selection.isSelected(provider.getIdForItem(item));
+  }
+
+  @Override
+  public void select(T_ITEM item, boolean doSelect) {
+    if (doSelect) {
+      if (!multiSelect) {
+        selection.clear();
+      }
+
+      if (item != null) {
+        selection.select(provider.getIdForItem(item), true);
+      }
+    }
+    else if (item != null) {
+      selection.select(provider.getIdForItem(item), false);
+    }
+  }
+
+  /**
+   * Selects all items in constant time if there is no active filter.
+   * Otherwise the items that match the filter get loaded page wise to
+   * select them.
+   */
+  @Override
+  public void selectAll(boolean doSelect) {
+    if (!doSelect) {
+      selection.clear();
+    }
+    else if (multiSelect && currentFilter == null) {
+      selection.selectAll();
+    }
+    else {
+      for (Iterator<T_ITEM> it = getAllItemsIterator(); it.hasNext(); ) {
+        select(it.next(), true);
+      }
+    }
+  }
+
+  @Override
+  public boolean isMultiSelect() {
+    return multiSelect;
+  }
+
+  @Override
+  public void setMultiSelect(boolean isMultiSelect) {
+    this.multiSelect = isMultiSelect;
+  }
+
+  /**
+   * Provides the selected items. Items that are not cached get loaded by
+   * {@link PageableDataProvider#getItemForId(Object)}.
+   * <p>
+   * If all items are selected, a collection gets provided that loads the
+   * items page wise on iteration.
+   * <p>
+   * The result is based on the selection at call time. Later selection
+   * changes don't affect it.
+   */
+  @Override
+  public Collection<T_ITEM> getSelectedItems() {
+    if (selection.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (selection.isInverted()) {
+      final PageableQuery q = new PageableQuery(query.getSortComparator(), null);
+      final Set<T_ID> deselectedIds = selection.getIdsSnapshot();
+      final int size = selection.getNumOfSelectedItems(getNumOfUnfilteredItems());
+      final int blockSize = Math.max(pageSize, 1);
+      return new AbstractCollection<T_ITEM>() {
+        @Override
+        public Iterator<T_ITEM> iterator() {
+          return new SkippingIterator<T_ITEM>(new ItemIterator(q, blockSize)) {
+            @Override
+            protected boolean isSkipped(T_ITEM item) {
+              return deselectedIds.contains(provider.getIdForItem(item));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+
+    Set<T_ID> selectedIds = selection.getIdsSnapshot();
+
+    Map<T_ID, T_ITEM> cachedItems = new HashMap<T_ID, T_ITEM>();
+    synchronized (pageCache) {
+      for (List<T_ITEM> page : pageCache.values()) {
+        for (T_ITEM i : page) {
+          T_ID id = provider.getIdForItem(i);
+          if (selectedIds.contains(id)) {
+            cachedItems.put(id, i);
+          }
+        }
+      }
+    }
+
+    List<T_ITEM> items = new ArrayList<T_ITEM>(selectedIds.size());
+    for (T_ID id : selectedIds) {
+      T_ITEM item = cachedItems.get(id);
+      if (item == null) {
+        item = provider.getItemForId(id);
+      }
+      if (item != null) {
+        items.add(item);
+      }
+    }
+    return items;
+  }
+
+  /**
+   * @return The identifier based selection.
+   */
+  public ItemIdSelection<T_ID> getSelection() {
+    return selection;
+  }
+
+  @Override
+  public void onUpdateCollection() {
+    numOfUnfilteredItems = -1;
+    onQueryChange();
+  }
+
+  /**
+   * The new item is not selected, also if all items were selected before.
+   */
+  @Override
+  public void onAddItem(T_ITEM item) {
+    selection.onAddItem(provider.getIdForItem(item));
+    onUpdateCollection();
+  }
+
+  @Override
+  public void onRemoveItem(T_ITEM item) {
+    selection.remove(provider.getIdForItem(item));
+    onUpdateCollection();
+  }
+
+  /**
+   * @param maxCachedItems
+   *          The maximum number of items to keep in memory. The current page
+   *          is always kept.
+   */
+  public void setMaxCachedItems(int maxCachedItems) {
+    this.maxCachedItems = maxCachedItems;
+  }
+
+  /**
+   * @param readAheadExecutor
+   *          An executor that loads the next page in the background.
+   *          <code>null</code> lets the current page request load the next
+   *          page too.
+   */
+  public void setReadAheadExecutor(Executor readAheadExecutor) {
+    this.readAheadExecutor = readAheadExecutor;
+  }
+
+  public PageableDataProvider<T_ITEM, T_ID> getProvider() {
+    return provider;
+  }
+
+  private void onQueryChange() {
+    query = new PageableQuery(currentSortComparator != null ? currentSortComparator : initialSortComparator, currentFilter);
+    numOfItems = -1;
+    clearCache();
+
+    // Same strategy as PageableListImpl: moves to the last possible page if necessary.
+    if (currentPageIdx * pageSize >= getNumOfItems()) {
+      currentPageIdx = PageableCollectionUtil.getNumOfPages(this);
+    }
+    if (getNumOfItems() > 0 && currentPageIdx == 0) {
+      currentPageIdx = 1;
+    }
+  }
+
+  private void clearCache() {
+    synchronized (pageCache) {
+      pageCache.clear();
+      numOfCachedItems = 0;
+    }
+  }
+
+  private List<T_ITEM> getCachedPage(int pageIdx) {
+    synchronized (pageCache) {
+      return pageCache.get(pageIdx);
+    }
+  }
+
+  /**
+   * Adds the page if the given query is still the current one. Evicts the
+   * least recently used pages to stay within {@link #maxCachedItems}.
+   */
+  private void putCachedPage(PageableQuery q, int pageIdx, List<T_ITEM> page) {
+    synchronized (pageCache) {
+      if (q != query) {
+        return;
+      }
+      List<T_ITEM> oldPage = pageCache.put(pageIdx, page);
+      numOfCachedItems += page.size() - (oldPage != null ? oldPage.size() : 0);
+
+      Iterator<Map.Entry<Integer, List<T_ITEM>>> it = pageCache.entrySet().iterator();
+      while (numOfCachedItems > maxCachedItems && it.hasNext()) {
+        Map.Entry<Integer, List<T_ITEM>> e = it.next();
+        if (e.getKey() != pageIdx && e.getKey() != currentPageIdx) {
+          numOfCachedItems -= e.getValue().size();
+          it.remove();
+        }
+      }
+    }
+  }
+
+  private void readAhead(final PageableQuery q, final int pageIdx) {
+    final int size = pageSize;
+    synchronized (pageCache) {
+      if (pageCache.containsKey(pageIdx) || !pendingReadAheads.add(pageIdx)) {
+        return;
+      }
+    }
+
+    readAheadExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (q == query && size == pageSize) {
+            List<T_ITEM> items = provider.getItems(q, (pageIdx - 1) * size, size);
+            if (size == pageSize) {
+              putCachedPage(q, pageIdx, Collections.unmodifiableList(new ArrayList<T_ITEM>(items)));
+            }
+          }
+        }
+        catch (RuntimeException e) {
+          // The page gets loaded again when it is requested.
+          LOG.warn("Unable to read page " + pageIdx + " ahead.", e);
+        }
+        finally {
+          synchronized (pageCache) {
+            pendingReadAheads.remove(pageIdx);
+          }
+        }
+      }
+    });
+  }
+
+  /** Loads the items of a query page wise. */
+  private class ItemIterator implements Iterator<T_ITEM> {
+    private final PageableQuery q;
+    private final int blockSize;
+    private List<T_ITEM> block = Collections.emptyList();
+    private int blockPos;
+    private int nextOffset;
+    private boolean lastBlock;
+
+    public ItemIterator(PageableQuery q, int blockSize) {
+      this.q = q;
+      this.blockSize = blockSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (blockPos < block.size()) {
+        return true;
+      }
+      if (lastBlock) {
+        return false;
+      }
+      block = provider.getItems(q, nextOffset, blockSize);
+      blockPos = 0;
+      nextOffset += blockSize;
+      lastBlock = block.size() < blockSize;
+      return !block.isEmpty();
+    }
+
+    @Override
+    public T_ITEM next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return block.get(blockPos++);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
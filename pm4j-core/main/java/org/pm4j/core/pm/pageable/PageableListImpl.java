@@ -1,43 +1,81 @@
 package org.pm4j.core.pm.pageable;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmDefaults;
 import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.filter.NarrowingFilter;
+import org.pm4j.core.pm.pageable.ItemRanks.RankedItemList;
 
 /**
  * Implements a {@link PageableCollection} based on an {@link List} of items to
  * handle.
+ * <p>
+ * The items are referenced by their rank, which is the index within the list
+ * of all items in initial sort order. Sort and filter results are kept as rank
+ * arrays:
+ * <ul>
+ * <li>The permutation of all items for the current sort order is kept. A
+ * filter change just picks the matching items from this permutation. No sort
+ * operation is needed.</li>
+ * <li>A sort order change sorts only the items of the current filter result.</li>
+ * <li>A {@link NarrowingFilter} that refines the current filter gets only
+ * applied to the items of the current filter result.</li>
+ * <li>{@link #onAddItem(Object)} and {@link #onRemoveItem(Object)} update the
+ * rank arrays without sorting or filtering the other items again.</li>
+ * </ul>
+ * The rank arrays are never modified after their assignment. Thus the lists
+ * and iterators provided by this class are not affected by later changes.
+ * The price is a copy of the item list and the rank arrays for each added or
+ * removed item. That costs O(n) per item. For bulk changes
+ * {@link #onUpdateCollection()} is the better choice.
+ * <p>
+ * Large lists may get sorted and filtered in parallel. See
+ * {@link #setParallelExecutor(ExecutorService)}.
  *
  * @author olaf boede
  *
  * @param <T_ITEM>
  *          The type of items handled by this set.
  */
-public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
+public class PageableListImpl<T_ITEM> implements IncrementalPageableCollection<T_ITEM>, UnfilteredItemSource<T_ITEM> {
 
   /** Contains the not filtered set of items in their original sort order. */
   private Collection<T_ITEM> originalObjects;
-  /** The filtered set of all items sorted by {@link #initialSortComparator}. */
+  /** The not filtered set of all items sorted by {@link #initialSortComparator}. */
   private List<T_ITEM>       allObjectsInInitialSortOrder;
+  /**
+   * The ranks of all items sorted by {@link #currentSortComparator}.
+   * Is <code>null</code> if not yet calculated for the current sort order.
+   */
+  private int[]              sortedRanks;
+  /** The ranks of the items matching the {@link #currentFilter}. <code>null</code> if there is no filter. */
+  private BitSet             matchingRanks;
+  /** The ranks of the current set of filtered and sorted items. */
+  private int[]              resultRanks;
   /** The current set of filtered and sorted items. */
   private List<T_ITEM>       objects;
   private int                pageSize = 10;
   private int                currentPageIdx;
   private boolean            multiSelect;
-  private Set<T_ITEM>        selectedItems = new LinkedHashSet<T_ITEM>();
+  private ItemIdSelection<T_ITEM> selection = new ItemIdSelection<T_ITEM>();
   private Comparator<T_ITEM> initialSortComparator;
   private Comparator<?>      currentSortComparator;
   private Filter             currentFilter;
+  private ExecutorService    parallelExecutor = PmDefaults.getInstance().getPageableExecutor();
+  private int                parallelism = PmDefaults.getInstance().getPageableParallelism();
+  private int                parallelThreshold = PmDefaults.getInstance().getParallelPageableThreshold();
 
   /**
    * @param objects
@@ -114,6 +152,12 @@ public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
     return objects.iterator();
   }
 
+  @Override
+  public T_ITEM findFirstUnfilteredItem() {
+    List<T_ITEM> all = allObjectsInInitialSortOrder;
+    return all.isEmpty() ? null : all.get(0);
+  }
+
   @Override
   public int getPageSize() {
     return pageSize;
@@ -135,10 +179,25 @@ public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
   }
 
 
+  @SuppressWarnings("unchecked")
   @Override
   public void sortItems(Comparator<?> sortComparator) {
     currentSortComparator = sortComparator;
-    _applyFilterAndSortOrder();
+    sortedRanks = null;
+
+    if (matchingRanks == null) {
+      _assignResult(_getSortedRanks());
+    }
+    else {
+      // Only the filtered items need to be sorted.
+      int[] ranks = (sortComparator == null)
+          ? ItemRanks.fromBits(matchingRanks)
+          : ItemRanks.copyOf(resultRanks, resultRanks.length);
+      if (sortComparator != null) {
+        _sort(ranks, (Comparator<T_ITEM>) sortComparator);
+      }
+      _assignResult(ranks);
+    }
   }
 
   @Override
@@ -164,39 +223,114 @@ public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
     }
 
     this.initialSortComparator = (Comparator<T_ITEM>) initialSortComparator;
-    _assignAllObjectsInInitialSortOrderFromOri();
 
-    // If there is no other active sort order definition, the new default needs to
-    // be applied immediately to the active list of item.
-    if (currentSortComparator == null) {
-      _applyFilterAndSortOrder();
-    }
+    // The item ranks are based on the initial sort order. Thus all rank
+    // based information needs to be re-calculated.
+    onUpdateCollection();
   }
 
   @Override
   public void setItemFilter(Filter filter) {
+    Filter previousFilter = currentFilter;
     currentFilter = filter;
-    _applyFilterAndSortOrder();
+
+    if (filter == null) {
+      matchingRanks = null;
+      _assignResult(_getSortedRanks());
+      return;
+    }
+
+    if (previousFilter != null &&
+        previousFilter != filter &&
+        filter instanceof NarrowingFilter &&
+        ((NarrowingFilter) filter).isNarrowingOf(previousFilter)) {
+      // Only the items of the current result may match the refined filter.
+      BitSet matching = new BitSet(allObjectsInInitialSortOrder.size());
+      for (int r : resultRanks) {
+        if (filter.doesItemMatch(allObjectsInInitialSortOrder.get(r))) {
+          matching.set(r);
+        }
+      }
+      matchingRanks = matching;
+      _assignResult(ItemRanks.retain(resultRanks, matching));
+    }
+    else {
+      matchingRanks = _filter(allObjectsInInitialSortOrder);
+      _assignResult(ItemRanks.retain(_getSortedRanks(), matchingRanks));
+    }
+
+    _deselectHiddenItemIfSingleSelect();
+  }
+
+  /**
+   * Defines an executor that sorts and filters large lists in parallel.
+   * <p>
+   * The result order is the same as the order of a sequential operation.
+   * Comparators and filters must be able to run in threads of the executor.
+   *
+   * @param executor
+   *          The executor to use. <code>null</code> switches to sequential
+   *          operations. The default is defined by
+   *          {@link PmDefaults#getPageableExecutor()}.
+   */
+  public void setParallelExecutor(ExecutorService executor) {
+    this.parallelExecutor = executor;
+  }
+
+  /**
+   * @param parallelism
+   *          The maximum number of partitions a parallel operation uses.
+   */
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @param parallelThreshold
+   *          The minimum number of items to sort or filter that activates a
+   *          parallel operation.
+   */
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
   }
 
   @Override
   public boolean isSelected(T_ITEM item) {
-    return selectedItems.contains(item);
+    return selection.isSelected(item);
   }
 
   @Override
   public void select(T_ITEM item, boolean doSelect) {
     if (doSelect) {
       if (!multiSelect) {
-        selectedItems.clear();
+        selection.clear();
       }
 
       if (item != null) {
-        selectedItems.add(item);
+        selection.select(item, true);
       }
     }
+    else if (item != null) {
+      selection.select(item, false);
+    }
+  }
+
+  /**
+   * Selects all items in constant time if there is no active filter.
+   * Otherwise only the items that match the filter get selected.
+   */
+  @Override
+  public void selectAll(boolean doSelect) {
+    if (!doSelect) {
+      selection.clear();
+    }
+    else if (multiSelect && currentFilter == null) {
+      selection.selectAll();
+    }
     else {
-      selectedItems.remove(item);
+      for (T_ITEM i : objects) {
+        select(i, true);
+      }
     }
   }
 
@@ -210,20 +344,150 @@ public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
     this.multiSelect = isMultiSelect;
   }
 
+  /**
+   * Provides the items that are selected at call time. Later selection
+   * changes don't affect the result. So the selected items may be deselected
+   * or removed while iterating over them.
+   * <p>
+   * If all items are selected, the items get provided on iteration without
+   * copying them.
+   */
   @Override
   public Collection<T_ITEM> getSelectedItems() {
-    return selectedItems;
+    if (!selection.isInverted()) {
+      return selection.getIdsSnapshot();
+    }
+
+    // All items except the deselected ones. Evaluated on iteration.
+    // The item list gets replaced (not modified) on changes.
+    final List<T_ITEM> all = allObjectsInInitialSortOrder;
+    final Set<T_ITEM> deselected = selection.getIdsSnapshot();
+    final int size = selection.getNumOfSelectedItems(all.size());
+    return new AbstractCollection<T_ITEM>() {
+      @Override
+      public Iterator<T_ITEM> iterator() {
+        return new SkippingIterator<T_ITEM>(all.iterator()) {
+          @Override
+          protected boolean isSkipped(T_ITEM item) {
+            return deselected.contains(item);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
   }
 
   @Override
   public void onUpdateCollection() {
-    _assignObjectsFromOri();
-    _applyFilterAndSortOrder();
+    _assignAllObjectsInInitialSortOrderFromOri();
+    sortedRanks = null;
+
+    if (currentFilter != null) {
+      matchingRanks = _filter(allObjectsInInitialSortOrder);
+      _assignResult(ItemRanks.retain(_getSortedRanks(), matchingRanks));
+      _deselectHiddenItemIfSingleSelect();
+    }
+    else {
+      matchingRanks = null;
+      _assignResult(_getSortedRanks());
+    }
   }
 
-  private void _assignObjectsFromOri() {
-    _assignAllObjectsInInitialSortOrderFromOri();
-    this.objects = allObjectsInInitialSortOrder;
+  /**
+   * Inserts the item at the position defined by the initial and current sort
+   * order. The other items don't get sorted or filtered again.
+   * <p>
+   * The new item is not selected, also if all items were selected before.
+   * <p>
+   * Costs O(n) because the item list and the rank arrays get copied. See the
+   * class comment.
+   * <p>
+   * Items that are equal according to the initial sort order get handled as if
+   * the added item was appended to the backing collection.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public void onAddItem(T_ITEM item) {
+    List<T_ITEM> all = allObjectsInInitialSortOrder;
+    int rank = all.size();
+    if (initialSortComparator != null) {
+      // Behind all items that are not greater than the new one.
+      int low = 0;
+      while (low < rank) {
+        int mid = (low + rank) >>> 1;
+        if (initialSortComparator.compare(all.get(mid), item) <= 0) {
+          low = mid + 1;
+        }
+        else {
+          rank = mid;
+        }
+      }
+    }
+
+    List<T_ITEM> newAll = new ArrayList<T_ITEM>(all.size() + 1);
+    newAll.addAll(all.subList(0, rank));
+    newAll.add(item);
+    newAll.addAll(all.subList(rank, all.size()));
+    allObjectsInInitialSortOrder = newAll;
+
+    Comparator<T_ITEM> sortComparator = (Comparator<T_ITEM>) currentSortComparator;
+    boolean matches = true;
+    if (matchingRanks != null) {
+      matches = currentFilter.doesItemMatch(item);
+      matchingRanks = ItemRanks.insertBit(matchingRanks, rank, matches);
+    }
+    if (sortedRanks != null) {
+      int[] ranks = ItemRanks.shiftForInsert(sortedRanks, rank);
+      sortedRanks = ItemRanks.insertAt(ranks, ItemRanks.insertionPos(ranks, rank, newAll, sortComparator), rank);
+    }
+
+    int[] ranks = ItemRanks.shiftForInsert(resultRanks, rank);
+    if (matches) {
+      ranks = ItemRanks.insertAt(ranks, ItemRanks.insertionPos(ranks, rank, newAll, sortComparator), rank);
+    }
+    selection.onAddItem(item);
+    _assignResult(ranks);
+  }
+
+  /**
+   * Removes the item. The other items don't get sorted or filtered again.
+   * <p>
+   * Costs O(n) because the item list and the rank arrays get copied. See the
+   * class comment.
+   */
+  @Override
+  public void onRemoveItem(T_ITEM item) {
+    List<T_ITEM> all = allObjectsInInitialSortOrder;
+    int rank = -1;
+    for (int i = 0; i < all.size(); ++i) {
+      if (all.get(i) == item) {
+        rank = i;
+        break;
+      }
+    }
+    if (rank == -1) {
+      rank = all.indexOf(item);
+      if (rank == -1) {
+        return;
+      }
+    }
+
+    List<T_ITEM> newAll = new ArrayList<T_ITEM>(all);
+    newAll.remove(rank);
+    allObjectsInInitialSortOrder = newAll;
+
+    if (matchingRanks != null) {
+      matchingRanks = ItemRanks.removeBit(matchingRanks, rank);
+    }
+    if (sortedRanks != null) {
+      sortedRanks = ItemRanks.remove(sortedRanks, rank);
+    }
+    selection.remove(all.get(rank));
+    _assignResult(ItemRanks.remove(resultRanks, rank));
   }
 
   @SuppressWarnings("unchecked")
@@ -236,14 +500,38 @@ public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
     }
   }
 
-  private void _applyFilterAndSortOrder() {
-    List<T_ITEM> filteredList = _filter(allObjectsInInitialSortOrder);
-    _sortAndAssignToObjects(filteredList);
+  /**
+   * @return The ranks of all items sorted by {@link #currentSortComparator}.
+   */
+  @SuppressWarnings("unchecked")
+  private int[] _getSortedRanks() {
+    if (sortedRanks == null) {
+      int[] ranks = ItemRanks.identity(allObjectsInInitialSortOrder.size());
+      if (currentSortComparator != null) {
+        _sort(ranks, (Comparator<T_ITEM>) currentSortComparator);
+      }
+      sortedRanks = ranks;
+    }
+    return sortedRanks;
+  }
+
+  private void _sort(int[] ranks, Comparator<T_ITEM> comparator) {
+    if (parallelExecutor != null && ranks.length >= parallelThreshold) {
+      ParallelItemRanks.sort(ranks, allObjectsInInitialSortOrder, comparator, parallelExecutor, parallelism);
+    }
+    else {
+      ItemRanks.sort(ranks, allObjectsInInitialSortOrder, comparator);
+    }
+  }
+
+  private void _assignResult(int[] ranks) {
+    resultRanks = ranks;
+    objects = new RankedItemList<T_ITEM>(allObjectsInInitialSortOrder, ranks);
 
     // XXX olaf: just moves to the last possible page if necessary.
     // The user may want to stay on the page with his selected item.
     // We need to define strategies for application specific definitions.
-    if (currentPageIdx * pageSize >= filteredList.size()) {
+    if (currentPageIdx * pageSize >= ranks.length) {
       currentPageIdx = PageableCollectionUtil.getNumOfPages(this);
     }
 
@@ -255,48 +543,40 @@ public class PageableListImpl<T_ITEM> implements PageableCollection<T_ITEM> {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private void _sortAndAssignToObjects(List<T_ITEM> srcList) {
-    if (currentSortComparator == null) {
-      objects = srcList;
-    } else {
-      // prevent unintended sort operation on the source list.
-      objects = new ArrayList<T_ITEM>(srcList);
-      Collections.sort(objects, (Comparator<T_ITEM>)currentSortComparator);
-    }
-  }
-
-  /** Generates a list of filtered items based on the given list. */
-  private List<T_ITEM> _filter(List<T_ITEM> unfilteredList) {
-    if (currentFilter == null) {
-      return unfilteredList;
+  /** Provides the ranks of the items that match the {@link #currentFilter}. */
+  private BitSet _filter(List<T_ITEM> unfilteredList) {
+    int listSize = unfilteredList.size();
+    if (parallelExecutor != null && listSize >= parallelThreshold) {
+      return ParallelItemRanks.filter(unfilteredList, currentFilter, parallelExecutor, parallelism);
     }
 
-    // remember selected item and clear selection if not multiSelect
-    T_ITEM selectedItem = null;
-    if(!multiSelect) {
-      if(!selectedItems.isEmpty()) {
-        selectedItem = selectedItems.iterator().next();
-        selectedItems.clear();
+    BitSet matching = new BitSet(listSize);
+    for (int i=0; i<listSize; ++i) {
+      if (currentFilter.doesItemMatch(unfilteredList.get(i))) {
+        matching.set(i);
       }
     }
-    List<T_ITEM> filteredList = new ArrayList<T_ITEM>();
-    int listSize = unfilteredList.size();
-    for (int i=0; i<listSize; ++i) {
-      T_ITEM item = unfilteredList.get(i);
-      if (currentFilter.doesItemMatch(item)) {
-        filteredList.add(item);
-        // re-select item if not multiSelect and item is within filtered items
-        if(!multiSelect) {
-          if(item == selectedItem) {
-            select(selectedItem, true);
+    return matching;
+  }
+
+  /**
+   * Clears the selection if not multiSelect and the selected item is not
+   * within the filtered items.
+   */
+  private void _deselectHiddenItemIfSingleSelect() {
+    if (!multiSelect && !selection.isInverted() && !selection.isEmpty()) {
+      T_ITEM selectedItem = selection.getIds().iterator().next();
+      List<T_ITEM> all = allObjectsInInitialSortOrder;
+      for (int i = 0; i < all.size(); ++i) {
+        if (all.get(i) == selectedItem) {
+          if (!matchingRanks.get(i)) {
+            selection.clear();
           }
+          return;
         }
       }
+      selection.clear();
     }
-
-    return filteredList;
   }
 
-
 }
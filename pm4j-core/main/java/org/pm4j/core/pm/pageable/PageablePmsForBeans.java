@@ -1,6 +1,8 @@
 package org.pm4j.core.pm.pageable;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -12,7 +14,9 @@ import org.pm4j.core.pm.PmTable;
 import org.pm4j.core.pm.PmTable.TableChange;
 import org.pm4j.core.pm.api.PmEventApi;
 import org.pm4j.core.pm.api.PmFactoryApi;
+import org.pm4j.core.pm.filter.BeanFilterProvider;
 import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.filter.NarrowingFilter;
 
 /**
  * A {@link PageableItems} instance that provides {@link PmBean} instances in
@@ -28,10 +32,12 @@ import org.pm4j.core.pm.filter.Filter;
  *          {@link PageableCollection} instance.
  */
 // TODO olaf: control/ensure that the PM factory releases the PMs for the beans that are no longer on the current page.
-public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements PageableCollection<T_PM> {
+public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements IncrementalPageableCollection<T_PM> {
 
   private PmTable<T_PM>             pmCtxt;
   private PageableCollection<T_BEAN> beans;
+  /** A PM that is used to analyze the item PM structure. See {@link #getSampleItemPm()}. */
+  private T_PM                      samplePm;
 
   /**
    * Creates a collection backed by the given {@link PageableCollection} of beans.
@@ -99,13 +105,26 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
     beans.setCurrentPageIdx(pageIdx);
   }
 
+  /**
+   * Sorts the beans without creating PMs if the given comparator is a
+   * {@link BeanComparatorProvider} that provides a bean comparator.<br>
+   * Otherwise each compared bean gets represented by its PM.
+   */
   @SuppressWarnings("unchecked")
   @Override
   public void sortItems(Comparator<?> sortComparator) {
-    beans.sortItems(sortComparator != null
-        ? new BeanComparatorBasedOnPmComparator<T_PM, T_BEAN>(
-              (Comparator<T_PM>)sortComparator)
-        : null);
+    Comparator<?> beanComparator = null;
+    if (sortComparator instanceof BeanComparatorProvider) {
+      T_PM samplePm = getSampleItemPm();
+      if (samplePm != null) {
+        beanComparator = ((BeanComparatorProvider)sortComparator).getBeanComparator(samplePm);
+      }
+    }
+
+    if (beanComparator == null && sortComparator != null) {
+      beanComparator = new BeanComparatorBasedOnPmComparator<T_PM, T_BEAN>((Comparator<T_PM>)sortComparator);
+    }
+    beans.sortItems(beanComparator);
   }
 
   @Override
@@ -118,10 +137,23 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
     beans.setInitialBeanSortComparator(comparator);
   }
 
+  /**
+   * Filters the beans without creating PMs if the given filter is a
+   * {@link BeanFilterProvider} that provides a bean filter.<br>
+   * Otherwise each checked bean gets represented by its PM.
+   */
   @Override
   public void setItemFilter(Filter filter) {
+    Filter beanFilter = null;
+    if (filter instanceof BeanFilterProvider) {
+      T_PM samplePm = getSampleItemPm();
+      if (samplePm != null) {
+        beanFilter = ((BeanFilterProvider)filter).getBeanFilter(samplePm);
+      }
+    }
+
     beans.setItemFilter(filter != null
-        ? new BeanFilterBasedOnPmFilter(filter)
+        ? new BeanFilterBasedOnPmFilter(filter, beanFilter)
         : null);
   }
 
@@ -194,6 +226,26 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
     }
   }
 
+  /**
+   * Delegates to the bean collection. The decorators and listeners get
+   * informed only once.
+   */
+  @Override
+  public void selectAll(boolean doSelect) {
+    Collection<PmCommandDecorator> decorators = pmCtxt.getDecorators(TableChange.SELECTION);
+    boolean beforeSuccess = true;
+    for (PmCommandDecorator pmCommandDecorator : decorators) {
+      beforeSuccess = beforeSuccess && pmCommandDecorator.beforeDo(null);
+    }
+    if (beforeSuccess) {
+      PageableCollectionUtil.selectAll(beans, doSelect);
+      for (PmCommandDecorator pmCommandDecorator : decorators) {
+        pmCommandDecorator.afterDo(null);
+      }
+      PmEventApi.firePmEventIfInitialized(pmCtxt, PmEvent.SELECTION_CHANGE);
+    }
+  }
+
   @Override
   public boolean isMultiSelect() {
     return beans.isMultiSelect();
@@ -204,10 +256,46 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
     beans.setMultiSelect(isMultiSelect);
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Provides a view on the beans that are selected at call time. The PMs get
+   * provided on iteration. The size is known without creating PMs.
+   * <p>
+   * Later selection changes don't affect the result. So the selected items
+   * may be deselected or removed while iterating over them.
+   */
   @Override
   public Collection<T_PM> getSelectedItems() {
-    return (Collection<T_PM>) PmFactoryApi.getPmListForBeans(pmCtxt, beans.getSelectedItems(), false);
+    final Collection<T_BEAN> selectedBeans = beans.getSelectedItems();
+    if (selectedBeans.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return new AbstractCollection<T_PM>() {
+      @Override
+      public Iterator<T_PM> iterator() {
+        final Iterator<T_BEAN> beanIterator = selectedBeans.iterator();
+        return new Iterator<T_PM>() {
+          @Override
+          public boolean hasNext() {
+            return beanIterator.hasNext();
+          }
+
+          @Override
+          public T_PM next() {
+            return PmFactoryApi.<T_BEAN, T_PM>getPmForBean(pmCtxt, beanIterator.next());
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return selectedBeans.size();
+      }
+    };
   }
 
   @Override
@@ -215,6 +303,16 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
     beans.onUpdateCollection();
   }
 
+  @Override
+  public void onAddItem(T_PM item) {
+    PageableCollectionUtil.onAddItem(beans, item.getPmBean());
+  }
+
+  @Override
+  public void onRemoveItem(T_PM item) {
+    PageableCollectionUtil.onRemoveItem(beans, item.getPmBean());
+  }
+
   public PageableCollection<T_BEAN> getBeans() {
     return beans;
   }
@@ -223,6 +321,38 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
     this.beans = pageableBeanCollection;
   }
 
+  /**
+   * Provides a PM that may be used to analyze the structure of the item PMs.
+   * <p>
+   * Uses the first bean of the unfiltered collection if the bean collection
+   * provides it. That does not evaluate the current filter and sort settings,
+   * which are usually about to be replaced. The found PM gets remembered for
+   * subsequent calls.
+   *
+   * @return The PM of an item. <code>null</code> if there is no item.
+   */
+  @SuppressWarnings("unchecked")
+  private T_PM getSampleItemPm() {
+    if (samplePm != null) {
+      return samplePm;
+    }
+
+    T_BEAN sampleBean = null;
+    if (beans instanceof UnfilteredItemSource) {
+      sampleBean = ((UnfilteredItemSource<T_BEAN>)beans).findFirstUnfilteredItem();
+    }
+    else {
+      Iterator<T_BEAN> iter = beans.getAllItemsIterator();
+      if (iter.hasNext()) {
+        sampleBean = iter.next();
+      }
+    }
+    if (sampleBean != null) {
+      samplePm = PmFactoryApi.<T_BEAN, T_PM>getPmForBean(pmCtxt, sampleBean);
+    }
+    return samplePm;
+  }
+
   /**
    * A comparator that can compare backing beans based on another comparator
    * that compares the corresponding PMs.
@@ -250,16 +380,34 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
   /**
    * A filter that can compare backing beans based on another filter
    * that compares the corresponding PMs.
+   * <p>
+   * Uses the bean filter provided by the PM filter if there is one. In this
+   * case no PMs are needed to check the beans.
    */
-  class BeanFilterBasedOnPmFilter implements Filter {
+  class BeanFilterBasedOnPmFilter implements NarrowingFilter {
 
     private final Filter pmFilter;
+    private final Filter beanFilter;
 
     public BeanFilterBasedOnPmFilter(Filter pmFilter) {
+      this(pmFilter, null);
+    }
+
+    /**
+     * @param pmFilter
+     *          The filter for the PMs.
+     * @param beanFilter
+     *          An equivalent filter for the beans. May be <code>null</code>.
+     */
+    public BeanFilterBasedOnPmFilter(Filter pmFilter, Filter beanFilter) {
       this.pmFilter = pmFilter;
+      this.beanFilter = beanFilter;
     }
 
     public boolean doesItemMatch(Object item) {
+      if (beanFilter != null) {
+        return beanFilter.doesItemMatch(item);
+      }
       PmBean<Object> itemPm = PmFactoryApi.<Object, PmBean<Object>>getPmForBean(pmCtxt, item);
       return pmFilter.doesItemMatch(itemPm);
     }
@@ -269,6 +417,13 @@ public class PageablePmsForBeans<T_PM extends PmBean<T_BEAN>, T_BEAN> implements
       return true;
     }
 
+    @Override
+    public boolean isNarrowingOf(Filter previousFilter) {
+      return (pmFilter instanceof NarrowingFilter) &&
+             (previousFilter instanceof PageablePmsForBeans.BeanFilterBasedOnPmFilter) &&
+             ((NarrowingFilter) pmFilter).isNarrowingOf(((PageablePmsForBeans.BeanFilterBasedOnPmFilter) previousFilter).pmFilter);
+    }
+
   }
 
 }
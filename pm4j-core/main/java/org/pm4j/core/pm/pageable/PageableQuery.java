@@ -0,0 +1,48 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.Comparator;
+
+import org.pm4j.core.pm.filter.Filter;
+
+/**
+ * The sort and filter definition a {@link PageableDataProvider} is asked
+ * for.
+ * <p>
+ * A new instance gets created for each sort or filter change. Providers may
+ * use that to cache the result of the last query.
+ *
+ * @author olaf boede
+ */
+public final class PageableQuery {
+
+  private final Comparator<?> sortComparator;
+  private final Filter filter;
+
+  /**
+   * @param sortComparator
+   *          The item sort order. May be <code>null</code>.
+   * @param filter
+   *          The item filter. May be <code>null</code>.
+   */
+  public PageableQuery(Comparator<?> sortComparator, Filter filter) {
+    this.sortComparator = sortComparator;
+    this.filter = filter;
+  }
+
+  /**
+   * @return The item sort order. <code>null</code> if the items should be
+   *         provided in their natural order.
+   */
+  public Comparator<?> getSortComparator() {
+    return sortComparator;
+  }
+
+  /**
+   * @return The item filter. <code>null</code> if all items should be
+   *         provided.
+   */
+  public Filter getFilter() {
+    return filter;
+  }
+
+}
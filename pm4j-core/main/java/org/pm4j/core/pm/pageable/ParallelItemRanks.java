@@ -0,0 +1,189 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.impl.PmParallelTasks;
+
+/**
+ * Parallel versions of the sort and filter operations of {@link ItemRanks}.
+ * <p>
+ * The work gets split into contiguous partitions. The first partition of each
+ * step gets handled by the calling thread.
+ * <p>
+ * The results are identical to the sequential operations because items that
+ * are equal according to the comparator get ordered by their rank.
+ *
+ * @author olaf boede
+ */
+final class ParallelItemRanks {
+
+  /** Partitions smaller than this are not worth a task. */
+  static final int MIN_PARTITION_SIZE = 1024;
+
+  private static final String FAILURE_MSG = "Parallel sort or filter operation failed.";
+
+  /**
+   * Sorts the given ranks by the referenced items.
+   * <p>
+   * Each partition gets sorted separately. The sorted partitions get merged
+   * pairwise. Each merge is split into independent segments to keep all
+   * threads busy up to the last merge step.
+   */
+  static <T> void sort(final int[] ranks, final List<T> items, final Comparator<? super T> comparator,
+      ExecutorService executor, int parallelism) {
+    final int size = ranks.length;
+    int numOfPartitions = Math.min(parallelism, size / MIN_PARTITION_SIZE);
+    if (numOfPartitions < 2) {
+      ItemRanks.sort(ranks, items, comparator);
+      return;
+    }
+
+    final int[] bounds = new int[numOfPartitions + 1];
+    for (int i = 0; i <= numOfPartitions; ++i) {
+      bounds[i] = (int) ((long) size * i / numOfPartitions);
+    }
+
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numOfPartitions);
+    for (int i = 0; i < numOfPartitions; ++i) {
+      final int from = bounds[i];
+      final int to = bounds[i + 1];
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          ItemRanks.sort(ranks, from, to, items, comparator);
+          return null;
+        }
+      });
+    }
+    PmParallelTasks.runAll(tasks, executor, FAILURE_MSG);
+
+    int[] src = ranks;
+    int[] dest = new int[size];
+    for (int width = 1; width < numOfPartitions; width *= 2) {
+      tasks.clear();
+      int numOfMerges = (numOfPartitions + 2 * width - 1) / (2 * width);
+      int segmentsPerMerge = Math.max(1, parallelism / numOfMerges);
+      for (int i = 0; i < numOfPartitions; i += 2 * width) {
+        int from = bounds[i];
+        int mid = bounds[Math.min(i + width, numOfPartitions)];
+        int to = bounds[Math.min(i + 2 * width, numOfPartitions)];
+        addMergeTasks(tasks, src, dest, from, mid, to, segmentsPerMerge, items, comparator);
+      }
+      PmParallelTasks.runAll(tasks, executor, FAILURE_MSG);
+
+      int[] tmp = src;
+      src = dest;
+      dest = tmp;
+    }
+
+    if (src != ranks) {
+      System.arraycopy(src, 0, ranks, 0, size);
+    }
+  }
+
+  /**
+   * Checks all items against the given filter.
+   *
+   * @return The ranks of the matching items.
+   */
+  static <T> BitSet filter(final List<T> items, final Filter filter, ExecutorService executor, int parallelism) {
+    int size = items.size();
+    int numOfPartitions = Math.min(parallelism, size / MIN_PARTITION_SIZE);
+    final BitSet[] partitionResults = new BitSet[Math.max(1, numOfPartitions)];
+
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(partitionResults.length);
+    for (int i = 0; i < partitionResults.length; ++i) {
+      final int partitionIdx = i;
+      final int from = (int) ((long) size * i / partitionResults.length);
+      final int to = (int) ((long) size * (i + 1) / partitionResults.length);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          BitSet matching = new BitSet(to);
+          for (int r = from; r < to; ++r) {
+            if (filter.doesItemMatch(items.get(r))) {
+              matching.set(r);
+            }
+          }
+          partitionResults[partitionIdx] = matching;
+          return null;
+        }
+      });
+    }
+    PmParallelTasks.runAll(tasks, executor, FAILURE_MSG);
+
+    BitSet matching = partitionResults[0];
+    for (int i = 1; i < partitionResults.length; ++i) {
+      matching.or(partitionResults[i]);
+    }
+    return matching;
+  }
+
+  /**
+   * Splits the merge of <code>src[from, mid[</code> and <code>src[mid, to[</code>
+   * into independent segments. The split points of the first range define
+   * the split points of the second range.
+   */
+  private static <T> void addMergeTasks(List<Callable<Void>> tasks, final int[] src, final int[] dest,
+      int from, int mid, int to, int numOfSegments, final List<T> items, final Comparator<? super T> comparator) {
+    int aLow = from;
+    int bLow = mid;
+    for (int s = 1; s <= numOfSegments; ++s) {
+      int aHigh;
+      int bHigh;
+      if (s == numOfSegments) {
+        aHigh = mid;
+        bHigh = to;
+      }
+      else {
+        aHigh = from + (int) ((long) (mid - from) * s / numOfSegments);
+        bHigh = (aHigh < mid)
+            ? lowerBound(src, bLow, to, src[aHigh], items, comparator)
+            : to;
+      }
+
+      final int a0 = aLow, a1 = aHigh, b0 = bLow, b1 = bHigh;
+      final int destLow = from + (a0 - from) + (b0 - mid);
+      if (a1 > a0 || b1 > b0) {
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() {
+            ItemRanks.mergeRanges(src, a0, a1, b0, b1, dest, destLow, items, comparator);
+            return null;
+          }
+        });
+      }
+      aLow = aHigh;
+      bLow = bHigh;
+    }
+  }
+
+  /**
+   * @return The first position within the sorted range <code>ranks[from, to[</code>
+   *         that refers to an item that is not less than the item with the given rank.
+   */
+  private static <T> int lowerBound(int[] ranks, int from, int to, int rank, List<T> items, Comparator<? super T> comparator) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (ItemRanks.compare(items, comparator, ranks[mid], rank) < 0) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private ParallelItemRanks() {
+  }
+
+}
@@ -0,0 +1,59 @@
+package org.pm4j.core.pm.pageable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator that skips some items of a backing iterator.
+ *
+ * @author olaf boede
+ *
+ * @param <T>
+ *          The item type.
+ */
+abstract class SkippingIterator<T> implements Iterator<T> {
+
+  private final Iterator<T> backingIterator;
+  private T next;
+  private boolean hasNext;
+
+  public SkippingIterator(Iterator<T> backingIterator) {
+    this.backingIterator = backingIterator;
+  }
+
+  /**
+   * @param item
+   *          An item of the backing iterator.
+   * @return <code>true</code> if the item should not be provided.
+   */
+  protected abstract boolean isSkipped(T item);
+
+  @Override
+  public boolean hasNext() {
+    while (!hasNext && backingIterator.hasNext()) {
+      T item = backingIterator.next();
+      if (!isSkipped(item)) {
+        next = item;
+        hasNext = true;
+      }
+    }
+    return hasNext;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    hasNext = false;
+    T item = next;
+    next = null;
+    return item;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+}
@@ -0,0 +1,20 @@
+package org.pm4j.core.pm.pageable;
+
+/**
+ * Interface for collections that provide an item without applying the
+ * current filter and sort settings.
+ * <p>
+ * Allows {@link PageablePmsForBeans} to analyze the item structure without
+ * evaluating a filter that is about to be replaced.
+ *
+ * @author olaf boede
+ */
+interface UnfilteredItemSource<T_ITEM> {
+
+  /**
+   * @return The first item of the unfiltered collection. <code>null</code> if
+   *         the collection is empty.
+   */
+  T_ITEM findFirstUnfilteredItem();
+
+}
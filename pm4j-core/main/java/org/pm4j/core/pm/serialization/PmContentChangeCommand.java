@@ -2,7 +2,9 @@ package org.pm4j.core.pm.serialization;
 
 import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
 import org.pm4j.core.pm.impl.PmCommandImpl;
+import org.pm4j.core.pm.impl.PmEventBatch;
 
 public class PmContentChangeCommand extends PmCommandImpl {
 
@@ -17,7 +19,13 @@ public class PmContentChangeCommand extends PmCommandImpl {
   public PmCommand doIt() {
     if (content != null) {
       PmContentSetVisitor v = new PmContentSetVisitor(this, content);
-      getPmParent().accept(v);
+      PmEventBatch batch = PmEventApi.beginEventBatch();
+      try {
+        getPmParent().accept(v);
+      }
+      finally {
+        batch.end();
+      }
       getPmConversation().getPmCommandHistory().commandDone(this);
     }
 
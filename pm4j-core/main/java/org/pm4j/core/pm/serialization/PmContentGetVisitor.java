@@ -7,6 +7,7 @@ import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmElement;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.PmTreeNode;
+import org.pm4j.core.pm.impl.PmChildKind;
 import org.pm4j.core.pm.impl.PmUtil;
 import org.pm4j.core.pm.impl.PmVisitorAdapter;
 
@@ -45,7 +46,8 @@ public class PmContentGetVisitor extends PmVisitorAdapter {
 
   @Override
   protected void onVisit(PmObject pm) {
-    for (PmObject child : PmUtil.getPmChildren(pm)) {
+    for (int i = 0, n = PmUtil.getPmChildCount(pm, PmChildKind.ALL); i < n; ++i) {
+      PmObject child = PmUtil.getPmChild(pm, PmChildKind.ALL, i);
       if ((!contentCfg.isOnlyVisibleItems()) || child.isPmVisible()) {
         PmContentContainer c = contentContainer.addNamedChildContent(child.getPmName());
         child.accept(new PmContentGetVisitor(contentCfg, c));
@@ -7,6 +7,7 @@ import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmAspect;
 import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.impl.PmChildKind;
 import org.pm4j.core.pm.impl.PmUtil;
 import org.pm4j.core.pm.impl.PmVisitorAdapter;
 
@@ -23,7 +24,8 @@ public class PmContentSetVisitor extends PmVisitorAdapter {
 
   @Override
   protected void onVisit(PmObject pm) {
-    for (PmObject child : PmUtil.getPmChildren(pm)) {
+    for (int i = 0, n = PmUtil.getPmChildCount(pm, PmChildKind.ALL); i < n; ++i) {
+      PmObject child = PmUtil.getPmChild(pm, PmChildKind.ALL, i);
       PmContentContainer c = contentContainer.getNamedChildContentMap().get(child.getPmName());
       if (c != null) {
         child.accept(new PmContentSetVisitor(eventSource, c));
@@ -0,0 +1,70 @@
+package org.pm4j.core.util.reflection;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Provides shared {@link BeanAttrAccessor} instances.
+ * <p>
+ * The accessors are created once for each bean class and attribute name.
+ * This prevents repeated method and field lookups for expressions and
+ * reflection paths that get resolved at runtime.
+ * <p>
+ * The provided accessors are thread safe.
+ * <p>
+ * The cache does not prevent unloading the bean classes: The classes are weak
+ * keys. The accessors of a class refer to its methods and fields. That's why
+ * they are softly referenced. Otherwise they would keep their class key alive.
+ *
+ * @author olaf boede
+ */
+public final class BeanAttrAccessorFactory {
+
+  private static final Map<Class<?>, SoftReference<ConcurrentMap<String, BeanAttrAccessor>>> classToAccessorsMap =
+      Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<ConcurrentMap<String, BeanAttrAccessor>>>());
+
+  private BeanAttrAccessorFactory() {
+  }
+
+  /**
+   * Provides an accessor that uses the getter/setter or (if there is no
+   * getter) the field of the given name.
+   *
+   * @param beanClass
+   *          The class to access.
+   * @param attrName
+   *          The attribute name.
+   * @return The shared accessor.
+   * @throws ReflectionException
+   *           if there is no getter or field for the given name.
+   */
+  public static BeanAttrAccessor getAccessor(Class<?> beanClass, String attrName) {
+    ConcurrentMap<String, BeanAttrAccessor> attrToAccessorMap = getAttrToAccessorMap(beanClass);
+    BeanAttrAccessor a = attrToAccessorMap.get(attrName);
+    if (a == null) {
+      a = new BeanAttrAccessorImpl(beanClass, attrName);
+      BeanAttrAccessor existingAccessor = attrToAccessorMap.putIfAbsent(attrName, a);
+      if (existingAccessor != null) {
+        a = existingAccessor;
+      }
+    }
+    return a;
+  }
+
+  private static ConcurrentMap<String, BeanAttrAccessor> getAttrToAccessorMap(Class<?> beanClass) {
+    synchronized (classToAccessorsMap) {
+      SoftReference<ConcurrentMap<String, BeanAttrAccessor>> ref = classToAccessorsMap.get(beanClass);
+      ConcurrentMap<String, BeanAttrAccessor> map = (ref != null) ? ref.get() : null;
+      if (map == null) {
+        map = new ConcurrentHashMap<String, BeanAttrAccessor>();
+        classToAccessorsMap.put(beanClass, new SoftReference<ConcurrentMap<String, BeanAttrAccessor>>(map));
+      }
+      return map;
+    }
+  }
+
+}
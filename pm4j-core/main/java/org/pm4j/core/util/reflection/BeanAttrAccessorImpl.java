@@ -67,8 +67,12 @@ public class BeanAttrAccessorImpl implements BeanAttrAccessor {
 
     if (this.getterMethod != null) {
       this.fieldClass = getterMethod.getReturnType();
+      makeAccessible(getterMethod);
 
       this.setterMethod = findPublicSetter(fieldName, this.fieldClass);
+      if (setterMethod != null) {
+        makeAccessible(setterMethod);
+      }
 
       if (setterMethod == null &&
           LOGGER.isTraceEnabled()) {
@@ -155,11 +159,7 @@ public class BeanAttrAccessorImpl implements BeanAttrAccessor {
   public <T> T getBeanAttrValue(Object bean) {
     if (getterMethod != null) {
       try {
-        Method m = getGetterMethod(bean);
-        if (! m.isAccessible()) {
-          m.setAccessible(true);
-        }
-        return (T) m.invoke(bean, (Object[]) null);
+        return (T) getGetterMethod(bean).invoke(bean, (Object[]) null);
       }
       catch (Exception e) {
         throw new ReflectionException(makeErrMsg("Unable to use method '" + getterMethod.getName()
@@ -231,16 +231,21 @@ public class BeanAttrAccessorImpl implements BeanAttrAccessor {
 
   /**
    * Provides the cached getter method.
+   * <p>
+   * The getter of the bean class handles also the instances of sub classes,
+   * because the method call gets dispatched to the overriding method. The
+   * class specific map is only needed for beans of other classes that
+   * provide a getter with the same name.
    *
    * @param bean The bean to get it for.
    * @return The getter.
    */
   private final Method getGetterMethod(Object bean) {
-    Class<?> foundBeanClass = bean.getClass();
-    if (foundBeanClass.equals(getterMethod.getDeclaringClass())) {
+    if (getterMethod.getDeclaringClass().isInstance(bean)) {
       return getterMethod;
     }
     else {
+      Class<?> foundBeanClass = bean.getClass();
       Method getMethod = classToGetterMap.get(foundBeanClass);
       if (getMethod == null) {
         getMethod = findPublicMethod(foundBeanClass, getterMethod.getName());
@@ -248,6 +253,7 @@ public class BeanAttrAccessorImpl implements BeanAttrAccessor {
           throw new ReflectionException(makeErrMsg(
               "Unable to find method '" + getterMethod.getName() + "' in class '" + foundBeanClass + "'."));
         }
+        makeAccessible(getMethod);
         classToGetterMap.put(foundBeanClass, getMethod);
       }
       return getMethod;
@@ -261,11 +267,11 @@ public class BeanAttrAccessorImpl implements BeanAttrAccessor {
    * @return The getter.
    */
   private final Method getSetterMethod(Object bean) {
-    Class<?> foundBeanClass = bean.getClass();
-    if (foundBeanClass.equals(setterMethod.getDeclaringClass())) {
+    if (setterMethod.getDeclaringClass().isInstance(bean)) {
       return setterMethod;
     }
     else {
+      Class<?> foundBeanClass = bean.getClass();
       Method m = classToSetterMap.get(foundBeanClass);
       if (m == null) {
         m = findPublicMethod(foundBeanClass, setterMethod.getName(), fieldClass);
@@ -273,12 +279,30 @@ public class BeanAttrAccessorImpl implements BeanAttrAccessor {
           throw new ReflectionException(makeErrMsg(
               "Unable to find method '" + setterMethod.getName() + "' in class '" + foundBeanClass + "'."));
         }
+        makeAccessible(m);
         classToSetterMap.put(foundBeanClass, m);
       }
       return m;
     }
   }
 
+  /**
+   * Switches the access checks of {@link Method#invoke(Object, Object...)} off.
+   * That's required for public methods of non-public classes and makes the
+   * calls faster.<br>
+   * Under a strict security management the checks stay active.
+   */
+  private static void makeAccessible(Method m) {
+    if (! m.isAccessible()) {
+      try {
+        m.setAccessible(true);
+      }
+      catch (SecurityException e) {
+        LOGGER.debug("Unable to switch the access check for method '" + m + "' off.", e);
+      }
+    }
+  }
+
   /**
    * Generates an error message string based on the field information.
    *
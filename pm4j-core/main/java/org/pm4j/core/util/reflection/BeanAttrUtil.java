@@ -20,8 +20,7 @@ public class BeanAttrUtil {
 
     String attrName = StringUtils.substringBefore(path, TERM_STRING);
 
-    // XXX: Check if it's useful to manage a static accessor map to improve performance.
-    BeanAttrAccessor a = new BeanAttrAccessorImpl(startObject.getClass(), attrName);
+    BeanAttrAccessor a = BeanAttrAccessorFactory.getAccessor(startObject.getClass(), attrName);
     Object refedObj = a.getBeanAttrValue(startObject);
 
     if (attrName.length() == path.length()) {
@@ -404,6 +404,29 @@ public class ClassUtil {
     return matches;
   }
 
+  /**
+   * Finds the most specific class of a class hierarchy that declares a method
+   * with the given name.<br>
+   * Allows to check if a sub class re-defines a method.
+   *
+   * @param inClass
+   *          The class to start the search with.
+   * @param methodName
+   *          Name of the method to find.
+   * @return The found class or <code>null</code> if there is no method with
+   *         the given name.
+   */
+  public static Class<?> findMethodDeclaringClass(Class<?> inClass, String methodName) {
+    for (Class<?> c = inClass; c != null; c = c.getSuperclass()) {
+      for (Method m : c.getDeclaredMethods()) {
+        if (m.getName().equals(methodName)) {
+          return c;
+        }
+      }
+    }
+    return null;
+  }
+
   /**
    * Finds a field by name within the given class and its super-classes.<br>
    * Provides private fields too.
@@ -1,5 +1,8 @@
 package org.pm4j.core.pm;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 import org.pm4j.core.pm.annotation.PmAttrCfg;
@@ -12,6 +15,12 @@ import org.pm4j.core.pm.impl.PmAttrStringImpl;
 import org.pm4j.core.pm.impl.PmBeanBase;
 import org.pm4j.core.pm.impl.PmElementBase;
 import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.pm.impl.cache.PmCacheLog;
+import org.pm4j.core.pm.impl.cache.PmCacheMetrics;
+import org.pm4j.core.pm.impl.cache.PmCacheMetrics.Counter;
+import org.pm4j.core.pm.impl.cache.PmCacheStatistics;
+import org.pm4j.core.pm.impl.connector.PmToNoViewTechnologyConnector;
 
 public class PmAttrCacheTest extends TestCase {
 
@@ -40,6 +49,38 @@ public class PmAttrCacheTest extends TestCase {
     /** The attribut class wants to cache but the atttribute declaration switches off. */
     @PmCacheCfg(all=CacheMode.OFF) @PmAttrCfg(valuePath="pmBean.s")
     public final PmAttrString sClassCacheSwitchedOff = new MyCachedAttrClass(this);
+
+    @PmCacheCfg(value=CacheMode.REQUEST) @PmAttrCfg(valuePath="pmBean.s")
+    public final PmAttrString sRequestCached = new PmAttrStringImpl(this);
+
+    @PmCacheCfg(value=CacheMode.SESSION) @PmAttrCfg(valuePath="pmBean.s")
+    public final PmAttrString sSessionCached = new PmAttrStringImpl(this);
+
+    @PmCacheCfg(value=CacheMode.TTL, ttlMillis=50) @PmAttrCfg(valuePath="pmBean.s")
+    public final PmAttrString sTtlCached = new PmAttrStringImpl(this);
+
+    /** Gets cleared on value changes of attribute 's'. */
+    @PmCacheCfg(value=CacheMode.ON, clearOnEventOf="s") @PmAttrCfg(valuePath="pmBean.s")
+    public final PmAttrString sClearedOnChangeOfS = new PmAttrStringImpl(this);
+  }
+
+  /** Provides request attributes that live until the next {@link #newRequest()} call. */
+  public static class MyRequestConnector extends PmToNoViewTechnologyConnector {
+    private Map<String, Object> requestAttrMap = new HashMap<String, Object>();
+
+    public void newRequest() {
+      requestAttrMap = new HashMap<String, Object>();
+    }
+
+    @Override
+    public Object readRequestAttribute(String attrName) {
+      return requestAttrMap.get(attrName);
+    }
+
+    @Override
+    public void setRequestAttribute(String attrName, Object value) {
+      requestAttrMap.put(attrName, value);
+    }
   }
 
   @PmCacheCfg(all=CacheMode.ON)
@@ -77,4 +118,120 @@ public class PmAttrCacheTest extends TestCase {
     assertEquals(p.s, pPm.sClassCacheSwitchedOff.getValue());
   }
 
+  public void testRequestCache() {
+    PmConversationImpl session = new PmConversationImpl(MyPojoPm.class);
+    MyRequestConnector connector = new MyRequestConnector();
+    session.setPmToViewTechnologyConnector(connector);
+    MyPojo p1 = new MyPojo();
+    MyPojo p2 = new MyPojo();
+    MyPojoPm p1Pm = PmFactoryApi.getPmForBean(session, p1);
+    MyPojoPm p2Pm = PmFactoryApi.getPmForBean(session, p2);
+
+    p1.s = "abc";
+    p2.s = "def";
+    assertEquals("abc", p1Pm.sRequestCached.getValue());
+    assertEquals("Each PM instance has its own request cache entry.", "def", p2Pm.sRequestCached.getValue());
+
+    p1.s = "123";
+    assertEquals("Cached within the same request.", "abc", p1Pm.sRequestCached.getValue());
+
+    connector.newRequest();
+    assertEquals("The next request reads the new value.", "123", p1Pm.sRequestCached.getValue());
+
+    p1.s = "456";
+    PmCacheApi.clearCachedPmValues(p1Pm);
+    assertEquals("456", p1Pm.sRequestCached.getValue());
+  }
+
+  public void testRequestCacheWithoutRequestAttributeStorage() {
+    assertFalse(new PmToNoViewTechnologyConnector().isRequestAttributeStorageSupported());
+    assertTrue(new MyRequestConnector().isRequestAttributeStorageSupported());
+
+    PmConversationImpl session = new PmConversationImpl(MyPojoPm.class);
+    MyPojo p = new MyPojo();
+    MyPojoPm pPm = PmFactoryApi.getPmForBean(session, p);
+
+    p.s = "abc";
+    assertEquals("abc", pPm.sRequestCached.getValue());
+
+    p.s = "123";
+    assertEquals("Nothing gets cached if the connector does not store request attributes.", "123", pPm.sRequestCached.getValue());
+  }
+
+  public void testSessionCache() {
+    PmCacheStatistics stat = PmCacheLog.INSTANCE.getPmCacheStatistics("CACHE_VALUE_IN_SESSION");
+    stat.reset();
+    PmConversationImpl session = new PmConversationImpl(MyPojoPm.class);
+    session.getPmDefaults().setSessionCacheMaxEntries(1);
+    try {
+      MyPojo p1 = new MyPojo();
+      MyPojo p2 = new MyPojo();
+      MyPojoPm p1Pm = PmFactoryApi.getPmForBean(session, p1);
+      MyPojoPm p2Pm = PmFactoryApi.getPmForBean(session, p2);
+
+      p1.s = "abc";
+      assertEquals("abc", p1Pm.sSessionCached.getValue());
+      p1.s = "123";
+      assertEquals("Cached within the conversation.", "abc", p1Pm.sSessionCached.getValue());
+      assertEquals(1, stat.getHitCount());
+      assertEquals(1, stat.getMissCount());
+
+      p2.s = "def";
+      assertEquals("def", p2Pm.sSessionCached.getValue());
+      assertEquals("The cache holds only one entry.", 1, stat.getEvictionCount());
+      assertEquals("The evicted value gets re-read.", "123", p1Pm.sSessionCached.getValue());
+    }
+    finally {
+      session.getPmDefaults().setSessionCacheMaxEntries(1000);
+    }
+  }
+
+  public void testTtlCache() throws InterruptedException {
+    MyPojo p = new MyPojo();
+    MyPojoPm pPm = PmFactoryApi.getPmForBean(new PmConversationImpl(MyPojoPm.class), p);
+
+    p.s = "abc";
+    assertEquals("abc", pPm.sTtlCached.getValue());
+    p.s = "123";
+    assertEquals("Cached within the time to live.", "abc", pPm.sTtlCached.getValue());
+
+    Thread.sleep(60);
+    assertEquals("Expired after the time to live.", "123", pPm.sTtlCached.getValue());
+  }
+
+  public void testCacheClearOnEventOf() {
+    MyPojo p = new MyPojo();
+    MyPojoPm pPm = PmFactoryApi.getPmForBean(new PmConversationImpl(MyPojoPm.class), p);
+
+    p.s = "abc";
+    assertEquals("abc", pPm.sClearedOnChangeOfS.getValue());
+    p.s = "123";
+    assertEquals("abc", pPm.sClearedOnChangeOfS.getValue());
+
+    // The weakly registered listener lives as long as the PM that owns it.
+    System.gc();
+    pPm.s.setValue("456");
+    assertEquals("The value change event of 's' clears the cache.", "456", pPm.sClearedOnChangeOfS.getValue());
+  }
+
+  public void testCacheMetrics() {
+    MyPojo p = new MyPojo();
+    MyPojoPm pPm = PmFactoryApi.getPmForBean(new PmConversationImpl(MyPojoPm.class), p);
+    p.s = "abc";
+    pPm.sCached.getValue();
+
+    PmCacheMetrics m = PmCacheLog.INSTANCE.getPmCacheMetrics(PmUtil.getAbsoluteName(pPm.sCached));
+    m.reset();
+    PmCacheApi.clearCachedPmValues(pPm.sCached);
+    pPm.sCached.getValue();
+    pPm.sCached.getValue();
+    pPm.sCached.getValue();
+
+    assertEquals(2, m.getCount(PmCacheApi.CacheKind.VALUE, Counter.HIT));
+    assertEquals(1, m.getCount(PmCacheApi.CacheKind.VALUE, Counter.MISS));
+    assertEquals(1, m.getCount(PmCacheApi.CacheKind.VALUE, Counter.INIT));
+    assertEquals(1, m.getCount(PmCacheApi.CacheKind.VALUE, Counter.CLEAR));
+    assertTrue(PmCacheLog.INSTANCE.getSnapshot().contains(m.toString()));
+  }
+
 }
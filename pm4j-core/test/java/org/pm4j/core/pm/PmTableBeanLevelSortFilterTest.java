@@ -0,0 +1,216 @@
+package org.pm4j.core.pm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.annotation.FilterByCfg;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.annotation.PmTableColCfg;
+import org.pm4j.core.pm.api.PmFactoryApi;
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.filter.FilterByDefinition;
+import org.pm4j.core.pm.filter.FilterItem;
+import org.pm4j.core.pm.filter.impl.CompOpGt;
+import org.pm4j.core.pm.filter.impl.CompOpStringStartsWith;
+import org.pm4j.core.pm.filter.impl.FilterByPmAttrValue;
+import org.pm4j.core.pm.filter.impl.FilterItemFilter;
+import org.pm4j.core.pm.impl.PmAttrIntegerImpl;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmBeanBase;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmTableColImpl;
+import org.pm4j.core.pm.impl.PmTableImpl;
+import org.pm4j.core.pm.pageable.PageableListImpl;
+import org.pm4j.core.pm.pageable.PageablePmsForBeans;
+
+/**
+ * Tests that tables with plain bean bound columns get sorted and filtered
+ * without creating PMs for the rows that are not on the current page.
+ *
+ * @author olaf boede
+ */
+public class PmTableBeanLevelSortFilterTest {
+
+  @PmFactoryCfg(beanPmClasses=RowPm.class)
+  public static class TablePm extends PmTableImpl<RowPm> {
+    @PmTableColCfg(filterBy=@FilterByCfg())
+    public final PmTableCol name = new PmTableColImpl(this);
+
+    @PmTableColCfg(filterBy=@FilterByCfg(value=FilterByPmAttrValue.class, valueAttrPm=PmAttrIntegerImpl.class))
+    public final PmTableCol counter = new PmTableColImpl(this);
+
+    public final PmTableCol upperName = new PmTableColImpl(this);
+
+    public final PmTableCol code = new PmTableColImpl(this);
+
+    public final PmTableCol alias = new PmTableColImpl(this);
+
+    public TablePm(PmObject pmParent) { super(pmParent); }
+  }
+
+  @PmBeanCfg(beanClass=RowBean.class)
+  public static class RowPm extends PmBeanBase<RowBean> {
+    public final PmAttrString name = new PmAttrStringImpl(this);
+    public final PmAttrInteger counter = new PmAttrIntegerImpl(this);
+
+    /** A calculated value. Can't be compared without PM. */
+    public final PmAttrString upperName = new PmAttrStringImpl(this) {
+      @Override
+      protected String getBackingValueImpl() {
+        return getPmBean().name.toUpperCase();
+      }
+    };
+
+    /** A bean bound attribute with a re-defined localization. Can't be compared without PM. */
+    public final PmAttrString code = new PmAttrStringImpl(this) {
+      @Override
+      public String getValueLocalized() {
+        return new StringBuilder(getValue()).reverse().toString();
+      }
+    };
+
+    /** The value calculation is defined by a super class. Can't be compared without PM. */
+    public final PmAttrString alias = new CalculatedAliasAttr(this) {};
+  }
+
+  /** Provides an alias that is calculated from the counter. Its order is the reverse counter order. */
+  public static class CalculatedAliasAttr extends PmAttrStringImpl {
+    public CalculatedAliasAttr(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected String getBackingValueImpl() {
+      return "x" + (20000 - ((RowPm) getPmParent()).getPmBean().counter);
+    }
+  }
+
+  public static class RowBean {
+    public String name;
+    public Integer counter;
+    public String code;
+    public String alias;
+
+    public RowBean(String name, int counter) {
+      this.name = name;
+      this.counter = counter;
+      this.code = name;
+      this.alias = name;
+    }
+  }
+
+  private static final int NUM_OF_ROWS = 1000;
+
+  private TablePm tablePm;
+  private List<RowBean> beans;
+
+  @Before
+  public void setUp() {
+    beans = new ArrayList<RowBean>();
+    for (int i = 0; i < NUM_OF_ROWS; ++i) {
+      beans.add(new RowBean("n" + (10000 + i), i));
+    }
+
+    tablePm = new TablePm(new PmConversationImpl());
+    tablePm.setPageableCollection(new PageablePmsForBeans<RowPm, RowBean>(tablePm, beans), false);
+    tablePm.getPageableCollection().setPageSize(10);
+  }
+
+  @Test
+  public void testSortByPlainBeanAttributeCreatesOnlyPmsForThePage() {
+    tablePm.name.getSortOrderAttr().setValue(PmSortOrder.DESC);
+
+    List<RowPm> rows = tablePm.getRows();
+    assertEquals(10, rows.size());
+    assertEquals("n10999", rows.get(0).name.getValue());
+    assertEquals("n10990", rows.get(9).name.getValue());
+    assertNull("A row that is not on the page has no PM.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+
+    tablePm.counter.getSortOrderAttr().setValue(PmSortOrder.ASC);
+    assertEquals(Integer.valueOf(0), tablePm.getRows().get(0).counter.getValue());
+    assertNull("A row that is not on the page has no PM.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+  }
+
+  @Test
+  public void testFilterByPlainBeanAttributesCreatesOnlyPmsForThePage() {
+    FilterItem counterItem = new FilterItem();
+    counterItem.setFilterBy(getFilterByDefinition(tablePm.counter));
+    counterItem.setCompOp(new CompOpGt(tablePm.counter));
+    counterItem.setFilterByValue("989");
+    tablePm.setFilter("counter", new FilterItemFilter(counterItem));
+
+    FilterItem nameItem = new FilterItem();
+    nameItem.setFilterBy(getFilterByDefinition(tablePm.name));
+    nameItem.setCompOp(new CompOpStringStartsWith(tablePm.name));
+    nameItem.setFilterByValue("n1099");
+    tablePm.setFilter("name", new FilterItemFilter(nameItem));
+
+    List<RowPm> rows = tablePm.getRows();
+    assertEquals("Only the counters 990..999 pass both filters.", 10, rows.size());
+    assertEquals("n10990", rows.get(0).name.getValue());
+    assertEquals(10, tablePm.getPageableCollection().getNumOfItems());
+    assertNull("A row that is not on the page has no PM.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+  }
+
+  @Test
+  public void testSortByCalculatedAttributeUsesTheRowPms() {
+    tablePm.upperName.getSortOrderAttr().setValue(PmSortOrder.DESC);
+
+    assertEquals("N10999", tablePm.getRows().get(0).upperName.getValue());
+    assertNotNull("The row PMs are used to compare the calculated values.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+  }
+
+  @Test
+  public void testSortByAttributeWithRedefinedLocalizationUsesTheRowPms() {
+    tablePm.code.getSortOrderAttr().setValue(PmSortOrder.DESC);
+
+    // The localized values are reversed. The highest one is the one with the highest last digit.
+    assertEquals("99901n", tablePm.getRows().get(0).code.getValueLocalized());
+    assertNotNull("The row PMs are used to compare the localized values.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+  }
+
+  @Test
+  public void testSortByAttributeWithInheritedValueCalculationUsesTheRowPms() {
+    tablePm.alias.getSortOrderAttr().setValue(PmSortOrder.DESC);
+
+    assertEquals("x20000", tablePm.getRows().get(0).alias.getValue());
+    assertNotNull("The row PMs are used to compare the calculated values.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+  }
+
+  @Test
+  public void testBeanLevelFilterIsUsedIfThePreviousFilterHidesAllRows() {
+    PageableListImpl<RowBean> beanList = new PageableListImpl<RowBean>(beans);
+    beanList.setItemFilter(new Filter() {
+      @Override
+      public boolean doesItemMatch(Object item) {
+        return false;
+      }
+      @Override
+      public boolean isBeanFilter() {
+        return true;
+      }
+    });
+    tablePm.setPageableCollection(new PageablePmsForBeans<RowPm, RowBean>(tablePm, beanList), false);
+    assertEquals(0, tablePm.getRows().size());
+
+    FilterItem nameItem = new FilterItem();
+    nameItem.setFilterBy(getFilterByDefinition(tablePm.name));
+    nameItem.setCompOp(new CompOpStringStartsWith(tablePm.name));
+    nameItem.setFilterByValue("n1099");
+    tablePm.setFilter("name", new FilterItemFilter(nameItem));
+
+    assertEquals(10, tablePm.getRows().size());
+    assertNull("A row that is not on the page has no PM.", PmFactoryApi.findPmForBean(tablePm, beans.get(500)));
+  }
+
+  private FilterByDefinition getFilterByDefinition(PmTableCol col) {
+    return col.getFilterByDefinitions().iterator().next();
+  }
+}
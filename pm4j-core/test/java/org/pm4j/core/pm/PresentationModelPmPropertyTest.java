@@ -63,6 +63,16 @@ public class PresentationModelPmPropertyTest extends TestCase {
 
   }
 
+  /** Provides the name 'myCtxtData' as attribute. */
+  public final class MyPmWithCtxtDataAttr extends PmElementImpl {
+    public final MyCtxtData myCtxtData = new MyCtxtData();
+
+    public MyPmWithCtxtDataAttr(PmObject pmParent) {
+      super(pmParent);
+      myCtxtData.s1 = "attr-s1";
+    }
+  }
+
   // -- Tests --
 
   private MySessionPm mySessionPm;
@@ -87,4 +97,15 @@ public class PresentationModelPmPropertyTest extends TestCase {
     assertEquals("s2", PmExpressionApi.getByExpression(myPm, "myCtxtData.s2"));
   }
 
+  public void testCompiledExpressionForDifferentPmClasses() {
+    PmExpressionApi.CompiledExpression expr = PmExpressionApi.compile("myCtxtData.s1");
+    MyPmWithCtxtDataAttr pmWithAttr = new MyPmWithCtxtDataAttr(mySessionPm);
+
+    assertEquals("s1", expr.getValue(myPm));
+    assertEquals("attr-s1", expr.getValue(pmWithAttr));
+    assertEquals("s1", expr.getValue(myPm));
+    assertEquals("attr-s1", PmExpressionApi.getByExpression(pmWithAttr, "myCtxtData.s1"));
+    assertEquals("myCtxtData.s1", expr.toString());
+  }
+
 }
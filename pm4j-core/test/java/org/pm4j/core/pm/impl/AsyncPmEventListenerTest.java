@@ -0,0 +1,180 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * Tests the listeners registered by
+ * {@link PmEventApi#addAsyncPmEventListener(PmObject, int, PmEventListener)}.
+ *
+ * @author olaf boede
+ */
+public class AsyncPmEventListenerTest {
+
+  private ExecutorService executor;
+  private MyElement myElement;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+    PmDefaults defaults = new PmDefaults();
+    defaults.setAsyncEventExecutor(executor);
+    PmConversationImpl conversation = new PmConversationImpl();
+    conversation.setPmDefaults(defaults);
+    myElement = new MyElement(conversation);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testListenerGetsCalledAsynchronouslyInEventOrder() throws Exception {
+    final CountDownLatch blocker = new CountDownLatch(1);
+    final List<String> values = Collections.synchronizedList(new ArrayList<String>());
+    PmEventApi.addAsyncPmEventListener(myElement.s, PmEvent.VALUE_CHANGE, new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        try {
+          blocker.await();
+        }
+        catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        values.add(String.valueOf(event.getSource()));
+      }
+    });
+
+    for (String s : Arrays.asList("a", "b", "c")) {
+      PmEventApi.firePmEvent(myElement.s, new PmEvent(s, myElement.s, PmEvent.VALUE_CHANGE));
+    }
+    assertTrue("The setter does not wait for the blocked listener.", values.isEmpty());
+
+    blocker.countDown();
+    PmEventApi.flushAsyncPmEvents(myElement);
+    assertEquals(Arrays.asList("a", "b", "c"), values);
+  }
+
+  @Test
+  public void testListenerCanBeRemovedUsingTheOriginalListenerReference() {
+    final List<PmEvent> events = Collections.synchronizedList(new ArrayList<PmEvent>());
+    PmEventListener listener = new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        events.add(event);
+      }
+    };
+    PmEventApi.addAsyncPmEventListener(myElement.s, PmEvent.VALUE_CHANGE, listener);
+    myElement.s.setValue("x");
+    PmEventApi.flushAsyncPmEvents(myElement);
+    assertFalse(events.isEmpty());
+
+    PmEventApi.removePmEventListener(myElement.s, listener);
+    events.clear();
+    myElement.s.setValue("y");
+    PmEventApi.flushAsyncPmEvents(myElement);
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  public void testAllEventsFiredByConcurrentThreadsGetDispatchedOnFlush() throws Exception {
+    final Set<Object> dispatchedSources = Collections.synchronizedSet(new HashSet<Object>());
+    PmEventApi.addAsyncPmEventListener(myElement.s, PmEvent.VALUE_CHANGE, new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        dispatchedSources.add(event.getSource());
+      }
+    });
+
+    final int numOfThreads = 4;
+    final int eventsPerThread = 2000;
+    ExecutorService firingExecutor = Executors.newFixedThreadPool(numOfThreads);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int t = 0; t < numOfThreads; ++t) {
+        final int threadNum = t;
+        futures.add(firingExecutor.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < eventsPerThread; ++i) {
+              // Each flush lets the drain task finish. The next event has to start a new one.
+              String source = threadNum + "-" + i;
+              PmEventApi.firePmEvent(myElement.s, new PmEvent(source, myElement.s, PmEvent.VALUE_CHANGE));
+              PmEventApi.flushAsyncPmEvents(myElement);
+              assertTrue("Not dispatched: " + source, dispatchedSources.contains(source));
+            }
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get(30, TimeUnit.SECONDS);
+      }
+    }
+    finally {
+      firingExecutor.shutdownNow();
+    }
+
+    PmEventApi.flushAsyncPmEvents(myElement);
+    assertEquals(numOfThreads * eventsPerThread, dispatchedSources.size());
+  }
+
+  @Test
+  public void testEventsQueuedBehindAFailingListenerCallGetDispatched() throws Exception {
+    final CountDownLatch blocker = new CountDownLatch(1);
+    final List<String> values = Collections.synchronizedList(new ArrayList<String>());
+    PmEventApi.addAsyncPmEventListener(myElement.s, PmEvent.VALUE_CHANGE, new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        try {
+          blocker.await();
+        }
+        catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        if ("a".equals(event.getSource())) {
+          throw new AssertionError("Expected test error.");
+        }
+        values.add(String.valueOf(event.getSource()));
+      }
+    });
+
+    for (String s : Arrays.asList("a", "b", "c")) {
+      PmEventApi.firePmEvent(myElement.s, new PmEvent(s, myElement.s, PmEvent.VALUE_CHANGE));
+    }
+
+    blocker.countDown();
+    PmEventApi.flushAsyncPmEvents(myElement);
+    assertEquals(Arrays.asList("b", "c"), values);
+  }
+
+  public static class MyElement extends PmElementImpl {
+    public final PmAttrStringImpl s = new PmAttrStringImpl(this);
+
+    public MyElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+}
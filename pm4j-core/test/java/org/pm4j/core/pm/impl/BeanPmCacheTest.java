@@ -3,6 +3,12 @@ package org.pm4j.core.pm.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import junit.framework.Assert;
 
@@ -10,6 +16,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.pm4j.core.pm.PmAttrPmList;
 import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmDefaults.BeanPmCacheKind;
+import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.annotation.PmBeanCfg;
 import org.pm4j.core.pm.annotation.PmFactoryCfg;
 import org.pm4j.core.pm.api.PmFactoryApi;
@@ -148,8 +157,100 @@ public class BeanPmCacheTest {
 //    Assert.assertTrue("MyBeanPm should have been finalized.", MyBeanPm.finalizeWasCalled);
   }
 
+  @Test
+  public void testConcurrentGetPmForBeanProvidesOnePmPerBean() throws Exception {
+    // Uses beans and PMs without finalizer. Many finalizable objects would delay the finalization checks of the other tests.
+    final PmConversationImpl conversation = new PmConversationImpl(MyItemPm.class);
+    final List<MyItem> beans = new ArrayList<MyItem>();
+    for (int i = 0; i < 100; ++i) {
+      beans.add(new MyItem(i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<MyItemPm>>> futures = new ArrayList<Future<List<MyItemPm>>>();
+      for (int t = 0; t < 8; ++t) {
+        futures.add(executor.submit(new Callable<List<MyItemPm>>() {
+          @Override
+          public List<MyItemPm> call() {
+            List<MyItemPm> pms = new ArrayList<MyItemPm>();
+            for (MyItem b : beans) {
+              pms.add(PmFactoryApi.<MyItem, MyItemPm>getPmForBean(conversation, b));
+            }
+            return pms;
+          }
+        }));
+      }
+
+      List<MyItemPm> firstThreadPms = futures.get(0).get();
+      for (Future<List<MyItemPm>> f : futures) {
+        List<MyItemPm> pms = f.get();
+        for (int i = 0; i < beans.size(); ++i) {
+          Assert.assertSame(beans.get(i), pms.get(i).getPmBean());
+          Assert.assertSame(firstThreadPms.get(i), pms.get(i));
+        }
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testConcurrentCreationOfMutuallyDependentPms() throws Exception {
+    final DependentPmConversation conversation = new DependentPmConversation();
+    final DependentX x = new DependentX();
+    final DependentY y = new DependentY();
+    x.y = y;
+    y.x = x;
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      // Each PM needs the PM of the other bean while its own creation is in progress.
+      Future<DependentXPm> xPmFuture = executor.submit(new Callable<DependentXPm>() {
+        @Override
+        public DependentXPm call() {
+          return PmFactoryApi.<DependentX, DependentXPm>getPmForBean(conversation, x);
+        }
+      });
+      Future<DependentYPm> yPmFuture = executor.submit(new Callable<DependentYPm>() {
+        @Override
+        public DependentYPm call() {
+          return PmFactoryApi.<DependentY, DependentYPm>getPmForBean(conversation, y);
+        }
+      });
+
+      DependentXPm xPm = xPmFuture.get(10, TimeUnit.SECONDS);
+      DependentYPm yPm = yPmFuture.get(10, TimeUnit.SECONDS);
+
+      Assert.assertSame(xPm, PmFactoryApi.findPmForBean(conversation, x));
+      Assert.assertSame(yPm, PmFactoryApi.findPmForBean(conversation, y));
+      Assert.assertSame(yPm, xPm.otherPm);
+      Assert.assertSame(xPm, yPm.otherPm);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testNestedCreationForAnEqualBeanProvidesOnePm() {
+    assertNestedCreationForAnEqualBeanProvidesOnePm(BeanPmCacheKind.STANDARD);
+    assertNestedCreationForAnEqualBeanProvidesOnePm(BeanPmCacheKind.COMPACT_WITH_EQUALS_INDEX);
+  }
 
+  private void assertNestedCreationForAnEqualBeanProvidesOnePm(BeanPmCacheKind beanPmCacheKind) {
+    PmConversationImpl conversation = makeConversation(beanPmCacheKind, NestingItemPm.class);
+    // The PM creation for the outer bean creates the PM for the equal inner bean first.
+    NestingItem innerBean = new NestingItem(1, null);
+    NestingItem outerBean = new NestingItem(1, innerBean);
 
+    NestingItemPm pm = PmFactoryApi.getPmForBean(conversation, outerBean);
+
+    Assert.assertSame("The PM that was registered first should be used.", innerBean, pm.getPmBean());
+    Assert.assertSame(pm, PmFactoryApi.findPmForBean(conversation, outerBean));
+    Assert.assertSame(pm, PmFactoryApi.findPmForBean(conversation, innerBean));
+  }
 
   public static class MyBean {
     public String s;
@@ -174,6 +275,186 @@ public class BeanPmCacheTest {
     }
   }
 
+  @Test
+  public void testCompactBeanPmCache() {
+    PmConversationImpl conversation = makeConversation(BeanPmCacheKind.COMPACT);
+    List<MyItem> beans = new ArrayList<MyItem>();
+    List<MyItemPm> pms = new ArrayList<MyItemPm>();
+    // More than the initial table capacity to get some resize operations.
+    for (int i = 0; i < 100; ++i) {
+      MyItem b = new MyItem(i);
+      beans.add(b);
+      pms.add(PmFactoryApi.<MyItem, MyItemPm>getPmForBean(conversation, b));
+    }
+
+    Assert.assertTrue(conversation.pmBeanFactoryCache instanceof BeanPmCacheCompact);
+    for (int i = 0; i < beans.size(); ++i) {
+      Assert.assertSame(pms.get(i), PmFactoryApi.getPmForBean(conversation, beans.get(i)));
+    }
+    Assert.assertNull("Equal beans are not found without equals index.", PmFactoryApi.findPmForBean(conversation, new MyItem(0)));
+
+    BeanPmCacheUtil.removeBean(conversation, beans.get(0));
+    Assert.assertNull(PmFactoryApi.findPmForBean(conversation, beans.get(0)));
+    BeanPmCacheUtil.removeBeanPm(conversation, pms.get(1));
+    Assert.assertNull(PmFactoryApi.findPmForBean(conversation, beans.get(1)));
+    Assert.assertSame(pms.get(2), PmFactoryApi.findPmForBean(conversation, beans.get(2)));
+
+    BeanPmCacheUtil.clearBeanPmCache(conversation);
+    Assert.assertNull(PmFactoryApi.findPmForBean(conversation, beans.get(2)));
+  }
+
+  @Test
+  public void testCompactBeanPmCacheWithEqualsIndex() {
+    PmConversationImpl conversation = makeConversation(BeanPmCacheKind.COMPACT_WITH_EQUALS_INDEX);
+    MyItemPm pm = PmFactoryApi.getPmForBean(conversation, new MyItem(1));
+
+    Assert.assertSame(pm, PmFactoryApi.findPmForBean(conversation, new MyItem(1)));
+    Assert.assertNull(PmFactoryApi.findPmForBean(conversation, new MyItem(2)));
+
+    BeanPmCacheUtil.removeBean(conversation, new MyItem(1));
+    Assert.assertNull(PmFactoryApi.findPmForBean(conversation, new MyItem(1)));
+  }
+
+  @Test
+  public void testCompactBeanPmCacheKeepsOneEntryForARebindPm() {
+    PmConversationImpl conversation = makeConversation(BeanPmCacheKind.COMPACT);
+    MyItemPm pm = PmFactoryApi.getPmForBean(conversation, new MyItem(0));
+
+    MyItem bean = null;
+    for (int i = 1; i <= 100; ++i) {
+      bean = new MyItem(i);
+      pm.setPmBean(bean);
+    }
+
+    Assert.assertEquals(1, ((BeanPmCacheCompact)conversation.pmBeanFactoryCache).size());
+    Assert.assertSame(pm, PmFactoryApi.findPmForBean(conversation, bean));
+    Assert.assertNull(PmFactoryApi.findPmForBean(conversation, new MyItem(99)));
+  }
+
+  private static PmConversationImpl makeConversation(BeanPmCacheKind beanPmCacheKind) {
+    return makeConversation(beanPmCacheKind, MyItemPm.class);
+  }
+
+  private static PmConversationImpl makeConversation(BeanPmCacheKind beanPmCacheKind, Class<?>... pmFactoryClasses) {
+    PmDefaults defaults = new PmDefaults();
+    defaults.setBeanPmCacheKind(beanPmCacheKind);
+    PmConversationImpl conversation = new PmConversationImpl(pmFactoryClasses);
+    conversation.setPmDefaults(defaults);
+    return conversation;
+  }
+
+  /** A bean without finalizer. Items with the same id are equal. */
+  public static class MyItem {
+    private final int id;
+
+    public MyItem(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof MyItem) && ((MyItem)obj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+  @PmBeanCfg(beanClass=MyItem.class)
+  public static class MyItemPm extends PmBeanBase<MyItem> {
+  }
+
+  /** Items with the same id are equal. A nested item gets its PM within the PM creation of its parent. */
+  public static class NestingItem {
+    private final int id;
+    private final NestingItem nested;
+
+    public NestingItem(int id, NestingItem nested) {
+      this.id = id;
+      this.nested = nested;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof NestingItem) && ((NestingItem)obj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+  @PmBeanCfg(beanClass=NestingItem.class)
+  public static class NestingItemPm extends PmBeanBase<NestingItem> {
+    @Override
+    void initPmBean(PmObject pmParent, NestingItem bean) {
+      if (bean.nested != null) {
+        PmFactoryApi.getPmForBean(pmParent, bean.nested);
+      }
+      super.initPmBean(pmParent, bean);
+    }
+  }
+
+  /**
+   * Provides the latches that let the PM creations for {@link DependentX} and
+   * {@link DependentY} run concurrently: Each creation requests the PM of the
+   * other bean after both creations are started.
+   */
+  @PmFactoryCfg(beanPmClasses={DependentXPm.class, DependentYPm.class})
+  public static class DependentPmConversation extends PmConversationImpl {
+    final CountDownLatch xInCreation = new CountDownLatch(1);
+    final CountDownLatch yInCreation = new CountDownLatch(1);
+  }
+
+  public static class DependentX {
+    DependentY y;
+  }
+
+  public static class DependentY {
+    DependentX x;
+  }
+
+  @PmBeanCfg(beanClass=DependentX.class)
+  public static class DependentXPm extends PmBeanBase<DependentX> {
+    DependentYPm otherPm;
+
+    @Override
+    void initPmBean(PmObject pmParent, DependentX bean) {
+      DependentPmConversation conversation = (DependentPmConversation) pmParent;
+      conversation.xInCreation.countDown();
+      await(conversation.yInCreation);
+      super.initPmBean(pmParent, bean);
+      otherPm = PmFactoryApi.getPmForBean(pmParent, bean.y);
+    }
+  }
+
+  @PmBeanCfg(beanClass=DependentY.class)
+  public static class DependentYPm extends PmBeanBase<DependentY> {
+    DependentXPm otherPm;
+
+    @Override
+    void initPmBean(PmObject pmParent, DependentY bean) {
+      DependentPmConversation conversation = (DependentPmConversation) pmParent;
+      conversation.yInCreation.countDown();
+      await(conversation.xInCreation);
+      super.initPmBean(pmParent, bean);
+      otherPm = PmFactoryApi.getPmForBean(pmParent, bean.x);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (! latch.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("The other PM creation did not start.");
+      }
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @PmFactoryCfg(beanPmClasses=MyBeanPm.class)
   public static class MyConversation extends PmConversationImpl {
     List<MyBean> beanList = new ArrayList<BeanPmCacheTest.MyBean>();
@@ -0,0 +1,144 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.exception.PmValidationException;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmAttrCfg;
+import org.pm4j.core.pm.api.PmCacheApi;
+import org.pm4j.core.pm.api.PmValidationApi;
+
+/**
+ * Tests the incremental validation mode. See {@link PmDefaults#isIncrementalValidation()}.
+ *
+ * @author olaf boede
+ */
+public class IncrementalValidationTest {
+
+  private MyElement myElement;
+
+  @Before
+  public void setUp() {
+    PmDefaults defaults = new PmDefaults();
+    defaults.setIncrementalValidation(true);
+    PmConversationImpl conversation = new PmConversationImpl();
+    conversation.setPmDefaults(defaults);
+    myElement = new MyElement(conversation);
+  }
+
+  @Test
+  public void testOnlyChangedAttributesAndTheirDependentsGetValidatedAgain() {
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(1, 1, 1);
+
+    assertTrue("Nothing changed.", PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(1, 1, 1);
+
+    myElement.other.setValue("x");
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(1, 1, 2);
+
+    myElement.start.setValue("b");
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(2, 2, 2);
+
+    PmCacheApi.clearCachedPmValues(myElement);
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(3, 3, 3);
+  }
+
+  @Test
+  public void testInvalidAttributesGetValidatedAgain() {
+    myElement.end.setValue("a");
+    myElement.start.setValue("b");
+    assertFalse(PmValidationApi.validateSubTree(myElement));
+    assertFalse(myElement.end.isPmValid());
+
+    myElement.end.setValue("c");
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertTrue(myElement.end.isPmValid());
+
+    myElement.start.setValue("d");
+    assertFalse("The dependent attribute gets validated again.", PmValidationApi.validateSubTree(myElement));
+    assertFalse(myElement.end.isPmValid());
+  }
+
+  @Test
+  public void testAllAttributesGetValidatedIfTheModeIsSwitchedOff() {
+    myElement.getPmConversation().getPmDefaults().setIncrementalValidation(false);
+
+    PmValidationApi.validateSubTree(myElement);
+    PmValidationApi.validateSubTree(myElement);
+    assertValidationCalls(2, 2, 2);
+  }
+
+  @Test
+  public void testUpToDateResultsGetValidatedAgainIfTheModeIsSwitchedOff() {
+    PmValidationApi.validateSubTree(myElement);
+    assertValidationCalls(1, 1, 1);
+
+    myElement.getPmConversation().getPmDefaults().setIncrementalValidation(false);
+    PmValidationApi.validateSubTree(myElement);
+    assertValidationCalls(2, 2, 2);
+  }
+
+  @Test
+  public void testRevalidateOnChangeOfListenerLivesAsLongAsTheAttribute() {
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(1, 1, 1);
+
+    // The weakly registered listener is referenced by the dependent attribute.
+    System.gc();
+
+    myElement.start.setValue("b");
+    assertTrue(PmValidationApi.validateSubTree(myElement));
+    assertValidationCalls(2, 2, 1);
+  }
+
+  private void assertValidationCalls(int start, int end, int other) {
+    assertEquals("start", start, myElement.start.validationCalls);
+    assertEquals("end", end, myElement.end.validationCalls);
+    assertEquals("other", other, myElement.other.validationCalls);
+  }
+
+  public static class MyElement extends PmElementImpl {
+    public final CountingAttr start = new CountingAttr(this);
+
+    /** Should not be less than 'start'. */
+    @PmAttrCfg(revalidateOnChangeOf="start")
+    public final CountingAttr end = new CountingAttr(this) {
+      @Override
+      protected void validate(String value) throws PmValidationException {
+        super.validate(value);
+        if (value != null && start.getValue() != null && value.compareTo(start.getValue()) < 0) {
+          throw new PmValidationException(this, "pmValidationMsg.required");
+        }
+      }
+    };
+
+    public final CountingAttr other = new CountingAttr(this);
+
+    public MyElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static class CountingAttr extends PmAttrStringImpl {
+    int validationCalls;
+
+    public CountingAttr(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected void validate(String value) throws PmValidationException {
+      ++validationCalls;
+      super.validate(value);
+    }
+  }
+}
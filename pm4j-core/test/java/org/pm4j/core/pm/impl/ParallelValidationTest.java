@@ -0,0 +1,155 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.exception.PmValidationException;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmMessage;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.api.PmMessageUtil;
+import org.pm4j.core.pm.api.PmValidationApi;
+
+/**
+ * Tests the parallel validation that gets used if a
+ * {@link PmDefaults#getValidationExecutor()} is configured.
+ *
+ * @author olaf boede
+ */
+public class ParallelValidationTest {
+
+  private ExecutorService executor;
+  private MyElement myElement;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    PmDefaults defaults = new PmDefaults();
+    defaults.setValidationExecutor(executor);
+    defaults.setValidationParallelism(4);
+    defaults.setParallelValidationThreshold(2);
+    PmConversationImpl conversation = new PmConversationImpl();
+    conversation.setPmDefaults(defaults);
+    myElement = new MyElement(conversation);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testMessagesAreProvidedInSequentialValidationOrder() {
+    assertFalse(PmValidationApi.validateSubTree(myElement));
+    List<PmMessage> parallelMessages = PmMessageUtil.getSubTreeMessages(myElement, PmMessage.Severity.ERROR);
+    assertEquals(8, parallelMessages.size());
+
+    PmMessageUtil.clearSubTreeMessages(myElement);
+    myElement.getPmConversation().getPmDefaults().setValidationExecutor(null);
+    assertFalse(PmValidationApi.validateSubTree(myElement));
+    List<PmMessage> sequentialMessages = PmMessageUtil.getSubTreeMessages(myElement, PmMessage.Severity.ERROR);
+
+    assertEquals(pmsOf(sequentialMessages), pmsOf(parallelMessages));
+  }
+
+  @Test
+  public void testValidationFailureGetsReportedToTheCaller() {
+    myElement.sub3.a.failure = new IllegalStateException("test failure");
+    try {
+      PmValidationApi.validateSubTree(myElement);
+      fail("The failure of the parallel validation should be reported.");
+    }
+    catch (IllegalStateException e) {
+      assertSame(myElement.sub3.a.failure, e);
+    }
+  }
+
+  @Test
+  public void testEventsOfAllPartitionsGetCollectedByTheEventBatchOfTheCaller() {
+    final List<PmEvent> events = Collections.synchronizedList(new ArrayList<PmEvent>());
+    PmEventApi.addPmEventListener(myElement, PmEvent.STYLECLASS_CHANGE | PmEvent.IS_EVENT_PROPAGATION, new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        events.add(event);
+      }
+    });
+    for (MySubElement s : Arrays.asList(myElement.sub1, myElement.sub2, myElement.sub3, myElement.sub4)) {
+      s.a.fireOnValidate = s.b.fireOnValidate = true;
+    }
+
+    PmEventBatch batch = PmEventApi.beginEventBatch();
+    try {
+      PmValidationApi.validateSubTree(myElement);
+      assertEquals("No event should be dispatched before the batch ends.", 0, events.size());
+      assertEquals(8, batch.getNumOfPmsWithEvents());
+    }
+    finally {
+      batch.end();
+    }
+
+    assertEquals("One propagation event for each changed sub element.", 4, events.size());
+  }
+
+  private static List<PmObject> pmsOf(List<PmMessage> messages) {
+    List<PmObject> pms = new ArrayList<PmObject>();
+    for (PmMessage m : messages) {
+      pms.add(m.getPm());
+    }
+    return pms;
+  }
+
+  public static class MyElement extends PmElementImpl {
+    public final MySubElement sub1 = new MySubElement(this);
+    public final MySubElement sub2 = new MySubElement(this);
+    public final MySubElement sub3 = new MySubElement(this);
+    public final MySubElement sub4 = new MySubElement(this);
+
+    public MyElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static class MySubElement extends PmElementImpl {
+    public final InvalidAttr a = new InvalidAttr(this);
+    public final InvalidAttr b = new InvalidAttr(this);
+
+    public MySubElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static class InvalidAttr extends PmAttrStringImpl {
+    RuntimeException failure;
+    boolean fireOnValidate;
+
+    public InvalidAttr(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected void validate(String value) throws PmValidationException {
+      if (failure != null) {
+        throw failure;
+      }
+      if (fireOnValidate) {
+        PmEventApi.firePmEvent(this, PmEvent.STYLECLASS_CHANGE);
+      }
+      throw new PmValidationException(this, "pmValidationMsg.required");
+    }
+  }
+}
@@ -1,15 +1,26 @@
 package org.pm4j.core.pm.impl;
 
+import java.text.NumberFormat;
 import java.util.Locale;
 
 import junit.framework.TestCase;
 
+import org.pm4j.core.pm.PmAttr;
 import org.pm4j.core.pm.PmAttrDouble;
+import org.pm4j.core.pm.impl.converter.PmConverterDouble;
 
 public class PmAttrDoubleTest extends TestCase {
 
   static class TestSession extends PmConversationImpl {
     public final PmAttrDouble d = new PmAttrDoubleImpl(this);
+
+    String resKey = "pmAttrDoubleTest.TestSession.d";
+    public final PmAttrDouble dWithDynamicResKey = new PmAttrDoubleImpl(this) {
+      @Override
+      public String getPmResKey() {
+        return resKey;
+      }
+    };
   }
 
   public void testFormatENGLISH() {
@@ -35,6 +46,34 @@ public class PmAttrDoubleTest extends TestCase {
     assertEquals("3,4", s.d.getValueAsString());
   }
 
+  public void testFormatStringOfAnAttributeWithDynamicResKey() {
+    TestSession s = new TestSession();
+    s.setPmLocale(Locale.ENGLISH);
+    assertEquals("####.##", s.dWithDynamicResKey.getFormatString());
+
+    s.resKey = "pmAttrDoubleTest.otherKey";
+    assertEquals("The format string is not cached for a dynamic resource key.", "#0.000", s.dWithDynamicResKey.getFormatString());
+  }
+
+  public void testNumberFormatHookProvidesAnInstanceThatMayBeModified() {
+    TestSession s = new TestSession();
+    s.setPmLocale(Locale.ENGLISH);
+    NumberFormatConverter converter = new NumberFormatConverter();
+
+    NumberFormat f = converter.getNumberFormat(s.d);
+    f.setMaximumFractionDigits(0);
+
+    assertNotSame(f, converter.getNumberFormat(s.d));
+    assertEquals("1.23", PmConverterDouble.INSTANCE.valueToString(s.d, 1.23));
+  }
+
+  static class NumberFormatConverter extends PmConverterDouble {
+    @Override
+    protected NumberFormat getNumberFormat(PmAttr<?> pmAttr) {
+      return super.getNumberFormat(pmAttr);
+    }
+  }
+
   public void testSetAsStringWithInvalidChar() {
     TestSession s = new TestSession();
     s.setPmLocale(Locale.ENGLISH);
@@ -0,0 +1,88 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmDataInput;
+import org.pm4j.core.pm.PmObject;
+
+/**
+ * Tests the list free child iteration provided by
+ * {@link PmUtil#getPmChildCount(PmObject, PmChildKind)} and
+ * {@link PmUtil#getPmChild(PmObject, PmChildKind, int)}.
+ *
+ * @author olaf boede
+ */
+public class PmChildKindTest {
+
+  private MyElement myElement;
+
+  @Before
+  public void setUp() {
+    myElement = new MyElement(new PmConversationImpl());
+  }
+
+  @Test
+  public void testFieldBoundChildrenOfEachKind() {
+    assertEquals(4, PmUtil.getPmChildCount(myElement, PmChildKind.ALL));
+    assertEquals(2, PmUtil.getPmChildCount(myElement, PmChildKind.ATTR));
+    assertEquals(3, PmUtil.getPmChildCount(myElement, PmChildKind.DATA_INPUT));
+    assertEquals(1, PmUtil.getPmChildCount(myElement, PmChildKind.COMMAND));
+    assertEquals(0, PmUtil.getPmChildCount(myElement, PmChildKind.TABLE_COL));
+
+    assertSame(myElement.cmd, PmUtil.getPmChild(myElement, PmChildKind.COMMAND, 0));
+    assertSame(myElement.s2, PmUtil.getPmChild(myElement, PmChildKind.ATTR, 1));
+
+    assertSameChildren(PmUtil.getPmChildren(myElement), PmChildKind.ALL);
+    assertSameChildren(PmUtil.getPmChildrenOfType(myElement, PmAttr.class), PmChildKind.ATTR);
+    assertSameChildren(PmUtil.getPmChildrenOfType(myElement, PmDataInput.class), PmChildKind.DATA_INPUT);
+  }
+
+  @Test
+  public void testDynamicChildrenFollowTheFieldBoundOnes() {
+    PmAttrStringImpl dynAttr = new PmAttrStringImpl(myElement);
+    myElement.addToPmComposite("dyn", dynAttr);
+
+    assertEquals(5, PmUtil.getPmChildCount(myElement, PmChildKind.ALL));
+    assertEquals(3, PmUtil.getPmChildCount(myElement, PmChildKind.ATTR));
+    assertEquals(1, PmUtil.getPmChildCount(myElement, PmChildKind.COMMAND));
+    assertSame(dynAttr, PmUtil.getPmChild(myElement, PmChildKind.ATTR, 2));
+    assertSame(dynAttr, PmUtil.getPmChild(myElement, PmChildKind.DATA_INPUT, 3));
+    assertSameChildren(PmUtil.getPmChildren(myElement), PmChildKind.ALL);
+
+    myElement.removePmChild(dynAttr);
+    assertEquals(2, PmUtil.getPmChildCount(myElement, PmChildKind.ATTR));
+  }
+
+  private void assertSameChildren(List<? extends PmObject> expected, PmChildKind kind) {
+    assertEquals(expected.size(), PmUtil.getPmChildCount(myElement, kind));
+    for (int i = 0; i < expected.size(); ++i) {
+      assertSame(expected.get(i), PmUtil.getPmChild(myElement, kind, i));
+    }
+  }
+
+  public static class MyElement extends PmElementImpl {
+    public final PmAttrStringImpl s1 = new PmAttrStringImpl(this);
+    public final PmCommand cmd = new PmCommandImpl(this);
+    public final PmAttrStringImpl s2 = new PmAttrStringImpl(this);
+    public final MySubElement sub = new MySubElement(this);
+
+    public MyElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static class MySubElement extends PmElementImpl {
+    public final PmAttrStringImpl s = new PmAttrStringImpl(this);
+
+    public MySubElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+}
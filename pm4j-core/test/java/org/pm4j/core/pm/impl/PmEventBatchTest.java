@@ -0,0 +1,114 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * Tests the event batch provided by {@link PmEventApi#beginEventBatch()}.
+ *
+ * @author olaf boede
+ */
+public class PmEventBatchTest {
+
+  private PmConversationImpl conversation;
+  private MyElement myElement;
+  private RecordingListener attrListener = new RecordingListener();
+  private RecordingListener hierarchyListener = new RecordingListener();
+  private RecordingListener conversationHierarchyListener = new RecordingListener();
+
+  @Before
+  public void setUp() {
+    conversation = new PmConversationImpl();
+    myElement = new MyElement(conversation);
+    PmEventApi.addHierarchyListener(conversation, PmEvent.ALL, conversationHierarchyListener);
+    PmEventApi.addPmEventListener(myElement.s1, PmEvent.ALL, attrListener);
+    PmEventApi.addHierarchyListener(myElement, PmEvent.ALL, hierarchyListener);
+  }
+
+  @Test
+  public void testEventsOfAPmGetMergedAndDispatchedAtTheEndOfTheBatch() {
+    PmEventBatch batch = PmEventApi.beginEventBatch();
+    try {
+      myElement.s1.setValue("a");
+      myElement.s1.setValue("b");
+      PmEventApi.firePmEvent(myElement.s1, PmEvent.TITLE_CHANGE);
+      myElement.s2.setValue("c");
+
+      assertEquals(0, attrListener.events.size());
+      assertEquals(0, hierarchyListener.events.size());
+    }
+    finally {
+      batch.end();
+    }
+
+    assertEquals(1, attrListener.events.size());
+    PmEvent e = attrListener.events.get(0);
+    assertEquals(PmEvent.VALUE_CHANGE | PmEvent.VALUE_CHANGED_STATE_CHANGE | PmEvent.TITLE_CHANGE, e.getChangeMask());
+    assertEquals(PmEvent.ValueChangeKind.UNKNOWN, e.getValueChangeKind());
+
+    assertEquals("One propagation event for each changed PM.", 2, hierarchyListener.events.size());
+    assertEquals(myElement.s1, hierarchyListener.events.get(0).pm);
+    assertEquals(myElement.s2, hierarchyListener.events.get(1).pm);
+  }
+
+  @Test
+  public void testPropagationsGetCoalescedByAncestor() {
+    PmEventBatch batch = PmEventApi.beginEventBatch();
+    try {
+      myElement.s1.setValue("a");
+      myElement.s2.setValue("b");
+      PmEventApi.firePmEvent(myElement.s2, PmEvent.TITLE_CHANGE);
+    }
+    finally {
+      batch.end();
+    }
+
+    assertEquals("One propagation event for each changed child.", 2, hierarchyListener.events.size());
+    assertEquals("One propagation event for the changed element.", 1, conversationHierarchyListener.events.size());
+    PmEvent e = conversationHierarchyListener.events.get(0);
+    assertEquals(myElement, e.pm);
+    assertEquals(PmEvent.VALUE_CHANGE | PmEvent.VALUE_CHANGED_STATE_CHANGE | PmEvent.TITLE_CHANGE | PmEvent.IS_EVENT_PROPAGATION, e.getChangeMask());
+  }
+
+  @Test
+  public void testNestedBatchesGetDispatchedAtTheEndOfTheOuterBatch() {
+    PmEventBatch outer = PmEventApi.beginEventBatch();
+    PmEventBatch inner = PmEventApi.beginEventBatch();
+    myElement.s1.setValue("a");
+    inner.end();
+    assertEquals(0, attrListener.events.size());
+
+    outer.end();
+    assertEquals(1, attrListener.events.size());
+
+    myElement.s1.setValue("b");
+    assertEquals("No active batch. Immediate dispatch.", 2, attrListener.events.size());
+  }
+
+  static class RecordingListener implements PmEventListener {
+    final List<PmEvent> events = new ArrayList<PmEvent>();
+
+    @Override
+    public void handleEvent(PmEvent event) {
+      events.add(event);
+    }
+  }
+
+  public static class MyElement extends PmElementImpl {
+    public final PmAttrStringImpl s1 = new PmAttrStringImpl(this);
+    public final PmAttrStringImpl s2 = new PmAttrStringImpl(this);
+
+    public MyElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+}
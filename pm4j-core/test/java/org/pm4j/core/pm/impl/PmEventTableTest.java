@@ -0,0 +1,104 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+
+/**
+ * Tests the listener dispatch of {@link PmEventTable}.
+ *
+ * @author olaf boede
+ */
+public class PmEventTableTest {
+
+  private final PmEventTable table = new PmEventTable(false);
+  private final PmAttrStringImpl pm = new PmAttrStringImpl(new PmConversationImpl());
+
+  @Test
+  public void testEventsGetDispatchedOnlyToInterestedListeners() {
+    CountingListener valueListener = new CountingListener();
+    CountingListener visibilityListener = new CountingListener();
+    CountingListener propagationListener = new CountingListener();
+    table.addListener(PmEvent.VALUE_CHANGE, valueListener);
+    table.addListener(PmEvent.VISIBILITY_CHANGE, visibilityListener);
+    table.addListener(PmEvent.VALUE_CHANGE | PmEvent.IS_EVENT_PROPAGATION, propagationListener);
+
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VALUE_CHANGE));
+    assertCounts(1, 0, 0, valueListener, visibilityListener, propagationListener);
+
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VALUE_CHANGE | PmEvent.IS_EVENT_PROPAGATION));
+    assertCounts(1, 0, 1, valueListener, visibilityListener, propagationListener);
+
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VISIBILITY_CHANGE | PmEvent.IS_EVENT_PROPAGATION));
+    assertCounts(1, 0, 1, valueListener, visibilityListener, propagationListener);
+
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.ALL_CHANGE_EVENTS));
+    assertCounts(2, 1, 1, valueListener, visibilityListener, propagationListener);
+
+    table.addListener(PmEvent.VISIBILITY_CHANGE, valueListener);
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VISIBILITY_CHANGE));
+    assertCounts(3, 2, 1, valueListener, visibilityListener, propagationListener);
+
+    table.removeListener(PmEvent.VALUE_CHANGE, valueListener);
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VALUE_CHANGE));
+    assertCounts(3, 2, 1, valueListener, visibilityListener, propagationListener);
+  }
+
+  @Test
+  public void testListenerRemovalWithinNotificationDoesNotAffectTheRunningNotification() {
+    final CountingListener second = new CountingListener();
+    PmEventListener first = new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        table.removeListener(this);
+        table.removeListener(second);
+      }
+    };
+    table.addListener(PmEvent.VALUE_CHANGE, first);
+    table.addListener(PmEvent.VALUE_CHANGE, second);
+
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VALUE_CHANGE));
+    assertEquals(1, second.count);
+    assertTrue(table.isEmpty());
+  }
+
+  @Test
+  public void testAddedListenersGetDispatchedInRegistrationOrder() {
+    final StringBuilder calls = new StringBuilder();
+    for (int i = 0; i < 5; ++i) {
+      final int listenerNum = i;
+      int mask = (i % 2 == 0) ? PmEvent.VALUE_CHANGE : PmEvent.VALUE_CHANGE | PmEvent.VISIBILITY_CHANGE;
+      table.addListener(mask, new PmEventListener() {
+        @Override
+        public void handleEvent(PmEvent event) {
+          calls.append(listenerNum);
+        }
+      });
+    }
+
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VALUE_CHANGE));
+    assertEquals("01234", calls.toString());
+
+    calls.setLength(0);
+    table.fireEvent(new PmEvent(pm, pm, PmEvent.VISIBILITY_CHANGE));
+    assertEquals("13", calls.toString());
+  }
+
+  private static void assertCounts(int c1, int c2, int c3, CountingListener l1, CountingListener l2, CountingListener l3) {
+    assertEquals(c1, l1.count);
+    assertEquals(c2, l2.count);
+    assertEquals(c3, l3.count);
+  }
+
+  static class CountingListener implements PmEventListener {
+    int count;
+
+    @Override
+    public void handleEvent(PmEvent event) {
+      ++count;
+    }
+  }
+}
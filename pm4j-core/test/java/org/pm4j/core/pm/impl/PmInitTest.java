@@ -1,10 +1,21 @@
 package org.pm4j.core.pm.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
 import org.pm4j.core.pm.impl.PmObjectBase.PmInitState;
 
 /**
@@ -33,6 +44,56 @@ public class PmInitTest {
     assertEquals("Parent is also initialized when a child is initialized.", PmInitState.INITIALIZED, myElement.pmInitState);
   }
 
+  @Test
+  public void testMetaDataWarmUpVisitsFieldAndFactoryPms() {
+    // conversation + APm with two attributes + BPm with one attribute.
+    // The recursive APm below BPm is not visited again.
+    assertEquals(6, PmInitApi.warmUpMetaData(2, new MyConversation()));
+    assertEquals("A second warm-up visits the same PMs.", 6, PmInitApi.warmUpMetaData(1, new MyConversation()));
+  }
+
+  @Test
+  public void testMetaDataInitErrorDoesNotBlockOtherThreads() throws Exception {
+    try {
+      new FailingElement(new PmConversationImpl()).isPmEnabled();
+      fail("The meta data initialization error should be reported.");
+    }
+    catch (NoClassDefFoundError e) {
+      // expected
+    }
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> f = executor.submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          return new FailingElement(new PmConversationImpl()).isPmEnabled();
+        }
+      });
+      assertTrue("Another thread initializes the meta data again.", f.get(10, TimeUnit.SECONDS));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    assertTrue("No cyclic initialization gets reported for the failed thread.", new FailingElement(new PmConversationImpl()).isPmEnabled());
+  }
+
+  /** Fails with an {@link Error} on its first meta data initialization. */
+  public static class FailingElement extends PmElementImpl {
+    static final AtomicBoolean failOnInit = new AtomicBoolean(true);
+
+    public FailingElement(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected void initMetaData(MetaData metaData) {
+      super.initMetaData(metaData);
+      if (failOnInit.getAndSet(false)) {
+        throw new NoClassDefFoundError("Simulated initialization error.");
+      }
+    }
+  }
 
   public static class MyElement extends PmElementImpl {
     public final PmAttrStringImpl s = new PmAttrStringImpl(this);
@@ -41,4 +102,29 @@ public class PmInitTest {
       super(pmParent);
     }
   }
+
+  @PmFactoryCfg(beanPmClasses=APm.class)
+  public static class MyConversation extends PmConversationImpl {
+  }
+
+  public static class A {
+    public String s1, s2;
+  }
+
+  public static class B {
+    public String s;
+  }
+
+  @PmBeanCfg(beanClass=A.class)
+  @PmFactoryCfg(beanPmClasses=BPm.class)
+  public static class APm extends PmBeanBase<A> {
+    public final PmAttrStringImpl s1 = new PmAttrStringImpl(this);
+    public final PmAttrStringImpl s2 = new PmAttrStringImpl(this);
+  }
+
+  @PmBeanCfg(beanClass=B.class)
+  @PmFactoryCfg(beanPmClasses=APm.class)
+  public static class BPm extends PmBeanBase<B> {
+    public final PmAttrStringImpl s = new PmAttrStringImpl(this);
+  }
 }
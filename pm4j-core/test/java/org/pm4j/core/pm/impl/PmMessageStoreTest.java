@@ -0,0 +1,93 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmMessage;
+import org.pm4j.core.pm.PmMessage.Severity;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmMessageUtil;
+
+/**
+ * Tests the PM and sub tree related message queries of the conversation.
+ *
+ * @author olaf boede
+ */
+public class PmMessageStoreTest {
+
+  private PmConversationImpl conversation;
+  private MyElement myElement;
+
+  @Before
+  public void setUp() {
+    conversation = new PmConversationImpl();
+    myElement = new MyElement(conversation);
+  }
+
+  @Test
+  public void testValidStateFollowsErrorMessages() {
+    PmMessage warning = addMsg(myElement.sub.s, Severity.WARN);
+    assertTrue(myElement.sub.s.isPmValid());
+    assertFalse(conversation.getHasPmErrors());
+
+    PmMessage error = addMsg(myElement.sub.s, Severity.ERROR);
+    assertFalse(myElement.sub.s.isPmValid());
+    assertTrue("A child error has no effect on the parent state.", myElement.sub.isPmValid());
+    assertFalse("The conversation considers all messages.", conversation.isPmValid());
+    assertTrue(conversation.getHasPmErrors());
+
+    conversation.clearPmMessage(error);
+    assertTrue(myElement.sub.s.isPmValid());
+    assertFalse(conversation.getHasPmErrors());
+    assertEquals(Arrays.asList(warning), PmMessageUtil.getPmMessages(myElement.sub.s));
+  }
+
+  @Test
+  public void testSubTreeMessagesAreProvidedInOrderOfAddition() {
+    PmMessage m1 = addMsg(myElement.sub.s, Severity.ERROR);
+    PmMessage m2 = addMsg(myElement.s, Severity.INFO);
+    PmMessage m3 = addMsg(myElement.sub, Severity.ERROR);
+    PmMessage m4 = addMsg(myElement, Severity.WARN);
+    PmMessage m5 = addMsg(myElement.sub.s, Severity.INFO);
+
+    assertEquals(Arrays.asList(m1, m2, m3, m4, m5), PmMessageUtil.getSubTreeMessages(myElement, Severity.INFO));
+    assertEquals(Arrays.asList(m1, m3), PmMessageUtil.getSubTreeMessages(myElement, Severity.ERROR));
+    assertEquals(Arrays.asList(m1, m3, m5), PmMessageUtil.getSubTreeMessages(myElement.sub, Severity.INFO));
+    assertEquals(Arrays.asList(m2), PmMessageUtil.getSubTreeMessages(myElement.s, Severity.INFO));
+
+    PmMessageUtil.clearSubTreeMessages(myElement.sub);
+    assertEquals(Arrays.asList(m2, m4), PmMessageUtil.getSubTreeMessages(myElement, Severity.INFO));
+    assertEquals(0, PmMessageUtil.getSubTreeMessages(myElement.sub, Severity.INFO).size());
+
+    conversation.clearPmMessages(myElement, Severity.WARN);
+    assertEquals(Arrays.asList(m2), conversation.getPmMessages());
+  }
+
+  private PmMessage addMsg(PmObject pm, Severity severity) {
+    PmMessage m = new PmMessage(pm, severity, "pmValidationMsg.required");
+    conversation.addPmMessage(m);
+    return m;
+  }
+
+  public static class MyElement extends PmElementImpl {
+    public final PmAttrStringImpl s = new PmAttrStringImpl(this);
+    public final MySubElement sub = new MySubElement(this);
+
+    public MyElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static class MySubElement extends PmElementImpl {
+    public final PmAttrStringImpl s = new PmAttrStringImpl(this);
+
+    public MySubElement(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+}
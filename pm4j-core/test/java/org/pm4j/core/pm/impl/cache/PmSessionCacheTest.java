@@ -0,0 +1,72 @@
+package org.pm4j.core.pm.impl.cache;
+
+import junit.framework.TestCase;
+
+import org.pm4j.core.pm.impl.cache.PmSessionCache.EvictionPolicy;
+
+public class PmSessionCacheTest extends TestCase {
+
+  private PmCacheStatistics statistics = new PmCacheStatistics("test");
+  private Object k1 = new Object(), k2 = new Object(), k3 = new Object();
+
+  public void testLruEvictsLeastRecentlyUsedEntry() {
+    PmSessionCache cache = new PmSessionCache(2, EvictionPolicy.LRU, statistics);
+    cache.put(k1, "v1");
+    cache.put(k2, "v2");
+    assertEquals("v1", cache.get(k1));
+
+    cache.put(k3, "v3");
+    assertEquals(2, cache.size());
+    assertEquals(1, statistics.getEvictionCount());
+    assertEquals("v1", cache.get(k1));
+    assertNull("k2 was the least recently used entry.", cache.get(k2));
+    assertEquals("v3", cache.get(k3));
+  }
+
+  public void testLfuEvictsLeastFrequentlyUsedEntry() {
+    PmSessionCache cache = new PmSessionCache(2, EvictionPolicy.LFU, statistics);
+    cache.put(k1, "v1");
+    cache.put(k2, "v2");
+    cache.get(k1);
+    cache.get(k2);
+    cache.get(k2);
+    cache.get(k1);
+    cache.get(k1);
+
+    cache.put(k3, "v3");
+    assertEquals(1, statistics.getEvictionCount());
+    assertNull("k2 was less frequently used.", cache.get(k2));
+    assertEquals("v1", cache.get(k1));
+    assertEquals("v3", cache.get(k3));
+  }
+
+  public void testKeysAreComparedByIdentity() {
+    PmSessionCache cache = new PmSessionCache(10, EvictionPolicy.LRU, statistics);
+    String a1 = new String("a");
+    cache.put(a1, "v1");
+    assertNull("An equal key instance does not match.", cache.get(new String("a")));
+    assertEquals("v1", cache.get(a1));
+
+    cache.put(k1, "v1");
+    cache.put(k1, "v2");
+    assertEquals(2, cache.size());
+    assertEquals("v2", cache.get(k1));
+
+    cache.remove(k1);
+    assertNull(cache.get(k1));
+  }
+
+  public void testEntriesOfCollectedKeysGetRemoved() throws InterruptedException {
+    PmSessionCache cache = new PmSessionCache(10, EvictionPolicy.LRU, statistics);
+    cache.put(k1, "v1");
+    cache.put(new Object(), "v2");
+
+    for (int i = 0; i < 20 && cache.size() > 1; ++i) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertEquals(1, cache.size());
+    assertEquals("v1", cache.get(k1));
+  }
+
+}
@@ -0,0 +1,30 @@
+package org.pm4j.core.pm.impl.converter;
+
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+public class FormatCacheTest extends TestCase {
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  public void testFormatsGetReusedForTheSameKey() {
+    DateFormat f = FormatCache.getDateFormat("dd.MM.yyyy", Locale.GERMAN, UTC);
+    assertSame(f, FormatCache.getDateFormat("dd.MM.yyyy", Locale.GERMAN, UTC));
+    assertNotSame(f, FormatCache.getDateFormat("dd.MM.yyyy", Locale.ENGLISH, UTC));
+    assertNotSame(f, FormatCache.getDateFormat("dd.MM.yyyy", Locale.GERMAN, TimeZone.getTimeZone("Europe/Berlin")));
+
+    assertSame(FormatCache.getNumberFormat("#0.00", Locale.GERMAN), FormatCache.getNumberFormat("#0.00", Locale.GERMAN));
+    assertSame(FormatCache.getNumberFormat(null, Locale.GERMAN), FormatCache.getNumberFormat("", Locale.GERMAN));
+  }
+
+  public void testDateFormatIsNotLenient() {
+    DateFormat f = FormatCache.getDateFormat("dd.MM.yy", Locale.GERMAN, UTC);
+    assertNull(f.parse("00.00.08", new ParsePosition(0)));
+    assertNotNull(f.parse("01.02.08", new ParsePosition(0)));
+  }
+
+}
@@ -1,11 +1,22 @@
 package org.pm4j.core.pm.impl.pageable;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.filter.NarrowingFilter;
 import org.pm4j.core.pm.pageable.PageableCollectionUtil;
 import org.pm4j.core.pm.pageable.PageableListImpl;
 
@@ -26,6 +37,228 @@ public class PageableItemsListImplTest {
     assertEquals("Last item of first page should have the index 2.", 2, PageableCollectionUtil.getIdxOfLastItemOnPage(items));
   }
 
+  @Test
+  public void testIncrementalOperationsProvideTheSameResultAsAFullUpdate() {
+    Random random = new Random(4711);
+    List<MyBean> beans = new ArrayList<MyBean>();
+    for (int i = 0; i < 300; ++i) {
+      beans.add(new MyBean("" + (char)('a' + random.nextInt(20))));
+    }
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(new ArrayList<MyBean>(beans), BY_NAME);
+    Comparator<MyBean> sortComparator = null;
+    Filter filter = null;
+
+    for (int i = 0; i < 200; ++i) {
+      switch (random.nextInt(5)) {
+        case 0:
+          sortComparator = random.nextBoolean() ? BY_NAME_DESC : null;
+          items.sortItems(sortComparator);
+          break;
+        case 1:
+          filter = (filter != null && random.nextBoolean())
+              ? new NameFilter((char)('a' + random.nextInt(20)), (NameFilter) filter)
+              : (random.nextBoolean() ? new NameFilter((char)('a' + random.nextInt(20)), null) : null);
+          items.setItemFilter(filter);
+          break;
+        case 2:
+        case 3:
+          MyBean newBean = new MyBean("" + (char)('a' + random.nextInt(20)));
+          beans.add(newBean);
+          items.onAddItem(newBean);
+          break;
+        default:
+          if (!beans.isEmpty()) {
+            items.onRemoveItem(beans.remove(random.nextInt(beans.size())));
+          }
+      }
+
+      PageableListImpl<MyBean> reference = new PageableListImpl<MyBean>(beans, BY_NAME);
+      reference.sortItems(sortComparator);
+      reference.setItemFilter(filter);
+      assertEquals("Step " + i, toList(reference.getAllItemsIterator()), toList(items.getAllItemsIterator()));
+    }
+  }
+
+  @Test
+  public void testNarrowingFilterGetsOnlyAppliedToTheCurrentResult() {
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(TEST_ITEM_LIST);
+    NameFilter filter = new NameFilter('b', null);
+    items.setItemFilter(filter);
+    assertEquals(5, filter.calls);
+    assertEquals(4, items.getNumOfItems());
+
+    NameFilter narrowingFilter = new NameFilter('c', filter);
+    items.setItemFilter(narrowingFilter);
+    assertEquals("Only the four matching items get checked.", 4, narrowingFilter.calls);
+    assertEquals(Arrays.asList(TEST_ITEM_ARRAY[2], TEST_ITEM_ARRAY[3], TEST_ITEM_ARRAY[4]), toList(items.getAllItemsIterator()));
+  }
+
+  @Test
+  public void testAddedAndRemovedItemsChangeOnlyTheirOwnPosition() {
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(new ArrayList<MyBean>(TEST_ITEM_LIST));
+    items.setPageSize(2);
+    items.sortItems(BY_NAME_DESC);
+    items.setItemFilter(new NameFilter('b', null));
+    assertEquals(Arrays.asList(TEST_ITEM_ARRAY[4], TEST_ITEM_ARRAY[3]), items.getItemsOnPage());
+
+    MyBean bb = new MyBean("bb");
+    items.onAddItem(bb);
+    items.onAddItem(new MyBean("a"));
+    items.setCurrentPageIdx(2);
+    assertEquals(Arrays.asList(TEST_ITEM_ARRAY[2], bb), items.getItemsOnPage());
+
+    items.onRemoveItem(TEST_ITEM_ARRAY[2]);
+    assertEquals(Arrays.asList(bb, TEST_ITEM_ARRAY[1]), items.getItemsOnPage());
+    assertEquals(4, items.getNumOfItems());
+  }
+
+  @Test
+  public void testParallelOperationsProvideTheSameOrderAsSequentialOperations() {
+    Random random = new Random(4711);
+    List<MyBean> beans = new ArrayList<MyBean>();
+    for (int i = 0; i < 20000; ++i) {
+      beans.add(new MyBean("" + (char)('a' + random.nextInt(20)) + (char)('a' + random.nextInt(20))));
+    }
+    PageableListImpl<MyBean> sequential = new PageableListImpl<MyBean>(beans);
+    sequential.setParallelExecutor(null);
+    PageableListImpl<MyBean> parallel = new PageableListImpl<MyBean>(beans);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      parallel.setParallelExecutor(executor);
+      parallel.setParallelism(5);
+      parallel.setParallelThreshold(0);
+
+      for (Comparator<MyBean> c : Arrays.asList(BY_NAME, BY_NAME_DESC, null)) {
+        sequential.sortItems(c);
+        parallel.sortItems(c);
+        assertEquals(toList(sequential.getAllItemsIterator()), toList(parallel.getAllItemsIterator()));
+
+        Filter filter = new NameFilter('h', null);
+        sequential.setItemFilter(filter);
+        parallel.setItemFilter(filter);
+        assertEquals(toList(sequential.getAllItemsIterator()), toList(parallel.getAllItemsIterator()));
+        sequential.setItemFilter(null);
+        parallel.setItemFilter(null);
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testSelectAllStoresOnlyTheDeselectedItems() {
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(new ArrayList<MyBean>(TEST_ITEM_LIST));
+    items.setMultiSelect(true);
+    items.selectAll(true);
+    items.select(TEST_ITEM_ARRAY[1], false);
+
+    assertTrue(items.isSelected(TEST_ITEM_ARRAY[0]));
+    assertFalse(items.isSelected(TEST_ITEM_ARRAY[1]));
+    assertEquals(4, items.getSelectedItems().size());
+    assertEquals(Arrays.asList(TEST_ITEM_ARRAY[0], TEST_ITEM_ARRAY[2], TEST_ITEM_ARRAY[3], TEST_ITEM_ARRAY[4]),
+                 new ArrayList<MyBean>(items.getSelectedItems()));
+
+    items.onRemoveItem(TEST_ITEM_ARRAY[1]);
+    assertEquals(4, items.getSelectedItems().size());
+
+    items.selectAll(false);
+    assertTrue(items.getSelectedItems().isEmpty());
+  }
+
+  @Test
+  public void testSelectAllSelectsOnlyTheFilteredItemsIfThereIsAFilter() {
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(TEST_ITEM_LIST);
+    items.setMultiSelect(true);
+    items.setItemFilter(new NameFilter('d', null));
+    items.selectAll(true);
+    items.setItemFilter(null);
+
+    assertEquals(Arrays.asList(TEST_ITEM_ARRAY[3], TEST_ITEM_ARRAY[4]), new ArrayList<MyBean>(items.getSelectedItems()));
+  }
+
+  @Test
+  public void testSelectedItemsMayBeDeselectedWhileIteratingOverThem() {
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(new ArrayList<MyBean>(TEST_ITEM_LIST));
+    items.setMultiSelect(true);
+    items.select(TEST_ITEM_ARRAY[0], true);
+    items.select(TEST_ITEM_ARRAY[2], true);
+    for (MyBean b : items.getSelectedItems()) {
+      items.select(b, false);
+    }
+    assertTrue(items.getSelectedItems().isEmpty());
+
+    items.selectAll(true);
+    List<MyBean> iterated = new ArrayList<MyBean>();
+    for (MyBean b : items.getSelectedItems()) {
+      iterated.add(b);
+      items.select(b, false);
+      items.onRemoveItem(b);
+    }
+    assertEquals(TEST_ITEM_LIST, iterated);
+    assertTrue(items.getSelectedItems().isEmpty());
+  }
+
+  @Test
+  public void testItemsAddedAfterSelectAllAreNotSelected() {
+    PageableListImpl<MyBean> items = new PageableListImpl<MyBean>(new ArrayList<MyBean>(TEST_ITEM_LIST));
+    items.setMultiSelect(true);
+    items.selectAll(true);
+    MyBean newItem = new MyBean("f");
+    items.onAddItem(newItem);
+
+    assertFalse(items.isSelected(newItem));
+    assertEquals(5, items.getSelectedItems().size());
+    assertEquals(TEST_ITEM_LIST, new ArrayList<MyBean>(items.getSelectedItems()));
+  }
+
+  private static <T> List<T> toList(Iterator<T> iter) {
+    List<T> list = new ArrayList<T>();
+    while (iter.hasNext()) {
+      list.add(iter.next());
+    }
+    return list;
+  }
+
+  private static final Comparator<MyBean> BY_NAME = new Comparator<MyBean>() {
+    @Override
+    public int compare(MyBean o1, MyBean o2) {
+      return o1.name.compareTo(o2.name);
+    }
+  };
+
+  private static final Comparator<MyBean> BY_NAME_DESC = Collections.reverseOrder(BY_NAME);
+
+  /** Matches names that are greater or equal to a minimal name. */
+  static class NameFilter implements NarrowingFilter {
+    private final String minName;
+    private final NameFilter previous;
+    int calls;
+
+    public NameFilter(char minName, NameFilter previous) {
+      this.minName = previous != null && previous.minName.charAt(0) > minName
+          ? previous.minName
+          : "" + minName;
+      this.previous = previous;
+    }
+
+    @Override
+    public boolean doesItemMatch(Object item) {
+      ++calls;
+      return ((MyBean) item).name.compareTo(minName) >= 0;
+    }
+
+    @Override
+    public boolean isBeanFilter() {
+      return true;
+    }
+
+    @Override
+    public boolean isNarrowingOf(Filter previousFilter) {
+      return previousFilter == previous;
+    }
+  }
+
 
   static class MyBean {
     public String name;
@@ -0,0 +1,198 @@
+package org.pm4j.core.pm.impl.pageable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.filter.Filter;
+import org.pm4j.core.pm.pageable.PageableInMemoryDataProvider;
+import org.pm4j.core.pm.pageable.PageableLazyCollection;
+import org.pm4j.core.pm.pageable.PageableQuery;
+
+/**
+ * Tests the page wise item loading of {@link PageableLazyCollection}.
+ *
+ * @author olaf boede
+ */
+public class PageableLazyCollectionTest {
+
+  private List<Integer> values;
+  private CountingProvider provider;
+  private PageableLazyCollection<Integer, Integer> items;
+
+  @Before
+  public void setUp() {
+    values = new ArrayList<Integer>();
+    for (int i = 1; i <= 100; ++i) {
+      values.add(i);
+    }
+    provider = new CountingProvider(values);
+    items = new PageableLazyCollection<Integer, Integer>(provider);
+    items.setPageSize(10);
+  }
+
+  @Test
+  public void testPagesGetLoadedWithTheirFollowingPage() {
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), items.getItemsOnPage());
+    assertEquals("Current and next page are loaded by a single request.", 20, provider.loadedItems);
+
+    items.setCurrentPageIdx(2);
+    assertEquals(Integer.valueOf(11), items.getItemsOnPage().get(0));
+    assertEquals("The read ahead page is provided from the cache.", 20, provider.loadedItems);
+
+    items.setCurrentPageIdx(10);
+    assertEquals(Integer.valueOf(100), items.getItemsOnPage().get(9));
+    assertEquals("There is no page to read ahead.", 30, provider.loadedItems);
+  }
+
+  @Test
+  public void testTheCacheIsBounded() {
+    items.setMaxCachedItems(25);
+    for (int i = 1; i <= 10; i += 2) {
+      items.setCurrentPageIdx(i);
+      items.getItemsOnPage();
+    }
+    int loaded = provider.loadedItems;
+
+    items.setCurrentPageIdx(9);
+    items.getItemsOnPage();
+    assertEquals("The most recently loaded pages are kept.", loaded, provider.loadedItems);
+
+    items.setCurrentPageIdx(1);
+    items.getItemsOnPage();
+    assertTrue("The first page was evicted.", provider.loadedItems > loaded);
+  }
+
+  @Test
+  public void testSortAndFilterAreDelegatedToTheProvider() {
+    items.sortItems(Collections.reverseOrder());
+    items.setItemFilter(new Filter() {
+      @Override
+      public boolean doesItemMatch(Object item) {
+        return ((Integer) item) % 2 == 0;
+      }
+      @Override
+      public boolean isBeanFilter() {
+        return true;
+      }
+    });
+
+    assertEquals(50, items.getNumOfItems());
+    assertEquals(100, items.getNumOfUnfilteredItems());
+    assertEquals(Arrays.asList(100, 98, 96, 94, 92, 90, 88, 86, 84, 82), items.getItemsOnPage());
+
+    int count = 0;
+    for (Iterator<Integer> it = items.getAllItemsIterator(); it.hasNext(); it.next()) {
+      ++count;
+    }
+    assertEquals(50, count);
+  }
+
+  @Test
+  public void testSelectionIsTrackedById() {
+    items.setMultiSelect(true);
+    items.select(3, true);
+    items.select(95, true);
+    items.sortItems(Collections.reverseOrder());
+    items.getItemsOnPage();
+
+    assertTrue(items.isSelected(3));
+    assertFalse(items.isSelected(4));
+    assertEquals(Arrays.asList(3, 95), new ArrayList<Integer>(items.getSelectedItems()));
+    assertEquals("Items behind the loaded pages are fetched by id.", 1, provider.loadedItemsById);
+  }
+
+  @Test
+  public void testSelectAllDoesNotLoadItems() {
+    items.setMultiSelect(true);
+    items.selectAll(true);
+    items.select(2, false);
+
+    assertEquals(0, provider.loadedItems);
+    assertTrue(items.isSelected(1));
+    assertFalse(items.isSelected(2));
+    assertEquals(99, items.getSelectedItems().size());
+    assertEquals(0, provider.loadedItems);
+
+    int sum = 0;
+    for (Integer i : items.getSelectedItems()) {
+      sum += i;
+    }
+    assertEquals(5050 - 2, sum);
+  }
+
+  @Test
+  public void testItemsAddedAfterSelectAllAreNotSelected() {
+    items.setMultiSelect(true);
+    items.selectAll(true);
+    values.add(101);
+    items.onAddItem(101);
+
+    assertFalse(items.isSelected(101));
+    assertEquals(100, items.getSelectedItems().size());
+    int sum = 0;
+    for (Integer i : items.getSelectedItems()) {
+      sum += i;
+    }
+    assertEquals(5050, sum);
+  }
+
+  @Test
+  public void testReadAheadInBackground() {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    items.setReadAheadExecutor(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        tasks.add(command);
+      }
+    });
+
+    items.getItemsOnPage();
+    assertEquals("Only the current page is loaded immediately.", 10, provider.loadedItems);
+    assertEquals(1, tasks.size());
+
+    tasks.get(0).run();
+    assertEquals(20, provider.loadedItems);
+    items.setCurrentPageIdx(2);
+    assertEquals(Integer.valueOf(11), items.getItemsOnPage().get(0));
+    assertEquals(20, provider.loadedItems);
+  }
+
+  static class CountingProvider extends PageableInMemoryDataProvider<Integer, Integer> {
+    int loadedItems;
+    int loadedItemsById;
+
+    public CountingProvider(Collection<Integer> items) {
+      super(items);
+    }
+
+    @Override
+    public List<Integer> getItems(PageableQuery query, int offset, int count) {
+      List<Integer> list = super.getItems(query, offset, count);
+      loadedItems += list.size();
+      return list;
+    }
+
+    @Override
+    public Integer getItemForId(Integer id) {
+      ++loadedItemsById;
+      return super.getItemForId(id);
+    }
+
+    @Override
+    public Integer getIdForItem(Integer item) {
+      return item;
+    }
+  }
+
+}
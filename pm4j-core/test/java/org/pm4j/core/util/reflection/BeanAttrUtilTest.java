@@ -13,6 +13,19 @@ public class BeanAttrUtilTest extends TestCase {
     assertEquals("hello", BeanAttrUtil.resolveReflectionPath(a, "refToB.myString"));
   }
 
+  public void testSharedAccessorForSubAndOtherClasses() {
+    BeanAttrAccessor a = BeanAttrAccessorFactory.getAccessor(MyBeanC.class, "name");
+    assertSame(a, BeanAttrAccessorFactory.getAccessor(MyBeanC.class, "name"));
+
+    assertEquals("c", a.getBeanAttrValue(new MyBeanC()));
+    assertEquals("The overriding getter gets called.", "subC", a.getBeanAttrValue(new MySubBeanC()));
+    assertEquals("A getter with the same name of another class.", "other", a.getBeanAttrValue(new MyOtherBean()));
+
+    MySubBeanC subC = new MySubBeanC();
+    a.setBeanAttrValue(subC, "x");
+    assertEquals("subC:x", subC.name);
+  }
+
   public static class MyBeanA {
     public MyBeanB refToB;
   }
@@ -20,4 +33,19 @@ public class BeanAttrUtilTest extends TestCase {
   public static class MyBeanB {
     public String myString = "hello";
   }
+
+  public static class MyBeanC {
+    String name = "c";
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+  }
+
+  public static class MySubBeanC extends MyBeanC {
+    @Override public String getName() { return "subC"; }
+    @Override public void setName(String name) { this.name = "subC:" + name; }
+  }
+
+  public static class MyOtherBean {
+    public String getName() { return "other"; }
+  }
 }
@@ -76,4 +76,12 @@ public class ClassPathResourceFinderTest extends TestCase {
     assertEquals("d.M.yy|dd.MM.yyyy", finder.findString(getClass(), "pmAttrDate_defaultFormat", Locale.GERMAN));
   }
 
+  public void testPreloadedIndexAnswersMissingKeys() {
+    ClassPathResourceFinder finder = ClassPathResourceFinder.instance();
+    finder.preload(Locale.GERMAN, getClass(), String.class);
+
+    assertNull(finder.findString(getClass(), "no.such.key", Locale.GERMAN));
+    assertEquals("d.M.yy|dd.MM.yyyy", finder.findString(String.class, "pmAttrDate_defaultFormat", Locale.GERMAN));
+  }
+
 }